@@ -0,0 +1,90 @@
+package com.viasoft.email.carga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dto.EmailDTO;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Corpos de {@code /api/email/enviar-email} gerados a partir de uma semente, para que duas
+ * execuções mandem exatamente as mesmas requisições na mesma ordem. Uma fração é inválida, em
+ * variações que exercitam caminhos diferentes de recusa (formato, obrigatório, tamanho, JSON
+ * quebrado); cada corpo guarda o status que a API deve responder.
+ */
+final class CorpusCarga {
+
+    static final int ACEITO = 202;
+    static final int INVALIDO = 400;
+
+    private static final String LETRAS = "abcdefghijklmnopqrstuvwxyzáéíóúãõç ";
+
+    private final byte[][] corpos;
+    private final int[] statusEsperados;
+
+    private CorpusCarga(byte[][] corpos, int[] statusEsperados) {
+        this.corpos = corpos;
+        this.statusEsperados = statusEsperados;
+    }
+
+    static CorpusCarga gerar(int tamanho, double fracaoInvalidos, long semente, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        Random aleatorio = new Random(semente);
+        byte[][] corpos = new byte[tamanho][];
+        int[] status = new int[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            EmailDTO email = new EmailDTO();
+            // Válido também nos limites do provedor mais restritivo (OCI), senão vira 400 na adaptação
+            email.setDestinatarioEmail("d" + i + "@exemplo.com.br");
+            email.setDestinatarioNome(texto(aleatorio, 5, 50));
+            email.setRemetenteEmail("remetente@exemplo.com.br");
+            email.setAssunto(texto(aleatorio, 10, 100));
+            email.setConteudo(texto(aleatorio, 20, 250));
+            status[i] = ACEITO;
+            if (aleatorio.nextDouble() < fracaoInvalidos) {
+                status[i] = INVALIDO;
+                switch (aleatorio.nextInt(5)) {
+                    case 0 -> email.setDestinatarioEmail("sem-arroba.exemplo.com.br");
+                    case 1 -> email.setDestinatarioNome(" ");
+                    case 2 -> email.setAssunto(null);
+                    case 3 -> email.setConteudo(texto(aleatorio, 1001, 2000));
+                    default -> {
+                        // JSON cortado no meio: falha antes da validação, no binding
+                        byte[] json = objectMapper.writeValueAsBytes(email);
+                        corpos[i] = Arrays.copyOf(json, json.length / 2);
+                        continue;
+                    }
+                }
+            }
+            corpos[i] = objectMapper.writeValueAsBytes(email);
+        }
+        return new CorpusCarga(corpos, status);
+    }
+
+    int tamanho() {
+        return corpos.length;
+    }
+
+    byte[] corpo(long indice) {
+        return corpos[(int) (indice % corpos.length)];
+    }
+
+    int statusEsperado(long indice) {
+        return statusEsperados[(int) (indice % statusEsperados.length)];
+    }
+
+    long invalidos() {
+        return Arrays.stream(statusEsperados).filter(s -> s == INVALIDO).count();
+    }
+
+    private static String texto(Random aleatorio, int minimo, int maximo) {
+        int tamanho = minimo + aleatorio.nextInt(maximo - minimo + 1);
+        StringBuilder texto = new StringBuilder(tamanho);
+        texto.append('A');
+        while (texto.length() < tamanho) {
+            texto.append(LETRAS.charAt(aleatorio.nextInt(LETRAS.length())));
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.viasoft.email.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador em modelo aberto: a requisição {@code i} tem horário marcado, {@code inicio + i / taxa},
+ * e sai nesse horário independentemente de as anteriores já terem voltado, como clientes
+ * independentes chegando na API.
+ * <p>
+ * A latência é medida a partir do horário marcado, não do envio efetivo. Se a API (ou o próprio
+ * gerador) travar por um segundo, as requisições que deveriam ter saído nesse segundo contam o
+ * atraso que os clientes de verdade sentiriam; medir do envio esconderia essa fila
+ * (coordinated omission). O tempo de serviço, do envio até a resposta, vai num histograma à
+ * parte só para comparação.
+ * <p>
+ * O aquecimento roda na mesma taxa, mas fica fora dos histogramas e dos contadores.
+ */
+final class GeradorCarga {
+
+    // Maior latência registrável; acima disso o valor é truncado
+    private static final long MAXIMO_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int EXEMPLOS_MAXIMOS = 10;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI alvo;
+    private final CorpusCarga corpus;
+    private final double taxaPorSegundo;
+    private final Duration aquecimento;
+    private final Duration duracao;
+    private final Duration timeout;
+
+    GeradorCarga(URI alvo, CorpusCarga corpus, double taxaPorSegundo, Duration aquecimento, Duration duracao,
+                 Duration timeout) {
+        this.alvo = alvo;
+        this.corpus = corpus;
+        this.taxaPorSegundo = taxaPorSegundo;
+        this.aquecimento = aquecimento;
+        this.duracao = duracao;
+        this.timeout = timeout;
+    }
+
+    ResultadoCarga executar() throws InterruptedException {
+        Histogram corrigida = new ConcurrentHistogram(MAXIMO_MICROS, 3);
+        Histogram servico = new ConcurrentHistogram(MAXIMO_MICROS, 3);
+        AtomicLong medidas = new AtomicLong();
+        AtomicLong concluidasNaJanela = new AtomicLong();
+        AtomicLong inesperadas = new AtomicLong();
+        Queue<String> exemplos = new ConcurrentLinkedQueue<>();
+
+        double intervaloNanos = TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo;
+        // Pequena folga para a primeira requisição não nascer atrasada
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        long inicioMedicao = inicio + aquecimento.toNanos();
+        long fimMedicao = inicioMedicao + duracao.toNanos();
+        long atrasoMaximoNanos = 0;
+        List<CompletableFuture<?>> pendentes = new ArrayList<>();
+
+        for (long i = 0; ; i++) {
+            long previsto = inicio + (long) (i * intervaloNanos);
+            if (previsto >= fimMedicao) {
+                break;
+            }
+            long agora;
+            while ((agora = System.nanoTime()) < previsto) {
+                LockSupport.parkNanos(previsto - agora);
+            }
+            atrasoMaximoNanos = Math.max(atrasoMaximoNanos, agora - previsto);
+
+            boolean medida = previsto >= inicioMedicao;
+            int esperado = corpus.statusEsperado(i);
+            HttpRequest requisicao = HttpRequest.newBuilder(alvo)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(corpus.corpo(i)))
+                    .build();
+            long enviado = System.nanoTime();
+            pendentes.add(cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        long fim = System.nanoTime();
+                        if (!medida) {
+                            return;
+                        }
+                        medidas.incrementAndGet();
+                        corrigida.recordValue(Math.min(MAXIMO_MICROS, (fim - previsto) / 1_000));
+                        servico.recordValue(Math.min(MAXIMO_MICROS, (fim - enviado) / 1_000));
+                        int status = resposta == null ? -1 : resposta.statusCode();
+                        if (status == esperado && fim <= fimMedicao) {
+                            concluidasNaJanela.incrementAndGet();
+                        }
+                        if (status != esperado) {
+                            inesperadas.incrementAndGet();
+                            if (exemplos.size() < EXEMPLOS_MAXIMOS) {
+                                exemplos.add("esperado " + esperado + ", recebido "
+                                        + (erro != null ? erro.toString() : status));
+                            }
+                        }
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new))
+                    .exceptionally(erro -> null)
+                    .get(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            exemplos.add("Requisições sem resposta no fim da carga: " + e);
+        }
+
+        return new ResultadoCarga(corrigida, servico, medidas.get(), concluidasNaJanela.get(), inesperadas.get(),
+                List.copyOf(exemplos), duracao, TimeUnit.NANOSECONDS.toMillis(atrasoMaximoNanos));
+    }
+
+    /**
+     * @param latenciaCorrigida  do horário marcado até a resposta, em µs
+     * @param tempoServico       do envio efetivo até a resposta, em µs
+     * @param medidas            requisições marcadas dentro da janela de medição
+     * @param concluidasNaJanela respostas com o status esperado que chegaram dentro da janela (base da vazão)
+     * @param inesperadas        status diferente do esperado pelo corpus, ou erro de rede/timeout
+     * @param atrasoMaximoMs     maior atraso do próprio gerador para disparar; alto = gerador saturado
+     */
+    record ResultadoCarga(Histogram latenciaCorrigida, Histogram tempoServico, long medidas,
+                          long concluidasNaJanela, long inesperadas, List<String> exemplos, Duration duracao,
+                          long atrasoMaximoMs) {
+
+        double vazaoPorSegundo() {
+            return concluidasNaJanela * 1000.0 / duracao.toMillis();
+        }
+    }
+}
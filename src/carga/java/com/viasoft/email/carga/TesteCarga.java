@@ -0,0 +1,174 @@
+package com.viasoft.email.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.EmailApiApplication;
+import com.viasoft.email.simulador.ConfiguracaoSimulador;
+import com.viasoft.email.simulador.SimuladorProvedor;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Teste de carga de ponta a ponta: sobe o {@link SimuladorProvedor} e a aplicação no mesmo
+ * processo (transporte HTTP até o simulador, spool e auditoria em {@code target/carga}), dispara
+ * {@code /api/email/enviar-email} em taxa fixa com o {@link GeradorCarga} e compara o resultado
+ * com os SLOs de {@code carga.properties}. Algum SLO violado = código de saída 1, e o build falha.
+ * <p>
+ * {@code ./mvnw -Pcarga test-compile exec:exec}; para mudar valores do arquivo sem editá-lo,
+ * {@code -Dcarga.args="carga.taxa-por-segundo=500 --spring.profiles.active=virtual"}
+ * ({@code chave=valor} sobrescreve o arquivo, {@code --x=y} vai para a aplicação).
+ * <p>
+ * Os histogramas ficam em {@code target/carga/*.hgrm} (em ms), no formato do HdrHistogram
+ * plotter.
+ */
+public final class TesteCarga {
+
+    private static final Path DIRETORIO = Path.of("target", "carga");
+
+    private TesteCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        try (InputStream arquivo = TesteCarga.class.getResourceAsStream("/carga.properties")) {
+            config.load(arquivo);
+        }
+        List<String> argumentosApp = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                argumentosApp.add(arg);
+            } else if (arg.contains("=")) {
+                config.setProperty(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        FileSystemUtils.deleteRecursively(DIRETORIO);
+        Files.createDirectories(DIRETORIO);
+        ObjectMapper objectMapper = new ObjectMapper();
+        CorpusCarga corpus = CorpusCarga.gerar(inteiro(config, "carga.tamanho-corpus"),
+                decimal(config, "carga.fracao-invalidos"), Long.parseLong(config.getProperty("carga.semente")),
+                objectMapper);
+
+        GeradorCarga.ResultadoCarga resultado;
+        try (SimuladorProvedor simulador = new SimuladorProvedor(configuracaoSimulador(config));
+             ConfigurableApplicationContext app = iniciarApp(simulador, argumentosApp)) {
+            URI alvo = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port")
+                    + "/api/email/enviar-email");
+            double taxa = decimal(config, "carga.taxa-por-segundo");
+            System.out.printf("Carga: %.0f req/s, %d s de aquecimento + %d s medidos, %d corpos (%d inválidos)%n",
+                    taxa, inteiro(config, "carga.aquecimento-segundos"), inteiro(config, "carga.duracao-segundos"),
+                    corpus.tamanho(), corpus.invalidos());
+            resultado = new GeradorCarga(alvo, corpus, taxa,
+                    Duration.ofSeconds(inteiro(config, "carga.aquecimento-segundos")),
+                    Duration.ofSeconds(inteiro(config, "carga.duracao-segundos")),
+                    Duration.ofSeconds(inteiro(config, "carga.timeout-segundos"))).executar();
+            System.out.println("Provedor simulado: " + simulador.getEstatisticas());
+        }
+
+        relatar(resultado);
+        List<String> violacoes = verificar(resultado, config);
+        if (violacoes.isEmpty()) {
+            System.out.println("SLOs atendidos");
+            System.exit(0);
+        }
+        violacoes.forEach(violacao -> System.out.println("SLO VIOLADO: " + violacao));
+        System.exit(1);
+    }
+
+    private static ConfiguracaoSimulador configuracaoSimulador(Properties config) {
+        List<String> argumentos = new ArrayList<>();
+        argumentos.add("--porta=0");
+        for (String chave : config.stringPropertyNames()) {
+            if (chave.startsWith("carga.simulador.")) {
+                argumentos.add("--" + chave.substring("carga.simulador.".length()) + "=" + config.getProperty(chave));
+            }
+        }
+        return ConfiguracaoSimulador.deArgumentos(argumentos.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext iniciarApp(SimuladorProvedor simulador, List<String> extras) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--mail.transporte.tipo=HTTP",
+                "--mail.transporte.url=" + simulador.getUrl(),
+                "--mail.spool.diretorio=" + DIRETORIO.resolve("spool"),
+                "--mail.auditoria.diretorio=" + DIRETORIO.resolve("auditoria"),
+                "--mail.retry.diretorio-mensagens-mortas=" + DIRETORIO.resolve("mensagens-mortas"),
+                "--mail.templates.diretorio=" + DIRETORIO.resolve("templates"),
+                // application.properties deixa alguns pacotes em DEBUG; sob carga isso domina a CPU
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.hibernate.validator=WARN",
+                "--logging.level.com.viasoft.email=WARN"));
+        // Os extras vêm por último e prevalecem
+        argumentos.addAll(extras);
+        return new SpringApplicationBuilder(EmailApiApplication.class).run(argumentos.toArray(String[]::new));
+    }
+
+    private static void relatar(GeradorCarga.ResultadoCarga resultado) throws IOException {
+        Histogram corrigida = resultado.latenciaCorrigida();
+        System.out.printf("Requisições medidas: %d, respostas inesperadas: %d, vazão: %.1f req/s, "
+                        + "maior atraso do gerador: %d ms%n", resultado.medidas(), resultado.inesperadas(),
+                resultado.vazaoPorSegundo(), resultado.atrasoMaximoMs());
+        System.out.printf("Latência (desde o horário marcado), ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                ms(corrigida, 50), ms(corrigida, 90), ms(corrigida, 99), ms(corrigida, 99.9),
+                corrigida.getMaxValue() / 1000.0);
+        Histogram servico = resultado.tempoServico();
+        System.out.printf("Tempo de serviço (desde o envio), ms:    p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                ms(servico, 50), ms(servico, 90), ms(servico, 99), ms(servico, 99.9), servico.getMaxValue() / 1000.0);
+        resultado.exemplos().forEach(exemplo -> System.out.println("  " + exemplo));
+        gravar(corrigida, "latencia-corrigida.hgrm");
+        gravar(servico, "tempo-servico.hgrm");
+    }
+
+    private static List<String> verificar(GeradorCarga.ResultadoCarga resultado, Properties config) {
+        List<String> violacoes = new ArrayList<>();
+        double p99 = ms(resultado.latenciaCorrigida(), 99);
+        double p999 = ms(resultado.latenciaCorrigida(), 99.9);
+        if (p99 > decimal(config, "slo.p99-maximo-ms")) {
+            violacoes.add(String.format("p99 %.2f ms > %s ms", p99, config.getProperty("slo.p99-maximo-ms")));
+        }
+        if (p999 > decimal(config, "slo.p999-maximo-ms")) {
+            violacoes.add(String.format("p99.9 %.2f ms > %s ms", p999, config.getProperty("slo.p999-maximo-ms")));
+        }
+        if (resultado.vazaoPorSegundo() < decimal(config, "slo.vazao-minima-por-segundo")) {
+            violacoes.add(String.format("vazão %.1f req/s < %s req/s", resultado.vazaoPorSegundo(),
+                    config.getProperty("slo.vazao-minima-por-segundo")));
+        }
+        if (resultado.inesperadas() > inteiro(config, "slo.respostas-inesperadas-maximas")) {
+            violacoes.add(resultado.inesperadas() + " respostas inesperadas > "
+                    + config.getProperty("slo.respostas-inesperadas-maximas"));
+        }
+        return violacoes;
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000.0;
+    }
+
+    private static void gravar(Histogram histograma, String arquivo) throws IOException {
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(DIRETORIO.resolve(arquivo)))) {
+            histograma.outputPercentileDistribution(saida, 1000.0);
+        }
+    }
+
+    private static int inteiro(Properties config, String chave) {
+        return Integer.parseInt(config.getProperty(chave).trim());
+    }
+
+    private static double decimal(Properties config, String chave) {
+        return Double.parseDouble(config.getProperty(chave).trim());
+    }
+}
@@ -0,0 +1,204 @@
+package com.viasoft.email.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.email.audit.AuditoriaEnvio;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dispatch.TransporteEmailSender;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.service.EmailServiceImpl;
+import com.viasoft.email.validation.ValidadorRapido;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho quente de uma mensagem: adaptação para AWS/OCI, validação do DTO adaptado
+ * (Hibernate x {@link ValidadorRapido}) e serialização Jackson do DTO adaptado.
+ * <p>
+ * Cada invocação usa a próxima mensagem de um conjunto pré-gerado cujo tamanho segue a
+ * {@link #distribuicao} escolhida; MISTO é a mistura observada em produção (maioria curta,
+ * alguns no limite do OCI). Rodar com {@code -prof gc} para a taxa de alocação.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaminhoEnvioBenchmark {
+
+    private static final int MENSAGENS = 1024;
+
+    @Param({"CURTO", "TIPICO", "LIMITE", "MISTO"})
+    public String distribuicao;
+
+    private EmailDTO[] emails;
+    private EmailAwsDTO[] emailsAws;
+    private EmailOciDTO[] emailsOci;
+    private int proximo;
+
+    private EmailServiceImpl emailService;
+    private AwsProviderAdapter aws;
+    private Validator validator;
+    private ValidadorRapido validadorRapido;
+    private ObjectWriter escritorAws;
+    private ObjectWriter escritorOci;
+    private TransporteEmailSender transporteEmailSender;
+    private MensagemEmail[] mensagensAws;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validadorRapido = new ValidadorRapido(validator, EmailDTO.class, EmailAwsDTO.class, EmailOciDTO.class);
+        emailService = new EmailServiceImpl(validadorRapido, ProviderRegistry.padrao());
+        aws = new AwsProviderAdapter();
+        ObjectMapper objectMapper = new ObjectMapper();
+        escritorAws = objectMapper.writerFor(EmailAwsDTO.class);
+        escritorOci = objectMapper.writerFor(EmailOciDTO.class);
+
+        EmailProperties properties = new EmailProperties();
+        properties.getAuditoria().setHabilitada(false);
+        AuditoriaEnvio auditoria = new AuditoriaEnvio(properties, objectMapper, new SimpleMeterRegistry());
+        // Transporte que só consome o corpo: mede a serialização no buffer do worker
+        transporteEmailSender = new TransporteEmailSender(objectMapper,
+                (mensagem, corpo) -> this.blackhole.consume(corpo.remaining()), auditoria);
+
+        Random random = new Random(42);
+        emails = new EmailDTO[MENSAGENS];
+        emailsAws = new EmailAwsDTO[MENSAGENS];
+        emailsOci = new EmailOciDTO[MENSAGENS];
+        mensagensAws = new MensagemEmail[MENSAGENS];
+        for (int i = 0; i < MENSAGENS; i++) {
+            emails[i] = criarEmail(random, tamanho(random), i);
+            emailsAws[i] = emailService.adaptarParaAws(emails[i]);
+            emailsOci[i] = emailService.adaptarParaOci(emails[i]);
+            mensagensAws[i] = new MensagemEmail(String.valueOf(i), emails[i], aws, emailsAws[i]);
+        }
+    }
+
+    private String tamanho(Random random) {
+        if (!"MISTO".equals(distribuicao)) {
+            return distribuicao;
+        }
+        int sorteio = random.nextInt(100);
+        return sorteio < 60 ? "CURTO" : sorteio < 90 ? "TIPICO" : "LIMITE";
+    }
+
+    // Todos os tamanhos cabem nos limites do OCI (o mais restrito), então as mensagens são válidas
+    private static EmailDTO criarEmail(Random random, String tamanho, int i) {
+        int nome;
+        int assunto;
+        int conteudo;
+        switch (tamanho) {
+            case "CURTO" -> {
+                nome = 12;
+                assunto = 20;
+                conteudo = 40 + random.nextInt(40);
+            }
+            case "TIPICO" -> {
+                nome = 25;
+                assunto = 60;
+                conteudo = 150 + random.nextInt(60);
+            }
+            default -> {
+                nome = 50;
+                assunto = 100;
+                conteudo = 250;
+            }
+        }
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario" + i + "@example.com");
+        dto.setDestinatarioNome(texto(random, nome));
+        dto.setRemetenteEmail("nao-responda@example.com.br");
+        dto.setAssunto(texto(random, assunto));
+        dto.setConteudo(texto(random, conteudo));
+        return dto;
+    }
+
+    private static String texto(Random random, int tamanho) {
+        String alfabeto = "abcdefghijklmnopqrstuvwxyz áéçãõ";
+        StringBuilder sb = new StringBuilder(tamanho);
+        sb.append('A');
+        while (sb.length() < tamanho) {
+            sb.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+        }
+        return sb.toString();
+    }
+
+    private int proximo() {
+        int i = proximo;
+        proximo = (i + 1) & (MENSAGENS - 1);
+        return i;
+    }
+
+    @Benchmark
+    public EmailAwsDTO adaptarParaAws() {
+        return emailService.adaptarParaAws(emails[proximo()]);
+    }
+
+    @Benchmark
+    public EmailOciDTO adaptarParaOci() {
+        return emailService.adaptarParaOci(emails[proximo()]);
+    }
+
+    // O que validateAdaptedDTO fazia antes do ValidadorRapido
+    @Benchmark
+    public Object validarAwsHibernate() {
+        return validator.validate(emailsAws[proximo()]);
+    }
+
+    @Benchmark
+    public Object validarAwsRapido() {
+        return validadorRapido.validar(emailsAws[proximo()]);
+    }
+
+    @Benchmark
+    public Object validarOciRapido() {
+        return validadorRapido.validar(emailsOci[proximo()]);
+    }
+
+    // Caminho completo do serviço: adapta e valida (passada combinada entrada + provedor)
+    @Benchmark
+    public EmailAwsDTO adaptarEValidarAws() {
+        return emailService.adaptarEmailParaIntegracao(emails[proximo()], aws);
+    }
+
+    @Benchmark
+    public byte[] serializarAws() throws Exception {
+        return escritorAws.writeValueAsBytes(emailsAws[proximo()]);
+    }
+
+    @Benchmark
+    public byte[] serializarOci() throws Exception {
+        return escritorOci.writeValueAsBytes(emailsOci[proximo()]);
+    }
+
+    // Caminho do worker: serialização direta no buffer reaproveitado (sem byte[] por mensagem)
+    @Benchmark
+    public void enviarAwsBufferWorker() throws Exception {
+        transporteEmailSender.enviar(mensagensAws[proximo()]);
+    }
+}
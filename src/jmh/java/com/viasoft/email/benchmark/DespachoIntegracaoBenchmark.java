@@ -0,0 +1,90 @@
+package com.viasoft.email.benchmark;
+
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.provider.ProviderRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de escolher o provedor e adaptar o DTO: cadeia de equalsIgnoreCase
+ * (implementação anterior, duas vezes por mensagem) x lookup no {@link ProviderRegistry}.
+ * A validação fica de fora para isolar o despacho.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DespachoIntegracaoBenchmark {
+
+    @Param({"AWS", "OCI", "oci"})
+    public String integracao;
+
+    private ProviderRegistry registry;
+    private EmailDTO emailDTO;
+
+    @Setup
+    public void setUp() {
+        registry = ProviderRegistry.padrao();
+        emailDTO = new EmailDTO();
+        emailDTO.setDestinatarioEmail("destinatario@example.com");
+        emailDTO.setDestinatarioNome("Destinatário");
+        emailDTO.setRemetenteEmail("remetente@example.com");
+        emailDTO.setAssunto("Assunto");
+        emailDTO.setConteudo("Conteúdo");
+    }
+
+    @Benchmark
+    public Object ramificacaoString() {
+        Object emailAdaptado;
+        if ("AWS".equalsIgnoreCase(integracao)) {
+            EmailAwsDTO awsDTO = new EmailAwsDTO();
+            awsDTO.setRecipient(emailDTO.getDestinatarioEmail());
+            awsDTO.setRecipientName(emailDTO.getDestinatarioNome());
+            awsDTO.setSender(emailDTO.getRemetenteEmail());
+            awsDTO.setSubject(emailDTO.getAssunto());
+            awsDTO.setContent(emailDTO.getConteudo());
+            emailAdaptado = awsDTO;
+        } else if ("OCI".equalsIgnoreCase(integracao)) {
+            EmailOciDTO ociDTO = new EmailOciDTO();
+            ociDTO.setRecipientEmail(emailDTO.getDestinatarioEmail());
+            ociDTO.setRecipientName(emailDTO.getDestinatarioNome());
+            ociDTO.setSenderEmail(emailDTO.getRemetenteEmail());
+            ociDTO.setSubject(emailDTO.getAssunto());
+            ociDTO.setBody(emailDTO.getConteudo());
+            emailAdaptado = ociDTO;
+        } else {
+            throw new IllegalArgumentException("Tipo de integração desconhecido: " + integracao);
+        }
+
+        // Segunda cadeia: escolha do tipo para validação
+        Class<?> tipoValidacao;
+        if ("AWS".equalsIgnoreCase(integracao)) {
+            tipoValidacao = EmailAwsDTO.class;
+        } else if ("OCI".equalsIgnoreCase(integracao)) {
+            tipoValidacao = EmailOciDTO.class;
+        } else {
+            throw new IllegalArgumentException("Tipo de DTO inválido para validação: " + integracao);
+        }
+        return tipoValidacao.cast(emailAdaptado);
+    }
+
+    @Benchmark
+    public Object registro() {
+        return registry.obter(integracao).adaptar(emailDTO);
+    }
+}
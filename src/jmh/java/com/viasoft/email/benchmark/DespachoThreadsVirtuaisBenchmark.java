@@ -0,0 +1,112 @@
+package com.viasoft.email.benchmark;
+
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dispatch.RetryEnvio;
+import com.viasoft.email.dispatch.SpoolEnvio;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga de envios com I/O bloqueante no provedor (sleep de {@link #latenciaMs}, como uma
+ * chamada HTTP): pool fixo de workers x virtual threads no {@link EmailDispatcher}.
+ * <p>
+ * Cada invocação dispara {@link #MENSAGENS} envios e espera todos terminarem; o tempo mostra
+ * a vazão e o pico de envios simultâneos é impresso ao fim de cada iteração. O modo VIRTUAL
+ * só vale rodando em Java 21 ({@code JAVA_HOME=<jdk21> ./mvnw -Pjmh ...}); em Java 17 o
+ * dispatcher ignora a propriedade e os dois modos medem o pool fixo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DespachoThreadsVirtuaisBenchmark {
+
+    private static final int MENSAGENS = 10_000;
+
+    @Param({"PLATAFORMA", "VIRTUAL"})
+    public String modo;
+
+    // Mesmo teto de threads do Tomcat padrão
+    @Param({"200"})
+    public int workers;
+
+    @Param({"50"})
+    public int latenciaMs;
+
+    private final AtomicInteger emVoo = new AtomicInteger();
+    private final AtomicInteger picoEmVoo = new AtomicInteger();
+    private final AwsProviderAdapter aws = new AwsProviderAdapter();
+    private final EmailDTO emailDTO = new EmailDTO();
+    private final EmailAwsDTO emailAwsDTO = new EmailAwsDTO();
+
+    private EmailDispatcher dispatcher;
+    private volatile CountDownLatch concluidos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", String.valueOf("VIRTUAL".equals(modo)));
+        dispatcher = new EmailDispatcher(mensagem -> {
+            int atual = emVoo.incrementAndGet();
+            picoEmVoo.accumulateAndGet(atual, Math::max);
+            try {
+                Thread.sleep(latenciaMs);
+            } finally {
+                emVoo.decrementAndGet();
+                concluidos.countDown();
+            }
+        }, workers, MENSAGENS, environment, SpoolEnvio.NENHUM, RetryEnvio.NENHUM);
+        if ("VIRTUAL".equals(modo) && !dispatcher.isThreadsVirtuais()) {
+            System.out.println("Virtual threads indisponíveis nesta JVM; medindo o pool fixo");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepararRodada() {
+        concluidos = new CountDownLatch(MENSAGENS);
+    }
+
+    @Benchmark
+    public void enviarLote() throws InterruptedException {
+        for (int i = 0; i < MENSAGENS; i++) {
+            try {
+                dispatcher.enfileirar(emailDTO, aws, emailAwsDTO);
+            } catch (FilaCheiaException e) {
+                concluidos.countDown();
+            }
+        }
+        concluidos.await();
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatarPico() {
+        System.out.println("pico de envios em voo: " + picoEmVoo.getAndSet(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        dispatcher.encerrar();
+    }
+}
@@ -0,0 +1,105 @@
+package com.viasoft.email.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.spool.SpoolMapeado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Gravações no spool com fsync antes de retornar: uma thread (um fsync por mensagem) x 16
+ * threads simultâneas, em que um único fsync cobre as mensagens de todas (group commit).
+ * {@code gravarEConfirmar} inclui a confirmação e, com ela, a rotação e a compactação dos
+ * segmentos. O diretório fica em {@code target/spool-benchmark}, no mesmo disco do projeto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpoolBenchmark {
+
+    private final AwsProviderAdapter aws = new AwsProviderAdapter();
+    private final EmailDTO original = new EmailDTO();
+    private Object adaptado;
+    private Path diretorio;
+    private SpoolMapeado spool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        original.setDestinatarioEmail("destinatario@empresa.com.br");
+        original.setDestinatarioNome("Destinatário Benchmark");
+        original.setRemetenteEmail("remetente@empresa.com.br");
+        original.setAssunto("Confirmação do pedido 123456");
+        original.setConteudo("Olá, seu pedido foi recebido e está sendo processado.");
+        adaptado = aws.adaptar(original);
+        diretorio = Path.of("target", "spool-benchmark");
+        apagar(diretorio);
+        spool = new SpoolMapeado(diretorio, 64 * 1024 * 1024, Duration.ofMillis(50),
+                new ObjectMapper(), ProviderRegistry.padrao());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        spool.close();
+        apagar(diretorio);
+    }
+
+    private static void apagar(Path diretorio) throws IOException {
+        if (Files.exists(diretorio)) {
+            try (Stream<Path> arquivos = Files.walk(diretorio)) {
+                for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(arquivo);
+                }
+            }
+        }
+    }
+
+    private MensagemEmail mensagem() {
+        return new MensagemEmail(UUID.randomUUID().toString(), original, aws, adaptado);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void gravarUmaThread() {
+        spool.gravar(mensagem());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void gravar16Threads() {
+        spool.gravar(mensagem());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void gravarEConfirmar16Threads() {
+        MensagemEmail mensagem = mensagem();
+        spool.gravar(mensagem);
+        spool.confirmar(mensagem.id());
+    }
+}
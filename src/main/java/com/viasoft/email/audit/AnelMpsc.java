@@ -0,0 +1,65 @@
+package com.viasoft.email.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular limitado, sem locks, para vários produtores e um único consumidor.
+ * <p>
+ * Produtores disputam a posição com um CAS na cauda e publicam o elemento no slot; o
+ * consumidor lê o slot da cabeça, limpa e avança. {@link #oferecer} nunca bloqueia: com o
+ * anel cheio devolve {@code false}.
+ */
+class AnelMpsc<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+
+    // Escrita só pelo consumidor; volatile para os produtores enxergarem o espaço liberado
+    private volatile long cabeca;
+
+    AnelMpsc(int capacidade) {
+        if (capacidade < 1 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser potência de 2: " + capacidade);
+        }
+        this.slots = new AtomicReferenceArray<>(capacidade);
+        this.mascara = capacidade - 1;
+    }
+
+    boolean oferecer(E elemento) {
+        long posicao;
+        do {
+            posicao = cauda.get();
+            if (posicao - cabeca > mascara) {
+                return false;
+            }
+        } while (!cauda.compareAndSet(posicao, posicao + 1));
+        slots.lazySet((int) posicao & mascara, elemento);
+        return true;
+    }
+
+    /**
+     * Próximo elemento, ou {@code null} se vazio (ou se o produtor da vez ainda não publicou).
+     * Só pode ser chamado pela thread consumidora.
+     */
+    E consumir() {
+        long posicao = cabeca;
+        int slot = (int) posicao & mascara;
+        E elemento = slots.get(slot);
+        if (elemento == null) {
+            return null;
+        }
+        slots.lazySet(slot, null);
+        cabeca = posicao + 1;
+        return elemento;
+    }
+
+    int tamanho() {
+        return (int) Math.max(0, cauda.get() - cabeca);
+    }
+
+    int capacidade() {
+        return mascara + 1;
+    }
+}
@@ -0,0 +1,76 @@
+package com.viasoft.email.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Arquivo de auditoria com rotação por tamanho: ao passar do limite, {@code nome} vira
+ * {@code nome.1}, o {@code .1} vira {@code .2} e assim por diante até {@code arquivosMantidos}.
+ * Não é thread-safe: só a thread de gravação da auditoria usa.
+ */
+class ArquivoRotativo implements Closeable {
+
+    private final Path diretorio;
+    private final String nome;
+    private final long tamanhoMaximo;
+    private final int arquivosMantidos;
+
+    private FileChannel canal;
+    private long tamanho;
+
+    ArquivoRotativo(Path diretorio, String nome, long tamanhoMaximo, int arquivosMantidos) throws IOException {
+        this.diretorio = diretorio;
+        this.nome = nome;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.arquivosMantidos = arquivosMantidos;
+        Files.createDirectories(diretorio);
+        abrir();
+    }
+
+    void gravar(ByteBuffer dados) throws IOException {
+        if (tamanho > 0 && tamanho + dados.remaining() > tamanhoMaximo) {
+            rotacionar();
+        }
+        while (dados.hasRemaining()) {
+            tamanho += canal.write(dados);
+        }
+    }
+
+    Path getArquivoAtual() {
+        return diretorio.resolve(nome);
+    }
+
+    private void abrir() throws IOException {
+        canal = FileChannel.open(getArquivoAtual(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        tamanho = canal.size();
+    }
+
+    private void rotacionar() throws IOException {
+        canal.close();
+        if (arquivosMantidos < 1) {
+            Files.delete(getArquivoAtual());
+        } else {
+            Files.deleteIfExists(diretorio.resolve(nome + "." + arquivosMantidos));
+            for (int i = arquivosMantidos - 1; i >= 1; i--) {
+                Path origem = diretorio.resolve(nome + "." + i);
+                if (Files.exists(origem)) {
+                    Files.move(origem, diretorio.resolve(nome + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(getArquivoAtual(), diretorio.resolve(nome + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        abrir();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,177 @@
+package com.viasoft.email.audit;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.MensagemEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Auditoria das mensagens enviadas, em JSON por linha ({@code auditoria.log}, com rotação).
+ * <p>
+ * Quem envia só coloca a mensagem num {@link AnelMpsc} ({@link #registrar}); serialização,
+ * mascaramento e I/O ficam numa thread própria que grava em lotes. Com o anel cheio a
+ * mensagem é descartada e contada em {@code email.auditoria.descartadas}: a auditoria nunca
+ * segura o envio.
+ */
+@Component
+public class AuditoriaEnvio {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaEnvio.class);
+
+    static final String ARQUIVO = "auditoria.log";
+
+    private static final int MAXIMO_POR_LOTE = 512;
+
+    private final ObjectMapper objectMapper;
+    private final EmailProperties.Auditoria configuracao;
+    private final AnelMpsc<Registro> anel;
+    private final Counter descartadas;
+    private final BufferLote buffer = new BufferLote();
+    private final Thread gravador;
+
+    private ArquivoRotativo arquivo;
+    private volatile boolean ativo = true;
+
+    @Autowired
+    public AuditoriaEnvio(EmailProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.configuracao = properties.getAuditoria();
+        this.anel = new AnelMpsc<>(configuracao.getCapacidade());
+        this.descartadas = Counter.builder("email.auditoria.descartadas")
+                .description("Mensagens não auditadas por falta de espaço no buffer")
+                .register(meterRegistry);
+        Gauge.builder("email.auditoria.pendentes", anel, AnelMpsc::tamanho).register(meterRegistry);
+
+        if (configuracao.isHabilitada()) {
+            try {
+                this.arquivo = new ArquivoRotativo(Path.of(configuracao.getDiretorio()), ARQUIVO,
+                        configuracao.getTamanhoMaximoArquivo().toBytes(), configuracao.getArquivosMantidos());
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível abrir a auditoria em " + configuracao.getDiretorio(), e);
+            }
+            this.gravador = new Thread(this::executar, "email-auditoria");
+            this.gravador.setDaemon(true);
+            this.gravador.start();
+        } else {
+            this.gravador = null;
+        }
+    }
+
+    /**
+     * Agenda o registro da mensagem, respeitando a amostragem. Não bloqueia nem faz I/O.
+     */
+    public void registrar(MensagemEmail mensagem) {
+        if (gravador == null || !amostrada()) {
+            return;
+        }
+        if (!anel.oferecer(new Registro(System.currentTimeMillis(), mensagem))) {
+            descartadas.increment();
+        }
+    }
+
+    private boolean amostrada() {
+        double amostragem = configuracao.getAmostragem();
+        return amostragem >= 1.0 || (amostragem > 0 && ThreadLocalRandom.current().nextDouble() < amostragem);
+    }
+
+    private void executar() {
+        long intervalo = configuracao.getIntervaloGravacao().toNanos();
+        while (ativo) {
+            if (gravarLote() == 0) {
+                LockSupport.parkNanos(this, intervalo);
+            }
+        }
+        // Desligamento: grava o que sobrou no anel
+        while (gravarLote() > 0) {
+            // continua até esvaziar
+        }
+    }
+
+    private int gravarLote() {
+        buffer.reset();
+        int quantidade = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            Registro registro;
+            while (quantidade < MAXIMO_POR_LOTE && (registro = anel.consumir()) != null) {
+                quantidade++;
+                try {
+                    escrever(generator, registro);
+                    generator.writeRaw('\n');
+                } catch (IllegalArgumentException e) {
+                    log.warn("Mensagem {} não pôde ser auditada", registro.mensagem().id(), e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Falha ao serializar registros de auditoria", e);
+            return quantidade;
+        }
+        if (quantidade > 0) {
+            try {
+                arquivo.gravar(buffer.comoByteBuffer());
+            } catch (IOException e) {
+                log.error("Falha ao gravar {} registros de auditoria", quantidade, e);
+            }
+        }
+        return quantidade;
+    }
+
+    private void escrever(JsonGenerator generator, Registro registro) throws IOException {
+        MensagemEmail mensagem = registro.mensagem();
+        ObjectNode email = objectMapper.valueToTree(mensagem.emailAdaptado());
+        if (configuracao.isMascararPii()) {
+            MascaraPii.mascarar(email, mensagem.provider().getMapeamentoCampos(), configuracao.isGravarConteudo());
+        }
+        generator.writeStartObject();
+        generator.writeStringField("instante", Instant.ofEpochMilli(registro.instante()).toString());
+        generator.writeStringField("id", mensagem.id());
+        generator.writeStringField("integracao", mensagem.provider().getIntegracao());
+        generator.writeFieldName("email");
+        generator.writeTree(email);
+        generator.writeEndObject();
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException, IOException {
+        if (gravador == null) {
+            return;
+        }
+        ativo = false;
+        LockSupport.unpark(gravador);
+        gravador.join(TimeUnit.SECONDS.toMillis(10));
+        arquivo.close();
+    }
+
+    private record Registro(long instante, MensagemEmail mensagem) {
+    }
+
+    // Reaproveitado entre lotes; expõe o array interno para gravar sem cópia
+    private static class BufferLote extends ByteArrayOutputStream {
+        BufferLote() {
+            super(64 * 1024);
+        }
+
+        ByteBuffer comoByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.viasoft.email.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Mascaramento de dados pessoais nos DTOs adaptados antes da gravação, campo a campo pelo
+ * {@link com.viasoft.email.provider.ProviderAdapter#getMapeamentoCampos() mapeamento} do
+ * provedor: emails mantêm o primeiro caractere e o domínio ({@code j***@example.com}), nomes
+ * mantêm a inicial, e assunto e conteúdo (texto livre, onde pode haver qualquer dado pessoal)
+ * só são gravados com {@code mail.auditoria.gravar-conteudo}. Campo fora do mapeamento é
+ * mascarado inteiro.
+ */
+final class MascaraPii {
+
+    static final String MASCARA = "***";
+
+    private MascaraPii() {
+    }
+
+    static void mascarar(ObjectNode objeto, Map<String, String> mapeamento, boolean gravarConteudo) {
+        Iterator<Map.Entry<String, JsonNode>> campos = objeto.fields();
+        while (campos.hasNext()) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            JsonNode valor = campo.getValue();
+            if (valor instanceof ObjectNode filho) {
+                // Estrutura que o mapeamento não descreve
+                mascarar(filho, Map.of(), gravarConteudo);
+            } else if (valor.isTextual()) {
+                objeto.put(campo.getKey(), mascarar(mapeamento.get(campo.getKey()), valor.textValue(), gravarConteudo));
+            }
+        }
+    }
+
+    // origem = campo do EmailDTO de onde o valor foi copiado
+    private static String mascarar(String origem, String texto, boolean gravarConteudo) {
+        if (origem == null) {
+            return MASCARA;
+        }
+        return switch (origem) {
+            case "destinatarioEmail", "remetenteEmail" -> mascararEmail(texto);
+            case "destinatarioNome" -> mascararNome(texto);
+            case "assunto", "conteudo" -> gravarConteudo ? texto : MASCARA;
+            default -> MASCARA;
+        };
+    }
+
+    static String mascararEmail(String email) {
+        int arroba = email.lastIndexOf('@');
+        return arroba <= 0 ? MASCARA : email.charAt(0) + MASCARA + email.substring(arroba);
+    }
+
+    static String mascararNome(String nome) {
+        String limpo = nome.strip();
+        return limpo.isEmpty() ? limpo : limpo.charAt(0) + MASCARA;
+    }
+}
@@ -0,0 +1,793 @@
+package com.viasoft.email.config;
+
+import com.viasoft.email.provider.LimitadorTaxa;
+import com.viasoft.email.retry.ClasseErro;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propriedades {@code mail.*} do application.properties, lidas uma única vez na subida.
+ */
+@Validated
+@ConfigurationProperties(prefix = "mail")
+public class EmailProperties {
+
+    // AWS ou OCI
+    @NotBlank(message = "mail.integracao é obrigatório")
+    private String integracao;
+
+    private Roteamento roteamento = new Roteamento();
+
+    // Configurações por provedor, chave = integração (AWS, OCI)
+    private Map<String, Provedor> provedores = new LinkedHashMap<>();
+
+    private Auditoria auditoria = new Auditoria();
+
+    private Spool spool = new Spool();
+
+    private Idempotencia idempotencia = new Idempotencia();
+
+    private Retry retry = new Retry();
+
+    private Templates templates = new Templates();
+
+    private Transporte transporte = new Transporte();
+
+    public String getIntegracao() {
+        return integracao;
+    }
+
+    public void setIntegracao(String integracao) {
+        this.integracao = integracao;
+    }
+
+    public Roteamento getRoteamento() {
+        return roteamento;
+    }
+
+    public void setRoteamento(Roteamento roteamento) {
+        this.roteamento = roteamento;
+    }
+
+    public Map<String, Provedor> getProvedores() {
+        return provedores;
+    }
+
+    public void setProvedores(Map<String, Provedor> provedores) {
+        this.provedores = provedores;
+    }
+
+    public Auditoria getAuditoria() {
+        return auditoria;
+    }
+
+    public void setAuditoria(Auditoria auditoria) {
+        this.auditoria = auditoria;
+    }
+
+    public Spool getSpool() {
+        return spool;
+    }
+
+    public void setSpool(Spool spool) {
+        this.spool = spool;
+    }
+
+    public Idempotencia getIdempotencia() {
+        return idempotencia;
+    }
+
+    public void setIdempotencia(Idempotencia idempotencia) {
+        this.idempotencia = idempotencia;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public void setRetry(Retry retry) {
+        this.retry = retry;
+    }
+
+    public Templates getTemplates() {
+        return templates;
+    }
+
+    public void setTemplates(Templates templates) {
+        this.templates = templates;
+    }
+
+    public Transporte getTransporte() {
+        return transporte;
+    }
+
+    public void setTransporte(Transporte transporte) {
+        this.transporte = transporte;
+    }
+
+    // Configuração do provedor, ou os valores padrão se ele não tiver nada em mail.provedores
+    public Provedor getProvedor(String integracao) {
+        return provedores.getOrDefault(integracao, new Provedor());
+    }
+
+    /**
+     * {@code mail.roteamento.*}: sem pesos configurados todo o tráfego vai para {@code mail.integracao}.
+     */
+    public static class Roteamento {
+
+        // ex.: mail.roteamento.pesos.AWS=70 e mail.roteamento.pesos.OCI=30
+        private Map<String, Integer> pesos = new LinkedHashMap<>();
+
+        // Fração de falhas (média móvel) a partir da qual o provedor é considerado degradado
+        private double taxaErroMaxima = 0.5;
+
+        // Latência média acima da qual o provedor é considerado degradado
+        private Duration latenciaMaxima = Duration.ofSeconds(5);
+
+        // Envios observados antes de o provedor poder ser marcado como degradado
+        private int amostrasMinimas = 20;
+
+        // Tempo que um provedor degradado fica fora da rotação
+        private Duration quarentena = Duration.ofSeconds(30);
+
+        public Map<String, Integer> getPesos() {
+            return pesos;
+        }
+
+        public void setPesos(Map<String, Integer> pesos) {
+            this.pesos = pesos;
+        }
+
+        public double getTaxaErroMaxima() {
+            return taxaErroMaxima;
+        }
+
+        public void setTaxaErroMaxima(double taxaErroMaxima) {
+            this.taxaErroMaxima = taxaErroMaxima;
+        }
+
+        public Duration getLatenciaMaxima() {
+            return latenciaMaxima;
+        }
+
+        public void setLatenciaMaxima(Duration latenciaMaxima) {
+            this.latenciaMaxima = latenciaMaxima;
+        }
+
+        public int getAmostrasMinimas() {
+            return amostrasMinimas;
+        }
+
+        public void setAmostrasMinimas(int amostrasMinimas) {
+            this.amostrasMinimas = amostrasMinimas;
+        }
+
+        public Duration getQuarentena() {
+            return quarentena;
+        }
+
+        public void setQuarentena(Duration quarentena) {
+            this.quarentena = quarentena;
+        }
+    }
+
+    /**
+     * {@code mail.provedores.<INTEGRACAO>.*}
+     */
+    public static class Provedor {
+
+        private LimiteTaxa limite = new LimiteTaxa();
+
+        private Disjuntor disjuntor = new Disjuntor();
+
+        private Lote lote = new Lote();
+
+        public LimiteTaxa getLimite() {
+            return limite;
+        }
+
+        public void setLimite(LimiteTaxa limite) {
+            this.limite = limite;
+        }
+
+        public Disjuntor getDisjuntor() {
+            return disjuntor;
+        }
+
+        public void setDisjuntor(Disjuntor disjuntor) {
+            this.disjuntor = disjuntor;
+        }
+
+        public Lote getLote() {
+            return lote;
+        }
+
+        public void setLote(Lote lote) {
+            this.lote = lote;
+        }
+    }
+
+    /**
+     * {@code mail.provedores.<INTEGRACAO>.limite.*}: cota de envio do provedor.
+     */
+    public static class LimiteTaxa {
+
+        // 0 = sem limite
+        private double taxaPorSegundo;
+
+        private int rajada = 1;
+
+        private LimitadorTaxa.Modo modo = LimitadorTaxa.Modo.AGUARDAR;
+
+        private Duration esperaMaxima = Duration.ofMillis(500);
+
+        public double getTaxaPorSegundo() {
+            return taxaPorSegundo;
+        }
+
+        public void setTaxaPorSegundo(double taxaPorSegundo) {
+            this.taxaPorSegundo = taxaPorSegundo;
+        }
+
+        public int getRajada() {
+            return rajada;
+        }
+
+        public void setRajada(int rajada) {
+            this.rajada = rajada;
+        }
+
+        public LimitadorTaxa.Modo getModo() {
+            return modo;
+        }
+
+        public void setModo(LimitadorTaxa.Modo modo) {
+            this.modo = modo;
+        }
+
+        public Duration getEsperaMaxima() {
+            return esperaMaxima;
+        }
+
+        public void setEsperaMaxima(Duration esperaMaxima) {
+            this.esperaMaxima = esperaMaxima;
+        }
+    }
+
+    /**
+     * {@code mail.provedores.<INTEGRACAO>.disjuntor.*}: circuit breaker do provedor.
+     */
+    public static class Disjuntor {
+
+        private boolean habilitado = true;
+
+        // Últimos envios considerados no cálculo das taxas
+        private int janela = 100;
+
+        // Envios na janela antes de o disjuntor poder abrir
+        private int chamadasMinimas = 20;
+
+        // Fração de falhas na janela que abre o disjuntor
+        private double taxaFalhaMaxima = 0.5;
+
+        // Envio mais demorado que isso conta como lento
+        private Duration chamadaLenta = Duration.ofSeconds(5);
+
+        // Fração de envios lentos na janela que abre o disjuntor
+        private double taxaLentaMaxima = 0.8;
+
+        // Tempo aberto (recusando na hora) antes de liberar as sondas
+        private Duration esperaAberto = Duration.ofSeconds(30);
+
+        // Sondas no estado semiaberto; o resultado delas decide se fecha ou reabre
+        private int chamadasSemiAberto = 5;
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public int getJanela() {
+            return janela;
+        }
+
+        public void setJanela(int janela) {
+            this.janela = janela;
+        }
+
+        public int getChamadasMinimas() {
+            return chamadasMinimas;
+        }
+
+        public void setChamadasMinimas(int chamadasMinimas) {
+            this.chamadasMinimas = chamadasMinimas;
+        }
+
+        public double getTaxaFalhaMaxima() {
+            return taxaFalhaMaxima;
+        }
+
+        public void setTaxaFalhaMaxima(double taxaFalhaMaxima) {
+            this.taxaFalhaMaxima = taxaFalhaMaxima;
+        }
+
+        public Duration getChamadaLenta() {
+            return chamadaLenta;
+        }
+
+        public void setChamadaLenta(Duration chamadaLenta) {
+            this.chamadaLenta = chamadaLenta;
+        }
+
+        public double getTaxaLentaMaxima() {
+            return taxaLentaMaxima;
+        }
+
+        public void setTaxaLentaMaxima(double taxaLentaMaxima) {
+            this.taxaLentaMaxima = taxaLentaMaxima;
+        }
+
+        public Duration getEsperaAberto() {
+            return esperaAberto;
+        }
+
+        public void setEsperaAberto(Duration esperaAberto) {
+            this.esperaAberto = esperaAberto;
+        }
+
+        public int getChamadasSemiAberto() {
+            return chamadasSemiAberto;
+        }
+
+        public void setChamadasSemiAberto(int chamadasSemiAberto) {
+            this.chamadasSemiAberto = chamadasSemiAberto;
+        }
+    }
+
+    /**
+     * {@code mail.provedores.<INTEGRACAO>.lote.*}: envio agrupado, várias mensagens por chamada ao provedor.
+     */
+    public static class Lote {
+
+        private boolean habilitado;
+
+        // Mensagens por chamada; o lote sai assim que enche
+        private int tamanhoMaximo = 50;
+
+        // Quanto a primeira mensagem do lote espera as seguintes antes de ele sair incompleto
+        private Duration esperaMaxima = Duration.ofMillis(20);
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public int getTamanhoMaximo() {
+            return tamanhoMaximo;
+        }
+
+        public void setTamanhoMaximo(int tamanhoMaximo) {
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+
+        public Duration getEsperaMaxima() {
+            return esperaMaxima;
+        }
+
+        public void setEsperaMaxima(Duration esperaMaxima) {
+            this.esperaMaxima = esperaMaxima;
+        }
+    }
+
+    /**
+     * {@code mail.auditoria.*}: registro em arquivo das mensagens enviadas.
+     */
+    public static class Auditoria {
+
+        private boolean habilitada = true;
+
+        private String diretorio = "logs/auditoria";
+
+        // Fração das mensagens registradas (1.0 = todas)
+        private double amostragem = 1.0;
+
+        // Mensagens aguardando gravação; acima disso são descartadas (potência de 2)
+        private int capacidade = 8192;
+
+        private DataSize tamanhoMaximoArquivo = DataSize.ofMegabytes(10);
+
+        // Arquivos rotacionados mantidos além do atual (auditoria.log.1 ... .N)
+        private int arquivosMantidos = 5;
+
+        // Mascara emails e nomes antes de gravar
+        private boolean mascararPii = true;
+
+        // Com o mascaramento ligado, grava assunto e conteúdo como vieram (texto livre pode ter dados pessoais)
+        private boolean gravarConteudo = false;
+
+        // Intervalo máximo entre gravações quando há pouco movimento
+        private Duration intervaloGravacao = Duration.ofMillis(200);
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public String getDiretorio() {
+            return diretorio;
+        }
+
+        public void setDiretorio(String diretorio) {
+            this.diretorio = diretorio;
+        }
+
+        public double getAmostragem() {
+            return amostragem;
+        }
+
+        public void setAmostragem(double amostragem) {
+            this.amostragem = amostragem;
+        }
+
+        public int getCapacidade() {
+            return capacidade;
+        }
+
+        public void setCapacidade(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        public DataSize getTamanhoMaximoArquivo() {
+            return tamanhoMaximoArquivo;
+        }
+
+        public void setTamanhoMaximoArquivo(DataSize tamanhoMaximoArquivo) {
+            this.tamanhoMaximoArquivo = tamanhoMaximoArquivo;
+        }
+
+        public int getArquivosMantidos() {
+            return arquivosMantidos;
+        }
+
+        public void setArquivosMantidos(int arquivosMantidos) {
+            this.arquivosMantidos = arquivosMantidos;
+        }
+
+        public boolean isMascararPii() {
+            return mascararPii;
+        }
+
+        public void setMascararPii(boolean mascararPii) {
+            this.mascararPii = mascararPii;
+        }
+
+        public boolean isGravarConteudo() {
+            return gravarConteudo;
+        }
+
+        public void setGravarConteudo(boolean gravarConteudo) {
+            this.gravarConteudo = gravarConteudo;
+        }
+
+        public Duration getIntervaloGravacao() {
+            return intervaloGravacao;
+        }
+
+        public void setIntervaloGravacao(Duration intervaloGravacao) {
+            this.intervaloGravacao = intervaloGravacao;
+        }
+    }
+
+    /**
+     * {@code mail.spool.*}: gravação em disco das mensagens aceitas até o envio ser concluído.
+     */
+    public static class Spool {
+
+        private boolean habilitado = true;
+
+        private String diretorio = "spool";
+
+        // Tamanho de cada arquivo mapeado; ao encher, abre-se o próximo
+        private DataSize tamanhoSegmento = DataSize.ofMegabytes(64);
+
+        // Com pouco movimento, intervalo máximo para sincronizar confirmações e compactar
+        private Duration intervaloSincronizacao = Duration.ofMillis(50);
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public String getDiretorio() {
+            return diretorio;
+        }
+
+        public void setDiretorio(String diretorio) {
+            this.diretorio = diretorio;
+        }
+
+        public DataSize getTamanhoSegmento() {
+            return tamanhoSegmento;
+        }
+
+        public void setTamanhoSegmento(DataSize tamanhoSegmento) {
+            this.tamanhoSegmento = tamanhoSegmento;
+        }
+
+        public Duration getIntervaloSincronizacao() {
+            return intervaloSincronizacao;
+        }
+
+        public void setIntervaloSincronizacao(Duration intervaloSincronizacao) {
+            this.intervaloSincronizacao = intervaloSincronizacao;
+        }
+    }
+
+    /**
+     * {@code mail.idempotencia.*}: deduplicação de {@code /enviar-email} por {@code Idempotency-Key}.
+     */
+    public static class Idempotencia {
+
+        private boolean habilitada = true;
+
+        // Tempo em que uma repetição ainda devolve o resultado original
+        private Duration ttl = Duration.ofHours(24);
+
+        // Chaves guardadas no máximo; acima disso sai a mais antiga (~140 bytes por chave no pior caso)
+        private int capacidade = 1_000_000;
+
+        // Sem o cabeçalho, usa o hash dos campos do email como chave
+        private boolean hashConteudo = false;
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getCapacidade() {
+            return capacidade;
+        }
+
+        public void setCapacidade(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        public boolean isHashConteudo() {
+            return hashConteudo;
+        }
+
+        public void setHashConteudo(boolean hashConteudo) {
+            this.hashConteudo = hashConteudo;
+        }
+    }
+
+    /**
+     * {@code mail.templates.*}: templates de conteúdo ({@code <diretorio>/<id>.tpl}) compilados em memória.
+     */
+    public static class Templates {
+
+        private boolean habilitados = true;
+
+        // Observado em tempo de execução: alterar um arquivo recompila o template no próximo uso
+        private String diretorio = "templates";
+
+        // Templates compilados mantidos; acima disso sai o usado há mais tempo
+        private int capacidade = 1000;
+
+        public boolean isHabilitados() {
+            return habilitados;
+        }
+
+        public void setHabilitados(boolean habilitados) {
+            this.habilitados = habilitados;
+        }
+
+        public String getDiretorio() {
+            return diretorio;
+        }
+
+        public void setDiretorio(String diretorio) {
+            this.diretorio = diretorio;
+        }
+
+        public int getCapacidade() {
+            return capacidade;
+        }
+
+        public void setCapacidade(int capacidade) {
+            this.capacidade = capacidade;
+        }
+    }
+
+    /**
+     * {@code mail.retry.*}: novas tentativas de envio e mensagens mortas.
+     */
+    public static class Retry {
+
+        private boolean habilitado = true;
+
+        // Por classe de erro, ex.: mail.retry.politicas.TRANSITORIO.maximo=5
+        private Map<ClasseErro, Tentativas> politicas = new EnumMap<>(Map.of(
+                ClasseErro.TRANSITORIO, new Tentativas(5, Duration.ofSeconds(1), Duration.ofMinutes(5)),
+                ClasseErro.LIMITE_TAXA, new Tentativas(10, Duration.ofMillis(500), Duration.ofSeconds(30)),
+                ClasseErro.PERMANENTE, new Tentativas(1, Duration.ZERO, Duration.ZERO)));
+
+        // Granularidade da roda de temporização
+        private Duration resolucao = Duration.ofMillis(10);
+
+        // Esgotadas as tentativas, a mensagem é gravada aqui (JSON por linha)
+        private String diretorioMensagensMortas = "logs/mensagens-mortas";
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public Map<ClasseErro, Tentativas> getPoliticas() {
+            return politicas;
+        }
+
+        public void setPoliticas(Map<ClasseErro, Tentativas> politicas) {
+            this.politicas = politicas;
+        }
+
+        public Duration getResolucao() {
+            return resolucao;
+        }
+
+        public void setResolucao(Duration resolucao) {
+            this.resolucao = resolucao;
+        }
+
+        public String getDiretorioMensagensMortas() {
+            return diretorioMensagensMortas;
+        }
+
+        public void setDiretorioMensagensMortas(String diretorioMensagensMortas) {
+            this.diretorioMensagensMortas = diretorioMensagensMortas;
+        }
+    }
+
+    /**
+     * {@code mail.retry.politicas.<CLASSE>.*}
+     */
+    public static class Tentativas {
+
+        // Tentativas no total, contando a primeira (1 = sem retry)
+        private int maximo = 1;
+
+        private Duration atrasoInicial = Duration.ofSeconds(1);
+
+        private Duration atrasoMaximo = Duration.ofMinutes(5);
+
+        private double multiplicador = 2.0;
+
+        public Tentativas() {
+        }
+
+        public Tentativas(int maximo, Duration atrasoInicial, Duration atrasoMaximo) {
+            this.maximo = maximo;
+            this.atrasoInicial = atrasoInicial;
+            this.atrasoMaximo = atrasoMaximo;
+        }
+
+        public int getMaximo() {
+            return maximo;
+        }
+
+        public void setMaximo(int maximo) {
+            this.maximo = maximo;
+        }
+
+        public Duration getAtrasoInicial() {
+            return atrasoInicial;
+        }
+
+        public void setAtrasoInicial(Duration atrasoInicial) {
+            this.atrasoInicial = atrasoInicial;
+        }
+
+        public Duration getAtrasoMaximo() {
+            return atrasoMaximo;
+        }
+
+        public void setAtrasoMaximo(Duration atrasoMaximo) {
+            this.atrasoMaximo = atrasoMaximo;
+        }
+
+        public double getMultiplicador() {
+            return multiplicador;
+        }
+
+        public void setMultiplicador(double multiplicador) {
+            this.multiplicador = multiplicador;
+        }
+    }
+
+    /**
+     * {@code mail.transporte.*}: para onde vão as mensagens depois de serializadas.
+     */
+    public static class Transporte {
+
+        public enum Tipo {
+            // Não sai da JVM, só contabiliza os bytes
+            SIMULADO,
+            // POST para {@code <url>/<integracao>/emails}, ex.: o SimuladorProvedor
+            HTTP
+        }
+
+        private Tipo tipo = Tipo.SIMULADO;
+
+        private String url = "http://localhost:8089";
+
+        private Duration timeoutConexao = Duration.ofSeconds(2);
+
+        // Tempo máximo de cada chamada ao provedor, da requisição até o fim da resposta
+        private Duration timeout = Duration.ofSeconds(10);
+
+        public Tipo getTipo() {
+            return tipo;
+        }
+
+        public void setTipo(Tipo tipo) {
+            this.tipo = tipo;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public Duration getTimeoutConexao() {
+            return timeoutConexao;
+        }
+
+        public void setTimeoutConexao(Duration timeoutConexao) {
+            this.timeoutConexao = timeoutConexao;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.viasoft.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.metricas.ConversorJsonMedido;
+import com.viasoft.email.metricas.MetricasPipeline;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+// No lugar do conversor JSON padrão do Boot, que recua quando já existe um bean deste tipo
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MetricasConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MetricasPipeline metricas) {
+        return new ConversorJsonMedido(objectMapper, metricas);
+    }
+}
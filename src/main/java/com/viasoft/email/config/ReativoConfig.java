@@ -0,0 +1,31 @@
+package com.viasoft.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.template.DecodificadorJsonTemplates;
+import com.viasoft.email.template.TemplatesEmail;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Perfil "reativo": com Tomcat e Netty no classpath o Spring Boot escolheria o Tomcat também
+ * para o WebFlux; o servidor é fixado no Netty para as conexões ficarem no event loop.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReativoConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Roda depois do customizer do Jackson do Spring Boot (ordem 0) e troca o decoder JSON
+    @Bean
+    public CodecCustomizer templatesCodecCustomizer(ObjectMapper objectMapper, TemplatesEmail templatesEmail) {
+        return configurer -> configurer.defaultCodecs()
+                .jackson2JsonDecoder(new DecodificadorJsonTemplates(objectMapper, templatesEmail));
+    }
+}
@@ -0,0 +1,38 @@
+package com.viasoft.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.RetryEnvio;
+import com.viasoft.email.retry.GerenciadorRetry;
+import com.viasoft.email.retry.MensagensMortas;
+import com.viasoft.email.retry.PoliticaRetry;
+import com.viasoft.email.retry.RodaTemporizacao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Novas tentativas de envio, desligáveis com {@code mail.retry.habilitado=false}.
+ */
+@Configuration
+public class RetryConfig {
+
+    // Com a resolução padrão de 10 ms, uma volta da roda cobre ~5 s; atrasos maiores contam voltas
+    private static final int BALDES = 512;
+
+    @Bean(destroyMethod = "close")
+    public RetryEnvio retryEnvio(EmailProperties properties, ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) throws IOException {
+        EmailProperties.Retry retry = properties.getRetry();
+        if (!retry.isHabilitado()) {
+            return RetryEnvio.NENHUM;
+        }
+        return new GerenciadorRetry(new PoliticaRetry(retry.getPoliticas()),
+                new RodaTemporizacao(retry.getResolucao().toNanos(), TimeUnit.NANOSECONDS, BALDES),
+                new MensagensMortas(Path.of(retry.getDiretorioMensagensMortas()), objectMapper),
+                meterRegistry);
+    }
+}
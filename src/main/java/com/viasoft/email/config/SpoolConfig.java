@@ -0,0 +1,29 @@
+package com.viasoft.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.SpoolEnvio;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.spool.SpoolMapeado;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Spool das mensagens aceitas: em disco por padrão, desligável com {@code mail.spool.habilitado=false}.
+ */
+@Configuration
+public class SpoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public SpoolEnvio spoolEnvio(EmailProperties properties, ObjectMapper objectMapper,
+                                 ProviderRegistry providerRegistry) throws IOException {
+        EmailProperties.Spool spool = properties.getSpool();
+        if (!spool.isHabilitado()) {
+            return SpoolEnvio.NENHUM;
+        }
+        return new SpoolMapeado(Path.of(spool.getDiretorio()), Math.toIntExact(spool.getTamanhoSegmento().toBytes()),
+                spool.getIntervaloSincronizacao(), objectMapper, providerRegistry);
+    }
+}
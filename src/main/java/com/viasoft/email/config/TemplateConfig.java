@@ -0,0 +1,25 @@
+package com.viasoft.email.config;
+
+import com.viasoft.email.template.CacheTemplates;
+import com.viasoft.email.template.TemplatesEmail;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Templates de conteúdo, desligáveis com {@code mail.templates.habilitados=false}.
+ */
+@Configuration
+public class TemplateConfig {
+
+    @Bean(destroyMethod = "close")
+    public TemplatesEmail templatesEmail(EmailProperties properties) throws IOException {
+        EmailProperties.Templates templates = properties.getTemplates();
+        if (!templates.isHabilitados()) {
+            return TemplatesEmail.NENHUM;
+        }
+        return new CacheTemplates(Path.of(templates.getDiretorio()), templates.getCapacidade());
+    }
+}
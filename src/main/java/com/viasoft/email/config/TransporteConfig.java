@@ -0,0 +1,27 @@
+package com.viasoft.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.TransporteEmail;
+import com.viasoft.email.dispatch.TransporteHttp;
+import com.viasoft.email.dispatch.TransporteSimulado;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transporte até o provedor, escolhido por {@code mail.transporte.tipo}.
+ */
+@Configuration
+public class TransporteConfig {
+
+    @Bean
+    public TransporteEmail transporteEmail(EmailProperties properties, MeterRegistry meterRegistry,
+                                           ObjectMapper objectMapper) {
+        EmailProperties.Transporte transporte = properties.getTransporte();
+        return switch (transporte.getTipo()) {
+            case SIMULADO -> new TransporteSimulado(meterRegistry);
+            case HTTP -> new TransporteHttp(transporte.getUrl(), transporte.getTimeoutConexao(),
+                    transporte.getTimeout(), objectMapper);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.viasoft.email.config;
+
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.validation.ValidadorMvcRapido;
+import com.viasoft.email.validation.ValidadorRapido;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ValidacaoConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ValidadorRapido> validadorRapido;
+    private final ObjectProvider<LocalValidatorFactoryBean> validadorPadrao;
+    private final ObjectProvider<MetricasPipeline> metricas;
+
+    public ValidacaoConfig(ObjectProvider<ValidadorRapido> validadorRapido,
+                           ObjectProvider<LocalValidatorFactoryBean> validadorPadrao,
+                           ObjectProvider<MetricasPipeline> metricas) {
+        this.validadorRapido = validadorRapido;
+        this.validadorPadrao = validadorPadrao;
+        this.metricas = metricas;
+    }
+
+    @Bean
+    public ValidadorRapido validadorRapido(jakarta.validation.Validator validator) {
+        return new ValidadorRapido(validator, EmailDTO.class, EmailAwsDTO.class, EmailOciDTO.class);
+    }
+
+    // Usado pelo @Valid dos controllers
+    @Override
+    public Validator getValidator() {
+        return new ValidadorMvcRapido(validadorRapido.getObject(), validadorPadrao.getObject(),
+                metricas.getIfAvailable(MetricasPipeline::nenhuma));
+    }
+}
@@ -0,0 +1,38 @@
+package com.viasoft.email.config;
+
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.validation.ValidadorMvcRapido;
+import com.viasoft.email.validation.ValidadorRapido;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+// Mesmo caminho rápido do ValidacaoConfig para o @Valid do EmailReativoController
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ValidacaoReativaConfig implements WebFluxConfigurer {
+
+    private final ObjectProvider<ValidadorRapido> validadorRapido;
+    private final ObjectProvider<LocalValidatorFactoryBean> validadorPadrao;
+    private final ObjectProvider<MetricasPipeline> metricas;
+
+    public ValidacaoReativaConfig(ObjectProvider<ValidadorRapido> validadorRapido,
+                                  ObjectProvider<LocalValidatorFactoryBean> validadorPadrao,
+                                  ObjectProvider<MetricasPipeline> metricas) {
+        this.validadorRapido = validadorRapido;
+        this.validadorPadrao = validadorPadrao;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Validator getValidator() {
+        ValidadorRapido rapido = validadorRapido.getIfAvailable();
+        LocalValidatorFactoryBean padrao = validadorPadrao.getIfAvailable();
+        // Sem os dois beans (ex.: fatias de teste) fica o validador padrão do WebFlux
+        return rapido == null || padrao == null ? null : new ValidadorMvcRapido(rapido, padrao,
+                metricas.getIfAvailable(MetricasPipeline::nenhuma));
+    }
+}
@@ -1,41 +1,129 @@
 package com.viasoft.email.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.EmailDispatcher;
 import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EnvioAceitoDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+import com.viasoft.email.exception.RequisicaoInvalidaException;
+import com.viasoft.email.idempotencia.CacheIdempotencia;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailLoteService;
 import com.viasoft.email.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.Environment;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Servlet (Tomcat); no perfil "reativo" quem atende é o EmailReativoController
 @RestController
 @RequestMapping("/api/email")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmailController {
 
-    private final Environment environment;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private final ProviderRouter providerRouter;
     private final EmailService emailService;
-    private final ObjectMapper objectMapper;
+    private final EmailDispatcher emailDispatcher;
+    private final EmailLoteService emailLoteService;
+    private final CacheIdempotencia cacheIdempotencia;
 
     @Autowired
-    public EmailController(Environment environment, EmailService emailService, ObjectMapper objectMapper) {
-        this.environment = environment;
+    public EmailController(ProviderRouter providerRouter, EmailService emailService, EmailDispatcher emailDispatcher,
+                           EmailLoteService emailLoteService, CacheIdempotencia cacheIdempotencia) {
+        this.providerRouter = providerRouter;
         this.emailService = emailService;
-        this.objectMapper = objectMapper;
+        this.emailDispatcher = emailDispatcher;
+        this.emailLoteService = emailLoteService;
+        this.cacheIdempotencia = cacheIdempotencia;
     }
 
+    // Com Idempotency-Key, a repetição devolve o id da primeira requisição sem enviar de novo.
+    // O Errors logo após o corpo evita que o Spring monte um MethodArgumentNotValidException
+    // (com stack trace) a cada requisição inválida
     @PostMapping("/enviar-email")
-    public ResponseEntity<Void> enviarEmail(@RequestBody @jakarta.validation.Valid EmailDTO emailDTO) throws JsonProcessingException {
-        String integracao = environment.getProperty("mail.integracao");
-        Object emailAdaptado = emailService.adaptarEmailParaIntegracao(emailDTO, integracao);
+    public ResponseEntity<EnvioAceitoDTO> enviarEmail(@RequestBody @jakarta.validation.Valid EmailDTO emailDTO,
+                                                      Errors erros,
+                                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                      String idempotencyKey) {
+        if (erros.hasErrors()) {
+            throw new RequisicaoInvalidaException(mensagens(erros));
+        }
+        CacheIdempotencia.Resultado resultado = cacheIdempotencia.executar(idempotencyKey, emailDTO, () -> {
+            ProviderAdapter<?> provider = providerRouter.selecionar(p -> emailService.comporta(emailDTO, p));
+            Object emailAdaptado = emailService.adaptarEmailParaIntegracao(emailDTO, provider);
+
+            // Serialização e envio acontecem nos workers do dispatcher
+            return emailDispatcher.enfileirar(emailDTO, provider, emailAdaptado);
+        });
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.ACCEPTED);
+        if (resultado.repetido()) {
+            resposta.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return resposta.body(new EnvioAceitoDTO(resultado.id()));
+    }
+
+    private static List<String> mensagens(Errors erros) {
+        List<FieldError> fieldErrors = erros.getFieldErrors();
+        List<String> mensagens = new ArrayList<>(fieldErrors.size());
+        for (FieldError fieldError : fieldErrors) {
+            mensagens.add(fieldError.getDefaultMessage());
+        }
+        return mensagens;
+    }
+
+    // Lote em JSON array ou NDJSON: cada item é validado isoladamente, um item ruim não derruba o lote
+    @PostMapping(value = "/enviar-emails",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDTO> enviarEmails(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(emailLoteService.processarLote(corpo));
+    }
 
-        String json = objectMapper.writeValueAsString(emailAdaptado);
-        System.out.println("JSON do objeto adaptado: " + json);
+    // Modo streaming: com Accept application/x-ndjson cada resultado é devolvido assim que processado
+    @PostMapping(value = "/enviar-emails",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> enviarEmailsStream(InputStream corpo) {
+        StreamingResponseBody resposta = saida -> emailLoteService.processarLoteNdjson(corpo, saida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(resposta);
+    }
+
+    // Mala direta: remetente, assunto e conteúdo validados uma vez; um email por destinatário
+    @PostMapping(value = "/enviar-mala-direta", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDTO> enviarMalaDireta(@RequestBody @jakarta.validation.Valid MalaDiretaDTO malaDireta,
+                                                             Errors erros) {
+        if (erros.hasErrors()) {
+            throw new RequisicaoInvalidaException(mensagens(erros));
+        }
+        return ResponseEntity.ok(emailLoteService.processarMalaDireta(malaDireta));
+    }
 
-        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    @PostMapping(value = "/enviar-mala-direta", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> enviarMalaDiretaStream(
+            @RequestBody @jakarta.validation.Valid MalaDiretaDTO malaDireta, Errors erros) {
+        if (erros.hasErrors()) {
+            throw new RequisicaoInvalidaException(mensagens(erros));
+        }
+        StreamingResponseBody resposta = saida -> emailLoteService.processarMalaDiretaNdjson(malaDireta, saida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(resposta);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.viasoft.email.controller;
+
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EnvioAceitoDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.idempotencia.CacheIdempotencia;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailLoteService;
+import com.viasoft.email.service.EmailService;
+import com.viasoft.email.service.MalaDireta;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mesma API do {@link EmailController} sobre WebFlux/Netty (perfil "reativo"): nenhuma
+ * requisição prende uma thread, então poucas threads de event loop seguram muitas conexões
+ * lentas.
+ * <p>
+ * No lote, os itens são lidos do corpo como {@code Flux<EmailDTO>} e processados um por vez;
+ * com a fila do {@link EmailDispatcher} cheia o próximo item só é pedido quando abrir vaga, e
+ * a falta de demanda se propaga até o cliente (TCP). Passada a espera máxima o item é recusado
+ * como no endpoint servlet.
+ * <p>
+ * Enfileirar espera o fsync do spool, então essa parte roda no scheduler boundedElastic e não
+ * no event loop.
+ */
+@RestController
+@RequestMapping("/api/email")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class EmailReativoController {
+
+    private static final Duration INTERVALO_VAGA = Duration.ofMillis(5);
+    private static final Duration ESPERA_MAXIMA_VAGA = Duration.ofSeconds(30);
+    // Mala direta: um prazo para a lista inteira, como no servlet, senão uma fila travada
+    // prende a requisição por 30 s a cada destinatário
+    private static final Duration ESPERA_MAXIMA_MALA_DIRETA = Duration.ofSeconds(2);
+    private static final List<String> ERROS_FILA_CHEIA = List.of(new FilaCheiaException().getMessage());
+
+    private final ProviderRouter providerRouter;
+    private final EmailService emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final EmailLoteService emailLoteService;
+    private final CacheIdempotencia cacheIdempotencia;
+
+    @Autowired
+    public EmailReativoController(ProviderRouter providerRouter, EmailService emailService,
+                                  EmailDispatcher emailDispatcher, EmailLoteService emailLoteService,
+                                  CacheIdempotencia cacheIdempotencia) {
+        this.providerRouter = providerRouter;
+        this.emailService = emailService;
+        this.emailDispatcher = emailDispatcher;
+        this.emailLoteService = emailLoteService;
+        this.cacheIdempotencia = cacheIdempotencia;
+    }
+
+    @PostMapping("/enviar-email")
+    public Mono<ResponseEntity<EnvioAceitoDTO>> enviarEmail(@RequestBody @Valid Mono<EmailDTO> emailDTO,
+                                                            @RequestHeader(value = EmailController.IDEMPOTENCY_KEY,
+                                                                    required = false) String idempotencyKey) {
+        return emailDTO.publishOn(Schedulers.boundedElastic()).map(dto -> {
+            CacheIdempotencia.Resultado resultado = cacheIdempotencia.executar(idempotencyKey, dto, () -> {
+                ProviderAdapter<?> provider = providerRouter.selecionar(p -> emailService.comporta(dto, p));
+                Object emailAdaptado = emailService.adaptarEmailParaIntegracao(dto, provider);
+                return emailDispatcher.enfileirar(dto, provider, emailAdaptado);
+            });
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.ACCEPTED);
+            if (resultado.repetido()) {
+                resposta.header(EmailController.IDEMPOTENT_REPLAYED, "true");
+            }
+            return resposta.body(new EnvioAceitoDTO(resultado.id()));
+        });
+    }
+
+    @PostMapping(value = "/enviar-emails",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResultadoLoteDTO> enviarEmails(@RequestBody Flux<EmailDTO> emails) {
+        return processar(emails).collectList().map(ResultadoLoteDTO::new);
+    }
+
+    @PostMapping(value = "/enviar-emails",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ResultadoItemDTO> enviarEmailsStream(@RequestBody Flux<EmailDTO> emails) {
+        return processar(emails);
+    }
+
+    @PostMapping(value = "/enviar-mala-direta", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResultadoLoteDTO> enviarMalaDireta(@RequestBody @Valid Mono<MalaDiretaDTO> malaDireta) {
+        return processarMalaDireta(malaDireta).collectList().map(ResultadoLoteDTO::new);
+    }
+
+    @PostMapping(value = "/enviar-mala-direta", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ResultadoItemDTO> enviarMalaDiretaStream(@RequestBody @Valid Mono<MalaDiretaDTO> malaDireta) {
+        return processarMalaDireta(malaDireta);
+    }
+
+    // Um destinatário por vez; esgotado o prazo de espera por vaga, o restante é recusado como fila cheia
+    private Flux<ResultadoItemDTO> processarMalaDireta(Mono<MalaDiretaDTO> corpo) {
+        return corpo.flatMapMany(dto -> {
+            MalaDireta malaDireta = new MalaDireta(dto);
+            long limite = System.nanoTime() + ESPERA_MAXIMA_MALA_DIRETA.toNanos();
+            AtomicBoolean esgotado = new AtomicBoolean();
+            // Por índice e não fromIterable: um destinatário null vira item recusado, não erro do Flux
+            return Flux.range(0, malaDireta.getDestinatarios().size())
+                    .concatMap(indice -> (esgotado.get() ? Mono.just(false) : aguardarVaga(limite))
+                            .flatMap(vaga -> {
+                                if (!vaga) {
+                                    esgotado.set(true);
+                                    return Mono.just(ResultadoItemDTO.rejeitado(indice, ERROS_FILA_CHEIA));
+                                }
+                                return Mono.fromCallable(() -> emailLoteService.processarDestinatario(malaDireta,
+                                                indice, malaDireta.getDestinatarios().get(indice)))
+                                        .subscribeOn(Schedulers.boundedElastic());
+                            }));
+        });
+    }
+
+    private Flux<ResultadoItemDTO> processar(Flux<EmailDTO> emails) {
+        AtomicInteger indice = new AtomicInteger();
+        return emails
+                .concatMap(email -> aguardarVaga()
+                        .then(Mono.fromCallable(() -> emailLoteService.processarItem(indice.getAndIncrement(), email))
+                                .subscribeOn(Schedulers.boundedElastic())))
+                // Corpo malformado: os itens anteriores já foram aceitos, o restante é reportado como no servlet
+                .onErrorResume(e -> e instanceof DecodingException || e instanceof ServerWebInputException,
+                        e -> Mono.just(ResultadoItemDTO.rejeitado(indice.get(),
+                                List.of("JSON inválido: " + causaRaiz(e).getMessage()))));
+    }
+
+    private Mono<Void> aguardarVaga() {
+        if (emailDispatcher.temCapacidade()) {
+            return Mono.empty();
+        }
+        return Flux.interval(INTERVALO_VAGA)
+                .filter(tick -> emailDispatcher.temCapacidade())
+                .next()
+                .timeout(ESPERA_MAXIMA_VAGA, Mono.empty())
+                .then();
+    }
+
+    // true quando abre vaga, false se o prazo (System.nanoTime) passar antes
+    private Mono<Boolean> aguardarVaga(long limite) {
+        if (emailDispatcher.temCapacidade()) {
+            return Mono.just(true);
+        }
+        long restante = limite - System.nanoTime();
+        if (restante <= 0) {
+            return Mono.just(false);
+        }
+        return Flux.interval(INTERVALO_VAGA)
+                .filter(tick -> emailDispatcher.temCapacidade())
+                .next()
+                .map(tick -> true)
+                .timeout(Duration.ofNanos(restante), Mono.just(false));
+    }
+
+    private static Throwable causaRaiz(Throwable e) {
+        Throwable causa = e;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa;
+    }
+}
@@ -0,0 +1,148 @@
+package com.viasoft.email.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Junta as mensagens de um provedor em lotes de até {@code tamanhoMaximo}, ou o que chegar em
+ * {@code esperaMaxima}, o que vier primeiro, e faz uma chamada só para o lote inteiro.
+ * <p>
+ * Não há thread própria: a primeira mensagem de um lote é a líder. Ela espera o lote encher
+ * (ou o prazo vencer), fecha o lote e chama o {@link Envio}; as demais só aguardam o
+ * resultado. Cada uma volta para o seu worker com o próprio desfecho, então retry, spool e
+ * auditoria continuam por mensagem. Como cada worker fica parado enquanto o lote se forma, o
+ * tamanho real do lote nunca passa do número de envios simultâneos: com o pool fixo de
+ * workers isso é {@code mail.dispatch.workers}, com virtual threads é a fila toda.
+ * <p>
+ * Uma falha da chamada inteira vale para todas as mensagens do lote (a mesma exceção).
+ */
+class AgrupadorLote {
+
+    /**
+     * @return a falha de cada mensagem, na ordem do lote ({@code null} = enviada)
+     */
+    interface Envio {
+        Exception[] enviar(List<MensagemEmail> lote) throws Exception;
+    }
+
+    private final int tamanhoMaximo;
+    private final long esperaMaximaNanos;
+    private final Envio envio;
+
+    // Lote recebendo mensagens; null até a próxima mensagem abrir outro
+    private Lote aberto;
+
+    AgrupadorLote(int tamanhoMaximo, long esperaMaximaNanos, Envio envio) {
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("lote.tamanho-maximo deve ser >= 1");
+        }
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.esperaMaximaNanos = esperaMaximaNanos;
+        this.envio = envio;
+    }
+
+    /**
+     * Bloqueia até o lote com esta mensagem ser enviado.
+     *
+     * @throws Exception a falha desta mensagem no lote, ou a da chamada inteira
+     */
+    void enviar(MensagemEmail mensagem) throws Exception {
+        Lote lote;
+        int posicao;
+        boolean lider;
+        synchronized (this) {
+            lider = aberto == null;
+            if (lider) {
+                aberto = new Lote(tamanhoMaximo);
+            }
+            lote = aberto;
+            posicao = lote.mensagens.size();
+            lote.mensagens.add(mensagem);
+            if (lote.mensagens.size() == tamanhoMaximo) {
+                aberto = null;
+                lote.cheio.countDown();
+            }
+        }
+
+        if (lider) {
+            aguardar(lote.cheio, esperaMaximaNanos);
+            synchronized (this) {
+                if (aberto == lote) {
+                    aberto = null;
+                }
+            }
+            lote.despachar(envio);
+        } else {
+            // A mensagem já está no lote: sair antes do resultado poderia reenviá-la em duplicidade
+            aguardar(lote.concluido, Long.MAX_VALUE);
+        }
+
+        Exception falha = lote.falha(posicao);
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    // Espera sem ser interrompida; a interrupção fica marcada para quem vier depois
+    private static void aguardar(CountDownLatch latch, long nanos) {
+        boolean interrompida = false;
+        long limite = System.nanoTime() + nanos;
+        try {
+            while (true) {
+                try {
+                    long restante = nanos == Long.MAX_VALUE ? Long.MAX_VALUE : limite - System.nanoTime();
+                    latch.await(restante, TimeUnit.NANOSECONDS);
+                    return;
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+        } finally {
+            if (interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Lote {
+        private final List<MensagemEmail> mensagens;
+        private final CountDownLatch cheio = new CountDownLatch(1);
+        private final CountDownLatch concluido = new CountDownLatch(1);
+
+        // Escritos pela líder antes de concluido.countDown(), lidos pelas demais depois do await
+        private Exception[] resultados;
+        private Exception falhaGeral;
+
+        Lote(int tamanhoMaximo) {
+            this.mensagens = new ArrayList<>(tamanhoMaximo);
+        }
+
+        void despachar(Envio envio) {
+            try {
+                Exception[] retorno = envio.enviar(mensagens);
+                if (retorno == null || retorno.length != mensagens.size()) {
+                    throw new IllegalStateException("Provedor devolveu resultado para " +
+                            (retorno == null ? 0 : retorno.length) + " de " + mensagens.size() + " mensagens");
+                }
+                resultados = retorno;
+            } catch (Exception e) {
+                falhaGeral = e;
+            } finally {
+                concluido.countDown();
+            }
+        }
+
+        Exception falha(int posicao) {
+            if (falhaGeral != null) {
+                return falhaGeral;
+            }
+            if (resultados == null) {
+                // A líder saiu com um Error no meio da chamada
+                return new IllegalStateException("Lote não concluído");
+            }
+            return resultados[posicao];
+        }
+    }
+}
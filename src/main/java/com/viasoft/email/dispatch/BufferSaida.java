@@ -0,0 +1,64 @@
+package com.viasoft.email.dispatch;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * {@link OutputStream} sobre um array reaproveitado entre mensagens. Cresce conforme a
+ * necessidade e volta ao tamanho inicial se uma mensagem fora do comum o inflar demais.
+ */
+class BufferSaida extends OutputStream {
+
+    private final int tamanhoInicial;
+    private final int tamanhoRetido;
+
+    private byte[] dados;
+    private int tamanho;
+    private ByteBuffer visao;
+
+    BufferSaida(int tamanhoInicial, int tamanhoRetido) {
+        this.tamanhoInicial = tamanhoInicial;
+        this.tamanhoRetido = tamanhoRetido;
+        this.dados = new byte[tamanhoInicial];
+        this.visao = ByteBuffer.wrap(dados);
+    }
+
+    @Override
+    public void write(int b) {
+        garantir(tamanho + 1);
+        dados[tamanho++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        garantir(tamanho + len);
+        System.arraycopy(b, off, dados, tamanho, len);
+        tamanho += len;
+    }
+
+    void reiniciar() {
+        if (dados.length > tamanhoRetido) {
+            dados = new byte[tamanhoInicial];
+            visao = ByteBuffer.wrap(dados);
+        }
+        tamanho = 0;
+    }
+
+    // Visão somente do trecho escrito, sem copiar
+    ByteBuffer comoByteBuffer() {
+        visao.clear().limit(tamanho);
+        return visao;
+    }
+
+    int capacidade() {
+        return dados.length;
+    }
+
+    private void garantir(int necessario) {
+        if (necessario > dados.length) {
+            dados = Arrays.copyOf(dados, Math.max(necessario, dados.length * 2));
+            visao = ByteBuffer.wrap(dados);
+        }
+    }
+}
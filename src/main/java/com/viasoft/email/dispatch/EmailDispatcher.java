@@ -0,0 +1,236 @@
+package com.viasoft.email.dispatch;
+
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.provider.ProviderAdapter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.env.Environment;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fila limitada em memória + pool fixo de workers que executam o envio fora da
+ * thread do Tomcat. Quando a fila enche a mensagem é recusada na hora
+ * ({@link FilaCheiaException}) em vez de bloquear a requisição.
+ * O envio em si (cota, roteamento, failover) fica no {@link EmailSender} injetado.
+ * <p>
+ * Com {@code spring.threads.virtual.enabled=true} em Java 21+, cada mensagem roda numa virtual
+ * thread: I/O bloqueante no transporte não prende mais um worker do pool. O limite passa a
+ * ser de mensagens em voo ({@code workers + capacidade-fila}), com a mesma recusa imediata.
+ * Em Java 17 a propriedade é ignorada e o pool fixo continua sendo usado.
+ * <p>
+ * Cada mensagem aceita passa antes pelo {@link SpoolEnvio}: o id só volta ao cliente depois
+ * de ela estar em disco, e a confirmação no spool sai quando o envio termina. Na subida, o
+ * que ficou sem confirmação é reenfileirado.
+ * <p>
+ * Um envio que falha vai para o {@link RetryEnvio}, que decide se e quando tentar de novo; a
+ * mensagem espera fora do pool e, enquanto isso, segue sem confirmação no spool.
+ */
+@Component
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final EmailSender emailSender;
+    private final SpoolEnvio spool;
+    private final RetryEnvio retry;
+    private final Executor executor;
+
+    // Só no modo virtual: vagas de mensagens em voo (aguardando + enviando)
+    private final Semaphore vagas;
+    private final int capacidade;
+
+    @Autowired
+    public EmailDispatcher(EmailSender emailSender,
+                           @Value("${mail.dispatch.workers:4}") int workers,
+                           @Value("${mail.dispatch.capacidade-fila:10000}") int capacidadeFila,
+                           Environment environment, SpoolEnvio spool, RetryEnvio retry) {
+        this(emailSender, workers, capacidadeFila, threadsVirtuais(environment), spool, retry);
+    }
+
+    public EmailDispatcher(EmailSender emailSender, int workers, int capacidadeFila) {
+        this(emailSender, workers, capacidadeFila, false, SpoolEnvio.NENHUM, RetryEnvio.NENHUM);
+    }
+
+    EmailDispatcher(EmailSender emailSender, int workers, int capacidadeFila, boolean threadsVirtuais,
+                    SpoolEnvio spool, RetryEnvio retry) {
+        this.emailSender = emailSender;
+        this.spool = spool;
+        this.retry = retry;
+        if (threadsVirtuais) {
+            this.capacidade = workers + capacidadeFila;
+            this.vagas = new Semaphore(capacidade);
+            this.executor = new VirtualThreadTaskExecutor("email-dispatch-");
+        } else {
+            this.capacidade = capacidadeFila;
+            this.vagas = null;
+            this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacidadeFila), new DispatchThreadFactory(),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    private static boolean threadsVirtuais(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return true;
+        }
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled ignorado: requer Java 21 (atual: {}); usando pool fixo",
+                    JavaVersion.getJavaVersion());
+        }
+        return false;
+    }
+
+    /**
+     * Enfileira o DTO adaptado para envio assíncrono.
+     *
+     * @return id da mensagem aceita
+     * @throws FilaCheiaException se a fila estiver no limite
+     */
+    public String enfileirar(EmailDTO original, ProviderAdapter<?> provider, Object emailAdaptado) {
+        if (vagas != null && !vagas.tryAcquire()) {
+            throw new FilaCheiaException();
+        }
+        MensagemEmail mensagem = new MensagemEmail(UUID.randomUUID().toString(), original, provider, emailAdaptado);
+        try {
+            spool.gravar(mensagem);
+        } catch (RuntimeException e) {
+            liberarVaga();
+            throw e;
+        }
+        try {
+            executor.execute(() -> enviar(mensagem, 1));
+        } catch (RejectedExecutionException e) {
+            spool.confirmar(mensagem.id());
+            liberarVaga();
+            throw new FilaCheiaException();
+        }
+        return mensagem.id();
+    }
+
+    /**
+     * Reenfileira as mensagens que o spool encontrou sem confirmação (aceitas antes de uma
+     * queda). Espera vaga em vez de recusar: essas mensagens já foram aceitas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarSpool() throws InterruptedException {
+        for (MensagemEmail mensagem : spool.recuperar()) {
+            while (true) {
+                if (vagas != null) {
+                    vagas.acquire();
+                }
+                try {
+                    executor.execute(() -> enviar(mensagem, 1));
+                    break;
+                } catch (RejectedExecutionException e) {
+                    liberarVaga();
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            }
+        }
+    }
+
+    // Pool fixo: mensagens aguardando um worker; modo virtual: mensagens em voo
+    public int getTamanhoFila() {
+        if (vagas != null) {
+            return capacidade - vagas.availablePermits();
+        }
+        return ((ThreadPoolExecutor) executor).getQueue().size();
+    }
+
+    // Se uma nova mensagem seria aceita agora (usado para aplicar backpressure no lote reativo)
+    public boolean temCapacidade() {
+        if (vagas != null) {
+            return vagas.availablePermits() > 0;
+        }
+        return ((ThreadPoolExecutor) executor).getQueue().remainingCapacity() > 0;
+    }
+
+    public boolean isThreadsVirtuais() {
+        return vagas != null;
+    }
+
+    private void enviar(MensagemEmail mensagem, int tentativa) {
+        boolean reagendada = false;
+        try {
+            emailSender.enviar(mensagem);
+        } catch (Exception e) {
+            reagendada = retry.reagendar(mensagem, tentativa, e, () -> reenfileirar(mensagem, tentativa + 1));
+            if (!reagendada) {
+                log.error("Falha ao enviar mensagem {} via {}", mensagem.id(), mensagem.provider().getIntegracao(), e);
+            }
+        } finally {
+            if (!reagendada) {
+                spool.confirmar(mensagem.id());
+            }
+            liberarVaga();
+        }
+    }
+
+    // Roda na thread do retry: com a fila cheia não espera, pede para ser chamado de novo
+    private void reenfileirar(MensagemEmail mensagem, int tentativa) {
+        if (vagas != null && !vagas.tryAcquire()) {
+            retry.adiar(() -> reenfileirar(mensagem, tentativa));
+            return;
+        }
+        try {
+            executor.execute(() -> enviar(mensagem, tentativa));
+        } catch (RejectedExecutionException e) {
+            liberarVaga();
+            retry.adiar(() -> reenfileirar(mensagem, tentativa));
+        }
+    }
+
+    private void liberarVaga() {
+        if (vagas != null) {
+            vagas.release();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (vagas != null) {
+            // Virtual threads não têm shutdown: espera as mensagens em voo devolverem as vagas
+            if (vagas.tryAcquire(capacidade, 10, TimeUnit.SECONDS)) {
+                vagas.release(capacidade);
+            } else {
+                log.warn("{} mensagens não enviadas no desligamento", getTamanhoFila());
+            }
+            return;
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} mensagens não enviadas no desligamento", pool.shutdownNow().size());
+        }
+    }
+
+    private static class DispatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "email-dispatch-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.viasoft.email.dispatch;
+
+/**
+ * Etapa final do pipeline: entrega a mensagem adaptada ao provedor.
+ * Executada sempre nas threads de dispatch, nunca na thread da requisição.
+ */
+public interface EmailSender {
+
+    void enviar(MensagemEmail mensagem) throws Exception;
+}
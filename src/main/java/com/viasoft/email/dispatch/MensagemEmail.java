@@ -0,0 +1,19 @@
+package com.viasoft.email.dispatch;
+
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.provider.ProviderAdapter;
+
+/**
+ * Mensagem aceita pela API e aguardando envio pelos workers do {@link EmailDispatcher}.
+ *
+ * @param id            identificador devolvido ao cliente no 202
+ * @param original      DTO recebido, guardado para readaptar em caso de failover
+ * @param provider      provedor escolhido pelo roteador
+ * @param emailAdaptado DTO já adaptado para o provedor (EmailAwsDTO ou EmailOciDTO)
+ */
+public record MensagemEmail(String id, EmailDTO original, ProviderAdapter<?> provider, Object emailAdaptado) {
+
+    MensagemEmail comProvider(ProviderAdapter<?> novoProvider, Object novoEmailAdaptado) {
+        return new MensagemEmail(id, original, novoProvider, novoEmailAdaptado);
+    }
+}
@@ -0,0 +1,51 @@
+package com.viasoft.email.dispatch;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Pool limitado e sem locks de {@link BufferSaida}. Substitui o buffer por thread: com
+ * virtual threads cada mensagem tem uma thread nova e um {@code ThreadLocal} não seria
+ * reaproveitado. Sem buffer livre um novo é criado; na devolução, se o pool estiver cheio,
+ * ele é descartado.
+ */
+class PoolBuffers {
+
+    private final AtomicReferenceArray<BufferSaida> livres;
+    private final Supplier<BufferSaida> fabrica;
+
+    PoolBuffers(int tamanho, Supplier<BufferSaida> fabrica) {
+        this.livres = new AtomicReferenceArray<>(tamanho);
+        this.fabrica = fabrica;
+    }
+
+    BufferSaida obter() {
+        int inicio = indiceInicial();
+        for (int i = 0; i < livres.length(); i++) {
+            int slot = (inicio + i) % livres.length();
+            if (livres.get(slot) != null) {
+                BufferSaida buffer = livres.getAndSet(slot, null);
+                if (buffer != null) {
+                    buffer.reiniciar();
+                    return buffer;
+                }
+            }
+        }
+        return fabrica.get();
+    }
+
+    void devolver(BufferSaida buffer) {
+        int inicio = indiceInicial();
+        for (int i = 0; i < livres.length(); i++) {
+            int slot = (inicio + i) % livres.length();
+            if (livres.get(slot) == null && livres.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    // Threads diferentes começam a busca em pontos diferentes para disputar menos os mesmos slots
+    private int indiceInicial() {
+        return (int) (Thread.currentThread().getId() % livres.length());
+    }
+}
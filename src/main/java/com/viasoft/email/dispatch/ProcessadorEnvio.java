@@ -0,0 +1,105 @@
+package com.viasoft.email.dispatch;
+
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+import com.viasoft.email.provider.DisjuntoresProvedor;
+import com.viasoft.email.provider.LimitadoresProvedor;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailService;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pipeline de envio executado pelos workers do {@link EmailDispatcher}: passa pelo disjuntor
+ * do provedor ({@link DisjuntoresProvedor}), respeita a cota ({@link LimitadoresProvedor}),
+ * entrega ao transporte e alimenta as estatísticas do {@link ProviderRouter}. Se o envio
+ * falhar e houver outro provedor saudável, a mensagem é readaptada e reenviada por ele
+ * (failover).
+ */
+@Primary
+@Component
+public class ProcessadorEnvio implements EmailSender {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorEnvio.class);
+
+    private final EmailSender transporte;
+    private final ProviderRouter providerRouter;
+    private final LimitadoresProvedor limitadores;
+    private final DisjuntoresProvedor disjuntores;
+    private final EmailService emailService;
+
+    @Autowired
+    public ProcessadorEnvio(@Qualifier("transporteEmailSender") EmailSender transporte, ProviderRouter providerRouter,
+                            LimitadoresProvedor limitadores, DisjuntoresProvedor disjuntores,
+                            EmailService emailService) {
+        this.transporte = transporte;
+        this.providerRouter = providerRouter;
+        this.limitadores = limitadores;
+        this.disjuntores = disjuntores;
+        this.emailService = emailService;
+    }
+
+    @Override
+    public void enviar(MensagemEmail mensagem) throws Exception {
+        Exception erro = tentarEnviar(mensagem);
+        if (erro == null) {
+            return;
+        }
+
+        // Sem o EmailDTO original não há como readaptar para outro provedor: sem failover
+        ProviderAdapter<?> alternativa = mensagem.original() == null ? null
+                : providerRouter.alternativa(mensagem.provider(), p -> emailService.comporta(mensagem.original(), p));
+        if (alternativa == null) {
+            throw erro;
+        }
+
+        MensagemEmail failover;
+        try {
+            failover = mensagem.comProvider(alternativa,
+                    emailService.adaptarEmailParaIntegracao(mensagem.original(), alternativa));
+        } catch (ConstraintViolationException e) {
+            log.warn("Mensagem {} não cabe nos limites de {}; sem failover", mensagem.id(), alternativa.getIntegracao());
+            throw erro;
+        }
+
+        log.warn("Falha ao enviar mensagem {} via {} ({}); failover para {}", mensagem.id(),
+                mensagem.provider().getIntegracao(), erro.getMessage(), alternativa.getIntegracao());
+        Exception erroFailover = tentarEnviar(failover);
+        if (erroFailover != null) {
+            erroFailover.addSuppressed(erro);
+            throw erroFailover;
+        }
+    }
+
+    private Exception tentarEnviar(MensagemEmail mensagem) {
+        ProviderAdapter<?> provider = mensagem.provider();
+        // Disjuntor aberto: falha na hora, sem esperar o timeout de um provedor fora do ar
+        if (!disjuntores.permitir(provider)) {
+            return disjuntores.indisponivel(provider);
+        }
+        // Falta de cota não é falha do provedor: não entra nas estatísticas do roteador nem no disjuntor
+        if (!limitadores.adquirir(provider)) {
+            disjuntores.cancelar(provider);
+            return new LimiteTaxaExcedidoException(provider.getIntegracao());
+        }
+        long inicio = System.nanoTime();
+        try {
+            transporte.enviar(mensagem);
+            registrarResultado(provider, System.nanoTime() - inicio, true);
+            return null;
+        } catch (Exception e) {
+            registrarResultado(provider, System.nanoTime() - inicio, false);
+            return e;
+        }
+    }
+
+    private void registrarResultado(ProviderAdapter<?> provider, long duracaoNanos, boolean sucesso) {
+        providerRouter.registrarResultado(provider, duracaoNanos, sucesso);
+        disjuntores.registrar(provider, duracaoNanos, sucesso);
+    }
+}
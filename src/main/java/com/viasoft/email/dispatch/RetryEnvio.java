@@ -0,0 +1,35 @@
+package com.viasoft.email.dispatch;
+
+/**
+ * Decide o que fazer com uma mensagem cujo envio falhou: agendar outra tentativa para mais
+ * tarde ou desistir. A espera acontece fora dos workers do {@link EmailDispatcher}.
+ */
+public interface RetryEnvio extends AutoCloseable {
+
+    // Sem novas tentativas: a falha é só registrada em log pelo dispatcher
+    RetryEnvio NENHUM = new RetryEnvio() {
+        @Override
+        public boolean reagendar(MensagemEmail mensagem, int tentativa, Exception erro, Runnable novaTentativa) {
+            return false;
+        }
+
+        @Override
+        public void adiar(Runnable acao) {
+            acao.run();
+        }
+    };
+
+    /**
+     * @param tentativa     número da tentativa que falhou (a primeira é 1)
+     * @param novaTentativa executada quando vencer o atraso
+     * @return {@code true} se outra tentativa foi agendada; {@code false} se a mensagem foi abandonada
+     */
+    boolean reagendar(MensagemEmail mensagem, int tentativa, Exception erro, Runnable novaTentativa);
+
+    // Reexecuta a ação em pouco tempo (fila cheia no momento de reenfileirar)
+    void adiar(Runnable acao);
+
+    @Override
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,44 @@
+package com.viasoft.email.dispatch;
+
+import java.util.List;
+
+/**
+ * Registro durável das mensagens aceitas e ainda não enviadas. O {@link EmailDispatcher}
+ * grava antes de responder 202 e confirma depois do envio; na subida, o que ficou sem
+ * confirmação volta para a fila.
+ */
+public interface SpoolEnvio extends AutoCloseable {
+
+    // Sem durabilidade: as mensagens ficam só na fila em memória
+    SpoolEnvio NENHUM = new SpoolEnvio() {
+        @Override
+        public void gravar(MensagemEmail mensagem) {
+        }
+
+        @Override
+        public void confirmar(String id) {
+        }
+
+        @Override
+        public List<MensagemEmail> recuperar() {
+            return List.of();
+        }
+    };
+
+    /**
+     * Grava a mensagem; ao retornar ela já está em disco.
+     *
+     * @throws java.io.UncheckedIOException se a gravação falhar
+     */
+    void gravar(MensagemEmail mensagem);
+
+    // Marca a mensagem como resolvida (enviada ou descartada); não espera o fsync
+    void confirmar(String id);
+
+    // Mensagens sem confirmação encontradas na subida; devolvidas uma única vez
+    List<MensagemEmail> recuperar();
+
+    @Override
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,14 @@
+package com.viasoft.email.dispatch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Saída para o provedor: recebe o DTO adaptado já serializado em JSON (UTF-8).
+ * <p>
+ * O {@code corpo} aponta para um buffer reaproveitado pelo worker e só é válido durante a
+ * chamada; quem precisar dele depois deve copiar. Envio em lote: {@link TransporteEmailLote}.
+ */
+public interface TransporteEmail {
+
+    void transmitir(MensagemEmail mensagem, ByteBuffer corpo) throws Exception;
+}
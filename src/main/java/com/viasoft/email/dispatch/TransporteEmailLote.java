@@ -0,0 +1,20 @@
+package com.viasoft.email.dispatch;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Transporte que também aceita várias mensagens do mesmo provedor numa chamada; o
+ * {@link TransporteEmailSender} só agrupa em lote quando o transporte implementa esta interface.
+ */
+public interface TransporteEmailLote extends TransporteEmail {
+
+    /**
+     * Envia várias mensagens do mesmo provedor numa chamada só.
+     *
+     * @param corpo array JSON com o DTO adaptado de cada mensagem, na ordem de {@code mensagens}
+     * @return a falha de cada mensagem na mesma ordem ({@code null} = enviada)
+     * @throws Exception se a chamada inteira falhou; vale para todas as mensagens
+     */
+    Exception[] transmitirLote(List<MensagemEmail> mensagens, ByteBuffer corpo) throws Exception;
+}
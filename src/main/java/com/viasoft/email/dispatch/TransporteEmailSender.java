@@ -0,0 +1,153 @@
+package com.viasoft.email.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.email.audit.AuditoriaEnvio;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializa o DTO adaptado direto em bytes UTF-8 num buffer reaproveitado (sem String
+ * intermediária), entrega ao {@link TransporteEmail} e, com sucesso, registra na auditoria.
+ * Serialização e transmissão são as etapas {@code serializacao} e {@code envio} do
+ * {@link MetricasPipeline}.
+ * <p>
+ * Provedor com {@code mail.provedores.<INTEGRACAO>.lote.habilitado=true}, num transporte que
+ * aceita lotes ({@link TransporteEmailLote}), passa por um {@link AgrupadorLote}: as mensagens saem como um array JSON numa
+ * chamada só, e cada uma volta ao seu worker com o próprio resultado.
+ */
+@Component
+public class TransporteEmailSender implements EmailSender {
+
+    private static final int TAMANHO_INICIAL = 4 * 1024;
+
+    // Buffers maiores que isso (mensagem fora do comum) não ficam retidos no worker
+    private static final int TAMANHO_RETIDO = 256 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final TransporteEmail transporte;
+    private final AuditoriaEnvio auditoria;
+    private final MetricasPipeline metricas;
+    private final Map<String, AgrupadorLote> agrupadores;
+    private final Map<Class<?>, ObjectWriter> escritores = new ConcurrentHashMap<>();
+    private final PoolBuffers buffers = new PoolBuffers(Runtime.getRuntime().availableProcessors() * 4,
+            () -> new BufferSaida(TAMANHO_INICIAL, TAMANHO_RETIDO));
+
+    public TransporteEmailSender(ObjectMapper objectMapper, TransporteEmail transporte, AuditoriaEnvio auditoria) {
+        this(objectMapper, transporte, auditoria, MetricasPipeline.nenhuma());
+    }
+
+    public TransporteEmailSender(ObjectMapper objectMapper, TransporteEmail transporte, AuditoriaEnvio auditoria,
+                                 MetricasPipeline metricas) {
+        this(objectMapper, transporte, auditoria, metricas, new EmailProperties(), ProviderRegistry.padrao());
+    }
+
+    @Autowired
+    public TransporteEmailSender(ObjectMapper objectMapper, TransporteEmail transporte, AuditoriaEnvio auditoria,
+                                 MetricasPipeline metricas, EmailProperties properties,
+                                 ProviderRegistry providerRegistry) {
+        this.objectMapper = objectMapper;
+        this.transporte = transporte;
+        this.auditoria = auditoria;
+        this.metricas = metricas;
+        Map<String, AgrupadorLote> agrupadores = new HashMap<>();
+        if (transporte instanceof TransporteEmailLote transporteLote) {
+            for (ProviderAdapter<?> adapter : providerRegistry.getAdapters()) {
+                EmailProperties.Lote config = properties.getProvedor(adapter.getIntegracao()).getLote();
+                if (config.isHabilitado()) {
+                    agrupadores.put(adapter.getIntegracao(), new AgrupadorLote(config.getTamanhoMaximo(),
+                            config.getEsperaMaxima().toNanos(), lote -> enviarLote(transporteLote, lote)));
+                }
+            }
+        }
+        this.agrupadores = Map.copyOf(agrupadores);
+    }
+
+    @Override
+    public void enviar(MensagemEmail mensagem) throws Exception {
+        AgrupadorLote agrupador = agrupadores.get(mensagem.provider().getIntegracao());
+        if (agrupador != null) {
+            agrupador.enviar(mensagem);
+            auditoria.registrar(mensagem);
+            return;
+        }
+        BufferSaida buffer = buffers.obter();
+        try {
+            Object emailAdaptado = mensagem.emailAdaptado();
+            long inicio = metricas.iniciar();
+            boolean sucesso = false;
+            try {
+                escritor(emailAdaptado.getClass()).writeValue(buffer, emailAdaptado);
+                sucesso = true;
+            } finally {
+                metricas.registrar(MetricasPipeline.Etapa.SERIALIZACAO, mensagem.provider(), sucesso, inicio);
+            }
+
+            inicio = metricas.iniciar();
+            sucesso = false;
+            try {
+                transporte.transmitir(mensagem, buffer.comoByteBuffer());
+                sucesso = true;
+            } finally {
+                metricas.registrar(MetricasPipeline.Etapa.ENVIO, mensagem.provider(), sucesso, inicio);
+            }
+        } finally {
+            buffers.devolver(buffer);
+        }
+        auditoria.registrar(mensagem);
+    }
+
+    // Chamado pela líder do lote; todas as mensagens são do mesmo provedor
+    private Exception[] enviarLote(TransporteEmailLote transporteLote, List<MensagemEmail> lote) throws Exception {
+        ProviderAdapter<?> provider = lote.get(0).provider();
+        metricas.registrarLote(provider, lote.size());
+        BufferSaida buffer = buffers.obter();
+        try {
+            long inicio = metricas.iniciar();
+            boolean sucesso = false;
+            try {
+                buffer.write('[');
+                for (int i = 0; i < lote.size(); i++) {
+                    if (i > 0) {
+                        buffer.write(',');
+                    }
+                    Object emailAdaptado = lote.get(i).emailAdaptado();
+                    escritor(emailAdaptado.getClass()).writeValue(buffer, emailAdaptado);
+                }
+                buffer.write(']');
+                sucesso = true;
+            } finally {
+                metricas.registrar(MetricasPipeline.Etapa.SERIALIZACAO, provider, sucesso, inicio);
+            }
+
+            inicio = metricas.iniciar();
+            sucesso = false;
+            try {
+                Exception[] resultados = transporteLote.transmitirLote(lote, buffer.comoByteBuffer());
+                sucesso = true;
+                return resultados;
+            } finally {
+                metricas.registrar(MetricasPipeline.Etapa.ENVIO, provider, sucesso, inicio);
+            }
+        } finally {
+            buffers.devolver(buffer);
+        }
+    }
+
+    private ObjectWriter escritor(Class<?> tipo) {
+        ObjectWriter escritor = escritores.get(tipo);
+        if (escritor == null) {
+            escritor = escritores.computeIfAbsent(tipo, objectMapper::writerFor);
+        }
+        return escritor;
+    }
+}
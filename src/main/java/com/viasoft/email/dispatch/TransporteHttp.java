@@ -0,0 +1,133 @@
+package com.viasoft.email.dispatch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Envia o JSON por HTTP para {@code <url>/<integracao>/emails} (um email) ou
+ * {@code <url>/<integracao>/emails/lote} (array), no contrato do
+ * {@link com.viasoft.email.simulador.SimuladorProvedor}.
+ * <p>
+ * O status vira a exceção que o retry já sabe classificar: 429 é
+ * {@link LimiteTaxaExcedidoException}, outro 4xx é {@link IllegalArgumentException}
+ * (permanente), 5xx e timeout são {@link IOException} (transitório).
+ * <p>
+ * O timeout do {@link HttpRequest} só vale até chegarem os cabeçalhos; uma resposta gotejada
+ * prenderia o worker indefinidamente. Por isso a chamada é assíncrona, com prazo para a resposta
+ * inteira. O corpo é copiado antes do envio: depois do prazo o cliente HTTP ainda pode estar
+ * lendo o publisher, e o buffer do worker já voltou para o pool.
+ */
+public class TransporteHttp implements TransporteEmailLote {
+
+    private final HttpClient cliente;
+    private final String url;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final Map<String, URI> unitarios = new ConcurrentHashMap<>();
+    private final Map<String, URI> lotes = new ConcurrentHashMap<>();
+
+    public TransporteHttp(String url, Duration timeoutConexao, Duration timeout, ObjectMapper objectMapper) {
+        // HTTP/1.1 explícito: sem a tentativa de upgrade para h2c a cada conexão nova
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeoutConexao)
+                .build();
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void transmitir(MensagemEmail mensagem, ByteBuffer corpo) throws Exception {
+        String integracao = mensagem.provider().getIntegracao();
+        HttpResponse<byte[]> resposta = postar(unitarios.computeIfAbsent(integracao, i -> uri(i, "")), corpo);
+        Exception falha = falha(resposta.statusCode(), integracao, resposta.body());
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    @Override
+    public Exception[] transmitirLote(List<MensagemEmail> mensagens, ByteBuffer corpo) throws Exception {
+        String integracao = mensagens.get(0).provider().getIntegracao();
+        HttpResponse<byte[]> resposta = postar(lotes.computeIfAbsent(integracao, i -> uri(i, "/lote")), corpo);
+        Exception falhaGeral = falha(resposta.statusCode(), integracao, resposta.body());
+        if (falhaGeral != null) {
+            throw falhaGeral;
+        }
+        JsonNode resultados = objectMapper.readTree(resposta.body()).path("resultados");
+        if (resultados.size() != mensagens.size()) {
+            throw new IOException("Provedor " + integracao + " devolveu " + resultados.size()
+                    + " resultados para " + mensagens.size() + " mensagens");
+        }
+        Exception[] falhas = new Exception[mensagens.size()];
+        for (int i = 0; i < falhas.length; i++) {
+            falhas[i] = falha(resultados.get(i).asInt(), integracao, null);
+        }
+        return falhas;
+    }
+
+    private HttpResponse<byte[]> postar(URI uri, ByteBuffer corpo) throws IOException, InterruptedException {
+        byte[] copia = new byte[corpo.remaining()];
+        corpo.duplicate().get(copia);
+        HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(copia))
+                .build();
+        CompletableFuture<HttpResponse<byte[]>> resposta =
+                cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        try {
+            return resposta.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            resposta.cancel(true);
+            throw new HttpTimeoutException("Sem resposta completa de " + uri + " em " + timeout);
+        } catch (InterruptedException e) {
+            resposta.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private URI uri(String integracao, String sufixo) {
+        return URI.create(url + "/" + integracao.toLowerCase(Locale.ROOT) + "/emails" + sufixo);
+    }
+
+    // null = aceito pelo provedor
+    private static Exception falha(int status, String integracao, byte[] corpo) {
+        if (status >= 200 && status < 300) {
+            return null;
+        }
+        if (status == 429) {
+            return new LimiteTaxaExcedidoException(integracao);
+        }
+        String detalhe = corpo == null || corpo.length == 0 ? "" : ": " + new String(corpo, StandardCharsets.UTF_8);
+        if (status >= 400 && status < 500) {
+            return new IllegalArgumentException("Provedor " + integracao + " recusou a mensagem (" + status + ")" + detalhe);
+        }
+        return new IOException("Provedor " + integracao + " respondeu " + status + detalhe);
+    }
+}
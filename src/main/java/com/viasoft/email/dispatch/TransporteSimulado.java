@@ -0,0 +1,41 @@
+package com.viasoft.email.dispatch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Como não existe integração real com AWS/OCI, o transporte só contabiliza o tamanho do
+ * corpo que seria enviado ({@code email.transporte.bytes}). Aceita lotes, todos com sucesso.
+ */
+public class TransporteSimulado implements TransporteEmailLote {
+
+    private static final Logger log = LoggerFactory.getLogger(TransporteSimulado.class);
+
+    private final DistributionSummary bytes;
+
+    public TransporteSimulado(MeterRegistry meterRegistry) {
+        this.bytes = DistributionSummary.builder("email.transporte.bytes")
+                .description("Tamanho do corpo JSON enviado ao provedor")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void transmitir(MensagemEmail mensagem, ByteBuffer corpo) {
+        bytes.record(corpo.remaining());
+        log.trace("Mensagem {} via {}: {} bytes", mensagem.id(), mensagem.provider().getIntegracao(), corpo.remaining());
+    }
+
+    @Override
+    public Exception[] transmitirLote(List<MensagemEmail> mensagens, ByteBuffer corpo) {
+        bytes.record(corpo.remaining());
+        log.trace("Lote de {} mensagens via {}: {} bytes", mensagens.size(),
+                mensagens.get(0).provider().getIntegracao(), corpo.remaining());
+        return new Exception[mensagens.size()];
+    }
+}
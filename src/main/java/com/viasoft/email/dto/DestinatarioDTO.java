@@ -0,0 +1,31 @@
+package com.viasoft.email.dto;
+
+// Destinatário de uma mala direta; validado no envio, junto com os limites do provedor
+public class DestinatarioDTO {
+    private String email;
+    private String nome;
+
+    public DestinatarioDTO() {
+    }
+
+    public DestinatarioDTO(String email, String nome) {
+        this.email = email;
+        this.nome = nome;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.util.Map;
+
 public class EmailDTO {
     @NotBlank(message = "O email do destinatário é obrigatório")
     @Email(message = "Formato de email inválido")
@@ -25,6 +27,12 @@ public class EmailDTO {
     @Size(max = 1000, message = "O conteúdo do email deve ter no máximo 1000 caracteres")
     private String conteudo;
 
+    // Alternativa a conteudo: id de um template do servidor (mail.templates.diretorio), renderizado
+    // com as variáveis antes da validação
+    private String template;
+
+    private Map<String, String> variaveis;
+
     public String getDestinatarioEmail() {
         return destinatarioEmail;
     }
@@ -64,4 +72,20 @@ public class EmailDTO {
     public void setConteudo(String conteudo) {
         this.conteudo = conteudo;
     }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public Map<String, String> getVariaveis() {
+        return variaveis;
+    }
+
+    public void setVariaveis(Map<String, String> variaveis) {
+        this.variaveis = variaveis;
+    }
 }
@@ -0,0 +1,20 @@
+package com.viasoft.email.dto;
+
+public class EnvioAceitoDTO {
+    private String id;
+
+    public EnvioAceitoDTO() {
+    }
+
+    public EnvioAceitoDTO(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+}
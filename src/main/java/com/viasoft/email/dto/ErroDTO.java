@@ -0,0 +1,10 @@
+package com.viasoft.email.dto;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Corpo das respostas de erro: {@code {"timestamp", "status", "errors"}}.
+ */
+public record ErroDTO(Date timestamp, int status, List<String> errors) {
+}
@@ -0,0 +1,23 @@
+package com.viasoft.email.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class IntegracaoDTO {
+    @NotBlank(message = "A integração é obrigatória")
+    private String integracao;
+
+    public IntegracaoDTO() {
+    }
+
+    public IntegracaoDTO(String integracao) {
+        this.integracao = integracao;
+    }
+
+    public String getIntegracao() {
+        return integracao;
+    }
+
+    public void setIntegracao(String integracao) {
+        this.integracao = integracao;
+    }
+}
@@ -0,0 +1,62 @@
+package com.viasoft.email.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Mesmo remetente, assunto e conteúdo para vários destinatários: um email por destinatário, sem
+ * repetir o corpo na requisição. Os campos comuns têm as mesmas regras do {@link EmailDTO}; os
+ * destinatários não passam pelo {@code @Valid} (seriam milhares) e são validados um a um no envio.
+ */
+public class MalaDiretaDTO {
+    @NotBlank(message = "O email do remetente é obrigatório")
+    @Email(message = "Formato de email inválido")
+    private String remetenteEmail;
+
+    @NotBlank(message = "O assunto do email é obrigatório")
+    @Size(max = 255, message = "O assunto do email deve ter no máximo 255 caracteres")
+    private String assunto;
+
+    @NotBlank(message = "O conteúdo do email é obrigatório")
+    @Size(max = 1000, message = "O conteúdo do email deve ter no máximo 1000 caracteres")
+    private String conteudo;
+
+    @NotEmpty(message = "Informe ao menos um destinatário")
+    private List<DestinatarioDTO> destinatarios;
+
+    public String getRemetenteEmail() {
+        return remetenteEmail;
+    }
+
+    public void setRemetenteEmail(String remetenteEmail) {
+        this.remetenteEmail = remetenteEmail;
+    }
+
+    public String getAssunto() {
+        return assunto;
+    }
+
+    public void setAssunto(String assunto) {
+        this.assunto = assunto;
+    }
+
+    public String getConteudo() {
+        return conteudo;
+    }
+
+    public void setConteudo(String conteudo) {
+        this.conteudo = conteudo;
+    }
+
+    public List<DestinatarioDTO> getDestinatarios() {
+        return destinatarios;
+    }
+
+    public void setDestinatarios(List<DestinatarioDTO> destinatarios) {
+        this.destinatarios = destinatarios;
+    }
+}
@@ -0,0 +1,68 @@
+package com.viasoft.email.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoItemDTO {
+    public static final String ACEITO = "ACEITO";
+    public static final String REJEITADO = "REJEITADO";
+
+    private int indice;
+    private String status;
+    private String id;
+    private List<String> erros;
+
+    public static ResultadoItemDTO aceito(int indice, String id) {
+        ResultadoItemDTO resultado = new ResultadoItemDTO();
+        resultado.setIndice(indice);
+        resultado.setStatus(ACEITO);
+        resultado.setId(id);
+        return resultado;
+    }
+
+    public static ResultadoItemDTO rejeitado(int indice, List<String> erros) {
+        ResultadoItemDTO resultado = new ResultadoItemDTO();
+        resultado.setIndice(indice);
+        resultado.setStatus(REJEITADO);
+        resultado.setErros(erros);
+        return resultado;
+    }
+
+    public boolean aceito() {
+        return ACEITO.equals(status);
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<String> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<String> erros) {
+        this.erros = erros;
+    }
+}
@@ -0,0 +1,57 @@
+package com.viasoft.email.dto;
+
+import java.util.List;
+
+public class ResultadoLoteDTO {
+    private int total;
+    private int aceitos;
+    private int rejeitados;
+    private List<ResultadoItemDTO> itens;
+
+    public ResultadoLoteDTO() {
+    }
+
+    public ResultadoLoteDTO(List<ResultadoItemDTO> itens) {
+        this.itens = itens;
+        this.total = itens.size();
+        for (ResultadoItemDTO item : itens) {
+            if (item.aceito()) {
+                aceitos++;
+            } else {
+                rejeitados++;
+            }
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getAceitos() {
+        return aceitos;
+    }
+
+    public void setAceitos(int aceitos) {
+        this.aceitos = aceitos;
+    }
+
+    public int getRejeitados() {
+        return rejeitados;
+    }
+
+    public void setRejeitados(int rejeitados) {
+        this.rejeitados = rejeitados;
+    }
+
+    public List<ResultadoItemDTO> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<ResultadoItemDTO> itens) {
+        this.itens = itens;
+    }
+}
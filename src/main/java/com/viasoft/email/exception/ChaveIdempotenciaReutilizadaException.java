@@ -0,0 +1,11 @@
+package com.viasoft.email.exception;
+
+/**
+ * Idempotency-Key já usada com outro conteúdo. Mapeada para 422. Sem stack trace.
+ */
+public class ChaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ChaveIdempotenciaReutilizadaException() {
+        super("Idempotency-Key já utilizada com outro conteúdo.", null, false, false);
+    }
+}
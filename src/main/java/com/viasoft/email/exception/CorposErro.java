@@ -0,0 +1,90 @@
+package com.viasoft.email.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dto.ErroDTO;
+import org.springframework.http.HttpStatus;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corpos de erro do {@link GlobalExceptionHandler} sem passar pelo Jackson a cada resposta.
+ * <p>
+ * Para mensagens fixas o JSON é montado uma vez, em dois pedaços em volta do timestamp, e cada
+ * resposta só concatena bytes. O timestamp serializado (no formato do {@link ObjectMapper} da
+ * aplicação) é reaproveitado enquanto o milissegundo não muda, então uma rajada de recusas
+ * formata a data uma vez por milissegundo. O resultado é byte a byte o que o Jackson geraria
+ * para o {@link ErroDTO}.
+ */
+class CorposErro {
+
+    private static final byte[] ABRE = "{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+
+    // Mensagens de exceções com texto variável mas conjunto pequeno (ex.: uma por integração)
+    private static final int MAXIMO_FIXOS = 64;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> restos = new ConcurrentHashMap<>();
+    private volatile Timestamp ultimo = new Timestamp(Long.MIN_VALUE, null);
+
+    CorposErro(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * JSON completo de um erro de mensagem fixa.
+     */
+    byte[] fixo(HttpStatus status, String mensagem) {
+        byte[] resto = restos.get(mensagem);
+        if (resto == null) {
+            resto = resto(status, mensagem);
+            if (restos.size() < MAXIMO_FIXOS) {
+                restos.put(mensagem, resto);
+            }
+        }
+        byte[] timestamp = timestamp();
+        byte[] corpo = new byte[ABRE.length + timestamp.length + resto.length];
+        System.arraycopy(ABRE, 0, corpo, 0, ABRE.length);
+        System.arraycopy(timestamp, 0, corpo, ABRE.length, timestamp.length);
+        System.arraycopy(resto, 0, corpo, ABRE.length + timestamp.length, resto.length);
+        return corpo;
+    }
+
+    // Mensagens vindas da validação variam com a entrada: vão no record, serializado pelo conversor
+    ErroDTO variavel(HttpStatus status, List<String> mensagens) {
+        return new ErroDTO(new Date(), status.value(), mensagens);
+    }
+
+    // Um status diferente para a mesma mensagem não acontece: cada exceção tem o seu
+    private byte[] resto(HttpStatus status, String mensagem) {
+        try {
+            return ("," + "\"status\":" + status.value() + ",\"errors\":"
+                    + objectMapper.writeValueAsString(List.of(mensagem)) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] timestamp() {
+        long agora = System.currentTimeMillis();
+        Timestamp atual = ultimo;
+        if (atual.millis != agora) {
+            try {
+                atual = new Timestamp(agora, objectMapper.writeValueAsBytes(new Date(agora)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            ultimo = atual;
+        }
+        return atual.json;
+    }
+
+    private record Timestamp(long millis, byte[] json) {
+    }
+}
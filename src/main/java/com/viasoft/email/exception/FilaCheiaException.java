@@ -0,0 +1,12 @@
+package com.viasoft.email.exception;
+
+/**
+ * Lançada quando a fila de envio está cheia. Mapeada para 429 pelo {@link GlobalExceptionHandler}.
+ */
+public class FilaCheiaException extends RuntimeException {
+
+    public FilaCheiaException() {
+        // Sem stack trace: com a fila cheia é lançada a cada requisição
+        super("Fila de envio cheia. Tente novamente mais tarde.", null, false, false);
+    }
+}
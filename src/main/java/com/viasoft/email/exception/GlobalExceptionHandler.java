@@ -1,54 +1,135 @@
 package com.viasoft.email.exception;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
+/**
+ * Todas as respostas de erro têm o corpo {@code {"timestamp", "status", "errors"}}. Mensagens
+ * fixas saem pré-serializadas ({@link CorposErro}); as de validação, num {@link com.viasoft.email.dto.ErroDTO}.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String ERRO_INESPERADO = "Erro inesperado.";
+    private static final String CORPO_ILEGIVEL = "Corpo da requisição não é um JSON válido para este endpoint.";
+
+    private final CorposErro corpos;
+
+    @Autowired
+    public GlobalExceptionHandler(ObjectMapper objectMapper) {
+        this.corpos = new CorposErro(objectMapper);
+    }
+
+    // @Valid do endpoint unitário (servlet): já chega com as mensagens e sem stack trace
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<Object> handleRequisicaoInvalida(RequisicaoInvalidaException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getErros());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
-        List<String> errors = ex.getBindingResult().getFieldErrors().stream()
-                .map(FieldError::getDefaultMessage)
-                .toList();
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, mensagens(ex.getBindingResult().getFieldErrors()));
+    }
 
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, errors);
+    // Equivalente reativo (WebFlux) do MethodArgumentNotValidException
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleWebExchangeBind(WebExchangeBindException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, mensagens(ex.getFieldErrors()));
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
         Set<ConstraintViolation<?>> violations = ex.getConstraintViolations();
-        List<String> errors = (violations == null)
-                ? List.of(ex.getMessage()) // fallback seguro
-                : violations.stream().map(ConstraintViolation::getMessage).toList();
-
+        if (violations == null) {
+            // fallback seguro
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, List.of(ex.getMessage()));
+        }
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<?> violation : violations) {
+            errors.add(violation.getMessage());
+        }
         return buildErrorResponse(HttpStatus.BAD_REQUEST, errors);
     }
 
+    // JSON quebrado ou com tipo errado: erro do cliente, não do servidor
+    @ExceptionHandler({HttpMessageNotReadableException.class, ServerWebInputException.class})
+    public ResponseEntity<Object> handleCorpoIlegivel(Exception ex) {
+        return fixo(HttpStatus.BAD_REQUEST, CORPO_ILEGIVEL, null);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgument(IllegalArgumentException ex) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, List.of(ex.getMessage()));
     }
 
+    @ExceptionHandler(FilaCheiaException.class)
+    public ResponseEntity<Object> handleFilaCheia(FilaCheiaException ex) {
+        // Retry-After orienta o cliente a recuar em vez de insistir na mesma hora
+        return fixo(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), "1");
+    }
+
+    @ExceptionHandler(ProvedorIndisponivelException.class)
+    public ResponseEntity<Object> handleProvedorIndisponivel(ProvedorIndisponivelException ex) {
+        // Retry-After = tempo até o disjuntor liberar as primeiras sondas
+        return fixo(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), String.valueOf(ex.getSegundosParaNovaTentativa()));
+    }
+
+    @ExceptionHandler(RequisicaoEmAndamentoException.class)
+    public ResponseEntity<Object> handleRequisicaoEmAndamento(RequisicaoEmAndamentoException ex) {
+        return fixo(HttpStatus.CONFLICT, ex.getMessage(), null);
+    }
+
+    @ExceptionHandler(ChaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<Object> handleChaveIdempotenciaReutilizada(ChaveIdempotenciaReutilizadaException ex) {
+        return fixo(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), null);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllOtherExceptions(Exception ex) {
-        return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, List.of("Erro inesperado."));
+        // Exceções do próprio Spring já trazem o status (404 de rota, 405, 400 dos endpoints do actuator)
+        if (ex instanceof ErrorResponse erro && !erro.getStatusCode().is5xxServerError()) {
+            HttpStatus status = HttpStatus.valueOf(erro.getStatusCode().value());
+            String detalhe = erro.getBody().getDetail();
+            return buildErrorResponse(status, List.of(detalhe != null ? detalhe : status.getReasonPhrase()));
+        }
+        return fixo(HttpStatus.INTERNAL_SERVER_ERROR, ERRO_INESPERADO, null);
+    }
+
+    private static List<String> mensagens(List<FieldError> fieldErrors) {
+        List<String> errors = new ArrayList<>(fieldErrors.size());
+        for (FieldError fieldError : fieldErrors) {
+            errors.add(fieldError.getDefaultMessage());
+        }
+        return errors;
+    }
+
+    private ResponseEntity<Object> fixo(HttpStatus status, String mensagem, String retryAfter) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (retryAfter != null) {
+            resposta.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return resposta.body(corpos.fixo(status, mensagem));
     }
 
     private ResponseEntity<Object> buildErrorResponse(HttpStatus status, List<String> errors) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", new Date());
-        body.put("status", status.value());
-        body.put("errors", errors);
-        return new ResponseEntity<>(body, status);
+        return new ResponseEntity<>(corpos.variavel(status, errors), status);
     }
 }
@@ -0,0 +1,12 @@
+package com.viasoft.email.exception;
+
+/**
+ * Lançada no dispatch quando o limitador do provedor não concede permissão de envio. Sem stack
+ * trace: é um resultado esperado sob carga, não um defeito.
+ */
+public class LimiteTaxaExcedidoException extends RuntimeException {
+
+    public LimiteTaxaExcedidoException(String integracao) {
+        super("Limite de envio do provedor " + integracao + " excedido", null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package com.viasoft.email.exception;
+
+/**
+ * Lançada quando o disjuntor do provedor está aberto e não há outro para onde rotear.
+ * Mapeada para 503 pelo {@link GlobalExceptionHandler}, com Retry-After. Sem stack trace: com o
+ * disjuntor aberto é lançada a cada requisição e a cada tentativa nos workers.
+ */
+public class ProvedorIndisponivelException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    public ProvedorIndisponivelException(String integracao, long segundosParaNovaTentativa) {
+        super("Provedor " + integracao + " indisponível. Tente novamente mais tarde.", null, false, false);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
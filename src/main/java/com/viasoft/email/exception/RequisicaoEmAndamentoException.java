@@ -0,0 +1,12 @@
+package com.viasoft.email.exception;
+
+/**
+ * Repetição de uma Idempotency-Key cuja primeira requisição ainda não terminou. Mapeada para 409.
+ * Sem stack trace, como as demais recusas por requisição.
+ */
+public class RequisicaoEmAndamentoException extends RuntimeException {
+
+    public RequisicaoEmAndamentoException() {
+        super("Requisição com esta Idempotency-Key ainda em processamento.", null, false, false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.viasoft.email.exception;
+
+import java.util.List;
+
+/**
+ * Corpo da requisição reprovado no {@code @Valid}. Mapeada para 400 pelo
+ * {@link GlobalExceptionHandler}. Sem stack trace: é lançada a cada requisição inválida e o
+ * rastro (dezenas de frames do Tomcat/Spring) não diz nada além das mensagens.
+ */
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    private final transient List<String> erros;
+
+    public RequisicaoInvalidaException(List<String> erros) {
+        super(String.join("; ", erros), null, false, false);
+        this.erros = erros;
+    }
+
+    public List<String> getErros() {
+        return erros;
+    }
+}
@@ -0,0 +1,19 @@
+package com.viasoft.email.exception;
+
+/**
+ * Template pedido no email que não existe, não compila ou não recebeu todas as variáveis. Como
+ * é uma {@link IllegalArgumentException}, vira 400 no {@link GlobalExceptionHandler}; no lote,
+ * recusa só o item.
+ */
+public class TemplateInvalidoException extends IllegalArgumentException {
+
+    public TemplateInvalidoException(String mensagem) {
+        super(mensagem);
+    }
+
+    // Sem stack trace: erro do cliente, lançado por requisição
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
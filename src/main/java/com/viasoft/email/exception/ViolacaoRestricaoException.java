@@ -0,0 +1,23 @@
+package com.viasoft.email.exception;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+
+import java.util.Set;
+
+/**
+ * {@link ConstraintViolationException} sem stack trace, para as violações que o próprio
+ * serviço detecta (limites do provedor). Quem já trata ConstraintViolationException continua
+ * tratando esta.
+ */
+public class ViolacaoRestricaoException extends ConstraintViolationException {
+
+    public ViolacaoRestricaoException(Set<? extends ConstraintViolation<?>> violacoes) {
+        super(violacoes);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
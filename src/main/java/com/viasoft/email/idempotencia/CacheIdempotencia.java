@@ -0,0 +1,387 @@
+package com.viasoft.email.idempotencia;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.ChaveIdempotenciaReutilizadaException;
+import com.viasoft.email.exception.RequisicaoEmAndamentoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Resultado das requisições de envio por {@code Idempotency-Key}: uma repetição (retry por
+ * timeout do cliente) recebe o id da primeira em vez de gerar outro envio.
+ * <p>
+ * {@link #executar} reserva a chave antes de enfileirar e guarda o id aceito; se o envio
+ * falhar a reserva é liberada e a próxima tentativa segue normalmente.
+ * Uma repetição enquanto a primeira ainda está em andamento recebe 409; a mesma chave com
+ * outro conteúdo, 422.
+ * <p>
+ * Memória limitada: a chave vira um hash de 64 bits (SHA-256 truncado) e cada entrada ocupa
+ * só campos primitivos em arrays, entre 70 e 140 bytes conforme a carga da tabela. As
+ * entradas expiram após o TTL e, no limite de {@code capacidade}, a mais antiga sai primeiro;
+ * como todas têm o mesmo TTL, a mais antiga é também a próxima a expirar. O espaço é dividido
+ * em segmentos com trava própria e cresce sob demanda até o limite.
+ */
+@Component
+public class CacheIdempotencia {
+
+    private static final int SEGMENTOS = 64;
+
+    private final Segmento[] segmentos;
+    private final long ttlMillis;
+    private final boolean hashConteudo;
+    private final boolean habilitada;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public CacheIdempotencia(EmailProperties properties) {
+        this(properties.getIdempotencia(), System::currentTimeMillis);
+    }
+
+    CacheIdempotencia(EmailProperties.Idempotencia configuracao, LongSupplier relogio) {
+        this.habilitada = configuracao.isHabilitada();
+        this.ttlMillis = configuracao.getTtl().toMillis();
+        this.hashConteudo = configuracao.isHashConteudo();
+        this.relogio = relogio;
+        int porSegmento = Math.max(1, (configuracao.getCapacidade() + SEGMENTOS - 1) / SEGMENTOS);
+        this.segmentos = new Segmento[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(porSegmento);
+        }
+    }
+
+    /**
+     * Enfileira via {@code envio} só se a requisição ainda não foi vista.
+     *
+     * @param idempotencyKey cabeçalho {@code Idempotency-Key}, pode ser {@code null}
+     * @throws RequisicaoEmAndamentoException        se outra requisição com a chave ainda não terminou
+     * @throws ChaveIdempotenciaReutilizadaException se a chave já foi usada com outro conteúdo
+     */
+    public Resultado executar(String idempotencyKey, EmailDTO email, Supplier<String> envio) {
+        Chave chave = chave(idempotencyKey, email);
+        if (chave == null) {
+            return new Resultado(envio.get(), false);
+        }
+        String anterior = reservar(chave);
+        if (anterior != null) {
+            return new Resultado(anterior, true);
+        }
+        String id;
+        try {
+            id = envio.get();
+        } catch (RuntimeException e) {
+            liberar(chave);
+            throw e;
+        }
+        concluir(chave, id);
+        return new Resultado(id, false);
+    }
+
+    /**
+     * Chave da requisição: o cabeçalho, ou o hash do conteúdo quando configurado
+     * ({@code mail.idempotencia.hash-conteudo}).
+     *
+     * @return {@code null} se a requisição não tem identidade e não deve ser deduplicada
+     */
+    Chave chave(String idempotencyKey, EmailDTO email) {
+        if (!habilitada) {
+            return null;
+        }
+        long conteudo = hash(email.getDestinatarioEmail(), email.getDestinatarioNome(), email.getRemetenteEmail(),
+                email.getAssunto(), email.getConteudo());
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return new Chave(hash(idempotencyKey), conteudo);
+        }
+        return hashConteudo ? new Chave(conteudo, conteudo) : null;
+    }
+
+    // Id da mensagem já aceita com essa chave, ou null se a reserva é nova
+    String reservar(Chave chave) {
+        return segmento(chave).reservar(chave, relogio.getAsLong(), ttlMillis);
+    }
+
+    void concluir(Chave chave, String id) {
+        UUID uuid = UUID.fromString(id);
+        segmento(chave).concluir(chave, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    void liberar(Chave chave) {
+        segmento(chave).remover(chave.valor());
+    }
+
+    public int getTamanho() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            total += segmento.getTamanho();
+        }
+        return total;
+    }
+
+    private Segmento segmento(Chave chave) {
+        return segmentos[(int) (chave.valor() >>> 58)];
+    }
+
+    private static long hash(String... campos) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String campo : campos) {
+            if (campo != null) {
+                sha.update(campo.getBytes(StandardCharsets.UTF_8));
+            }
+            // Separador: ("ab", "c") e ("a", "bc") não podem colidir
+            sha.update((byte) 0);
+        }
+        long valor = ByteBuffer.wrap(sha.digest()).getLong();
+        // 0 marca posição livre na tabela
+        return valor == 0 ? 1 : valor;
+    }
+
+    /**
+     * @param id       id da mensagem (o original, se for uma repetição)
+     * @param repetido se a requisição já tinha sido aceita antes
+     */
+    public record Resultado(String id, boolean repetido) {
+    }
+
+    /**
+     * @param valor    hash da chave (nunca 0)
+     * @param conteudo hash do corpo, para detectar a chave reaproveitada em outra requisição
+     */
+    record Chave(long valor, long conteudo) {
+    }
+
+    /**
+     * Tabela de endereçamento aberto (sondagem linear, remoção por deslocamento) mais uma fila
+     * circular com a ordem de inserção para expirar/despejar a entrada mais antiga.
+     */
+    private static final class Segmento {
+
+        private static final int TAMANHO_INICIAL = 16;
+
+        private final int capacidade;
+
+        private long[] chaves;
+        private long[] conteudos;
+        private long[] idsAltos;
+        private long[] idsBaixos;
+        private long[] expiracoes;
+        private int tamanho;
+
+        // Ordem de inserção: chave e expiração com que entrou
+        private long[] filaChaves;
+        private long[] filaExpiracoes;
+        private int inicio;
+        private int emFila;
+
+        Segmento(int capacidade) {
+            this.capacidade = capacidade;
+            alocar(TAMANHO_INICIAL);
+            filaChaves = new long[Math.min(capacidade, TAMANHO_INICIAL)];
+            filaExpiracoes = new long[filaChaves.length];
+        }
+
+        synchronized String reservar(Chave chave, long agora, long ttl) {
+            despejarExpiradas(agora);
+            int posicao = procurar(chave.valor());
+            if (posicao >= 0) {
+                if (conteudos[posicao] != chave.conteudo()) {
+                    throw new ChaveIdempotenciaReutilizadaException();
+                }
+                if (idsAltos[posicao] == 0 && idsBaixos[posicao] == 0) {
+                    throw new RequisicaoEmAndamentoException();
+                }
+                return new UUID(idsAltos[posicao], idsBaixos[posicao]).toString();
+            }
+            if (tamanho == capacidade) {
+                despejarMaisAntiga();
+            }
+            inserir(chave.valor(), chave.conteudo(), agora + ttl);
+            enfileirar(chave.valor(), agora + ttl);
+            return null;
+        }
+
+        synchronized void concluir(Chave chave, long idAlto, long idBaixo) {
+            int posicao = procurar(chave.valor());
+            if (posicao >= 0) {
+                idsAltos[posicao] = idAlto;
+                idsBaixos[posicao] = idBaixo;
+            }
+        }
+
+        synchronized void remover(long chave) {
+            int posicao = procurar(chave);
+            if (posicao >= 0) {
+                apagar(posicao);
+            }
+            // A entrada correspondente na fila é ignorada ao sair (expiração não confere)
+        }
+
+        synchronized int getTamanho() {
+            return tamanho;
+        }
+
+        private void despejarExpiradas(long agora) {
+            while (emFila > 0 && filaExpiracoes[inicio] <= agora) {
+                despejarMaisAntiga();
+            }
+        }
+
+        private void despejarMaisAntiga() {
+            while (emFila > 0) {
+                long chave = filaChaves[inicio];
+                long expiracao = filaExpiracoes[inicio];
+                inicio = (inicio + 1) % filaChaves.length;
+                emFila--;
+                int posicao = procurar(chave);
+                // Só apaga se for a mesma inserção (a chave pode ter sido liberada e reservada de novo)
+                if (posicao >= 0 && expiracoes[posicao] == expiracao) {
+                    apagar(posicao);
+                    return;
+                }
+            }
+        }
+
+        private void enfileirar(long chave, long expiracao) {
+            if (emFila >= 2 * capacidade) {
+                descartarLiberadas();
+            }
+            if (emFila == filaChaves.length) {
+                int novo = filaChaves.length * 2;
+                long[] chavesOrdenadas = new long[novo];
+                long[] expiracoesOrdenadas = new long[novo];
+                for (int i = 0; i < emFila; i++) {
+                    chavesOrdenadas[i] = filaChaves[(inicio + i) % filaChaves.length];
+                    expiracoesOrdenadas[i] = filaExpiracoes[(inicio + i) % filaChaves.length];
+                }
+                filaChaves = chavesOrdenadas;
+                filaExpiracoes = expiracoesOrdenadas;
+                inicio = 0;
+            }
+            int fim = (inicio + emFila) % filaChaves.length;
+            filaChaves[fim] = chave;
+            filaExpiracoes[fim] = expiracao;
+            emFila++;
+        }
+
+        // Tira da fila as inserções que já foram liberadas; sobram no máximo `capacidade`
+        private void descartarLiberadas() {
+            int mantidas = 0;
+            for (int i = 0; i < emFila; i++) {
+                int origem = (inicio + i) % filaChaves.length;
+                int posicao = procurar(filaChaves[origem]);
+                if (posicao >= 0 && expiracoes[posicao] == filaExpiracoes[origem]) {
+                    int destino = (inicio + mantidas) % filaChaves.length;
+                    filaChaves[destino] = filaChaves[origem];
+                    filaExpiracoes[destino] = filaExpiracoes[origem];
+                    mantidas++;
+                }
+            }
+            emFila = mantidas;
+        }
+
+        private int procurar(long chave) {
+            int mascara = chaves.length - 1;
+            for (int i = indice(chave, mascara); chaves[i] != 0; i = (i + 1) & mascara) {
+                if (chaves[i] == chave) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void inserir(long chave, long conteudo, long expiracao) {
+            // Carga máxima de 3/4
+            if ((tamanho + 1) * 4L > chaves.length * 3L) {
+                crescer();
+            }
+            int mascara = chaves.length - 1;
+            int i = indice(chave, mascara);
+            while (chaves[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            chaves[i] = chave;
+            conteudos[i] = conteudo;
+            idsAltos[i] = 0;
+            idsBaixos[i] = 0;
+            expiracoes[i] = expiracao;
+            tamanho++;
+        }
+
+        // Remoção sem lápide: puxa para trás as entradas da mesma sequência de sondagem
+        private void apagar(int posicao) {
+            int mascara = chaves.length - 1;
+            int livre = posicao;
+            int i = posicao;
+            while (true) {
+                i = (i + 1) & mascara;
+                if (chaves[i] == 0) {
+                    break;
+                }
+                int ideal = indice(chaves[i], mascara);
+                // Move se a posição ideal de i não está entre livre (exclusive) e i (inclusive)
+                if (((i - ideal) & mascara) >= ((i - livre) & mascara)) {
+                    mover(i, livre);
+                    livre = i;
+                }
+            }
+            chaves[livre] = 0;
+            tamanho--;
+        }
+
+        private void mover(int de, int para) {
+            chaves[para] = chaves[de];
+            conteudos[para] = conteudos[de];
+            idsAltos[para] = idsAltos[de];
+            idsBaixos[para] = idsBaixos[de];
+            expiracoes[para] = expiracoes[de];
+        }
+
+        private void crescer() {
+            long[] antigasChaves = chaves;
+            long[] antigosConteudos = conteudos;
+            long[] antigosAltos = idsAltos;
+            long[] antigosBaixos = idsBaixos;
+            long[] antigasExpiracoes = expiracoes;
+            alocar(antigasChaves.length * 2);
+            int mascara = chaves.length - 1;
+            for (int j = 0; j < antigasChaves.length; j++) {
+                if (antigasChaves[j] != 0) {
+                    int i = indice(antigasChaves[j], mascara);
+                    while (chaves[i] != 0) {
+                        i = (i + 1) & mascara;
+                    }
+                    chaves[i] = antigasChaves[j];
+                    conteudos[i] = antigosConteudos[j];
+                    idsAltos[i] = antigosAltos[j];
+                    idsBaixos[i] = antigosBaixos[j];
+                    expiracoes[i] = antigasExpiracoes[j];
+                }
+            }
+        }
+
+        private void alocar(int tamanhoTabela) {
+            chaves = new long[tamanhoTabela];
+            conteudos = new long[tamanhoTabela];
+            idsAltos = new long[tamanhoTabela];
+            idsBaixos = new long[tamanhoTabela];
+            expiracoes = new long[tamanhoTabela];
+        }
+
+        // Bits baixos do hash; os 6 altos já escolheram o segmento
+        private static int indice(long chave, int mascara) {
+            return (int) chave & mascara;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.viasoft.email.metricas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dto.EmailDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor JSON do Spring MVC que mede a leitura do corpo em {@link EmailDTO} (etapa
+ * {@code binding}). Os demais tipos passam direto, sem medição.
+ */
+public class ConversorJsonMedido extends MappingJackson2HttpMessageConverter {
+
+    private final MetricasPipeline metricas;
+
+    public ConversorJsonMedido(ObjectMapper objectMapper, MetricasPipeline metricas) {
+        super(objectMapper);
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        if (type != EmailDTO.class) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        long inicio = metricas.iniciar();
+        boolean sucesso = false;
+        try {
+            Object lido = super.read(type, contextClass, inputMessage);
+            sucesso = true;
+            return lido;
+        } finally {
+            metricas.registrar(MetricasPipeline.Etapa.BINDING, sucesso, inicio);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.viasoft.email.metricas;
+
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de cada etapa do envio em {@code email.pipeline.etapa}, com as tags {@code etapa},
+ * {@code integracao} e {@code resultado} (sucesso/falha). As etapas antes da escolha do provedor
+ * (binding e {@code @Valid}) usam {@code integracao=NENHUMA}.
+ * <p>
+ * Todos os timers são registrados na subida e ficam num array por integração: medir é um
+ * {@code System.nanoTime()} antes, outro depois e um {@code record}, sem busca no registry nem
+ * alocação de tags. O histograma publicado (de 1 µs a 10 s) permite calcular p50/p99/p999 e
+ * SLOs no Prometheus agregando várias instâncias.
+ * <p>
+ * Com envio em lote, serialização e envio são medidos uma vez por lote, e o número de mensagens
+ * de cada lote vai para {@code email.pipeline.lote}.
+ */
+@Component
+public class MetricasPipeline {
+
+    public enum Etapa {
+        BINDING("binding"),
+        VALIDACAO("validacao"),
+        ADAPTACAO("adaptacao"),
+        VALIDACAO_PROVEDOR("validacao-provedor"),
+        SERIALIZACAO("serializacao"),
+        ENVIO("envio");
+
+        private final String tag;
+
+        Etapa(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        // Etapas que acontecem antes de haver provedor escolhido
+        boolean semIntegracao() {
+            return this == BINDING || this == VALIDACAO;
+        }
+    }
+
+    static final String NOME = "email.pipeline.etapa";
+    static final String SEM_INTEGRACAO = "NENHUMA";
+    static final String NOME_LOTE = "email.pipeline.lote";
+
+    private static final Duration MINIMO_ESPERADO = Duration.ofNanos(1_000);
+    private static final Duration MAXIMO_ESPERADO = Duration.ofSeconds(10);
+
+    // Índice: etapa.ordinal() * 2 + (sucesso ? 0 : 1)
+    private final Timer[] semIntegracao;
+    private final Map<String, Timer[]> porIntegracao = new HashMap<>();
+    private final Map<String, DistributionSummary> lotes = new HashMap<>();
+
+    @Autowired
+    public MetricasPipeline(MeterRegistry meterRegistry, ProviderRegistry providerRegistry) {
+        this.semIntegracao = timers(meterRegistry, SEM_INTEGRACAO, true);
+        for (ProviderAdapter<?> adapter : providerRegistry.getAdapters()) {
+            porIntegracao.put(adapter.getIntegracao(), timers(meterRegistry, adapter.getIntegracao(), false));
+            lotes.put(adapter.getIntegracao(), DistributionSummary.builder(NOME_LOTE)
+                    .description("Mensagens por chamada ao provedor no envio em lote")
+                    .tag("integracao", adapter.getIntegracao())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Sem registry de verdade: os timers não guardam nada (uso fora do Spring, testes e benchmarks)
+    public static MetricasPipeline nenhuma() {
+        return new MetricasPipeline(new CompositeMeterRegistry(), ProviderRegistry.padrao());
+    }
+
+    public long iniciar() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Etapa sem provedor (binding, {@code @Valid}).
+     */
+    public void registrar(Etapa etapa, boolean sucesso, long inicioNanos) {
+        gravar(semIntegracao, etapa, sucesso, inicioNanos);
+    }
+
+    public void registrar(Etapa etapa, ProviderAdapter<?> provider, boolean sucesso, long inicioNanos) {
+        Timer[] timers = porIntegracao.get(provider.getIntegracao());
+        // Integração fora do registro (ex.: mock em teste): não há série para ela
+        if (timers != null) {
+            gravar(timers, etapa, sucesso, inicioNanos);
+        }
+    }
+
+    public void registrarLote(ProviderAdapter<?> provider, int mensagens) {
+        DistributionSummary lote = lotes.get(provider.getIntegracao());
+        if (lote != null) {
+            lote.record(mensagens);
+        }
+    }
+
+    private static void gravar(Timer[] timers, Etapa etapa, boolean sucesso, long inicioNanos) {
+        Timer timer = timers[etapa.ordinal() * 2 + (sucesso ? 0 : 1)];
+        if (timer != null) {
+            timer.record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer[] timers(MeterRegistry meterRegistry, String integracao, boolean semIntegracao) {
+        Timer[] timers = new Timer[Etapa.values().length * 2];
+        for (Etapa etapa : Etapa.values()) {
+            // Só as combinações que existem viram série (binding nunca tem provedor, envio sempre tem)
+            if (etapa.semIntegracao() != semIntegracao) {
+                continue;
+            }
+            timers[etapa.ordinal() * 2] = timer(meterRegistry, etapa, integracao, "sucesso");
+            timers[etapa.ordinal() * 2 + 1] = timer(meterRegistry, etapa, integracao, "falha");
+        }
+        return timers;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, Etapa etapa, String integracao, String resultado) {
+        return Timer.builder(NOME)
+                .description("Tempo de cada etapa do envio de email")
+                .tag("etapa", etapa.getTag())
+                .tag("integracao", integracao)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMO_ESPERADO)
+                .maximumExpectedValue(MAXIMO_ESPERADO)
+                .register(meterRegistry);
+    }
+}
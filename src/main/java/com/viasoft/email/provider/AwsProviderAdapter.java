@@ -0,0 +1,46 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class AwsProviderAdapter implements ProviderAdapter<EmailAwsDTO> {
+
+    public static final String INTEGRACAO = "AWS";
+
+    private static final Map<String, String> MAPEAMENTO_CAMPOS = Map.of(
+            "recipient", "destinatarioEmail",
+            "recipientName", "destinatarioNome",
+            "sender", "remetenteEmail",
+            "subject", "assunto",
+            "content", "conteudo");
+
+    @Override
+    public String getIntegracao() {
+        return INTEGRACAO;
+    }
+
+    @Override
+    public Class<EmailAwsDTO> getTipoDTO() {
+        return EmailAwsDTO.class;
+    }
+
+    @Override
+    public EmailAwsDTO adaptar(EmailDTO emailDTO) {
+        EmailAwsDTO awsDTO = new EmailAwsDTO();
+        awsDTO.setRecipient(emailDTO.getDestinatarioEmail());
+        awsDTO.setRecipientName(emailDTO.getDestinatarioNome());
+        awsDTO.setSender(emailDTO.getRemetenteEmail());
+        awsDTO.setSubject(emailDTO.getAssunto());
+        awsDTO.setContent(emailDTO.getConteudo());
+        return awsDTO;
+    }
+
+    @Override
+    public Map<String, String> getMapeamentoCampos() {
+        return MAPEAMENTO_CAMPOS;
+    }
+}
@@ -0,0 +1,201 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker de um provedor, com janela deslizante dos últimos {@code janela} envios.
+ * <ul>
+ *     <li>FECHADO: tudo passa; se a taxa de falhas ou de envios lentos na janela passar do
+ *     limite, abre.</li>
+ *     <li>ABERTO: recusa na hora, sem chegar ao provedor, durante {@code esperaAberto}.</li>
+ *     <li>SEMI_ABERTO: libera só {@code chamadasSemiAberto} sondas; se elas ficarem dentro dos
+ *     limites fecha com a janela zerada, senão reabre.</li>
+ * </ul>
+ * Com o disjuntor fechado, {@link #permitir} é uma leitura volátil; o resto passa por um
+ * monitor curto (sem I/O dentro).
+ */
+public class DisjuntorProvedor {
+
+    public enum Estado {
+        FECHADO(0), SEMI_ABERTO(1), ABERTO(2);
+
+        // Valor do gauge email.provedor.disjuntor.estado
+        private final int codigo;
+
+        Estado(int codigo) {
+            this.codigo = codigo;
+        }
+
+        public int getCodigo() {
+            return codigo;
+        }
+    }
+
+    private static final byte FALHA = 1;
+    private static final byte LENTA = 2;
+
+    private final int chamadasMinimas;
+    private final double taxaFalhaMaxima;
+    private final long chamadaLentaNanos;
+    private final double taxaLentaMaxima;
+    private final long esperaAbertoNanos;
+    private final int chamadasSemiAberto;
+    private final LongSupplier relogio;
+    private final Consumer<Estado> aoMudar;
+
+    // Resultado dos últimos envios (bits FALHA/LENTA), em anel; contadores da janela inteira
+    private final byte[] janela;
+    private int posicao;
+    private int registradas;
+    private int falhas;
+    private int lentas;
+
+    private volatile Estado estado = Estado.FECHADO;
+    private volatile long abertoAteNanos;
+
+    private int sondasLiberadas;
+    private int sondasConcluidas;
+    private int sondasFalhas;
+    private int sondasLentas;
+
+    public DisjuntorProvedor(EmailProperties.Disjuntor config, Consumer<Estado> aoMudar) {
+        this(config, System::nanoTime, aoMudar);
+    }
+
+    DisjuntorProvedor(EmailProperties.Disjuntor config, LongSupplier relogio, Consumer<Estado> aoMudar) {
+        if (config.getJanela() < 1 || config.getChamadasSemiAberto() < 1) {
+            throw new IllegalArgumentException("disjuntor.janela e disjuntor.chamadas-semi-aberto devem ser >= 1");
+        }
+        this.janela = new byte[config.getJanela()];
+        this.chamadasMinimas = Math.max(1, Math.min(config.getChamadasMinimas(), config.getJanela()));
+        this.taxaFalhaMaxima = config.getTaxaFalhaMaxima();
+        this.chamadaLentaNanos = config.getChamadaLenta().toNanos();
+        this.taxaLentaMaxima = config.getTaxaLentaMaxima();
+        this.esperaAbertoNanos = config.getEsperaAberto().toNanos();
+        this.chamadasSemiAberto = config.getChamadasSemiAberto();
+        this.relogio = relogio;
+        this.aoMudar = aoMudar;
+    }
+
+    /**
+     * @return {@code true} se o envio pode seguir para o provedor; quem recebe {@code true} deve
+     * depois chamar {@link #registrar} ou {@link #cancelar}
+     */
+    public boolean permitir() {
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        synchronized (this) {
+            if (estado == Estado.ABERTO) {
+                if (relogio.getAsLong() - abertoAteNanos < 0) {
+                    return false;
+                }
+                mudar(Estado.SEMI_ABERTO);
+                sondasLiberadas = 0;
+                sondasConcluidas = 0;
+                sondasFalhas = 0;
+                sondasLentas = 0;
+            }
+            if (estado == Estado.SEMI_ABERTO) {
+                if (sondasLiberadas >= chamadasSemiAberto) {
+                    return false;
+                }
+                sondasLiberadas++;
+            }
+            return true;
+        }
+    }
+
+    public synchronized void registrar(long duracaoNanos, boolean sucesso) {
+        byte resultado = (byte) ((sucesso ? 0 : FALHA) | (duracaoNanos > chamadaLentaNanos ? LENTA : 0));
+        switch (estado) {
+            case FECHADO -> {
+                if (registradas == janela.length) {
+                    descontar(janela[posicao]);
+                } else {
+                    registradas++;
+                }
+                janela[posicao] = resultado;
+                falhas += resultado & FALHA;
+                lentas += (resultado & LENTA) >> 1;
+                posicao = (posicao + 1) % janela.length;
+                if (registradas >= chamadasMinimas && excede(falhas, lentas, registradas)) {
+                    abrir();
+                }
+            }
+            case SEMI_ABERTO -> {
+                sondasConcluidas++;
+                sondasFalhas += resultado & FALHA;
+                sondasLentas += (resultado & LENTA) >> 1;
+                if (excede(sondasFalhas, sondasLentas, chamadasSemiAberto)) {
+                    // Já não tem como fechar, não precisa esperar as demais sondas
+                    abrir();
+                } else if (sondasConcluidas >= chamadasSemiAberto) {
+                    fechar();
+                }
+            }
+            // Envio liberado antes de abrir que só terminou agora: não muda nada
+            case ABERTO -> {
+            }
+        }
+    }
+
+    /**
+     * Devolve uma permissão que não chegou ao provedor (ex.: sem cota no limitador).
+     */
+    public synchronized void cancelar() {
+        if (estado == Estado.SEMI_ABERTO && sondasLiberadas > sondasConcluidas) {
+            sondasLiberadas--;
+        }
+    }
+
+    /**
+     * Se um envio seria aceito agora, sem consumir sonda; usado pelo roteamento.
+     */
+    public boolean disponivel() {
+        return switch (estado) {
+            case FECHADO -> true;
+            case ABERTO -> relogio.getAsLong() - abertoAteNanos >= 0;
+            case SEMI_ABERTO -> sondasLiberadas < chamadasSemiAberto;
+        };
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    // Quanto falta para liberar as sondas (0 se não estiver aberto)
+    public long getRestanteAbertoNanos() {
+        return estado == Estado.ABERTO ? Math.max(0, abertoAteNanos - relogio.getAsLong()) : 0;
+    }
+
+    private boolean excede(int falhas, int lentas, int total) {
+        return falhas >= taxaFalhaMaxima * total || lentas >= taxaLentaMaxima * total;
+    }
+
+    private void descontar(byte resultado) {
+        falhas -= resultado & FALHA;
+        lentas -= (resultado & LENTA) >> 1;
+    }
+
+    private void abrir() {
+        abertoAteNanos = relogio.getAsLong() + esperaAbertoNanos;
+        mudar(Estado.ABERTO);
+    }
+
+    private void fechar() {
+        posicao = 0;
+        registradas = 0;
+        falhas = 0;
+        lentas = 0;
+        mudar(Estado.FECHADO);
+    }
+
+    private void mudar(Estado novo) {
+        estado = novo;
+        aoMudar.accept(novo);
+    }
+}
@@ -0,0 +1,129 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Um {@link DisjuntorProvedor} por provedor, configurado em {@code mail.provedores.<INTEGRACAO>.disjuntor.*}.
+ * Provedor com o disjuntor desabilitado sempre recebe envios.
+ * <p>
+ * Métricas, por integração: {@code email.provedor.disjuntor.estado} (0 fechado, 1 semiaberto,
+ * 2 aberto), {@code email.provedor.disjuntor.transicoes} (por estado de destino) e
+ * {@code email.provedor.disjuntor.rejeicoes}.
+ */
+@Component
+public class DisjuntoresProvedor {
+
+    private static final Logger log = LoggerFactory.getLogger(DisjuntoresProvedor.class);
+
+    private final Map<String, Disjuntor> porIntegracao;
+
+    @Autowired
+    public DisjuntoresProvedor(EmailProperties properties, ProviderRegistry providerRegistry, MeterRegistry meterRegistry) {
+        Map<String, Disjuntor> disjuntores = new HashMap<>();
+        for (ProviderAdapter<?> adapter : providerRegistry.getAdapters()) {
+            EmailProperties.Disjuntor config = properties.getProvedor(adapter.getIntegracao()).getDisjuntor();
+            if (!config.isHabilitado()) {
+                continue;
+            }
+            String integracao = adapter.getIntegracao();
+            Map<DisjuntorProvedor.Estado, Counter> transicoes = new EnumMap<>(DisjuntorProvedor.Estado.class);
+            for (DisjuntorProvedor.Estado estado : DisjuntorProvedor.Estado.values()) {
+                transicoes.put(estado, Counter.builder("email.provedor.disjuntor.transicoes")
+                        .tag("integracao", integracao)
+                        .tag("estado", estado.name())
+                        .description("Mudanças de estado do disjuntor")
+                        .register(meterRegistry));
+            }
+            DisjuntorProvedor disjuntor = new DisjuntorProvedor(config, estado -> {
+                transicoes.get(estado).increment();
+                if (estado == DisjuntorProvedor.Estado.ABERTO) {
+                    log.warn("Disjuntor do provedor {} aberto; envios recusados por {}", integracao,
+                            config.getEsperaAberto());
+                } else {
+                    log.info("Disjuntor do provedor {}: {}", integracao, estado);
+                }
+            });
+            Gauge.builder("email.provedor.disjuntor.estado", disjuntor, d -> d.getEstado().getCodigo())
+                    .tag("integracao", integracao)
+                    .description("Estado do disjuntor: 0 fechado, 1 semiaberto, 2 aberto")
+                    .register(meterRegistry);
+            Counter rejeicoes = Counter.builder("email.provedor.disjuntor.rejeicoes")
+                    .tag("integracao", integracao)
+                    .description("Envios recusados sem chegar ao provedor")
+                    .register(meterRegistry);
+            disjuntores.put(integracao, new Disjuntor(disjuntor, rejeicoes));
+        }
+        this.porIntegracao = Collections.unmodifiableMap(disjuntores);
+    }
+
+    private DisjuntoresProvedor() {
+        this.porIntegracao = Map.of();
+    }
+
+    // Sem nenhum disjuntor: todos os provedores sempre disponíveis
+    public static DisjuntoresProvedor nenhum() {
+        return new DisjuntoresProvedor();
+    }
+
+    /**
+     * @return {@code false} se o disjuntor está recusando envios; com {@code true}, o resultado
+     * deve ser informado em {@link #registrar} ou a permissão devolvida em {@link #cancelar}
+     */
+    public boolean permitir(ProviderAdapter<?> provider) {
+        Disjuntor disjuntor = porIntegracao.get(provider.getIntegracao());
+        if (disjuntor == null || disjuntor.disjuntor.permitir()) {
+            return true;
+        }
+        disjuntor.rejeicoes.increment();
+        return false;
+    }
+
+    public void registrar(ProviderAdapter<?> provider, long duracaoNanos, boolean sucesso) {
+        Disjuntor disjuntor = porIntegracao.get(provider.getIntegracao());
+        if (disjuntor != null) {
+            disjuntor.disjuntor.registrar(duracaoNanos, sucesso);
+        }
+    }
+
+    public void cancelar(ProviderAdapter<?> provider) {
+        Disjuntor disjuntor = porIntegracao.get(provider.getIntegracao());
+        if (disjuntor != null) {
+            disjuntor.disjuntor.cancelar();
+        }
+    }
+
+    public boolean disponivel(ProviderAdapter<?> provider) {
+        Disjuntor disjuntor = porIntegracao.get(provider.getIntegracao());
+        return disjuntor == null || disjuntor.disjuntor.disponivel();
+    }
+
+    public ProvedorIndisponivelException indisponivel(ProviderAdapter<?> provider) {
+        Disjuntor disjuntor = porIntegracao.get(provider.getIntegracao());
+        long restante = disjuntor == null ? 0 : disjuntor.disjuntor.getRestanteAbertoNanos();
+        // Retry-After em segundos inteiros, arredondado para cima e nunca zero
+        return new ProvedorIndisponivelException(provider.getIntegracao(),
+                Math.max(1, (restante + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public DisjuntorProvedor getDisjuntor(String integracao) {
+        Disjuntor disjuntor = porIntegracao.get(integracao);
+        return disjuntor == null ? null : disjuntor.disjuntor;
+    }
+
+    private record Disjuntor(DisjuntorProvedor disjuntor, Counter rejeicoes) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.viasoft.email.provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latência e taxa de erro de um provedor como médias móveis exponenciais, atualizadas
+ * sem lock pelos workers de dispatch.
+ */
+public class EstatisticasProvedor {
+
+    // Peso de cada nova amostra na média móvel
+    private static final double ALFA = 0.1;
+
+    private final AtomicLong latenciaMediaNanos = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong taxaErro = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong amostras = new AtomicLong();
+    private volatile long degradadoAteNanos;
+    private volatile boolean degradado;
+
+    void registrar(long latenciaNanos, boolean sucesso) {
+        amostras.incrementAndGet();
+        atualizarMedia(latenciaMediaNanos, latenciaNanos);
+        atualizarMedia(taxaErro, sucesso ? 0 : 1);
+    }
+
+    /**
+     * Marca o provedor como fora da rotação até {@code ateNanos} e zera as médias,
+     * para que ao voltar ele precise de novas amostras antes de ser julgado outra vez.
+     */
+    void degradar(long ateNanos) {
+        degradadoAteNanos = ateNanos;
+        degradado = true;
+        amostras.set(0);
+        latenciaMediaNanos.set(Double.doubleToRawLongBits(0));
+        taxaErro.set(Double.doubleToRawLongBits(0));
+    }
+
+    boolean disponivel(long agoraNanos) {
+        if (degradado && agoraNanos - degradadoAteNanos >= 0) {
+            degradado = false;
+        }
+        return !degradado;
+    }
+
+    public double getLatenciaMediaNanos() {
+        return Double.longBitsToDouble(latenciaMediaNanos.get());
+    }
+
+    public double getTaxaErro() {
+        return Double.longBitsToDouble(taxaErro.get());
+    }
+
+    public long getAmostras() {
+        return amostras.get();
+    }
+
+    public boolean isDegradado() {
+        return degradado;
+    }
+
+    private static void atualizarMedia(AtomicLong media, double amostra) {
+        long atual;
+        long nova;
+        do {
+            atual = media.get();
+            double valor = Double.longBitsToDouble(atual);
+            nova = Double.doubleToRawLongBits(valor + ALFA * (amostra - valor));
+        } while (!media.compareAndSet(atual, nova));
+    }
+}
@@ -0,0 +1,64 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.dto.IntegracaoDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Administração do provedor ativo sem reinício da aplicação, como endpoint do actuator
+ * ({@code /actuator/integracao}) para ficar fora da API pública: desligado por padrão, só
+ * responde com {@code management.endpoint.integracao.access=unrestricted} e
+ * {@code integracao} em {@code management.endpoints.web.exposure.include}. Em produção,
+ * {@code management.server.port} põe o actuator numa porta que não sai da rede interna.
+ * <ul>
+ * <li>{@code GET /actuator/integracao}: provedor ativo</li>
+ * <li>{@code POST /actuator/integracao} com {@code {"integracao":"OCI"}}: troca</li>
+ * <li>{@code POST /actuator/integracao/recarregar}: relê {@code mail.integracao}</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "integracao", defaultAccess = Access.NONE)
+public class IntegracaoEndpoint {
+
+    private static final String RECARREGAR = "recarregar";
+
+    private final ProvedorAtivo provedorAtivo;
+
+    @Autowired
+    public IntegracaoEndpoint(ProvedorAtivo provedorAtivo) {
+        this.provedorAtivo = provedorAtivo;
+    }
+
+    @ReadOperation
+    public IntegracaoDTO consultar() {
+        return new IntegracaoDTO(provedorAtivo.obter().getIntegracao());
+    }
+
+    @WriteOperation
+    public IntegracaoDTO trocar(String integracao) {
+        try {
+            return new IntegracaoDTO(provedorAtivo.trocar(integracao).getIntegracao());
+        } catch (IllegalArgumentException e) {
+            // Sem a conversão o actuator responderia 500
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @WriteOperation
+    public IntegracaoDTO recarregar(@Selector String acao) {
+        if (!RECARREGAR.equals(acao)) {
+            throw new InvalidEndpointRequestException("Ação desconhecida: " + acao, "Ação desconhecida");
+        }
+        try {
+            return new IntegracaoDTO(provedorAtivo.recarregar().getIntegracao());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.viasoft.email.provider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket sem lock, implementado como GCRA: o estado inteiro é um único
+ * {@code AtomicLong} com o "instante teórico de chegada" da próxima permissão.
+ * Cada aquisição é um CAS; quem precisa esperar reserva a vaga antes de dormir,
+ * então esperas concorrentes não disputam o mesmo token.
+ */
+public class LimitadorTaxa {
+
+    public enum Modo {
+        // Espera pela permissão até esperaMaxima
+        AGUARDAR,
+        // Recusa na hora se não houver permissão disponível
+        REJEITAR
+    }
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final long esperaMaximaNanos;
+    private final AtomicLong proximaChegadaNanos;
+
+    /**
+     * @param taxaPorSegundo permissões por segundo em regime
+     * @param rajada         permissões que podem ser usadas de uma vez com o balde cheio
+     * @param modo           comportamento quando não há permissão imediata
+     * @param esperaMaxima   tempo máximo de espera no modo {@link Modo#AGUARDAR}
+     */
+    public LimitadorTaxa(double taxaPorSegundo, int rajada, Modo modo, Duration esperaMaxima) {
+        if (taxaPorSegundo <= 0 || rajada < 1) {
+            throw new IllegalArgumentException("taxa-por-segundo deve ser > 0 e rajada >= 1");
+        }
+        this.intervaloNanos = Math.max(1, Math.round(1_000_000_000d / taxaPorSegundo));
+        this.toleranciaNanos = intervaloNanos * (rajada - 1);
+        this.esperaMaximaNanos = modo == Modo.AGUARDAR ? esperaMaxima.toNanos() : 0;
+        this.proximaChegadaNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Obtém uma permissão, esperando se o modo permitir.
+     *
+     * @return tempo esperado em nanos, ou -1 se a permissão foi negada
+     */
+    public long adquirir() {
+        long espera = reservar();
+        if (espera > 0) {
+            long fim = System.nanoTime() + espera;
+            long restante;
+            while ((restante = fim - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(this, restante);
+            }
+        }
+        return espera;
+    }
+
+    // Reserva a próxima vaga se a espera couber em esperaMaximaNanos; não dorme
+    long reservar() {
+        while (true) {
+            long atual = proximaChegadaNanos.get();
+            long agora = System.nanoTime();
+            long base = Math.max(atual, agora);
+            long espera = Math.max(0, base - agora - toleranciaNanos);
+            if (espera > esperaMaximaNanos) {
+                return -1;
+            }
+            if (proximaChegadaNanos.compareAndSet(atual, base + intervaloNanos)) {
+                return espera;
+            }
+        }
+    }
+
+    public double getTokensDisponiveis() {
+        long atrasado = Math.max(0, proximaChegadaNanos.get() - System.nanoTime());
+        if (atrasado > toleranciaNanos) {
+            return 0;
+        }
+        return (double) (toleranciaNanos - atrasado) / intervaloNanos + 1;
+    }
+}
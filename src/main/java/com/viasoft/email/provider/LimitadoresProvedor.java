@@ -0,0 +1,77 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Um {@link LimitadorTaxa} por provedor, configurado em {@code mail.provedores.<INTEGRACAO>.limite.*}
+ * de acordo com a cota de envio contratada. Provedor sem taxa configurada não é limitado.
+ */
+@Component
+public class LimitadoresProvedor {
+
+    private final Map<String, Limite> porIntegracao;
+
+    @Autowired
+    public LimitadoresProvedor(EmailProperties properties, ProviderRegistry providerRegistry, MeterRegistry meterRegistry) {
+        Map<String, Limite> limites = new HashMap<>();
+        for (ProviderAdapter<?> adapter : providerRegistry.getAdapters()) {
+            EmailProperties.LimiteTaxa config = properties.getProvedor(adapter.getIntegracao()).getLimite();
+            if (config.getTaxaPorSegundo() <= 0) {
+                continue;
+            }
+            LimitadorTaxa limitador = new LimitadorTaxa(config.getTaxaPorSegundo(), config.getRajada(),
+                    config.getModo(), config.getEsperaMaxima());
+            String integracao = adapter.getIntegracao();
+            Gauge.builder("email.provedor.limitador.tokens", limitador, LimitadorTaxa::getTokensDisponiveis)
+                    .tag("integracao", integracao)
+                    .description("Permissões de envio disponíveis no balde")
+                    .register(meterRegistry);
+            Timer espera = Timer.builder("email.provedor.limitador.espera")
+                    .tag("integracao", integracao)
+                    .description("Tempo que os workers aguardaram por permissão de envio")
+                    .register(meterRegistry);
+            Counter rejeicoes = Counter.builder("email.provedor.limitador.rejeicoes")
+                    .tag("integracao", integracao)
+                    .description("Envios sem permissão dentro da espera máxima")
+                    .register(meterRegistry);
+            limites.put(integracao, new Limite(limitador, espera, rejeicoes));
+        }
+        this.porIntegracao = Collections.unmodifiableMap(limites);
+    }
+
+    /**
+     * @return {@code false} se o provedor não concedeu permissão (modo REJEITAR ou espera esgotada)
+     */
+    public boolean adquirir(ProviderAdapter<?> provider) {
+        Limite limite = porIntegracao.get(provider.getIntegracao());
+        if (limite == null) {
+            return true;
+        }
+        long espera = limite.limitador.adquirir();
+        if (espera < 0) {
+            limite.rejeicoes.increment();
+            return false;
+        }
+        limite.espera.record(espera, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    public LimitadorTaxa getLimitador(String integracao) {
+        Limite limite = porIntegracao.get(integracao);
+        return limite == null ? null : limite.limitador;
+    }
+
+    private record Limite(LimitadorTaxa limitador, Timer espera, Counter rejeicoes) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class OciProviderAdapter implements ProviderAdapter<EmailOciDTO> {
+
+    public static final String INTEGRACAO = "OCI";
+
+    private static final Map<String, String> MAPEAMENTO_CAMPOS = Map.of(
+            "recipientEmail", "destinatarioEmail",
+            "recipientName", "destinatarioNome",
+            "senderEmail", "remetenteEmail",
+            "subject", "assunto",
+            "body", "conteudo");
+
+    @Override
+    public String getIntegracao() {
+        return INTEGRACAO;
+    }
+
+    @Override
+    public Class<EmailOciDTO> getTipoDTO() {
+        return EmailOciDTO.class;
+    }
+
+    @Override
+    public EmailOciDTO adaptar(EmailDTO emailDTO) {
+        EmailOciDTO ociDTO = new EmailOciDTO();
+        ociDTO.setRecipientEmail(emailDTO.getDestinatarioEmail());
+        ociDTO.setRecipientName(emailDTO.getDestinatarioNome());
+        ociDTO.setSenderEmail(emailDTO.getRemetenteEmail());
+        ociDTO.setSubject(emailDTO.getAssunto());
+        ociDTO.setBody(emailDTO.getConteudo());
+        return ociDTO;
+    }
+
+    @Override
+    public Map<String, String> getMapeamentoCampos() {
+        return MAPEAMENTO_CAMPOS;
+    }
+}
@@ -0,0 +1,67 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Provedor configurado em {@code mail.integracao}, resolvido para o adaptador na subida.
+ * Valor desconhecido impede a aplicação de subir. A troca em tempo de execução só
+ * acontece de forma explícita ({@link #trocar} / {@link #recarregar}) e é atômica:
+ * cada mensagem vê o provedor antigo ou o novo, nunca um estado intermediário.
+ */
+@Component
+public class ProvedorAtivo {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvedorAtivo.class);
+
+    private final ProviderRegistry providerRegistry;
+    private final Environment environment;
+    private final AtomicReference<ProviderAdapter<?>> atual = new AtomicReference<>();
+
+    @Autowired
+    public ProvedorAtivo(EmailProperties properties, ProviderRegistry providerRegistry, Environment environment) {
+        this.providerRegistry = providerRegistry;
+        this.environment = environment;
+        try {
+            atual.set(providerRegistry.obter(properties.getIntegracao()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("mail.integracao inválido: '" + properties.getIntegracao()
+                    + "'. Valores aceitos: " + integracoesDisponiveis(), e);
+        }
+        log.info("Integração de email ativa: {}", atual.get().getIntegracao());
+    }
+
+    public ProviderAdapter<?> obter() {
+        return atual.get();
+    }
+
+    /**
+     * Troca o provedor ativo sem reiniciar a aplicação.
+     *
+     * @throws IllegalArgumentException se a integração não estiver registrada
+     */
+    public ProviderAdapter<?> trocar(String integracao) {
+        ProviderAdapter<?> novo = providerRegistry.obter(integracao);
+        ProviderAdapter<?> anterior = atual.getAndSet(novo);
+        log.info("Integração de email alterada: {} -> {}", anterior.getIntegracao(), novo.getIntegracao());
+        return novo;
+    }
+
+    // Relê mail.integracao das fontes de propriedades atuais (ex.: após alterar variável/arquivo externo)
+    public ProviderAdapter<?> recarregar() {
+        String integracao = Binder.get(environment).bind("mail.integracao", String.class)
+                .orElseThrow(() -> new IllegalArgumentException("mail.integracao não configurado"));
+        return trocar(integracao);
+    }
+
+    private String integracoesDisponiveis() {
+        return providerRegistry.getAdapters().stream().map(ProviderAdapter::getIntegracao).sorted().toList().toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.dto.EmailDTO;
+
+import java.util.Map;
+
+/**
+ * SPI de integração: cada provedor (AWS, OCI, ...) sabe adaptar o {@link EmailDTO}
+ * de entrada para o seu DTO específico. Para adicionar um provedor basta registrar
+ * uma nova implementação como bean; o {@link ProviderRegistry} a encontra na subida.
+ *
+ * @param <T> DTO específico do provedor
+ */
+public interface ProviderAdapter<T> {
+
+    // Nome usado em mail.integracao, ex.: "AWS"
+    String getIntegracao();
+
+    Class<T> getTipoDTO();
+
+    T adaptar(EmailDTO emailDTO);
+
+    /**
+     * Campos do DTO do provedor que {@link #adaptar} copia sem transformação de um campo do
+     * {@link EmailDTO} (campo do provedor → campo de origem). Com o mapeamento completo, os
+     * limites do provedor podem ser verificados direto na entrada; vazio obriga a validar o
+     * DTO adaptado.
+     */
+    default Map<String, String> getMapeamentoCampos() {
+        return Map.of();
+    }
+}
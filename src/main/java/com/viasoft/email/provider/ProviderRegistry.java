@@ -0,0 +1,70 @@
+package com.viasoft.email.provider;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mapa imutável integração -> adaptador, montado uma única vez na subida.
+ * Resolver o provedor de uma mensagem é um único lookup, sem cadeia de if/else.
+ */
+@Component
+public class ProviderRegistry {
+
+    private final Map<String, ProviderAdapter<?>> porIntegracao;
+    private final Map<Class<?>, ProviderAdapter<?>> porTipoDTO;
+
+    @Autowired
+    public ProviderRegistry(List<ProviderAdapter<?>> adapters) {
+        Map<String, ProviderAdapter<?>> integracoes = new HashMap<>();
+        Map<Class<?>, ProviderAdapter<?>> tipos = new HashMap<>();
+        for (ProviderAdapter<?> adapter : adapters) {
+            String chave = adapter.getIntegracao().toUpperCase(Locale.ROOT);
+            if (integracoes.put(chave, adapter) != null) {
+                throw new IllegalStateException("Integração registrada mais de uma vez: " + chave);
+            }
+            tipos.put(adapter.getTipoDTO(), adapter);
+        }
+        this.porIntegracao = Collections.unmodifiableMap(integracoes);
+        this.porTipoDTO = Collections.unmodifiableMap(tipos);
+    }
+
+    // Registro com os provedores embutidos, para uso fora do contexto Spring
+    public static ProviderRegistry padrao() {
+        return new ProviderRegistry(List.of(new AwsProviderAdapter(), new OciProviderAdapter()));
+    }
+
+    /**
+     * @throws IllegalArgumentException se a integração não estiver registrada
+     */
+    public ProviderAdapter<?> obter(String integracao) {
+        ProviderAdapter<?> adapter = integracao == null ? null : porIntegracao.get(integracao);
+        if (adapter == null && integracao != null) {
+            // Caminho comum ("AWS") não aloca; só normaliza quando vier em outra caixa
+            adapter = porIntegracao.get(integracao.toUpperCase(Locale.ROOT));
+        }
+        if (adapter == null) {
+            throw new IllegalArgumentException("Tipo de integração desconhecido: " + integracao);
+        }
+        return adapter;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> ProviderAdapter<T> obter(Class<T> tipoDTO) {
+        ProviderAdapter<T> adapter = (ProviderAdapter<T>) porTipoDTO.get(tipoDTO);
+        if (adapter == null) {
+            throw new IllegalArgumentException("Tipo de DTO inválido para validação: " + tipoDTO.getSimpleName());
+        }
+        return adapter;
+    }
+
+    public Collection<ProviderAdapter<?>> getAdapters() {
+        return porIntegracao.values();
+    }
+}
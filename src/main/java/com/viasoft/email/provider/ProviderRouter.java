@@ -0,0 +1,239 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Escolhe o provedor de cada mensagem. Com {@code mail.roteamento.pesos} configurado o
+ * tráfego é distribuído por peso entre os provedores saudáveis; um provedor cuja taxa de
+ * erro ou latência média passe do limite sai da rotação durante a quarentena e o
+ * tráfego dele vai para os demais. Sem pesos, tudo vai para o {@link ProvedorAtivo}.
+ * <p>
+ * Os provedores têm limites diferentes (tamanho de nome, assunto, conteúdo...): quem chama
+ * informa quais comportam a mensagem e o sorteio fica entre eles, senão o mesmo corpo seria
+ * aceito ou recusado conforme a sorte.
+ * <p>
+ * Provedor com o disjuntor aberto ({@link DisjuntoresProvedor}) nunca é escolhido, nem quando
+ * todos estão degradados; sem nenhum provedor com disjuntor fechado a requisição é recusada
+ * na hora ({@link ProvedorIndisponivelException}) em vez de aceitar uma mensagem que só
+ * falharia depois.
+ */
+@Component
+public class ProviderRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderRouter.class);
+
+    private final Supplier<ProviderAdapter<?>> provedorPadrao;
+    private final EmailProperties.Roteamento config;
+    private final DisjuntoresProvedor disjuntores;
+    private final Rota[] rotas;
+    private final Map<String, EstatisticasProvedor> estatisticas;
+    private final int pesoTotal;
+
+    @Autowired
+    public ProviderRouter(ProvedorAtivo provedorAtivo, ProviderRegistry providerRegistry, EmailProperties properties,
+                          DisjuntoresProvedor disjuntores) {
+        this(provedorAtivo::obter, providerRegistry, properties.getRoteamento(), disjuntores);
+    }
+
+    public ProviderRouter(Supplier<ProviderAdapter<?>> provedorPadrao, ProviderRegistry providerRegistry,
+                          EmailProperties.Roteamento config) {
+        this(provedorPadrao, providerRegistry, config, DisjuntoresProvedor.nenhum());
+    }
+
+    public ProviderRouter(Supplier<ProviderAdapter<?>> provedorPadrao, ProviderRegistry providerRegistry,
+                          EmailProperties.Roteamento config, DisjuntoresProvedor disjuntores) {
+        this.provedorPadrao = provedorPadrao;
+        this.config = config;
+        this.disjuntores = disjuntores;
+
+        Map<String, EstatisticasProvedor> porIntegracao = new HashMap<>();
+        for (ProviderAdapter<?> adapter : providerRegistry.getAdapters()) {
+            porIntegracao.put(adapter.getIntegracao(), new EstatisticasProvedor());
+        }
+        this.estatisticas = Collections.unmodifiableMap(porIntegracao);
+
+        List<Rota> configuradas = new ArrayList<>();
+        int soma = 0;
+        for (Map.Entry<String, Integer> peso : config.getPesos().entrySet()) {
+            ProviderAdapter<?> adapter;
+            try {
+                adapter = providerRegistry.obter(peso.getKey());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("mail.roteamento.pesos com integração desconhecida: " + peso.getKey(), e);
+            }
+            if (peso.getValue() == null || peso.getValue() < 0) {
+                throw new IllegalStateException("mail.roteamento.pesos." + peso.getKey() + " deve ser >= 0");
+            }
+            if (peso.getValue() > 0) {
+                configuradas.add(new Rota(adapter, peso.getValue(), porIntegracao.get(adapter.getIntegracao())));
+                soma += peso.getValue();
+            }
+        }
+        this.rotas = configuradas.toArray(new Rota[0]);
+        this.pesoTotal = soma;
+    }
+
+    /**
+     * @throws ProvedorIndisponivelException se nenhum provedor candidato estiver com o disjuntor fechado
+     */
+    public ProviderAdapter<?> selecionar() {
+        return selecionar(provider -> true);
+    }
+
+    /**
+     * Sorteia só entre os provedores roteados aceitos por {@code comporta}. Se nenhum aceitar,
+     * sorteia entre todos e a adaptação para o escolhido devolve as violações.
+     *
+     * @throws ProvedorIndisponivelException se nenhum provedor candidato estiver com o disjuntor fechado
+     */
+    public ProviderAdapter<?> selecionar(Predicate<ProviderAdapter<?>> comporta) {
+        if (rotas.length == 0) {
+            ProviderAdapter<?> padrao = provedorPadrao.get();
+            if (!disjuntores.disponivel(padrao)) {
+                throw disjuntores.indisponivel(padrao);
+            }
+            return padrao;
+        }
+        boolean[] candidatas = candidatas(null, comporta);
+        if (!algumaCandidata(candidatas)) {
+            Arrays.fill(candidatas, true);
+        }
+        ProviderAdapter<?> escolhido = sortear(candidatas);
+        // Todos degradados: melhor tentar algum do que recusar tudo
+        return escolhido != null ? escolhido : sortearEntreTodos(candidatas);
+    }
+
+    /**
+     * Provedor saudável diferente de {@code falhou}, para failover; {@code null} se não houver.
+     */
+    public ProviderAdapter<?> alternativa(ProviderAdapter<?> falhou) {
+        return alternativa(falhou, provider -> true);
+    }
+
+    /**
+     * Como {@link #alternativa(ProviderAdapter)}, só entre os provedores aceitos por {@code comporta}.
+     */
+    public ProviderAdapter<?> alternativa(ProviderAdapter<?> falhou, Predicate<ProviderAdapter<?>> comporta) {
+        return rotas.length == 0 ? null : sortear(candidatas(falhou, comporta));
+    }
+
+    public void registrarResultado(ProviderAdapter<?> provider, long latenciaNanos, boolean sucesso) {
+        EstatisticasProvedor stats = estatisticas.get(provider.getIntegracao());
+        if (stats == null) {
+            return;
+        }
+        stats.registrar(latenciaNanos, sucesso);
+        if (stats.getAmostras() >= config.getAmostrasMinimas() && !stats.isDegradado()
+                && (stats.getTaxaErro() > config.getTaxaErroMaxima()
+                || stats.getLatenciaMediaNanos() > config.getLatenciaMaxima().toNanos())) {
+            log.warn("Provedor {} degradado (taxa de erro {}, latência média {} ms); fora da rotação por {}",
+                    provider.getIntegracao(), String.format("%.2f", stats.getTaxaErro()),
+                    Math.round(stats.getLatenciaMediaNanos() / 1_000_000), config.getQuarentena());
+            stats.degradar(System.nanoTime() + config.getQuarentena().toNanos());
+        }
+    }
+
+    public EstatisticasProvedor getEstatisticas(String integracao) {
+        return estatisticas.get(integracao);
+    }
+
+    // Com uma rota só não há escolha: o predicado nem é avaliado
+    private boolean[] candidatas(ProviderAdapter<?> excluir, Predicate<ProviderAdapter<?>> comporta) {
+        boolean[] candidatas = new boolean[rotas.length];
+        for (int i = 0; i < rotas.length; i++) {
+            ProviderAdapter<?> provider = rotas[i].provider;
+            candidatas[i] = provider != excluir && (rotas.length == 1 || comporta.test(provider));
+        }
+        return candidatas;
+    }
+
+    private static boolean algumaCandidata(boolean[] candidatas) {
+        for (boolean candidata : candidatas) {
+            if (candidata) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ProviderAdapter<?> sortear(boolean[] candidatas) {
+        long agora = System.nanoTime();
+        int total = 0;
+        for (int i = 0; i < rotas.length; i++) {
+            Rota rota = rotas[i];
+            if (candidatas[i] && rota.estatisticas.disponivel(agora) && disjuntores.disponivel(rota.provider)) {
+                total += rota.peso;
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        int sorteio = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < rotas.length; i++) {
+            Rota rota = rotas[i];
+            if (candidatas[i] && rota.estatisticas.disponivel(agora) && disjuntores.disponivel(rota.provider)) {
+                sorteio -= rota.peso;
+                if (sorteio < 0) {
+                    return rota.provider;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Ignora a quarentena, mas não o disjuntor
+    private ProviderAdapter<?> sortearEntreTodos(boolean[] candidatas) {
+        int total = 0;
+        Rota menorEspera = null;
+        Rota ultima = null;
+        for (int i = 0; i < rotas.length; i++) {
+            Rota rota = rotas[i];
+            if (!candidatas[i]) {
+                continue;
+            }
+            if (disjuntores.disponivel(rota.provider)) {
+                total += rota.peso;
+                ultima = rota;
+            } else if (menorEspera == null || restanteAberto(rota) < restanteAberto(menorEspera)) {
+                menorEspera = rota;
+            }
+        }
+        if (total == 0) {
+            throw disjuntores.indisponivel(menorEspera.provider);
+        }
+        int sorteio = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < rotas.length; i++) {
+            Rota rota = rotas[i];
+            if (candidatas[i] && disjuntores.disponivel(rota.provider)) {
+                sorteio -= rota.peso;
+                if (sorteio < 0) {
+                    return rota.provider;
+                }
+            }
+        }
+        return ultima.provider;
+    }
+
+    private long restanteAberto(Rota rota) {
+        DisjuntorProvedor disjuntor = disjuntores.getDisjuntor(rota.provider.getIntegracao());
+        return disjuntor == null ? 0 : disjuntor.getRestanteAbertoNanos();
+    }
+
+    private record Rota(ProviderAdapter<?> provider, int peso, EstatisticasProvedor estatisticas) {
+    }
+}
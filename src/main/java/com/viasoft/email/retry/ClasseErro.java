@@ -0,0 +1,29 @@
+package com.viasoft.email.retry;
+
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+import jakarta.validation.ConstraintViolationException;
+
+/**
+ * Tipo de falha no envio, usado para escolher a política de novas tentativas.
+ */
+public enum ClasseErro {
+
+    // Falta de cota do provedor: passa sozinha, vale esperar pouco e tentar várias vezes
+    LIMITE_TAXA,
+
+    // A mensagem em si é inválida para o provedor: repetir não muda o resultado
+    PERMANENTE,
+
+    // Rede, timeout, erro do provedor
+    TRANSITORIO;
+
+    public static ClasseErro classificar(Throwable erro) {
+        if (erro instanceof LimiteTaxaExcedidoException) {
+            return LIMITE_TAXA;
+        }
+        if (erro instanceof ConstraintViolationException || erro instanceof IllegalArgumentException) {
+            return PERMANENTE;
+        }
+        return TRANSITORIO;
+    }
+}
@@ -0,0 +1,88 @@
+package com.viasoft.email.retry;
+
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dispatch.RetryEnvio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Novas tentativas de envio: a {@link PoliticaRetry} da classe do erro define o atraso, a
+ * {@link RodaTemporizacao} segura a mensagem até lá e, esgotadas as tentativas, ela vai para
+ * as {@link MensagensMortas}.
+ * <p>
+ * Métricas: {@code email.retry.tentativas} (por classe), {@code email.retry.agendadas} e
+ * {@code email.retry.mensagens-mortas}.
+ */
+public class GerenciadorRetry implements RetryEnvio {
+
+    private static final Logger log = LoggerFactory.getLogger(GerenciadorRetry.class);
+
+    // Espera curta quando a fila do dispatcher está cheia na hora de reenfileirar
+    private static final long ATRASO_FILA_CHEIA_MS = 100;
+
+    private final PoliticaRetry politica;
+    private final RodaTemporizacao roda;
+    private final MensagensMortas mensagensMortas;
+    private final Map<ClasseErro, Counter> tentativas = new EnumMap<>(ClasseErro.class);
+    private final Counter mortas;
+
+    public GerenciadorRetry(PoliticaRetry politica, RodaTemporizacao roda, MensagensMortas mensagensMortas,
+                            MeterRegistry meterRegistry) {
+        this.politica = politica;
+        this.roda = roda;
+        this.mensagensMortas = mensagensMortas;
+        for (ClasseErro classe : ClasseErro.values()) {
+            tentativas.put(classe, Counter.builder("email.retry.tentativas")
+                    .description("Novas tentativas de envio agendadas")
+                    .tag("classe", classe.name())
+                    .register(meterRegistry));
+        }
+        this.mortas = Counter.builder("email.retry.mensagens-mortas")
+                .description("Mensagens abandonadas depois de esgotar as tentativas")
+                .register(meterRegistry);
+        Gauge.builder("email.retry.agendadas", roda, RodaTemporizacao::getPendentes)
+                .description("Mensagens aguardando a próxima tentativa")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean reagendar(MensagemEmail mensagem, int tentativa, Exception erro, Runnable novaTentativa) {
+        ClasseErro classe = ClasseErro.classificar(erro);
+        long atraso = politica.atrasoMillis(classe, tentativa);
+        if (atraso < 0) {
+            log.error("Mensagem {} abandonada após {} tentativa(s) via {} ({})", mensagem.id(), tentativa,
+                    mensagem.provider().getIntegracao(), classe, erro);
+            mensagensMortas.registrar(mensagem, tentativa, erro);
+            mortas.increment();
+            return false;
+        }
+        log.warn("Falha na tentativa {} da mensagem {} via {} ({}: {}); nova tentativa em {} ms", tentativa,
+                mensagem.id(), mensagem.provider().getIntegracao(), classe, erro.getMessage(), atraso);
+        tentativas.get(classe).increment();
+        roda.agendar(atraso, TimeUnit.MILLISECONDS, novaTentativa);
+        return true;
+    }
+
+    @Override
+    public void adiar(Runnable acao) {
+        roda.agendar(ATRASO_FILA_CHEIA_MS, TimeUnit.MILLISECONDS, acao);
+    }
+
+    @Override
+    public void close() throws InterruptedException, IOException {
+        // O que ainda estava agendado continua sem confirmação no spool e volta na próxima subida
+        if (roda.getPendentes() > 0) {
+            log.warn("{} novas tentativas pendentes no desligamento", roda.getPendentes());
+        }
+        roda.close();
+        mensagensMortas.close();
+    }
+}
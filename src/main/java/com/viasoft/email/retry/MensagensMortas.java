@@ -0,0 +1,65 @@
+package com.viasoft.email.retry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.viasoft.email.dispatch.MensagemEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Mensagens que esgotaram as tentativas, uma por linha em JSON ({@code mensagens-mortas.log}),
+ * com o DTO original completo para permitir reprocessar depois. Evento raro: grava direto,
+ * sem buffer.
+ */
+public class MensagensMortas implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MensagensMortas.class);
+
+    static final String ARQUIVO = "mensagens-mortas.log";
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel canal;
+
+    public MensagensMortas(Path diretorio, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        Files.createDirectories(diretorio);
+        this.canal = FileChannel.open(diretorio.resolve(ARQUIVO),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public void registrar(MensagemEmail mensagem, int tentativas, Exception erro) {
+        ObjectNode registro = objectMapper.createObjectNode();
+        registro.put("instante", Instant.now().toString());
+        registro.put("id", mensagem.id());
+        registro.put("integracao", mensagem.provider().getIntegracao());
+        registro.put("tentativas", tentativas);
+        registro.put("classeErro", ClasseErro.classificar(erro).name());
+        registro.put("erro", String.valueOf(erro.getMessage()));
+        registro.set("original", objectMapper.valueToTree(mensagem.original()));
+        try {
+            byte[] linha = objectMapper.writeValueAsBytes(registro);
+            ByteBuffer dados = ByteBuffer.allocate(linha.length + 1).put(linha).put((byte) '\n').flip();
+            synchronized (canal) {
+                while (dados.hasRemaining()) {
+                    canal.write(dados);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Não foi possível gravar a mensagem morta {}", mensagem.id(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
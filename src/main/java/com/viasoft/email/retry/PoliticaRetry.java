@@ -0,0 +1,38 @@
+package com.viasoft.email.retry;
+
+import com.viasoft.email.config.EmailProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Quando tentar de novo, por classe de erro: backoff exponencial com jitter completo, ou seja,
+ * um atraso sorteado entre zero e {@code min(atrasoMaximo, atrasoInicial * multiplicador^(n-1))}.
+ * O sorteio espalha as novas tentativas de uma rajada de falhas em vez de repeti-la em bloco.
+ */
+public class PoliticaRetry {
+
+    private final Map<ClasseErro, EmailProperties.Tentativas> politicas;
+
+    public PoliticaRetry(Map<ClasseErro, EmailProperties.Tentativas> politicas) {
+        this.politicas = new EnumMap<>(ClasseErro.class);
+        for (ClasseErro classe : ClasseErro.values()) {
+            this.politicas.put(classe, politicas.getOrDefault(classe, new EmailProperties.Tentativas()));
+        }
+    }
+
+    /**
+     * @param tentativa número da tentativa que falhou (a primeira é 1)
+     * @return atraso em milissegundos até a próxima, ou -1 se as tentativas se esgotaram
+     */
+    public long atrasoMillis(ClasseErro classe, int tentativa) {
+        EmailProperties.Tentativas politica = politicas.get(classe);
+        if (tentativa >= politica.getMaximo()) {
+            return -1;
+        }
+        double teto = politica.getAtrasoInicial().toMillis() * Math.pow(politica.getMultiplicador(), tentativa - 1);
+        long limite = (long) Math.min(politica.getAtrasoMaximo().toMillis(), teto);
+        return ThreadLocalRandom.current().nextLong(limite + 1);
+    }
+}
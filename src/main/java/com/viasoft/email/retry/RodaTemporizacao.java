@@ -0,0 +1,163 @@
+package com.viasoft.email.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roda de temporização (hashed timing wheel) para as novas tentativas de envio.
+ * <p>
+ * {@code baldes} posições de {@code resolucao} cada; uma tarefa cai no balde do seu prazo e
+ * guarda quantas voltas completas ainda faltam. Agendar é só um {@code offer} numa fila sem
+ * trava; a thread da roda ({@code email-retry}) move as novas para os baldes e, a cada tique,
+ * percorre apenas o balde atual. Cada tarefa pendente custa um nó de lista ligada, então
+ * centenas de milhares de tentativas aguardando não ocupam nenhuma thread.
+ * <p>
+ * As ações rodam na thread da roda e devem ser curtas (entregar a mensagem a um executor).
+ */
+public class RodaTemporizacao implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RodaTemporizacao.class);
+
+    private final long resolucaoNanos;
+    private final Balde[] baldes;
+    private final int mascara;
+    private final Queue<Tarefa> novas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private final Thread thread;
+    private final long inicio;
+
+    private volatile boolean ativa = true;
+    // Tiques já processados; só a thread da roda escreve
+    private long tique;
+
+    public RodaTemporizacao(long resolucao, TimeUnit unidade, int baldes) {
+        if (baldes < 1 || Integer.bitCount(baldes) != 1) {
+            throw new IllegalArgumentException("Número de baldes deve ser potência de 2: " + baldes);
+        }
+        this.resolucaoNanos = unidade.toNanos(resolucao);
+        this.baldes = new Balde[baldes];
+        for (int i = 0; i < baldes; i++) {
+            this.baldes[i] = new Balde();
+        }
+        this.mascara = baldes - 1;
+        this.inicio = System.nanoTime();
+        this.thread = new Thread(this::executar, "email-retry");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Executa {@code acao} depois de {@code atraso} (arredondado para cima na resolução da roda).
+     */
+    public void agendar(long atraso, TimeUnit unidade, Runnable acao) {
+        novas.offer(new Tarefa(System.nanoTime() - inicio + unidade.toNanos(atraso), acao));
+        pendentes.incrementAndGet();
+    }
+
+    public int getPendentes() {
+        return pendentes.get();
+    }
+
+    private void executar() {
+        while (ativa) {
+            long proximo = (tique + 1) * resolucaoNanos;
+            long espera;
+            while ((espera = proximo - (System.nanoTime() - inicio)) > 0) {
+                LockSupport.parkNanos(this, espera);
+                if (!ativa) {
+                    return;
+                }
+            }
+            distribuirNovas();
+            processar(baldes[(int) (tique & mascara)]);
+            tique++;
+        }
+    }
+
+    private void distribuirNovas() {
+        Tarefa tarefa;
+        while ((tarefa = novas.poll()) != null) {
+            // Tique em que o prazo vence; o que já venceu vai para o balde atual
+            long vencimento = Math.max(tique, (tarefa.prazo + resolucaoNanos - 1) / resolucaoNanos - 1);
+            tarefa.voltas = (vencimento - tique) / baldes.length;
+            baldes[(int) (vencimento & mascara)].adicionar(tarefa);
+        }
+    }
+
+    private void processar(Balde balde) {
+        Tarefa tarefa = balde.primeira;
+        while (tarefa != null) {
+            Tarefa proxima = tarefa.proxima;
+            if (tarefa.voltas <= 0) {
+                balde.remover(tarefa);
+                pendentes.decrementAndGet();
+                try {
+                    tarefa.acao.run();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao executar tarefa agendada", e);
+                }
+            } else {
+                tarefa.voltas--;
+            }
+            tarefa = proxima;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        ativa = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static final class Tarefa {
+        private final long prazo;
+        private final Runnable acao;
+        private long voltas;
+        private Tarefa anterior;
+        private Tarefa proxima;
+
+        Tarefa(long prazo, Runnable acao) {
+            this.prazo = prazo;
+            this.acao = acao;
+        }
+    }
+
+    // Lista duplamente ligada intrusiva: adicionar e remover sem alocar
+    private static final class Balde {
+        private Tarefa primeira;
+        private Tarefa ultima;
+
+        void adicionar(Tarefa tarefa) {
+            tarefa.anterior = ultima;
+            tarefa.proxima = null;
+            if (ultima == null) {
+                primeira = tarefa;
+            } else {
+                ultima.proxima = tarefa;
+            }
+            ultima = tarefa;
+        }
+
+        void remover(Tarefa tarefa) {
+            if (tarefa.anterior == null) {
+                primeira = tarefa.proxima;
+            } else {
+                tarefa.anterior.proxima = tarefa.proxima;
+            }
+            if (tarefa.proxima == null) {
+                ultima = tarefa.anterior;
+            } else {
+                tarefa.proxima.anterior = tarefa.anterior;
+            }
+            tarefa.anterior = null;
+            tarefa.proxima = null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.viasoft.email.service;
+
+import com.viasoft.email.dto.DestinatarioDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+public interface EmailLoteService {
+    // Lê o corpo (JSON array ou NDJSON) item a item e devolve o relatório consolidado
+    ResultadoLoteDTO processarLote(InputStream corpo) throws IOException;
+
+    // Lê o corpo item a item e escreve um resultado NDJSON por item, sem acumular nada em memória
+    void processarLoteNdjson(InputStream corpo, OutputStream saida) throws IOException;
+
+    // Lê o corpo item a item entregando cada resultado ao consumidor assim que fica pronto
+    void processarStream(InputStream corpo, Consumer<ResultadoItemDTO> consumidor) throws IOException;
+
+    // Valida, adapta para o provedor escolhido pelo roteador e enfileira um único item;
+    // nunca lança exceção de validação
+    ResultadoItemDTO processarItem(int indice, EmailDTO emailDTO);
+
+    // Mala direta: um email por destinatário, montado e enfileirado só na sua vez; com a fila
+    // cheia espera vaga (até 2 s para a lista inteira) e depois recusa o restante como fila cheia
+    ResultadoLoteDTO processarMalaDireta(MalaDiretaDTO malaDireta);
+
+    // Mala direta escrevendo um resultado NDJSON por destinatário
+    void processarMalaDiretaNdjson(MalaDiretaDTO malaDireta, OutputStream saida) throws IOException;
+
+    void processarMalaDiretaStream(MalaDiretaDTO malaDireta, Consumer<ResultadoItemDTO> consumidor);
+
+    // Um destinatário da mala direta, sem esperar vaga na fila; nunca lança exceção de validação
+    ResultadoItemDTO processarDestinatario(MalaDireta malaDireta, int indice, DestinatarioDTO destinatario);
+}
@@ -0,0 +1,302 @@
+package com.viasoft.email.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dto.DestinatarioDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.template.TemplatesEmail;
+import com.viasoft.email.validation.ValidadorRapido;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import com.viasoft.email.exception.TemplateInvalidoException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+@Service
+public class EmailLoteServiceImpl implements EmailLoteService {
+
+    private static final int LINHAS_POR_FLUSH = 64;
+    private static final long INTERVALO_VAGA_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    // Para a requisição inteira, não por destinatário: a espera prende a thread do servidor
+    private static final long ESPERA_MAXIMA_VAGA_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final List<String> ERROS_FILA_CHEIA = List.of(new FilaCheiaException().getMessage());
+
+    private final EmailService emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final ProviderRouter providerRouter;
+    private final ValidadorRapido validadorRapido;
+    private final ObjectMapper objectMapper;
+    private final MetricasPipeline metricas;
+    private final TemplatesEmail templates;
+    private final ObjectWriter escritorResultado;
+
+    public EmailLoteServiceImpl(EmailService emailService, EmailDispatcher emailDispatcher,
+                                ProviderRouter providerRouter, ValidadorRapido validadorRapido, ObjectMapper objectMapper) {
+        this(emailService, emailDispatcher, providerRouter, validadorRapido, objectMapper, MetricasPipeline.nenhuma());
+    }
+
+    public EmailLoteServiceImpl(EmailService emailService, EmailDispatcher emailDispatcher,
+                                ProviderRouter providerRouter, ValidadorRapido validadorRapido, ObjectMapper objectMapper,
+                                MetricasPipeline metricas) {
+        this(emailService, emailDispatcher, providerRouter, validadorRapido, objectMapper, metricas, TemplatesEmail.NENHUM);
+    }
+
+    @Autowired
+    public EmailLoteServiceImpl(EmailService emailService, EmailDispatcher emailDispatcher,
+                                ProviderRouter providerRouter, ValidadorRapido validadorRapido, ObjectMapper objectMapper,
+                                MetricasPipeline metricas, TemplatesEmail templates) {
+        this.emailService = emailService;
+        this.emailDispatcher = emailDispatcher;
+        this.providerRouter = providerRouter;
+        this.validadorRapido = validadorRapido;
+        this.objectMapper = objectMapper;
+        this.metricas = metricas;
+        this.templates = templates;
+        // O flush é feito em blocos por processarLoteNdjson, não a cada item
+        this.escritorResultado = objectMapper.writerFor(ResultadoItemDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public ResultadoLoteDTO processarLote(InputStream corpo) throws IOException {
+        List<ResultadoItemDTO> itens = new ArrayList<>();
+        processarStream(corpo, itens::add);
+        return new ResultadoLoteDTO(itens);
+    }
+
+    @Override
+    public void processarLoteNdjson(InputStream corpo, OutputStream saida) throws IOException {
+        escreverNdjson(saida, consumidor -> processarStream(corpo, consumidor));
+    }
+
+    @Override
+    public ResultadoLoteDTO processarMalaDireta(MalaDiretaDTO malaDireta) {
+        List<ResultadoItemDTO> itens = new ArrayList<>(malaDireta.getDestinatarios().size());
+        processarMalaDiretaStream(malaDireta, itens::add);
+        return new ResultadoLoteDTO(itens);
+    }
+
+    @Override
+    public void processarMalaDiretaNdjson(MalaDiretaDTO malaDireta, OutputStream saida) throws IOException {
+        escreverNdjson(saida, consumidor -> processarMalaDiretaStream(malaDireta, consumidor));
+    }
+
+    @Override
+    public void processarMalaDiretaStream(MalaDiretaDTO dto, Consumer<ResultadoItemDTO> consumidor) {
+        MalaDireta malaDireta = new MalaDireta(dto);
+        List<DestinatarioDTO> destinatarios = malaDireta.getDestinatarios();
+        long limite = System.nanoTime() + ESPERA_MAXIMA_VAGA_NANOS;
+        for (int indice = 0; indice < destinatarios.size(); indice++) {
+            // A lista costuma ser maior que a fila: espera vaga, mas só até o prazo da requisição;
+            // esgotado, o restante é recusado como fila cheia e o cliente reenvia depois
+            if (!aguardarVaga(limite)) {
+                for (; indice < destinatarios.size(); indice++) {
+                    consumidor.accept(ResultadoItemDTO.rejeitado(indice, ERROS_FILA_CHEIA));
+                }
+                return;
+            }
+            consumidor.accept(processarDestinatario(malaDireta, indice, destinatarios.get(indice)));
+        }
+    }
+
+    private void escreverNdjson(OutputStream saida, FonteResultados fonte) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(saida)) {
+            // O separador entre linhas é o '\n' escrito abaixo, sem o espaço padrão do Jackson
+            generator.setRootValueSeparator(null);
+            int[] pendentes = {0};
+            fonte.produzir(resultado -> {
+                try {
+                    escritorResultado.writeValue(generator, resultado);
+                    generator.writeRaw('\n');
+                    // Descarrega em blocos para o cliente ir recebendo sem um write por linha
+                    if (++pendentes[0] == LINHAS_POR_FLUSH) {
+                        generator.flush();
+                        pendentes[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean aguardarVaga(long limite) {
+        while (!emailDispatcher.temCapacidade()) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(INTERVALO_VAGA_NANOS, restante));
+        }
+        return true;
+    }
+
+    @Override
+    public void processarStream(InputStream corpo, Consumer<ResultadoItemDTO> consumidor) throws IOException {
+        int indice = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            // Só a árvore do item corrente fica em memória, seja o corpo um array ou NDJSON
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode item = parser.readValueAsTree();
+                consumidor.accept(processarNo(indice++, item));
+                token = parser.nextToken();
+            }
+        } catch (StreamReadException e) {
+            // Sintaxe quebrada: não há como ressincronizar o parser, encerra reportando a posição
+            consumidor.accept(ResultadoItemDTO.rejeitado(indice, List.of("JSON inválido: " + e.getOriginalMessage())));
+        }
+    }
+
+    private ResultadoItemDTO processarNo(int indice, JsonNode item) {
+        if (item == null || item.isNull()) {
+            return ResultadoItemDTO.rejeitado(indice, List.of("Item vazio"));
+        }
+        EmailDTO emailDTO;
+        try {
+            emailDTO = objectMapper.treeToValue(item, EmailDTO.class);
+        } catch (JsonProcessingException e) {
+            return ResultadoItemDTO.rejeitado(indice, List.of("JSON inválido: " + e.getOriginalMessage()));
+        }
+        return processarItem(indice, emailDTO);
+    }
+
+    @Override
+    public ResultadoItemDTO processarItem(int indice, EmailDTO emailDTO) {
+        if (emailDTO == null) {
+            return ResultadoItemDTO.rejeitado(indice, List.of("Item vazio"));
+        }
+
+        try {
+            // Antes da validação, como no endpoint unitário
+            templates.aplicar(emailDTO);
+            ProviderAdapter<?> provider = providerRouter.selecionar(p -> emailService.comporta(emailDTO, p));
+            long inicio = metricas.iniciar();
+            if (validadorRapido.validoPara(emailDTO, provider.getTipoDTO(), provider.getMapeamentoCampos())) {
+                // Uma única passada provou os limites da entrada e os do provedor
+                metricas.registrar(MetricasPipeline.Etapa.VALIDACAO_PROVEDOR, provider, true, inicio);
+                return adaptarEEnfileirar(indice, emailDTO, provider);
+            }
+            return validarEEnfileirar(indice, emailDTO, provider);
+        } catch (ConstraintViolationException e) {
+            return ResultadoItemDTO.rejeitado(indice, mensagens(e.getConstraintViolations()));
+        } catch (FilaCheiaException | ProvedorIndisponivelException | TemplateInvalidoException e) {
+            return ResultadoItemDTO.rejeitado(indice, List.of(e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResultadoItemDTO processarDestinatario(MalaDireta malaDireta, int indice, DestinatarioDTO destinatario) {
+        if (destinatario == null) {
+            return ResultadoItemDTO.rejeitado(indice, List.of("Item vazio"));
+        }
+
+        try {
+            EmailDTO emailDTO = malaDireta.email(destinatario);
+            ProviderAdapter<?> provider = providerRouter.selecionar(p -> comporta(malaDireta, emailDTO, p));
+            MalaDireta.PlanoProvedor plano = malaDireta.plano(provider, p -> planejar(malaDireta, p));
+            if (!plano.errosComuns().isEmpty()) {
+                return ResultadoItemDTO.rejeitado(indice, plano.errosComuns());
+            }
+            long inicio = metricas.iniciar();
+            if (plano.destinatarioValido().test(emailDTO)) {
+                // Só os campos do destinatário: os comuns já foram provados no plano
+                metricas.registrar(MetricasPipeline.Etapa.VALIDACAO_PROVEDOR, provider, true, inicio);
+                return adaptarEEnfileirar(indice, emailDTO, provider);
+            }
+            return validarEEnfileirar(indice, emailDTO, provider);
+        } catch (ConstraintViolationException e) {
+            return ResultadoItemDTO.rejeitado(indice, mensagens(e.getConstraintViolations()));
+        } catch (FilaCheiaException | ProvedorIndisponivelException e) {
+            return ResultadoItemDTO.rejeitado(indice, List.of(e.getMessage()));
+        }
+    }
+
+    // Usa o plano já calculado por provedor antes de cair na validação completa
+    private boolean comporta(MalaDireta malaDireta, EmailDTO emailDTO, ProviderAdapter<?> provider) {
+        MalaDireta.PlanoProvedor plano = malaDireta.plano(provider, p -> planejar(malaDireta, p));
+        return plano.errosComuns().isEmpty()
+                && (plano.destinatarioValido().test(emailDTO) || emailService.comporta(emailDTO, provider));
+    }
+
+    // Campos comuns da mala direta nos limites do provedor, uma vez por provedor
+    private MalaDireta.PlanoProvedor planejar(MalaDireta malaDireta, ProviderAdapter<?> provider) {
+        Map<String, String> mapeamento = provider.getMapeamentoCampos();
+        List<String> erros = new ArrayList<>();
+        for (Map.Entry<String, String> campo : mapeamento.entrySet()) {
+            if (MalaDireta.CAMPOS_COMUNS.contains(campo.getValue())) {
+                erros.addAll(mensagens(validadorRapido.validarValor(provider.getTipoDTO(), campo.getKey(),
+                        malaDireta.valorComum(campo.getValue()))));
+            }
+        }
+        // Sem mapeamento (provedor que transforma os campos) a verificação sempre falha e cada
+        // destinatário passa pela validação completa
+        return new MalaDireta.PlanoProvedor(List.copyOf(erros), validadorRapido.verificacaoPara(EmailDTO.class,
+                provider.getTipoDTO(), mapeamento, MalaDireta.CAMPOS_DESTINATARIO));
+    }
+
+    private ResultadoItemDTO adaptarEEnfileirar(int indice, EmailDTO emailDTO, ProviderAdapter<?> provider) {
+        long inicio = metricas.iniciar();
+        Object emailAdaptado = provider.adaptar(emailDTO);
+        metricas.registrar(MetricasPipeline.Etapa.ADAPTACAO, provider, true, inicio);
+        return ResultadoItemDTO.aceito(indice, emailDispatcher.enfileirar(emailDTO, provider, emailAdaptado));
+    }
+
+    // Mesma validação que o @Valid faz no endpoint unitário, seguida da validação do DTO adaptado
+    private ResultadoItemDTO validarEEnfileirar(int indice, EmailDTO emailDTO, ProviderAdapter<?> provider) {
+        long inicio = metricas.iniciar();
+        Set<ConstraintViolation<EmailDTO>> violations = validadorRapido.validar(emailDTO);
+        metricas.registrar(MetricasPipeline.Etapa.VALIDACAO, violations.isEmpty(), inicio);
+        if (!violations.isEmpty()) {
+            return ResultadoItemDTO.rejeitado(indice, mensagens(violations));
+        }
+        Object emailAdaptado = emailService.adaptarEmailParaIntegracao(emailDTO, provider);
+        return ResultadoItemDTO.aceito(indice, emailDispatcher.enfileirar(emailDTO, provider, emailAdaptado));
+    }
+
+    private static List<String> mensagens(Set<? extends ConstraintViolation<?>> violations) {
+        List<String> erros = new ArrayList<>(violations.size());
+        for (ConstraintViolation<?> violation : violations) {
+            erros.add(violation.getMessage());
+        }
+        return erros;
+    }
+
+    @FunctionalInterface
+    private interface FonteResultados {
+        void produzir(Consumer<ResultadoItemDTO> consumidor) throws IOException;
+    }
+}
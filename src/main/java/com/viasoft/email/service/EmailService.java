@@ -3,12 +3,19 @@ package com.viasoft.email.service;
 import com.viasoft.email.dto.EmailAwsDTO;
 import com.viasoft.email.dto.EmailDTO;
 import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.provider.ProviderAdapter;
 
 public interface EmailService {
     // Metodo que adapta o DTO de entrada para o DTO específico da integração
     Object adaptarEmailParaIntegracao(EmailDTO emailDTO, String integracao);
 
+    // Mesma adaptação, para quem já resolveu o provedor (evita o lookup por nome)
+    <T> T adaptarEmailParaIntegracao(EmailDTO emailDTO, ProviderAdapter<T> provider);
+
+    // Se a mensagem cabe nos limites do provedor, sem lançar as violações (escolha de rota)
+    boolean comporta(EmailDTO emailDTO, ProviderAdapter<?> provider);
+
     // Métodos privados (ou protegidos, se for estendido) ou de classe que podem ser testados individualmente
     EmailAwsDTO adaptarParaAws(EmailDTO emailDTO);
     EmailOciDTO adaptarParaOci(EmailDTO emailDTO);
-}
\ No newline at end of file
+}
@@ -3,8 +3,12 @@ package com.viasoft.email.service;
 import com.viasoft.email.dto.EmailAwsDTO;
 import com.viasoft.email.dto.EmailDTO;
 import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.exception.ViolacaoRestricaoException;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.validation.ValidadorRapido;
 import jakarta.validation.ConstraintViolation;
-import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,70 +18,79 @@ import java.util.Set;
 @Service
 public class EmailServiceImpl implements EmailService {
 
-    private final Validator validator;
+    private final ValidadorRapido validadorRapido;
+    private final ProviderRegistry providerRegistry;
+    private final MetricasPipeline metricas;
 
-    @Autowired
     public EmailServiceImpl(Validator validator) {
-        this.validator = validator;
+        this(validator, ProviderRegistry.padrao());
+    }
+
+    public EmailServiceImpl(Validator validator, ProviderRegistry providerRegistry) {
+        this(new ValidadorRapido(validator, EmailAwsDTO.class, EmailOciDTO.class), providerRegistry);
+    }
+
+    public EmailServiceImpl(ValidadorRapido validadorRapido, ProviderRegistry providerRegistry) {
+        this(validadorRapido, providerRegistry, MetricasPipeline.nenhuma());
+    }
+
+    @Autowired
+    public EmailServiceImpl(ValidadorRapido validadorRapido, ProviderRegistry providerRegistry,
+                            MetricasPipeline metricas) {
+        this.validadorRapido = validadorRapido;
+        this.providerRegistry = providerRegistry;
+        this.metricas = metricas;
     }
 
     @Override
     public Object adaptarEmailParaIntegracao(EmailDTO emailDTO, String integracao) {
-        Object emailAdaptado;
-
-        if ("AWS".equalsIgnoreCase(integracao)) {
-            emailAdaptado = adaptarParaAws(emailDTO);
-        } else if ("OCI".equalsIgnoreCase(integracao)) {
-            emailAdaptado = adaptarParaOci(emailDTO);
-        } else {
-            // Se a integração não for reconhecida, você pode escolher lançar uma exceção
-            // ou retornar o DTO original ou null, dependendo da sua regra de negócio.
-            // Por simplicidade, vamos retornar o DTO original por enquanto, mas uma exceção
-            // seria mais adequada para um tipo de integração inválido.
-            throw new IllegalArgumentException("Tipo de integração desconhecido: " + integracao);
-        }
+        // Integração desconhecida: o registro lança IllegalArgumentException (400)
+        return adaptarEmailParaIntegracao(emailDTO, providerRegistry.obter(integracao));
+    }
 
-        // Valida o DTO adaptado
-        validateAdaptedDTO(emailAdaptado, integracao);
+    @Override
+    public <T> T adaptarEmailParaIntegracao(EmailDTO emailDTO, ProviderAdapter<T> provider) {
+        long inicio = metricas.iniciar();
+        T emailAdaptado = provider.adaptar(emailDTO);
+        metricas.registrar(MetricasPipeline.Etapa.ADAPTACAO, provider, true, inicio);
+
+        // Se uma passada sobre a entrada já prova os limites do provedor, o DTO adaptado não
+        // precisa ser validado de novo; caso contrário valida e gera as violações do provedor
+        inicio = metricas.iniciar();
+        boolean valido = false;
+        try {
+            if (!validadorRapido.validoPara(emailDTO, provider.getTipoDTO(), provider.getMapeamentoCampos())) {
+                validateAdaptedDTO(emailAdaptado);
+            }
+            valido = true;
+        } finally {
+            metricas.registrar(MetricasPipeline.Etapa.VALIDACAO_PROVEDOR, provider, valido, inicio);
+        }
 
         return emailAdaptado;
     }
 
+    @Override
+    public boolean comporta(EmailDTO emailDTO, ProviderAdapter<?> provider) {
+        return validadorRapido.validoPara(emailDTO, provider.getTipoDTO(), provider.getMapeamentoCampos())
+                || validadorRapido.validar(provider.adaptar(emailDTO)).isEmpty();
+    }
+
     @Override
     public EmailAwsDTO adaptarParaAws(EmailDTO emailDTO) {
-        EmailAwsDTO awsDTO = new EmailAwsDTO();
-        awsDTO.setRecipient(emailDTO.getDestinatarioEmail());
-        awsDTO.setRecipientName(emailDTO.getDestinatarioNome());
-        awsDTO.setSender(emailDTO.getRemetenteEmail());
-        awsDTO.setSubject(emailDTO.getAssunto());
-        awsDTO.setContent(emailDTO.getConteudo());
-        return awsDTO;
+        return providerRegistry.obter(EmailAwsDTO.class).adaptar(emailDTO);
     }
 
     @Override
     public EmailOciDTO adaptarParaOci(EmailDTO emailDTO) {
-        EmailOciDTO ociDTO = new EmailOciDTO();
-        ociDTO.setRecipientEmail(emailDTO.getDestinatarioEmail());
-        ociDTO.setRecipientName(emailDTO.getDestinatarioNome());
-        ociDTO.setSenderEmail(emailDTO.getRemetenteEmail());
-        ociDTO.setSubject(emailDTO.getAssunto());
-        ociDTO.setBody(emailDTO.getConteudo());
-        return ociDTO;
+        return providerRegistry.obter(EmailOciDTO.class).adaptar(emailDTO);
     }
 
-    private void validateAdaptedDTO(Object dto, String integracao) {
-        Set<? extends ConstraintViolation<?>> violations;
-
-        if ("AWS".equalsIgnoreCase(integracao)) {
-            violations = validator.validate((EmailAwsDTO) dto);
-        } else if ("OCI".equalsIgnoreCase(integracao)) {
-            violations = validator.validate((EmailOciDTO) dto);
-        } else {
-            throw new IllegalArgumentException("Tipo de DTO inválido para validação: " + integracao);
-        }
+    private <T> void validateAdaptedDTO(T dto) {
+        Set<ConstraintViolation<T>> violations = validadorRapido.validar(dto);
 
         if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
+            throw new ViolacaoRestricaoException(violations);
         }
     }
-}
\ No newline at end of file
+}
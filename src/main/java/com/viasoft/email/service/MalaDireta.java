@@ -0,0 +1,69 @@
+package com.viasoft.email.service;
+
+import com.viasoft.email.dto.DestinatarioDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.provider.ProviderAdapter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Estado de uma mala direta durante o envio. Os campos comuns são verificados contra os
+ * limites de cada provedor uma única vez, na primeira mensagem roteada para ele; o resultado
+ * fica em {@link PlanoProvedor}. Os emails são montados um por vez, no envio, todos apontando
+ * para as mesmas Strings de remetente, assunto e conteúdo.
+ */
+public final class MalaDireta {
+
+    static final Set<String> CAMPOS_COMUNS = Set.of("remetenteEmail", "assunto", "conteudo");
+    static final Set<String> CAMPOS_DESTINATARIO = Set.of("destinatarioEmail", "destinatarioNome");
+
+    private final MalaDiretaDTO dto;
+    private final Map<ProviderAdapter<?>, PlanoProvedor> planos = new ConcurrentHashMap<>();
+
+    public MalaDireta(MalaDiretaDTO dto) {
+        this.dto = dto;
+    }
+
+    public List<DestinatarioDTO> getDestinatarios() {
+        return dto.getDestinatarios();
+    }
+
+    EmailDTO email(DestinatarioDTO destinatario) {
+        EmailDTO email = new EmailDTO();
+        email.setDestinatarioEmail(destinatario.getEmail());
+        email.setDestinatarioNome(destinatario.getNome());
+        email.setRemetenteEmail(dto.getRemetenteEmail());
+        email.setAssunto(dto.getAssunto());
+        email.setConteudo(dto.getConteudo());
+        return email;
+    }
+
+    // Valor de um dos CAMPOS_COMUNS, pelo nome do campo no EmailDTO
+    String valorComum(String campo) {
+        return switch (campo) {
+            case "remetenteEmail" -> dto.getRemetenteEmail();
+            case "assunto" -> dto.getAssunto();
+            case "conteudo" -> dto.getConteudo();
+            default -> throw new IllegalArgumentException("Campo não é comum à mala direta: " + campo);
+        };
+    }
+
+    PlanoProvedor plano(ProviderAdapter<?> provider, Function<ProviderAdapter<?>, PlanoProvedor> planejar) {
+        PlanoProvedor plano = planos.get(provider);
+        return plano != null ? plano : planos.computeIfAbsent(provider, planejar);
+    }
+
+    /**
+     * @param errosComuns        violações dos campos comuns nos limites do provedor; não vazio
+     *                           recusa todos os destinatários roteados para ele
+     * @param destinatarioValido verifica só os campos do destinatário (entrada e provedor)
+     */
+    record PlanoProvedor(List<String> errosComuns, Predicate<Object> destinatarioValido) {
+    }
+}
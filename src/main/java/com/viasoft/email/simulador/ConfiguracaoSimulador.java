@@ -0,0 +1,119 @@
+package com.viasoft.email.simulador;
+
+import java.time.Duration;
+
+/**
+ * Comportamento do {@link SimuladorProvedor}. Na linha de comando cada campo vira
+ * {@code --nome-do-campo=valor}, com durações em milissegundos ({@code --latencia-mediana=50}).
+ */
+public class ConfiguracaoSimulador {
+
+    // 0 = porta livre qualquer (testes)
+    private int porta = 8089;
+
+    // Latência lognormal: metade das respostas abaixo da mediana, 99% abaixo do p99
+    private Duration latenciaMediana = Duration.ofMillis(50);
+
+    // Igual ou menor que a mediana = latência fixa
+    private Duration latenciaP99 = Duration.ofMillis(250);
+
+    // Fração das mensagens que falham com 503
+    private double taxaErro;
+
+    // Cota de requisições por segundo; acima dela responde 429 com Retry-After. 0 = sem cota
+    private double taxaPorSegundo;
+
+    private int rajada = 1;
+
+    // Fração das respostas escritas aos poucos, um byte a cada intervaloGotejamento
+    private double taxaGotejamento;
+
+    private Duration intervaloGotejamento = Duration.ofMillis(200);
+
+    public static ConfiguracaoSimulador deArgumentos(String... args) {
+        ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (!arg.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento inválido (esperado --nome=valor): " + arg);
+            }
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(2, igual)) {
+                case "porta" -> config.setPorta(Integer.parseInt(valor));
+                case "latencia-mediana" -> config.setLatenciaMediana(Duration.ofMillis(Long.parseLong(valor)));
+                case "latencia-p99" -> config.setLatenciaP99(Duration.ofMillis(Long.parseLong(valor)));
+                case "taxa-erro" -> config.setTaxaErro(Double.parseDouble(valor));
+                case "taxa-por-segundo" -> config.setTaxaPorSegundo(Double.parseDouble(valor));
+                case "rajada" -> config.setRajada(Integer.parseInt(valor));
+                case "taxa-gotejamento" -> config.setTaxaGotejamento(Double.parseDouble(valor));
+                case "intervalo-gotejamento" -> config.setIntervaloGotejamento(Duration.ofMillis(Long.parseLong(valor)));
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+        return config;
+    }
+
+    public int getPorta() {
+        return porta;
+    }
+
+    public void setPorta(int porta) {
+        this.porta = porta;
+    }
+
+    public Duration getLatenciaMediana() {
+        return latenciaMediana;
+    }
+
+    public void setLatenciaMediana(Duration latenciaMediana) {
+        this.latenciaMediana = latenciaMediana;
+    }
+
+    public Duration getLatenciaP99() {
+        return latenciaP99;
+    }
+
+    public void setLatenciaP99(Duration latenciaP99) {
+        this.latenciaP99 = latenciaP99;
+    }
+
+    public double getTaxaErro() {
+        return taxaErro;
+    }
+
+    public void setTaxaErro(double taxaErro) {
+        this.taxaErro = taxaErro;
+    }
+
+    public double getTaxaPorSegundo() {
+        return taxaPorSegundo;
+    }
+
+    public void setTaxaPorSegundo(double taxaPorSegundo) {
+        this.taxaPorSegundo = taxaPorSegundo;
+    }
+
+    public int getRajada() {
+        return rajada;
+    }
+
+    public void setRajada(int rajada) {
+        this.rajada = rajada;
+    }
+
+    public double getTaxaGotejamento() {
+        return taxaGotejamento;
+    }
+
+    public void setTaxaGotejamento(double taxaGotejamento) {
+        this.taxaGotejamento = taxaGotejamento;
+    }
+
+    public Duration getIntervaloGotejamento() {
+        return intervaloGotejamento;
+    }
+
+    public void setIntervaloGotejamento(Duration intervaloGotejamento) {
+        this.intervaloGotejamento = intervaloGotejamento;
+    }
+}
@@ -0,0 +1,296 @@
+package com.viasoft.email.simulador;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provedor de email falso para testes de carga e de latência sem sair da máquina. Aceita os
+ * formatos de {@link EmailAwsDTO} e {@link EmailOciDTO}:
+ * <ul>
+ *     <li>{@code POST /aws/emails}, {@code POST /oci/emails}: um DTO; 202 com {@code {"id": ...}}.</li>
+ *     <li>{@code POST /aws/emails/lote}, {@code POST /oci/emails/lote}: array de DTOs; 200 com
+ *     {@code {"resultados": [202, 503, 400, ...]}}, um status por mensagem, na mesma ordem.</li>
+ *     <li>{@code GET /estatisticas}: contadores desde a subida.</li>
+ * </ul>
+ * Campo desconhecido, faltando ou em branco é 400. Antes de responder, cada requisição espera
+ * uma latência sorteada ({@link ConfiguracaoSimulador}); acima da cota responde 429 com
+ * {@code Retry-After}; uma fração das mensagens falha com 503 e uma fração das respostas é
+ * gotejada, um byte por vez, para exercitar timeouts de leitura.
+ * <p>
+ * Só depende do JDK ({@link HttpServer}), do Jackson e dos DTOs: roda dentro dos testes e
+ * sozinho, pelo jar do perfil Maven {@code simulador} ({@code java -jar email-api-*-simulador.jar --porta=8089}).
+ */
+public class SimuladorProvedor implements AutoCloseable {
+
+    // Quantil 0,99 da normal padrão: converte (mediana, p99) em sigma da lognormal
+    private static final double Z_P99 = 2.3263;
+
+    /**
+     * Formato aceito em {@code /<caminho>/emails}; todos os campos do DTO são obrigatórios.
+     */
+    enum Formato {
+        AWS("aws", EmailAwsDTO.class, List.of("recipient", "recipientName", "sender", "subject", "content")),
+        OCI("oci", EmailOciDTO.class, List.of("recipientEmail", "recipientName", "senderEmail", "subject", "body"));
+
+        private final String caminho;
+        private final Class<?> tipo;
+        private final List<String> campos;
+
+        Formato(String caminho, Class<?> tipo, List<String> campos) {
+            this.caminho = caminho;
+            this.tipo = tipo;
+            this.campos = campos;
+        }
+    }
+
+    private final ConfiguracaoSimulador config;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final long medianaNanos;
+    private final double sigma;
+    private final Cota cota;
+
+    private final AtomicLong requisicoes = new AtomicLong();
+    private final AtomicLong aceitas = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong invalidas = new AtomicLong();
+    private final AtomicLong limitadas = new AtomicLong();
+    private final AtomicLong gotejadas = new AtomicLong();
+
+    public SimuladorProvedor(ConfiguracaoSimulador config) throws IOException {
+        this.config = config;
+        this.medianaNanos = config.getLatenciaMediana().toNanos();
+        long p99Nanos = config.getLatenciaP99().toNanos();
+        this.sigma = medianaNanos > 0 && p99Nanos > medianaNanos
+                ? Math.log((double) p99Nanos / medianaNanos) / Z_P99 : 0;
+        this.cota = config.getTaxaPorSegundo() > 0 ? new Cota(config.getTaxaPorSegundo(), config.getRajada()) : null;
+
+        AtomicInteger threads = new AtomicInteger();
+        // Uma thread por conexão: a latência simulada é um sleep e não pode segurar as demais
+        this.executor = Executors.newCachedThreadPool(tarefa -> {
+            Thread thread = new Thread(tarefa, "simulador-provedor-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.servidor = HttpServer.create(new InetSocketAddress(config.getPorta()), 1024);
+        for (Formato formato : Formato.values()) {
+            servidor.createContext("/" + formato.caminho + "/emails", troca -> atender(troca, formato));
+        }
+        servidor.createContext("/estatisticas", this::estatisticas);
+        servidor.setExecutor(executor);
+        servidor.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimuladorProvedor simulador = new SimuladorProvedor(ConfiguracaoSimulador.deArgumentos(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(simulador::close));
+        System.out.println("Simulador de provedor em " + simulador.getUrl());
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + getPorta();
+    }
+
+    public Map<String, Long> getEstatisticas() {
+        Map<String, Long> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("requisicoes", requisicoes.get());
+        estatisticas.put("aceitas", aceitas.get());
+        estatisticas.put("falhas", falhas.get());
+        estatisticas.put("invalidas", invalidas.get());
+        estatisticas.put("limitadas", limitadas.get());
+        estatisticas.put("gotejadas", gotejadas.get());
+        return estatisticas;
+    }
+
+    private void atender(HttpExchange troca, Formato formato) throws IOException {
+        try (troca) {
+            requisicoes.incrementAndGet();
+            String caminho = troca.getRequestURI().getPath();
+            String base = "/" + formato.caminho + "/emails";
+            boolean lote = caminho.equals(base + "/lote");
+            if (!"POST".equals(troca.getRequestMethod()) || !(lote || caminho.equals(base))) {
+                responder(troca, 404, erro("Rota inexistente: " + troca.getRequestMethod() + " " + caminho));
+                return;
+            }
+            JsonNode corpo;
+            try {
+                corpo = objectMapper.readTree(troca.getRequestBody());
+            } catch (IOException e) {
+                invalidas.incrementAndGet();
+                responder(troca, 400, erro("JSON inválido"));
+                return;
+            }
+            if (lote != corpo.isArray()) {
+                invalidas.incrementAndGet();
+                responder(troca, 400, erro(lote ? "Esperado um array de emails" : "Esperado um email"));
+                return;
+            }
+            int mensagens = lote ? corpo.size() : 1;
+            if (cota != null && !cota.permitir(mensagens)) {
+                limitadas.addAndGet(mensagens);
+                troca.getResponseHeaders().set("Retry-After", "1");
+                responder(troca, 429, erro("Cota de envio excedida"));
+                return;
+            }
+            esperarLatencia();
+
+            if (!lote) {
+                String problema = validar(corpo, formato);
+                int status = problema != null ? 400 : sortearFalha() ? 503 : 202;
+                contar(status);
+                responder(troca, status, status == 202
+                        ? objectMapper.createObjectNode().put("id", UUID.randomUUID().toString())
+                        : erro(problema != null ? problema : "Falha simulada do provedor"));
+                return;
+            }
+            ObjectNode resposta = objectMapper.createObjectNode();
+            ArrayNode resultados = resposta.putArray("resultados");
+            for (JsonNode email : corpo) {
+                int status = validar(email, formato) != null ? 400 : sortearFalha() ? 503 : 202;
+                contar(status);
+                resultados.add(status);
+            }
+            responder(troca, 200, resposta);
+        }
+    }
+
+    // null = email válido no formato
+    private String validar(JsonNode email, Formato formato) {
+        if (!email.isObject()) {
+            return "Esperado um objeto JSON";
+        }
+        try {
+            objectMapper.treeToValue(email, formato.tipo);
+        } catch (JsonProcessingException e) {
+            return "Fora do formato " + formato.name() + ": " + e.getOriginalMessage();
+        }
+        for (String campo : formato.campos) {
+            JsonNode valor = email.get(campo);
+            if (valor == null || !valor.isTextual() || valor.asText().isBlank()) {
+                return "Campo obrigatório: " + campo;
+            }
+        }
+        return null;
+    }
+
+    private boolean sortearFalha() {
+        return config.getTaxaErro() > 0 && ThreadLocalRandom.current().nextDouble() < config.getTaxaErro();
+    }
+
+    private void contar(int status) {
+        switch (status) {
+            case 202 -> aceitas.incrementAndGet();
+            case 400 -> invalidas.incrementAndGet();
+            default -> falhas.incrementAndGet();
+        }
+    }
+
+    private void esperarLatencia() {
+        long nanos = sigma == 0 ? medianaNanos
+                : (long) (medianaNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        dormir(nanos);
+    }
+
+    private void responder(HttpExchange troca, int status, JsonNode json) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(json);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        boolean gotejar = config.getTaxaGotejamento() > 0
+                && ThreadLocalRandom.current().nextDouble() < config.getTaxaGotejamento();
+        if (!gotejar) {
+            troca.sendResponseHeaders(status, bytes.length);
+            troca.getResponseBody().write(bytes);
+            return;
+        }
+        gotejadas.incrementAndGet();
+        // Tamanho 0 = chunked: o cabeçalho sai na hora e o corpo vem aos poucos
+        troca.sendResponseHeaders(status, 0);
+        OutputStream saida = troca.getResponseBody();
+        long intervalo = config.getIntervaloGotejamento().toNanos();
+        for (byte b : bytes) {
+            saida.write(b);
+            saida.flush();
+            dormir(intervalo);
+        }
+    }
+
+    private ObjectNode erro(String mensagem) {
+        return objectMapper.createObjectNode().put("erro", mensagem);
+    }
+
+    private void estatisticas(HttpExchange troca) throws IOException {
+        try (troca) {
+            responder(troca, 200, objectMapper.valueToTree(getEstatisticas()));
+        }
+    }
+
+    private static void dormir(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Token bucket simples; o simulador não depende das classes do serviço além dos DTOs
+    private static final class Cota {
+        private final double porNano;
+        private final double capacidade;
+        private double tokens;
+        private long ultimo = System.nanoTime();
+
+        Cota(double taxaPorSegundo, int rajada) {
+            this.porNano = taxaPorSegundo / TimeUnit.SECONDS.toNanos(1);
+            this.capacidade = Math.max(1, rajada);
+            this.tokens = capacidade;
+        }
+
+        synchronized boolean permitir(int quantidade) {
+            long agora = System.nanoTime();
+            tokens = Math.min(capacidade, tokens + (agora - ultimo) * porNano);
+            ultimo = agora;
+            // Lote maior que a rajada passa com a cota cheia e deixa o saldo negativo
+            if (tokens < Math.min(quantidade, capacidade)) {
+                return false;
+            }
+            tokens -= quantidade;
+            return true;
+        }
+    }
+}
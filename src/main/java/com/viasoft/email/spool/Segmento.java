@@ -0,0 +1,172 @@
+package com.viasoft.email.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo de tamanho fixo do spool, mapeado em memória. Registros:
+ * {@code [tamanho int][crc32 int][tipo byte][dados]}, um atrás do outro; o primeiro
+ * {@code tamanho == 0} (arquivo pré-alocado com zeros) marca o fim. Um registro com CRC
+ * errado é uma gravação interrompida e encerra a leitura.
+ * <p>
+ * Não é thread-safe: escrita e leitura acontecem sob a trava de escrita do {@link SpoolMapeado}.
+ */
+class Segmento implements Closeable {
+
+    static final int CABECALHO = 9;
+    static final byte MENSAGEM = 1;
+    static final byte CONFIRMACAO = 2;
+
+    private static final String PREFIXO = "spool-";
+    private static final String SUFIXO = ".log";
+
+    private final long numero;
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final CRC32 crc = new CRC32();
+
+    private int posicao;
+    private volatile int forcado;
+
+    // Mensagens gravadas neste segmento e quantas delas ainda estão sem confirmação
+    int mensagens;
+    int vivas;
+
+    private Segmento(long numero, Path arquivo, FileChannel canal, int tamanho) throws IOException {
+        this.numero = numero;
+        this.arquivo = arquivo;
+        this.canal = canal;
+        this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+    }
+
+    static Segmento criar(Path diretorio, long numero, int tamanho) throws IOException {
+        Path arquivo = diretorio.resolve(nome(numero));
+        FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Pré-aloca: o mapeamento estende o arquivo com zeros
+        return new Segmento(numero, arquivo, canal, tamanho);
+    }
+
+    static Segmento abrir(Path arquivo, long numero) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segmento(numero, arquivo, canal, (int) canal.size());
+    }
+
+    static String nome(long numero) {
+        return String.format("%s%016d%s", PREFIXO, numero, SUFIXO);
+    }
+
+    // Número do segmento a partir do nome do arquivo, ou -1 se não for um segmento
+    static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        if (!nome.startsWith(PREFIXO) || !nome.endsWith(SUFIXO)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(nome, PREFIXO.length(), nome.length() - SUFIXO.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static int tamanhoRegistro(int dados) {
+        return CABECALHO + dados;
+    }
+
+    boolean cabe(int dados) {
+        // Mantém ao menos 4 bytes zerados no fim para marcar o término
+        return (long) posicao + tamanhoRegistro(dados) + Integer.BYTES <= mapa.capacity();
+    }
+
+    /**
+     * @return posição do registro no segmento
+     */
+    int escrever(byte tipo, byte[] dados) {
+        int inicio = posicao;
+        crc.reset();
+        crc.update(tipo);
+        crc.update(dados);
+        mapa.put(inicio + CABECALHO, dados);
+        mapa.put(inicio + 8, tipo);
+        mapa.putInt(inicio + 4, (int) crc.getValue());
+        // Tamanho por último: sem ele o registro não existe para a leitura
+        mapa.putInt(inicio, dados.length);
+        posicao = inicio + tamanhoRegistro(dados.length);
+        return inicio;
+    }
+
+    byte[] ler(int inicio) {
+        byte[] dados = new byte[mapa.getInt(inicio)];
+        mapa.get(inicio + CABECALHO, dados);
+        return dados;
+    }
+
+    /**
+     * Percorre os registros íntegros desde o início e posiciona a escrita logo após o último.
+     */
+    void percorrer(Leitor leitor) {
+        int atual = 0;
+        int limite = mapa.capacity();
+        while (atual + CABECALHO <= limite) {
+            int tamanho = mapa.getInt(atual);
+            if (tamanho <= 0 || tamanho > limite - atual - CABECALHO) {
+                break;
+            }
+            byte tipo = mapa.get(atual + 8);
+            byte[] dados = new byte[tamanho];
+            mapa.get(atual + CABECALHO, dados);
+            crc.reset();
+            crc.update(tipo);
+            crc.update(dados);
+            if ((int) crc.getValue() != mapa.getInt(atual + 4)) {
+                break;
+            }
+            leitor.ler(tipo, dados, atual);
+            atual += tamanhoRegistro(tamanho);
+        }
+        posicao = atual;
+        forcado = atual;
+    }
+
+    int getPosicao() {
+        return posicao;
+    }
+
+    /**
+     * Leva para o disco o que foi escrito até {@code ate}. Pode rodar em paralelo com escritas
+     * adiante dessa posição.
+     */
+    void forcar(int ate) {
+        int desde = forcado;
+        if (ate > desde) {
+            mapa.force(desde, ate - desde);
+            forcado = ate;
+        }
+    }
+
+    long getNumero() {
+        return numero;
+    }
+
+    void apagar() throws IOException {
+        close();
+        Files.deleteIfExists(arquivo);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    @FunctionalInterface
+    interface Leitor {
+        void ler(byte tipo, byte[] dados, int posicao);
+    }
+}
@@ -0,0 +1,398 @@
+package com.viasoft.email.spool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dispatch.SpoolEnvio;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Spool em arquivos mapeados em memória ({@code spool-<n>.log}), só com appends.
+ * <p>
+ * Cada mensagem aceita vira um registro com o DTO original e o adaptado; o envio concluído
+ * acrescenta uma confirmação com o id. {@link #gravar} só retorna depois do fsync, mas
+ * quem faz o fsync é uma única thread ({@code email-spool}) que cobre de uma vez tudo o que
+ * foi escrito desde o último: com muitas requisições simultâneas, um {@code force} atende
+ * todas (group commit).
+ * <p>
+ * Quando o segmento atual enche abre-se outro. A mesma thread compacta o segmento mais
+ * antigo assim que no máximo um quarto das mensagens dele segue sem confirmação: copia essas
+ * para o atual e apaga o arquivo.
+ * Como só o mais antigo é apagado, uma confirmação nunca some antes da mensagem que ela
+ * confirma.
+ */
+public class SpoolMapeado implements SpoolEnvio {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolMapeado.class);
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long intervaloNanos;
+    private final ObjectMapper objectMapper;
+    private final ProviderRegistry providerRegistry;
+
+    // Guarda segmentos, posição de escrita e localização das mensagens
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final Deque<Segmento> segmentos = new ArrayDeque<>();
+    private final Map<String, Localizacao> pendentes = new ConcurrentHashMap<>();
+    private Segmento atual;
+    // Bytes escritos desde a abertura (só cresce); comparado com duravel para saber o que falta
+    private volatile long escrito;
+
+    private final ReentrantLock durabilidade = new ReentrantLock();
+    private final Condition haDados = durabilidade.newCondition();
+    private final Condition persistido = durabilidade.newCondition();
+    private long duravel;
+    // Última falha de fsync e até onde ela ia; some no próximo fsync bem-sucedido
+    private IOException falha;
+    private long alvoFalha;
+
+    private final Thread sincronizador;
+    private volatile boolean ativo = true;
+    private List<MensagemEmail> recuperadas;
+
+    public SpoolMapeado(Path diretorio, int tamanhoSegmento, Duration intervaloMaximo,
+                        ObjectMapper objectMapper, ProviderRegistry providerRegistry) throws IOException {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.intervaloNanos = intervaloMaximo.toNanos();
+        this.objectMapper = objectMapper;
+        this.providerRegistry = providerRegistry;
+        Files.createDirectories(diretorio);
+        this.recuperadas = reabrir();
+        this.sincronizador = new Thread(this::executar, "email-spool");
+        this.sincronizador.setDaemon(true);
+        this.sincronizador.start();
+    }
+
+    @Override
+    public void gravar(MensagemEmail mensagem) {
+        byte[] dados = serializar(mensagem);
+        long alvo;
+        escrita.lock();
+        try {
+            Segmento segmento = reservar(dados.length);
+            int posicao = segmento.escrever(Segmento.MENSAGEM, dados);
+            segmento.mensagens++;
+            segmento.vivas++;
+            pendentes.put(mensagem.id(), new Localizacao(segmento, posicao));
+            alvo = escrito += Segmento.tamanhoRegistro(dados.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no spool", e);
+        } finally {
+            escrita.unlock();
+        }
+        aguardarDisco(alvo);
+    }
+
+    @Override
+    public void confirmar(String id) {
+        Localizacao localizacao = pendentes.remove(id);
+        if (localizacao == null) {
+            return;
+        }
+        byte[] dados = id.getBytes(StandardCharsets.UTF_8);
+        escrita.lock();
+        try {
+            reservar(dados.length).escrever(Segmento.CONFIRMACAO, dados);
+            localizacao.segmento().vivas--;
+            escrito += Segmento.tamanhoRegistro(dados.length);
+        } catch (IOException e) {
+            // Sem a confirmação a mensagem só é reenviada numa próxima subida
+            log.warn("Não foi possível confirmar a mensagem {} no spool", id, e);
+        } finally {
+            escrita.unlock();
+        }
+        // Sem esperar o fsync: perder uma confirmação num crash só causa um reenvio
+    }
+
+    @Override
+    public synchronized List<MensagemEmail> recuperar() {
+        List<MensagemEmail> mensagens = recuperadas;
+        recuperadas = List.of();
+        return mensagens;
+    }
+
+    // Mensagens gravadas e ainda sem confirmação
+    public int getPendentes() {
+        return pendentes.size();
+    }
+
+    public int getSegmentos() {
+        escrita.lock();
+        try {
+            return segmentos.size();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Chamado com a trava de escrita
+    private Segmento reservar(int tamanhoDados) throws IOException {
+        if (atual.cabe(tamanhoDados)) {
+            return atual;
+        }
+        if (Segmento.tamanhoRegistro(tamanhoDados) + Integer.BYTES > tamanhoSegmento) {
+            throw new IllegalArgumentException("Mensagem maior que o segmento do spool: " + tamanhoDados + " bytes");
+        }
+        // O segmento que sai vai inteiro para o disco; o sincronizador só acompanha o atual
+        atual.forcar(atual.getPosicao());
+        atual = Segmento.criar(diretorio, atual.getNumero() + 1, tamanhoSegmento);
+        segmentos.addLast(atual);
+        return atual;
+    }
+
+    private void aguardarDisco(long alvo) {
+        durabilidade.lock();
+        try {
+            haDados.signal();
+            while (duravel < alvo) {
+                // Só falha quem dependia daquele fsync; os seguintes esperam a nova tentativa
+                if (falha != null && alvo <= alvoFalha) {
+                    throw new UncheckedIOException("Falha ao sincronizar o spool", falha);
+                }
+                if (!ativo) {
+                    throw new IllegalStateException("Spool encerrado");
+                }
+                persistido.awaitUninterruptibly();
+            }
+        } finally {
+            durabilidade.unlock();
+        }
+    }
+
+    private void executar() {
+        while (ativo) {
+            durabilidade.lock();
+            try {
+                // Depois de uma falha, espera o intervalo antes de tentar de novo
+                if (escrito == duravel || falha != null) {
+                    haDados.awaitNanos(intervaloNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                durabilidade.unlock();
+            }
+            sincronizar();
+            compactar();
+        }
+    }
+
+    private void sincronizar() {
+        long alvo;
+        Segmento segmento;
+        int ate;
+        escrita.lock();
+        try {
+            alvo = escrito;
+            segmento = atual;
+            ate = segmento.getPosicao();
+        } finally {
+            escrita.unlock();
+        }
+        if (alvo == duravel) {
+            return;
+        }
+        IOException erro = null;
+        try {
+            forcar(segmento, ate);
+        } catch (UncheckedIOException e) {
+            erro = e.getCause();
+        }
+        durabilidade.lock();
+        try {
+            if (erro == null) {
+                duravel = alvo;
+                falha = null;
+            } else {
+                log.error("Falha ao sincronizar o spool em {}", diretorio, erro);
+                falha = erro;
+                alvoFalha = alvo;
+            }
+            persistido.signalAll();
+        } finally {
+            durabilidade.unlock();
+        }
+    }
+
+    // Ponto de extensão para os testes simularem falha de fsync
+    void forcar(Segmento segmento, int ate) {
+        segmento.forcar(ate);
+    }
+
+    // Apaga o segmento mais antigo, levando antes para o atual as mensagens que ainda vivem nele
+    private void compactar() {
+        escrita.lock();
+        try {
+            while (segmentos.size() > 1) {
+                Segmento antigo = segmentos.peekFirst();
+                if (antigo.vivas > antigo.mensagens / 4) {
+                    // Copiar adiante quase tudo só trocaria um segmento cheio por outro
+                    break;
+                }
+                if (antigo.vivas > 0) {
+                    for (Map.Entry<String, Localizacao> entrada : pendentes.entrySet()) {
+                        Localizacao localizacao = entrada.getValue();
+                        if (localizacao.segmento() == antigo) {
+                            byte[] dados = antigo.ler(localizacao.posicao());
+                            Segmento destino = reservar(dados.length);
+                            Localizacao copia = new Localizacao(destino, destino.escrever(Segmento.MENSAGEM, dados));
+                            destino.mensagens++;
+                            escrito += Segmento.tamanhoRegistro(dados.length);
+                            // Confirmada no meio da cópia: a confirmação entra depois dela no arquivo
+                            if (pendentes.replace(entrada.getKey(), localizacao, copia)) {
+                                destino.vivas++;
+                            }
+                        }
+                    }
+                    // As cópias precisam estar em disco antes de o original sumir
+                    atual.forcar(atual.getPosicao());
+                }
+                segmentos.removeFirst().apagar();
+            }
+        } catch (IOException e) {
+            log.error("Falha ao compactar o spool em {}", diretorio, e);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Lê os segmentos existentes em ordem e abre um novo para as próximas gravações
+    private List<MensagemEmail> reabrir() throws IOException {
+        List<Path> arquivos;
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            arquivos = listagem.filter(arquivo -> Segmento.numero(arquivo) >= 0)
+                    .sorted(Comparator.comparingLong(Segmento::numero))
+                    .toList();
+        }
+        Map<String, byte[]> semConfirmacao = new LinkedHashMap<>();
+        long ultimo = 0;
+        for (Path arquivo : arquivos) {
+            Segmento segmento = Segmento.abrir(arquivo, Segmento.numero(arquivo));
+            segmentos.addLast(segmento);
+            ultimo = segmento.getNumero();
+            segmento.percorrer((tipo, dados, posicao) -> {
+                if (tipo == Segmento.MENSAGEM) {
+                    String id = lerId(dados);
+                    if (id != null) {
+                        semConfirmacao.put(id, dados);
+                        Localizacao anterior = pendentes.put(id, new Localizacao(segmento, posicao));
+                        if (anterior != null) {
+                            anterior.segmento().vivas--;
+                        }
+                        segmento.mensagens++;
+                        segmento.vivas++;
+                    }
+                } else if (tipo == Segmento.CONFIRMACAO) {
+                    String id = new String(dados, StandardCharsets.UTF_8);
+                    semConfirmacao.remove(id);
+                    Localizacao localizacao = pendentes.remove(id);
+                    if (localizacao != null) {
+                        localizacao.segmento().vivas--;
+                    }
+                }
+            });
+        }
+        atual = Segmento.criar(diretorio, ultimo + 1, tamanhoSegmento);
+        segmentos.addLast(atual);
+
+        List<MensagemEmail> mensagens = new ArrayList<>(semConfirmacao.size());
+        for (Iterator<Map.Entry<String, byte[]>> it = semConfirmacao.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, byte[]> entrada = it.next();
+            try {
+                mensagens.add(desserializar(entrada.getValue()));
+            } catch (IOException | RuntimeException e) {
+                // Registro ilegível ou de um provedor que não existe mais: não há como reenviar
+                log.error("Mensagem {} do spool descartada na recuperação", entrada.getKey(), e);
+                confirmar(entrada.getKey());
+            }
+        }
+        if (!mensagens.isEmpty()) {
+            log.info("{} mensagens sem confirmação recuperadas do spool em {}", mensagens.size(), diretorio);
+        }
+        return mensagens;
+    }
+
+    private byte[] serializar(MensagemEmail mensagem) {
+        ObjectNode registro = objectMapper.createObjectNode();
+        registro.put("id", mensagem.id());
+        registro.put("integracao", mensagem.provider().getIntegracao());
+        registro.set("original", objectMapper.valueToTree(mensagem.original()));
+        registro.set("adaptado", objectMapper.valueToTree(mensagem.emailAdaptado()));
+        try {
+            return objectMapper.writeValueAsBytes(registro);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MensagemEmail desserializar(byte[] dados) throws IOException {
+        JsonNode registro = objectMapper.readTree(dados);
+        ProviderAdapter<?> provider = providerRegistry.obter(registro.path("integracao").asText());
+        return new MensagemEmail(registro.path("id").asText(),
+                objectMapper.treeToValue(registro.get("original"), EmailDTO.class),
+                provider,
+                objectMapper.treeToValue(registro.get("adaptado"), provider.getTipoDTO()));
+    }
+
+    private String lerId(byte[] dados) {
+        try {
+            JsonNode id = objectMapper.readTree(dados).get("id");
+            return id == null ? null : id.asText();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException, IOException {
+        ativo = false;
+        sincronizador.interrupt();
+        sincronizador.join(TimeUnit.SECONDS.toMillis(10));
+        escrita.lock();
+        try {
+            atual.forcar(atual.getPosicao());
+            for (Segmento segmento : segmentos) {
+                segmento.close();
+            }
+        } finally {
+            escrita.unlock();
+        }
+        durabilidade.lock();
+        try {
+            persistido.signalAll();
+        } finally {
+            durabilidade.unlock();
+        }
+    }
+
+    private record Localizacao(Segmento segmento, int posicao) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.exception.TemplateInvalidoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Templates lidos de {@code <diretorio>/<id>.tpl}, compilados no primeiro uso e mantidos em
+ * memória até {@code capacidade} templates; acima disso sai o usado há mais tempo.
+ * <p>
+ * O LRU é aproximado para não escrever nada compartilhado a cada acerto: o relógio é o número
+ * de carregamentos (faltas no cache). Um template carregado recebe o número do seu
+ * carregamento; um acerto marca o seguinte, ficando à frente de tudo que foi carregado até
+ * ali, e só regrava a entrada quando esse número muda. O despejo percorre o mapa
+ * (O(capacidade)), mas só acontece numa falta, que já custa uma leitura de arquivo.
+ * <p>
+ * Recarga: uma thread ({@code email-templates}) observa o diretório pelo {@link WatchService}
+ * e tira do cache o template criado, alterado ou apagado; a próxima requisição recompila.
+ * Como o carregamento roda dentro do {@code computeIfAbsent}, uma remoção que chega durante a
+ * leitura do arquivo espera ela terminar, e a versão antiga não fica presa no cache.
+ */
+public class CacheTemplates implements TemplatesEmail {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheTemplates.class);
+
+    static final String EXTENSAO = ".tpl";
+    private static final int TAMANHO_MAXIMO_ID = 64;
+
+    private final Path diretorio;
+    private final int capacidade;
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+    private final AtomicLong carregamentos = new AtomicLong();
+    private final Object despejo = new Object();
+    private final WatchService observador;
+    private final Thread thread;
+
+    public CacheTemplates(Path diretorio, int capacidade) throws IOException {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("mail.templates.capacidade deve ser >= 1");
+        }
+        this.diretorio = Files.createDirectories(diretorio);
+        this.capacidade = capacidade;
+        this.observador = diretorio.getFileSystem().newWatchService();
+        diretorio.register(observador, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::observar, "email-templates");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public String renderizar(String id, Map<String, String> variaveis) {
+        return obter(id).renderizar(variaveis);
+    }
+
+    TemplateCompilado obter(String id) {
+        Entrada entrada = cache.get(id);
+        if (entrada != null) {
+            long uso = carregamentos.get() + 1;
+            if (entrada.ultimoUso != uso) {
+                entrada.ultimoUso = uso;
+            }
+            return entrada.template;
+        }
+        validarId(id);
+        entrada = cache.computeIfAbsent(id, this::carregar);
+        if (cache.size() > capacidade) {
+            despejar();
+        }
+        return entrada.template;
+    }
+
+    int getTamanho() {
+        return cache.size();
+    }
+
+    private Entrada carregar(String id) {
+        String fonte;
+        try {
+            fonte = Files.readString(diretorio.resolve(id + EXTENSAO), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new TemplateInvalidoException("Template desconhecido: " + id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Entrada(TemplateCompilado.compilar(id, fonte), carregamentos.incrementAndGet());
+    }
+
+    private void despejar() {
+        synchronized (despejo) {
+            while (cache.size() > capacidade) {
+                String menosUsado = null;
+                long menorUso = Long.MAX_VALUE;
+                for (Map.Entry<String, Entrada> item : cache.entrySet()) {
+                    if (item.getValue().ultimoUso < menorUso) {
+                        menorUso = item.getValue().ultimoUso;
+                        menosUsado = item.getKey();
+                    }
+                }
+                if (menosUsado == null) {
+                    return;
+                }
+                cache.remove(menosUsado);
+            }
+        }
+    }
+
+    // O id vira nome de arquivo: só letras, dígitos, '-' e '_' (nada de '/' ou '..')
+    private static void validarId(String id) {
+        boolean valido = !id.isEmpty() && id.length() <= TAMANHO_MAXIMO_ID;
+        for (int i = 0; valido && i < id.length(); i++) {
+            char c = id.charAt(i);
+            valido = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+        }
+        if (!valido) {
+            throw new TemplateInvalidoException("Id de template inválido: " + id);
+        }
+    }
+
+    private void observar() {
+        while (true) {
+            WatchKey chave;
+            try {
+                chave = observador.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> evento : chave.pollEvents()) {
+                if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Eventos perdidos: não dá para saber quais templates mudaram
+                    cache.clear();
+                    continue;
+                }
+                String nome = evento.context().toString();
+                if (nome.endsWith(EXTENSAO)
+                        && cache.remove(nome.substring(0, nome.length() - EXTENSAO.length())) != null) {
+                    log.info("Template {} alterado, será recompilado no próximo uso", nome);
+                }
+            }
+            if (!chave.reset()) {
+                log.warn("Diretório de templates {} não está mais acessível; recarga desligada", diretorio);
+                cache.clear();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        observador.close();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static final class Entrada {
+        private final TemplateCompilado template;
+        private volatile long ultimoUso;
+
+        Entrada(TemplateCompilado template, long ultimoUso) {
+            this.template = template;
+            this.ultimoUso = ultimoUso;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.viasoft.email.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dto.EmailDTO;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Equivalente WebFlux do {@link TemplateRequestBodyAdvice}: o corpo unitário em
+ * {@link EmailDTO} sai do decoder já com o template renderizado, antes do {@code @Valid}.
+ * Os lotes ({@code Flux<EmailDTO>}) são renderizados item a item pelo serviço de lote.
+ */
+public class DecodificadorJsonTemplates extends Jackson2JsonDecoder {
+
+    private final TemplatesEmail templates;
+
+    public DecodificadorJsonTemplates(ObjectMapper objectMapper, TemplatesEmail templates) {
+        super(objectMapper);
+        this.templates = templates;
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
+                                     MimeType mimeType, Map<String, Object> hints) {
+        Mono<Object> corpo = super.decodeToMono(input, elementType, mimeType, hints);
+        if (elementType.resolve() != EmailDTO.class) {
+            return corpo;
+        }
+        return corpo.map(email -> templates.aplicar((EmailDTO) email));
+    }
+}
@@ -0,0 +1,86 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.exception.TemplateInvalidoException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template já analisado: os trechos fixos e, entre eles, as variáveis {@code {{nome}}}.
+ * <p>
+ * Renderizar não reanalisa o texto. Uma primeira passada busca os valores e soma o tamanho
+ * final; a segunda copia tudo para um {@link StringBuilder} desse tamanho exato. A única
+ * alocação além da String resultante é esse buffer, que não é redimensionado (salvo se um
+ * valor trouxer caracteres fora do Latin-1). Um template sem variáveis devolve o próprio texto.
+ * <p>
+ * Imutável, compartilhado entre as threads.
+ */
+public final class TemplateCompilado {
+
+    private static final String ABRE = "{{";
+    private static final String FECHA = "}}";
+
+    private final String id;
+    // literais.length == variaveis.length + 1: literal, variável, literal, ..., literal
+    private final String[] literais;
+    private final String[] variaveis;
+    private final int tamanhoLiterais;
+
+    private TemplateCompilado(String id, String[] literais, String[] variaveis) {
+        this.id = id;
+        this.literais = literais;
+        this.variaveis = variaveis;
+        int tamanho = 0;
+        for (String literal : literais) {
+            tamanho += literal.length();
+        }
+        this.tamanhoLiterais = tamanho;
+    }
+
+    public static TemplateCompilado compilar(String id, String fonte) {
+        List<String> literais = new ArrayList<>();
+        List<String> variaveis = new ArrayList<>();
+        int atual = 0;
+        int abre;
+        while ((abre = fonte.indexOf(ABRE, atual)) >= 0) {
+            int fecha = fonte.indexOf(FECHA, abre + ABRE.length());
+            if (fecha < 0) {
+                throw new TemplateInvalidoException("Template " + id + " inválido: '{{' sem '}}' na posição " + abre);
+            }
+            String variavel = fonte.substring(abre + ABRE.length(), fecha).strip();
+            if (variavel.isEmpty()) {
+                throw new TemplateInvalidoException("Template " + id + " inválido: variável sem nome na posição " + abre);
+            }
+            literais.add(fonte.substring(atual, abre));
+            variaveis.add(variavel);
+            atual = fecha + FECHA.length();
+        }
+        literais.add(fonte.substring(atual));
+        return new TemplateCompilado(id, literais.toArray(String[]::new), variaveis.toArray(String[]::new));
+    }
+
+    public String renderizar(Map<String, String> valores) {
+        if (variaveis.length == 0) {
+            return literais[0];
+        }
+        int tamanho = tamanhoLiterais;
+        for (String variavel : variaveis) {
+            String valor = valores.get(variavel);
+            if (valor == null) {
+                throw new TemplateInvalidoException("Variável '" + variavel + "' não informada para o template " + id);
+            }
+            tamanho += valor.length();
+        }
+        StringBuilder saida = new StringBuilder(tamanho);
+        saida.append(literais[0]);
+        for (int i = 0; i < variaveis.length; i++) {
+            saida.append(valores.get(variaveis[i])).append(literais[i + 1]);
+        }
+        return saida.toString();
+    }
+
+    public String getId() {
+        return id;
+    }
+}
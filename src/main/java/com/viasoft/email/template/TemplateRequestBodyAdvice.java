@@ -0,0 +1,39 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.dto.EmailDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Renderiza o template do {@link EmailDTO} logo depois da leitura do corpo, antes do
+ * {@code @Valid}: as regras de {@code conteudo} valem para o texto renderizado.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TemplateRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final ObjectProvider<TemplatesEmail> templates;
+
+    public TemplateRequestBodyAdvice(ObjectProvider<TemplatesEmail> templates) {
+        this.templates = templates;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == EmailDTO.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return templates.getIfAvailable(() -> TemplatesEmail.NENHUM).aplicar((EmailDTO) body);
+    }
+}
@@ -0,0 +1,46 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.TemplateInvalidoException;
+
+import java.util.Map;
+
+/**
+ * Templates de conteúdo guardados no servidor: o cliente manda o id e as variáveis em vez do
+ * {@code conteudo} inteiro.
+ */
+public interface TemplatesEmail extends AutoCloseable {
+
+    // Templates desligados (mail.templates.habilitados=false): emails com template são recusados
+    TemplatesEmail NENHUM = (id, variaveis) -> {
+        throw new TemplateInvalidoException("Templates não estão habilitados");
+    };
+
+    /**
+     * @throws TemplateInvalidoException se o template não existir, não compilar ou faltar variável
+     */
+    String renderizar(String id, Map<String, String> variaveis);
+
+    /**
+     * Se o email aponta para um template, preenche {@code conteudo} com ele renderizado e limpa
+     * {@code template}/{@code variaveis}; daí em diante (validação, adaptação, spool,
+     * idempotência) o email é igual a um enviado com o conteúdo pronto. Sem template, não faz nada.
+     */
+    default EmailDTO aplicar(EmailDTO email) {
+        if (email == null || email.getTemplate() == null) {
+            return email;
+        }
+        if (email.getConteudo() != null) {
+            throw new TemplateInvalidoException("Informe conteudo ou template, não os dois");
+        }
+        Map<String, String> variaveis = email.getVariaveis();
+        email.setConteudo(renderizar(email.getTemplate(), variaveis == null ? Map.of() : variaveis));
+        email.setTemplate(null);
+        email.setVariaveis(null);
+        return email;
+    }
+
+    @Override
+    default void close() throws Exception {
+    }
+}
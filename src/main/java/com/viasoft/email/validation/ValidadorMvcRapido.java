@@ -0,0 +1,52 @@
+package com.viasoft.email.validation;
+
+import com.viasoft.email.metricas.MetricasPipeline;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Validador do Spring MVC/WebFlux para o {@code @Valid} dos endpoints: DTOs que passam no
+ * {@link ValidadorRapido} não chegam ao Hibernate Validator; os demais seguem para o
+ * validador padrão e geram os mesmos erros de sempre. O tempo entra na etapa {@code validacao}
+ * do {@link MetricasPipeline}.
+ */
+public class ValidadorMvcRapido implements SmartValidator {
+
+    private final ValidadorRapido validadorRapido;
+    private final SmartValidator delegate;
+    private final MetricasPipeline metricas;
+
+    public ValidadorMvcRapido(ValidadorRapido validadorRapido, SmartValidator delegate) {
+        this(validadorRapido, delegate, MetricasPipeline.nenhuma());
+    }
+
+    public ValidadorMvcRapido(ValidadorRapido validadorRapido, SmartValidator delegate, MetricasPipeline metricas) {
+        this.validadorRapido = validadorRapido;
+        this.delegate = delegate;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long inicio = metricas.iniciar();
+        if (!validadorRapido.valido(target)) {
+            delegate.validate(target, errors);
+        }
+        metricas.registrar(MetricasPipeline.Etapa.VALIDACAO, !errors.hasErrors(), inicio);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        // Com grupos de validação o plano rápido (grupo Default) não se aplica
+        long inicio = metricas.iniciar();
+        if (validationHints.length > 0 || !validadorRapido.valido(target)) {
+            delegate.validate(target, errors, validationHints);
+        }
+        metricas.registrar(MetricasPipeline.Etapa.VALIDACAO, !errors.hasErrors(), inicio);
+    }
+}
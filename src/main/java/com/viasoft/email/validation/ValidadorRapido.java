@@ -0,0 +1,358 @@
+package com.viasoft.email.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Caminho rápido para a Bean Validation dos DTOs de email.
+ * <p>
+ * Na primeira vez que vê uma classe, lê as anotações {@code @NotBlank}, {@code @Size} e
+ * {@code @Email} dos campos e monta um plano com as verificações já resolvidas (getters
+ * como {@link MethodHandle}, limites como inteiros). Validar um DTO válido é só percorrer
+ * esse plano, sem reflexão, regex ou alocação.
+ * <p>
+ * O plano é conservador: só diz "válido" quando o Hibernate Validator com certeza também
+ * diria. Qualquer falha (ou classe com constraints que o plano não cobre) cai no
+ * {@link Validator} completo, então as violações e mensagens são exatamente as de sempre.
+ * <p>
+ * Quando o DTO de um provedor é uma cópia campo a campo da entrada, {@link #validoPara}
+ * combina os dois planos (o limite mais restrito de cada campo) e prova a entrada e o DTO
+ * adaptado numa única passada sobre a entrada.
+ */
+public class ValidadorRapido {
+
+    private static final int MAX_PARTE_LOCAL = 64;
+    private static final int MAX_DOMINIO = 255;
+    private static final int MAX_ROTULO_DOMINIO = 63;
+
+    private final Validator validator;
+
+    private final ClassValue<Plano> planos = new ClassValue<>() {
+        @Override
+        protected Plano computeValue(Class<?> tipo) {
+            return compilar(tipo);
+        }
+    };
+
+    // Planos combinados entrada + provedor: o mesmo DTO do provedor pode vir de outra entrada
+    // ou de outro mapeamento (ex.: dois adapters para a mesma classe), cada um com suas regras
+    private final Map<ChavePlano, Plano> planosCombinados = new ConcurrentHashMap<>();
+
+    public ValidadorRapido(Validator validator, Class<?>... tiposConhecidos) {
+        this.validator = validator;
+        // Compila na subida os planos dos DTOs conhecidos
+        for (Class<?> tipo : tiposConhecidos) {
+            planos.get(tipo);
+        }
+    }
+
+    /**
+     * Mesmo contrato de {@link Validator#validate}: conjunto vazio quando o DTO é válido.
+     */
+    public <T> Set<ConstraintViolation<T>> validar(T dto) {
+        if (valido(dto)) {
+            return Collections.emptySet();
+        }
+        return validator.validate(dto);
+    }
+
+    /**
+     * {@code true} somente se o DTO com certeza não tem violações; {@code false} quando tem
+     * ou quando o caminho rápido não consegue decidir.
+     */
+    public boolean valido(Object dto) {
+        if (dto == null) {
+            return false;
+        }
+        return planos.get(dto.getClass()).valido(dto);
+    }
+
+    /**
+     * {@code true} somente se {@code origem} e o DTO de {@code destino} montado a partir dela
+     * (copiando os campos segundo {@code mapeamento}, campo de destino → campo de origem) com
+     * certeza não têm violações. Com mapeamento incompleto devolve sempre {@code false}.
+     */
+    public boolean validoPara(Object origem, Class<?> destino, Map<String, String> mapeamento) {
+        if (origem == null) {
+            return false;
+        }
+        ChavePlano chave = new ChavePlano(origem.getClass(), destino, mapeamento);
+        Plano plano = planosCombinados.get(chave);
+        if (plano == null) {
+            plano = planosCombinados.computeIfAbsent(chave, c -> combinar(c.origem(), c.destino(), c.mapeamento()));
+        }
+        return plano.valido(origem);
+    }
+
+    /**
+     * Plano de {@link #validoPara} restrito aos campos de origem em {@code campos}, para quando
+     * os demais já foram validados à parte (ex.: os campos comuns de uma mala direta). O
+     * predicado devolve sempre {@code false} se os planos não puderem ser combinados.
+     */
+    public Predicate<Object> verificacaoPara(Class<?> origem, Class<?> destino, Map<String, String> mapeamento,
+                                             Set<String> campos) {
+        Plano plano = combinar(origem, destino, mapeamento);
+        if (!plano.suportado) {
+            return dto -> false;
+        }
+        List<RegraCampo> regras = new ArrayList<>();
+        for (RegraCampo regra : plano.regras) {
+            if (campos.contains(regra.campo())) {
+                regras.add(regra);
+            }
+        }
+        return new Plano(origem, true, regras.toArray(new RegraCampo[0]))::valido;
+    }
+
+    /**
+     * {@link Validator#validateValue}: as violações que {@code valor} teria no campo {@code campo}
+     * de {@code tipo}, sem precisar de uma instância.
+     */
+    public <T> Set<ConstraintViolation<T>> validarValor(Class<T> tipo, String campo, Object valor) {
+        return validator.validateValue(tipo, campo, valor);
+    }
+
+    public boolean suporta(Class<?> tipo) {
+        return planos.get(tipo).suportado;
+    }
+
+    private Plano combinar(Class<?> origem, Class<?> destino, Map<String, String> mapeamento) {
+        Plano planoOrigem = planos.get(origem);
+        Plano planoDestino = planos.get(destino);
+        if (!planoOrigem.suportado || !planoDestino.suportado) {
+            return Plano.NAO_SUPORTADO;
+        }
+
+        Map<String, RegraCampo> porCampo = new LinkedHashMap<>();
+        for (RegraCampo regra : planoOrigem.regras) {
+            porCampo.put(regra.campo(), regra);
+        }
+        for (RegraCampo regraDestino : planoDestino.regras) {
+            String campoOrigem = mapeamento.get(regraDestino.campo());
+            if (campoOrigem == null) {
+                // Campo do provedor que não vem de uma cópia direta: não dá para provar pela entrada
+                return Plano.NAO_SUPORTADO;
+            }
+            RegraCampo regraOrigem = porCampo.get(campoOrigem);
+            if (regraOrigem == null) {
+                regraOrigem = compilarCampoSemRegras(origem, campoOrigem);
+                if (regraOrigem == null) {
+                    return Plano.NAO_SUPORTADO;
+                }
+            }
+            porCampo.put(campoOrigem, regraOrigem.combinar(regraDestino));
+        }
+        return new Plano(origem, true, porCampo.values().toArray(new RegraCampo[0]));
+    }
+
+    private static RegraCampo compilarCampoSemRegras(Class<?> tipo, String nome) {
+        for (Class<?> atual = tipo; atual != null && atual != Object.class; atual = atual.getSuperclass()) {
+            try {
+                return compilarCampo(atual.getDeclaredField(nome));
+            } catch (NoSuchFieldException e) {
+                // continua na superclasse
+            }
+        }
+        return null;
+    }
+
+    private static Plano compilar(Class<?> tipo) {
+        if (temConstraint(tipo.getAnnotations())) {
+            return Plano.NAO_SUPORTADO;
+        }
+        List<RegraCampo> regras = new ArrayList<>();
+        for (Class<?> atual = tipo; atual != null && atual != Object.class; atual = atual.getSuperclass()) {
+            for (Method metodo : atual.getDeclaredMethods()) {
+                if (temConstraint(metodo.getAnnotations())) {
+                    return Plano.NAO_SUPORTADO;
+                }
+            }
+            for (Field campo : atual.getDeclaredFields()) {
+                if (Modifier.isStatic(campo.getModifiers()) || !temConstraint(campo.getAnnotations())) {
+                    continue;
+                }
+                RegraCampo regra = compilarCampo(campo);
+                if (regra == null) {
+                    return Plano.NAO_SUPORTADO;
+                }
+                regras.add(regra);
+            }
+        }
+        return new Plano(tipo, true, regras.toArray(new RegraCampo[0]));
+    }
+
+    private static RegraCampo compilarCampo(Field campo) {
+        if (campo.getType() != String.class) {
+            return null;
+        }
+        boolean naoVazio = false;
+        boolean email = false;
+        int min = 0;
+        int max = Integer.MAX_VALUE;
+        for (Annotation anotacao : campo.getAnnotations()) {
+            if (anotacao instanceof NotBlank notBlank && notBlank.groups().length == 0) {
+                naoVazio = true;
+            } else if (anotacao instanceof Size size && size.groups().length == 0) {
+                min = size.min();
+                max = size.max();
+            } else if (anotacao instanceof Email anotacaoEmail && anotacaoEmail.groups().length == 0
+                    && ".*".equals(anotacaoEmail.regexp()) && anotacaoEmail.flags().length == 0) {
+                email = true;
+            } else if (anotacao.annotationType().isAnnotationPresent(Constraint.class)) {
+                // Constraint que o plano não sabe verificar: a classe inteira vai pelo validator completo
+                return null;
+            }
+        }
+        try {
+            MethodHandle getter = MethodHandles.privateLookupIn(campo.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectGetter(campo)
+                    .asType(MethodType.methodType(String.class, Object.class));
+            return new RegraCampo(campo.getName(), getter, naoVazio, email, min, max);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static boolean temConstraint(Annotation[] anotacoes) {
+        for (Annotation anotacao : anotacoes) {
+            if (anotacao.annotationType().isAnnotationPresent(Constraint.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subconjunto estrito do que o {@code EmailValidator} do Hibernate aceita: parte local com
+     * átomos ASCII separados por ponto e domínio com rótulos alfanuméricos/hífen. Endereços
+     * fora desse formato (aspas, IDN, IP literal) não são rejeitados aqui, apenas delegados.
+     */
+    static boolean emailSimples(String valor) {
+        int arroba = valor.lastIndexOf('@');
+        if (arroba < 1 || arroba > MAX_PARTE_LOCAL) {
+            return false;
+        }
+        char anterior = '.';
+        for (int i = 0; i < arroba; i++) {
+            char c = valor.charAt(i);
+            if (c == '.') {
+                if (anterior == '.') {
+                    return false;
+                }
+            } else if (!caractereParteLocal(c)) {
+                return false;
+            }
+            anterior = c;
+        }
+        if (anterior == '.') {
+            return false;
+        }
+
+        int inicio = arroba + 1;
+        int tamanhoDominio = valor.length() - inicio;
+        if (tamanhoDominio < 1 || tamanhoDominio > MAX_DOMINIO) {
+            return false;
+        }
+        int inicioRotulo = inicio;
+        for (int i = inicio; i <= valor.length(); i++) {
+            if (i == valor.length() || valor.charAt(i) == '.') {
+                int tamanhoRotulo = i - inicioRotulo;
+                if (tamanhoRotulo < 1 || tamanhoRotulo > MAX_ROTULO_DOMINIO
+                        || valor.charAt(inicioRotulo) == '-' || valor.charAt(i - 1) == '-') {
+                    return false;
+                }
+                inicioRotulo = i + 1;
+            } else if (!alfanumerico(valor.charAt(i)) && valor.charAt(i) != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean caractereParteLocal(char c) {
+        return alfanumerico(c) || "!#$%&'*+/=?^_`{|}~-".indexOf(c) >= 0;
+    }
+
+    private static boolean alfanumerico(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    // Mesmo critério do NotBlankValidator: ao menos um caractere acima de ' ' (o que trim() manteria)
+    private static boolean temConteudo(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record ChavePlano(Class<?> origem, Class<?> destino, Map<String, String> mapeamento) {
+    }
+
+    private record Plano(Class<?> origem, boolean suportado, RegraCampo[] regras) {
+        static final Plano NAO_SUPORTADO = new Plano(null, false, new RegraCampo[0]);
+
+        boolean valido(Object dto) {
+            if (!suportado) {
+                return false;
+            }
+            for (int i = 0; i < regras.length; i++) {
+                if (!regras[i].valido(dto)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record RegraCampo(String campo, MethodHandle getter, boolean naoVazio, boolean email, int min, int max) {
+
+        // Regra sobre o mesmo valor que satisfaz as duas: o limite mais restrito de cada lado
+        RegraCampo combinar(RegraCampo outra) {
+            return new RegraCampo(campo, getter, naoVazio || outra.naoVazio, email || outra.email,
+                    Math.max(min, outra.min), Math.min(max, outra.max));
+        }
+
+        boolean valido(Object dto) {
+            String valor;
+            try {
+                valor = (String) getter.invokeExact(dto);
+            } catch (Throwable e) {
+                return false;
+            }
+            if (valor == null) {
+                // @Size e @Email aceitam null; só @NotBlank reprova
+                return !naoVazio;
+            }
+            if (valor.length() < min || valor.length() > max) {
+                return false;
+            }
+            if (naoVazio && !temConteudo(valor)) {
+                return false;
+            }
+            // @Email aceita string vazia
+            return !email || valor.isEmpty() || emailSimples(valor);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.viasoft.email.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnelMpscTest {
+
+    @Test
+    @DisplayName("Deve recusar sem bloquear quando o anel está cheio")
+    void shouldRejectWhenFull() {
+        AnelMpsc<Integer> anel = new AnelMpsc<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anel.oferecer(i));
+        }
+        assertFalse(anel.oferecer(4));
+
+        assertEquals(0, anel.consumir());
+        assertTrue(anel.oferecer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, anel.consumir());
+        }
+        assertNull(anel.consumir());
+    }
+
+    @Test
+    @DisplayName("Deve exigir capacidade potência de 2")
+    void shouldRequirePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AnelMpsc<>(1000));
+    }
+
+    @Test
+    @DisplayName("Deve entregar ao consumidor tudo o que vários produtores publicaram")
+    void shouldDeliverEverythingFromConcurrentProducers() throws Exception {
+        AnelMpsc<Integer> anel = new AnelMpsc<>(1024);
+        int produtores = 4;
+        int porProdutor = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(produtores);
+        CountDownLatch inicio = new CountDownLatch(1);
+        for (int p = 0; p < produtores; p++) {
+            int base = p * porProdutor;
+            executor.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < porProdutor; i++) {
+                    while (!anel.oferecer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+
+        inicio.countDown();
+        Set<Integer> recebidos = new HashSet<>();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (recebidos.size() < produtores * porProdutor && System.nanoTime() < limite) {
+            Integer valor = anel.consumir();
+            if (valor != null) {
+                assertTrue(recebidos.add(valor), "Duplicado: " + valor);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(produtores * porProdutor, recebidos.size());
+        assertEquals(0, anel.tamanho());
+    }
+}
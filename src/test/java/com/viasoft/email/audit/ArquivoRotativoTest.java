@@ -0,0 +1,52 @@
+package com.viasoft.email.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ArquivoRotativoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private static ByteBuffer linha(String texto) {
+        return ByteBuffer.wrap((texto + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Deve rotacionar ao passar do tamanho máximo mantendo só os arquivos configurados")
+    void shouldRotateAndKeepConfiguredFiles() throws Exception {
+        try (ArquivoRotativo arquivo = new ArquivoRotativo(diretorio, "auditoria.log", 10, 2)) {
+            arquivo.gravar(linha("primeira"));
+            arquivo.gravar(linha("segunda"));
+            arquivo.gravar(linha("terceira"));
+            arquivo.gravar(linha("quarta"));
+        }
+
+        assertEquals("quarta\n", Files.readString(diretorio.resolve("auditoria.log")));
+        assertEquals("terceira\n", Files.readString(diretorio.resolve("auditoria.log.1")));
+        assertEquals("segunda\n", Files.readString(diretorio.resolve("auditoria.log.2")));
+        assertFalse(Files.exists(diretorio.resolve("auditoria.log.3")));
+    }
+
+    @Test
+    @DisplayName("Deve continuar o arquivo existente ao reabrir")
+    void shouldAppendToExistingFile() throws Exception {
+        try (ArquivoRotativo arquivo = new ArquivoRotativo(diretorio, "auditoria.log", 1024, 1)) {
+            arquivo.gravar(linha("a"));
+        }
+        try (ArquivoRotativo arquivo = new ArquivoRotativo(diretorio, "auditoria.log", 1024, 1)) {
+            arquivo.gravar(linha("b"));
+        }
+
+        assertEquals("a\nb\n", Files.readString(diretorio.resolve("auditoria.log")));
+    }
+}
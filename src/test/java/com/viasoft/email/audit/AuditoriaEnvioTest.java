@@ -0,0 +1,139 @@
+package com.viasoft.email.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class AuditoriaEnvioTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuditoriaEnvio criar(double amostragem, boolean mascararPii, int capacidade) {
+        return criar(amostragem, mascararPii, capacidade, false);
+    }
+
+    private AuditoriaEnvio criar(double amostragem, boolean mascararPii, int capacidade, boolean gravarConteudo) {
+        EmailProperties properties = new EmailProperties();
+        properties.getAuditoria().setGravarConteudo(gravarConteudo);
+        properties.getAuditoria().setDiretorio(diretorio.toString());
+        properties.getAuditoria().setAmostragem(amostragem);
+        properties.getAuditoria().setMascararPii(mascararPii);
+        properties.getAuditoria().setCapacidade(capacidade);
+        return new AuditoriaEnvio(properties, objectMapper, meterRegistry);
+    }
+
+    private MensagemEmail mensagem(String id) {
+        return mensagem(id, "Assunto", "Conteúdo");
+    }
+
+    private MensagemEmail mensagem(String id, String assunto, String conteudo) {
+        EmailAwsDTO dto = new EmailAwsDTO();
+        dto.setRecipient("destinatario@teste.com");
+        dto.setRecipientName("Destinatário Teste");
+        dto.setSender("remetente@teste.com");
+        dto.setSubject(assunto);
+        dto.setContent(conteudo);
+        return new MensagemEmail(id, null, new AwsProviderAdapter(), dto);
+    }
+
+    private List<String> linhas() throws Exception {
+        return Files.readAllLines(diretorio.resolve(AuditoriaEnvio.ARQUIVO));
+    }
+
+    @Test
+    @DisplayName("Deve gravar uma linha JSON por mensagem com emails e nomes mascarados")
+    void shouldWriteMaskedJsonLines() throws Exception {
+        AuditoriaEnvio auditoria = criar(1.0, true, 1024);
+        auditoria.registrar(mensagem("1"));
+        auditoria.registrar(mensagem("2"));
+        auditoria.encerrar();
+
+        List<String> linhas = linhas();
+        assertEquals(2, linhas.size());
+        JsonNode registro = objectMapper.readTree(linhas.get(0));
+        assertEquals("1", registro.get("id").asText());
+        assertEquals("AWS", registro.get("integracao").asText());
+        assertEquals("d***@teste.com", registro.get("email").get("recipient").asText());
+        assertEquals("D***", registro.get("email").get("recipientName").asText());
+        assertEquals("r***@teste.com", registro.get("email").get("sender").asText());
+        assertEquals("***", registro.get("email").get("subject").asText());
+        assertEquals("***", registro.get("email").get("content").asText());
+        assertFalse(linhas.get(0).contains("destinatario@teste.com"));
+    }
+
+    @Test
+    @DisplayName("Assunto e conteúdo com '@' não devem ser tratados como email")
+    void shouldMaskByFieldNotByAtSign() throws Exception {
+        AuditoriaEnvio auditoria = criar(1.0, true, 1024, true);
+        auditoria.registrar(mensagem("1", "Reunião @ 10h", "Fale com ana@teste.com ou bruno@teste.com"));
+        auditoria.encerrar();
+
+        JsonNode email = objectMapper.readTree(linhas().get(0)).get("email");
+        assertEquals("Reunião @ 10h", email.get("subject").asText());
+        assertEquals("Fale com ana@teste.com ou bruno@teste.com", email.get("content").asText());
+        assertEquals("d***@teste.com", email.get("recipient").asText());
+
+        Files.delete(diretorio.resolve(AuditoriaEnvio.ARQUIVO));
+        AuditoriaEnvio semConteudo = criar(1.0, true, 1024, false);
+        semConteudo.registrar(mensagem("2", "Reunião @ 10h", "Fale com ana@teste.com"));
+        semConteudo.encerrar();
+
+        assertFalse(linhas().get(0).contains("ana@teste.com"));
+        assertFalse(linhas().get(0).contains("Reunião"));
+    }
+
+    @Test
+    @DisplayName("Deve gravar os dados originais quando o mascaramento está desligado")
+    void shouldKeepDataWhenMaskingDisabled() throws Exception {
+        AuditoriaEnvio auditoria = criar(1.0, false, 1024);
+        auditoria.registrar(mensagem("1"));
+        auditoria.encerrar();
+
+        JsonNode registro = objectMapper.readTree(linhas().get(0));
+        assertEquals("destinatario@teste.com", registro.get("email").get("recipient").asText());
+    }
+
+    @Test
+    @DisplayName("Não deve gravar nada com amostragem zero")
+    void shouldSkipEverythingWithZeroSampling() throws Exception {
+        AuditoriaEnvio auditoria = criar(0, true, 1024);
+        for (int i = 0; i < 100; i++) {
+            auditoria.registrar(mensagem(String.valueOf(i)));
+        }
+        auditoria.encerrar();
+
+        assertEquals(0, linhas().size());
+    }
+
+    @Test
+    @DisplayName("Deve descartar e contar registros quando o buffer está cheio")
+    void shouldDropWhenBufferIsFull() throws Exception {
+        AuditoriaEnvio auditoria = criar(1.0, true, 2);
+        for (int i = 0; i < 10_000; i++) {
+            auditoria.registrar(mensagem(String.valueOf(i)));
+        }
+        auditoria.encerrar();
+
+        double descartadas = meterRegistry.get("email.auditoria.descartadas").counter().count();
+        assertEquals(10_000, linhas().size() + (long) descartadas);
+        assertFalse(descartadas == 0);
+    }
+}
@@ -1,33 +1,82 @@
 package com.viasoft.email.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dto.DestinatarioDTO;
 import com.viasoft.email.dto.EmailAwsDTO;
 import com.viasoft.email.dto.EmailDTO;
 import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import com.viasoft.email.exception.TemplateInvalidoException;
+import com.viasoft.email.idempotencia.CacheIdempotencia;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.OciProviderAdapter;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailLoteService;
 import com.viasoft.email.service.EmailService;
+import com.viasoft.email.template.TemplatesEmail;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.DynamicPropertyRegistry;
-import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EmailController.class)
+@Import({CacheIdempotencia.class, EmailControllerTest.Templates.class})
+@EnableConfigurationProperties(EmailProperties.class)
 public class EmailControllerTest {
 
+    @TestConfiguration
+    static class Templates {
+
+        @Bean
+        TemplatesEmail templatesEmail() {
+            return (id, variaveis) -> {
+                if (!id.equals("boas-vindas")) {
+                    throw new TemplateInvalidoException("Template desconhecido: " + id);
+                }
+                return "Olá, " + variaveis.get("nome") + "!";
+            };
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -37,12 +86,17 @@ public class EmailControllerTest {
     @MockBean
     private EmailService emailService;
 
-    private static String tipoIntegracao = "AWS";
+    @MockBean
+    private EmailDispatcher emailDispatcher;
 
-    @DynamicPropertySource
-    static void dynamicProps(DynamicPropertyRegistry registry) {
-        registry.add("mail.integracao", () -> tipoIntegracao);
-    }
+    @MockBean
+    private EmailLoteService emailLoteService;
+
+    @MockBean
+    private ProviderRouter providerRouter;
+
+    private final AwsProviderAdapter aws = new AwsProviderAdapter();
+    private final OciProviderAdapter oci = new OciProviderAdapter();
 
     private EmailDTO createValidEmailDTO() {
         EmailDTO dto = new EmailDTO();
@@ -55,41 +109,93 @@ public class EmailControllerTest {
     }
 
     @Test
-    @DisplayName("Deve retornar 204 NO CONTENT ao enviar email com sucesso (AWS)")
-    void shouldReturn204WhenSendingEmailSuccessAws() throws Exception {
-        tipoIntegracao = "AWS";
+    @DisplayName("Deve retornar 202 ACCEPTED ao enfileirar email com sucesso (AWS)")
+    void shouldReturn202WhenSendingEmailSuccessAws() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
         EmailDTO emailDTO = createValidEmailDTO();
         EmailAwsDTO awsDTO = new EmailAwsDTO();
         awsDTO.setRecipient("valid@example.com");
 
-        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq("AWS")))
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws)))
                 .thenReturn(awsDTO);
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), eq(awsDTO))).thenReturn("id-aws");
 
         mockMvc.perform(post("/api/email/enviar-email")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(emailDTO)))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("id-aws"));
+
+        verify(emailService).adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws));
+        verify(emailDispatcher).enfileirar(any(EmailDTO.class), eq(aws), eq(awsDTO));
+    }
+
+    @Test
+    @DisplayName("Repetição com a mesma Idempotency-Key deve devolver o id original sem enfileirar de novo")
+    void shouldReplayRequestWithSameIdempotencyKey() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        String id = "5f0c7a3e-8c1b-4d2a-9e3f-1a2b3c4d5e6f";
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), any())).thenReturn(id);
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO());
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .header("Idempotency-Key", "pedido-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.id").value(id));
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .header("Idempotency-Key", "pedido-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(id));
 
-        verify(emailService).adaptarEmailParaIntegracao(any(EmailDTO.class), eq("AWS"));
+        verify(emailDispatcher, times(1)).enfileirar(any(EmailDTO.class), eq(aws), any());
     }
 
     @Test
-    @DisplayName("Deve retornar 204 NO CONTENT ao enviar email com sucesso (OCI)")
-    void shouldReturn204WhenSendingEmailSuccessOci() throws Exception {
-        tipoIntegracao = "OCI";
+    @DisplayName("Mesma Idempotency-Key com outro conteúdo deve retornar 422")
+    void shouldReturn422WhenIdempotencyKeyIsReusedWithOtherContent() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), any()))
+                .thenReturn("5f0c7a3e-8c1b-4d2a-9e3f-1a2b3c4d5e6f");
+        EmailDTO outro = createValidEmailDTO();
+        outro.setAssunto("Outro assunto");
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .header("Idempotency-Key", "pedido-43")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidEmailDTO())))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .header("Idempotency-Key", "pedido-43")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(outro)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 202 ACCEPTED ao enfileirar email com sucesso (OCI)")
+    void shouldReturn202WhenSendingEmailSuccessOci() throws Exception {
+        doReturn(oci).when(providerRouter).selecionar(any());
         EmailDTO emailDTO = createValidEmailDTO();
         EmailOciDTO ociDTO = new EmailOciDTO();
         ociDTO.setRecipientEmail("valid@example.com");
 
-        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq("OCI")))
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(oci)))
                 .thenReturn(ociDTO);
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(oci), eq(ociDTO))).thenReturn("id-oci");
 
         mockMvc.perform(post("/api/email/enviar-email")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(emailDTO)))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("id-oci"));
 
-        verify(emailService).adaptarEmailParaIntegracao(any(EmailDTO.class), eq("OCI"));
+        verify(emailService).adaptarEmailParaIntegracao(any(EmailDTO.class), eq(oci));
     }
 
     @Test
@@ -104,13 +210,22 @@ public class EmailControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Deve retornar 400 BAD REQUEST com JSON malformado")
+    void shouldReturn400WhenJsonIsMalformed() throws Exception {
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"destinatarioEmail\":\"destinatario@teste.com\",\"destinat"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Deve retornar 400 BAD REQUEST quando o serviço lança ConstraintViolationException")
     void shouldReturn400WhenServiceThrowsConstraintViolationException() throws Exception {
-        tipoIntegracao = "AWS";
+        doReturn(aws).when(providerRouter).selecionar(any());
         EmailDTO emailDTO = createValidEmailDTO();
 
-        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq("AWS")))
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws)))
                 .thenThrow(new ConstraintViolationException("Simulated validation error", Set.of()));
 
         mockMvc.perform(post("/api/email/enviar-email")
@@ -122,10 +237,10 @@ public class EmailControllerTest {
     @Test
     @DisplayName("Deve retornar 400 BAD REQUEST quando o serviço lança IllegalArgumentException")
     void shouldReturn400WhenServiceThrowsIllegalArgumentException() throws Exception {
-        tipoIntegracao = "UNKNOWN";
+        doReturn(aws).when(providerRouter).selecionar(any());
         EmailDTO emailDTO = createValidEmailDTO();
 
-        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq("UNKNOWN")))
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), any(ProviderAdapter.class)))
                 .thenThrow(new IllegalArgumentException("Tipo de integração desconhecido: UNKNOWN"));
 
         mockMvc.perform(post("/api/email/enviar-email")
@@ -133,4 +248,168 @@ public class EmailControllerTest {
                         .content(objectMapper.writeValueAsString(emailDTO)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve renderizar o template antes da validação e seguir com o conteúdo pronto")
+    void shouldRenderTemplateBeforeValidation() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        EmailDTO emailDTO = createValidEmailDTO();
+        emailDTO.setConteudo(null);
+        emailDTO.setTemplate("boas-vindas");
+        emailDTO.setVariaveis(Map.of("nome", "Ana"));
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), any())).thenReturn("id-template");
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(emailDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("id-template"));
+
+        verify(emailService).adaptarEmailParaIntegracao(
+                argThat(email -> "Olá, Ana!".equals(email.getConteudo()) && email.getTemplate() == null), eq(aws));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 BAD REQUEST para template desconhecido")
+    void shouldReturn400WhenTemplateIsUnknown() throws Exception {
+        EmailDTO emailDTO = createValidEmailDTO();
+        emailDTO.setConteudo(null);
+        emailDTO.setTemplate("nao-existe");
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(emailDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Template desconhecido: nao-existe"));
+
+        verifyNoInteractions(emailDispatcher);
+    }
+
+    @Test
+    @DisplayName("Deve retornar 429 TOO MANY REQUESTS quando a fila de envio está cheia")
+    void shouldReturn429WhenDispatchQueueIsFull() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        EmailDTO emailDTO = createValidEmailDTO();
+        EmailAwsDTO awsDTO = new EmailAwsDTO();
+
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws)))
+                .thenReturn(awsDTO);
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), eq(awsDTO))).thenThrow(new FilaCheiaException());
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(emailDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errors[0]").value("Fila de envio cheia. Tente novamente mais tarde."));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 503 com Retry-After quando o disjuntor do provedor está aberto")
+    void shouldReturn503WhenCircuitIsOpen() throws Exception {
+        when(providerRouter.selecionar(any())).thenThrow(new ProvedorIndisponivelException("AWS", 30));
+
+        mockMvc.perform(post("/api/email/enviar-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidEmailDTO())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.errors[0]").value("Provedor AWS indisponível. Tente novamente mais tarde."));
+        verifyNoInteractions(emailDispatcher);
+    }
+
+    @Test
+    @DisplayName("Deve processar lote em JSON array e retornar relatório por item")
+    void shouldProcessJsonArrayBatch() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(List.of(
+                ResultadoItemDTO.aceito(0, "id-0"),
+                ResultadoItemDTO.rejeitado(1, List.of("Formato de email inválido"))));
+        when(emailLoteService.processarLote(any(InputStream.class))).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/email/enviar-emails")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createValidEmailDTO(), new EmailDTO()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.aceitos").value(1))
+                .andExpect(jsonPath("$.itens[0].id").value("id-0"))
+                .andExpect(jsonPath("$.itens[1].status").value("REJEITADO"))
+                .andExpect(jsonPath("$.itens[1].erros[0]").value("Formato de email inválido"));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar lote em NDJSON no mesmo endpoint")
+    void shouldProcessNdjsonBatch() throws Exception {
+        doReturn(oci).when(providerRouter).selecionar(any());
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n";
+        when(emailLoteService.processarLote(any(InputStream.class)))
+                .thenReturn(new ResultadoLoteDTO(List.of(ResultadoItemDTO.aceito(0, "id-0"))));
+
+        mockMvc.perform(post("/api/email/enviar-emails")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aceitos").value(1));
+    }
+
+    @Test
+    @DisplayName("Deve devolver resultados em NDJSON quando o cliente pede streaming")
+    void shouldStreamNdjsonResults() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(1);
+            saida.write("{\"indice\":0,\"status\":\"ACEITO\",\"id\":\"id-0\"}\n".getBytes());
+            return null;
+        }).when(emailLoteService).processarLoteNdjson(any(InputStream.class), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(post("/api/email/enviar-emails")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(createValidEmailDTO()) + "\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"indice\":0,\"status\":\"ACEITO\",\"id\":\"id-0\"}\n"));
+    }
+
+    @Test
+    @DisplayName("Mala direta deve devolver um resultado por destinatário")
+    void shouldProcessMailMerge() throws Exception {
+        MalaDiretaDTO malaDireta = new MalaDiretaDTO();
+        malaDireta.setRemetenteEmail("sender@example.com");
+        malaDireta.setAssunto("Promoção");
+        malaDireta.setConteudo("Conteúdo comum");
+        malaDireta.setDestinatarios(List.of(new DestinatarioDTO("a@example.com", "A"), new DestinatarioDTO("b@example.com", "B")));
+        when(emailLoteService.processarMalaDireta(any(MalaDiretaDTO.class))).thenReturn(new ResultadoLoteDTO(List.of(
+                ResultadoItemDTO.aceito(0, "id-0"), ResultadoItemDTO.aceito(1, "id-1"))));
+
+        mockMvc.perform(post("/api/email/enviar-mala-direta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(malaDireta)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aceitos").value(2));
+
+        verify(emailLoteService).processarMalaDireta(argThat(dto -> dto.getDestinatarios().size() == 2));
+    }
+
+    @Test
+    @DisplayName("Mala direta com campos comuns inválidos deve retornar 400 sem processar destinatários")
+    void shouldReturn400WhenMailMergeSharedFieldsAreInvalid() throws Exception {
+        MalaDiretaDTO malaDireta = new MalaDiretaDTO();
+        malaDireta.setRemetenteEmail("sender@example.com");
+        malaDireta.setAssunto("Promoção");
+        malaDireta.setDestinatarios(List.of(new DestinatarioDTO("a@example.com", "A")));
+
+        mockMvc.perform(post("/api/email/enviar-mala-direta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(malaDireta)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("O conteúdo do email é obrigatório"));
+
+        verifyNoInteractions(emailLoteService);
+    }
+}
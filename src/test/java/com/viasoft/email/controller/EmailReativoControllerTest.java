@@ -0,0 +1,229 @@
+package com.viasoft.email.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dto.DestinatarioDTO;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.idempotencia.CacheIdempotencia;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailLoteService;
+import com.viasoft.email.service.EmailService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(EmailReativoController.class)
+@Import(CacheIdempotencia.class)
+@EnableConfigurationProperties(EmailProperties.class)
+public class EmailReativoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private EmailDispatcher emailDispatcher;
+
+    @MockBean
+    private EmailLoteService emailLoteService;
+
+    @MockBean
+    private ProviderRouter providerRouter;
+
+    private final AwsProviderAdapter aws = new AwsProviderAdapter();
+
+    private EmailDTO createValidEmailDTO() {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("valid@example.com");
+        dto.setDestinatarioNome("Valid User");
+        dto.setRemetenteEmail("sender@example.com");
+        dto.setAssunto("Test Subject");
+        dto.setConteudo("Test Content");
+        return dto;
+    }
+
+    private void aceitarItens() {
+        when(emailDispatcher.temCapacidade()).thenReturn(true);
+        when(emailLoteService.processarItem(anyInt(), any()))
+                .thenAnswer(inv -> ResultadoItemDTO.aceito(inv.getArgument(0), "id-" + inv.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 202 ACCEPTED ao enfileirar email pelo endpoint reativo")
+    void shouldReturn202WhenSendingEmail() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        EmailAwsDTO awsDTO = new EmailAwsDTO();
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws))).thenReturn(awsDTO);
+        when(emailDispatcher.enfileirar(any(EmailDTO.class), eq(aws), eq(awsDTO))).thenReturn("id-aws");
+
+        webTestClient.post().uri("/api/email/enviar-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(createValidEmailDTO()))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().jsonPath("$.id").isEqualTo("id-aws");
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 BAD REQUEST com as mensagens de validação no formato padrão")
+    void shouldReturn400WhenInputDTOIsInvalid() throws Exception {
+        EmailDTO dto = createValidEmailDTO();
+        dto.setDestinatarioEmail("invalid-email");
+
+        webTestClient.post().uri("/api/email/enviar-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(dto))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.errors[0]").isEqualTo("Formato de email inválido");
+    }
+
+    @Test
+    @DisplayName("Deve retornar 429 com Retry-After quando a fila de envio está cheia")
+    void shouldReturn429WhenQueueIsFull() throws Exception {
+        doReturn(aws).when(providerRouter).selecionar(any());
+        when(emailService.adaptarEmailParaIntegracao(any(EmailDTO.class), eq(aws))).thenReturn(new EmailAwsDTO());
+        when(emailDispatcher.enfileirar(any(), any(), any())).thenThrow(new FilaCheiaException());
+
+        webTestClient.post().uri("/api/email/enviar-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(createValidEmailDTO()))
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "1");
+    }
+
+    @Test
+    @DisplayName("Deve processar lote em JSON array e devolver o resumo")
+    void shouldProcessJsonArrayBatch() throws Exception {
+        aceitarItens();
+
+        webTestClient.post().uri("/api/email/enviar-emails")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(List.of(createValidEmailDTO(), createValidEmailDTO())))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(2)
+                .jsonPath("$.aceitos").isEqualTo(2)
+                .jsonPath("$.itens[1].id").isEqualTo("id-1");
+    }
+
+    @Test
+    @DisplayName("Deve devolver um resultado NDJSON por item do lote NDJSON")
+    void shouldStreamNdjsonResults() throws Exception {
+        aceitarItens();
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n"
+                + objectMapper.writeValueAsString(createValidEmailDTO()) + "\n";
+
+        List<ResultadoItemDTO> resultados = webTestClient.post().uri("/api/email/enviar-emails")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(corpo)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoItemDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, resultados.size());
+        assertEquals("id-0", resultados.get(0).getId());
+        assertEquals("id-1", resultados.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Deve segurar o próximo item até a fila do dispatcher ter vaga")
+    void shouldWaitForDispatcherCapacity() throws Exception {
+        aceitarItens();
+        when(emailDispatcher.temCapacidade()).thenReturn(false, false, false, true);
+
+        webTestClient.post().uri("/api/email/enviar-emails")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(List.of(createValidEmailDTO())))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.aceitos").isEqualTo(1);
+
+        verify(emailDispatcher, times(4)).temCapacidade();
+    }
+
+    @Test
+    @DisplayName("Deve reportar JSON malformado como item rejeitado mantendo os anteriores")
+    void shouldReportMalformedJsonAsRejectedItem() throws Exception {
+        aceitarItens();
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n{\"destinatarioEmail\": \n";
+
+        List<ResultadoItemDTO> resultados = webTestClient.post().uri("/api/email/enviar-emails")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(corpo)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoItemDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, resultados.size());
+        assertEquals(ResultadoItemDTO.ACEITO, resultados.get(0).getStatus());
+        assertEquals(ResultadoItemDTO.REJEITADO, resultados.get(1).getStatus());
+        assertTrue(resultados.get(1).getErros().get(0).startsWith("JSON inválido"));
+    }
+
+    @Test
+    @DisplayName("Mala direta deve gerar um resultado por destinatário, em ordem")
+    void shouldProcessMailMergeRecipientByRecipient() {
+        when(emailDispatcher.temCapacidade()).thenReturn(true);
+        when(emailLoteService.processarDestinatario(any(), anyInt(), any()))
+                .thenAnswer(inv -> ResultadoItemDTO.aceito(inv.getArgument(1), "id-" + inv.getArgument(1)));
+        MalaDiretaDTO malaDireta = new MalaDiretaDTO();
+        malaDireta.setRemetenteEmail("sender@example.com");
+        malaDireta.setAssunto("Promoção");
+        malaDireta.setConteudo("Conteúdo comum");
+        malaDireta.setDestinatarios(List.of(new DestinatarioDTO("a@example.com", "A"),
+                new DestinatarioDTO("b@example.com", "B"), new DestinatarioDTO("c@example.com", "C")));
+
+        webTestClient.post().uri("/api/email/enviar-mala-direta")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(malaDireta)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.aceitos").isEqualTo(3)
+                .jsonPath("$.itens[2].id").isEqualTo("id-2");
+    }
+}
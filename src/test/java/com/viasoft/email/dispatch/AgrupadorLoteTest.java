@@ -0,0 +1,97 @@
+package com.viasoft.email.dispatch;
+
+import com.viasoft.email.provider.AwsProviderAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AgrupadorLoteTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<List<String>> lotes = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private MensagemEmail mensagem(String id) {
+        return new MensagemEmail(id, null, new AwsProviderAdapter(), null);
+    }
+
+    private AgrupadorLote.Envio registrando() {
+        return lote -> {
+            lotes.add(lote.stream().map(MensagemEmail::id).toList());
+            return new Exception[lote.size()];
+        };
+    }
+
+    private List<Future<?>> enviarTodas(AgrupadorLote agrupador, String... ids) {
+        List<Future<?>> envios = new ArrayList<>();
+        for (String id : ids) {
+            envios.add(executor.submit(() -> {
+                agrupador.enviar(mensagem(id));
+                return null;
+            }));
+        }
+        return envios;
+    }
+
+    @Test
+    @DisplayName("Deve enviar o lote assim que atingir o tamanho máximo, sem esperar o prazo")
+    void shouldFlushWhenBatchIsFull() throws Exception {
+        AgrupadorLote agrupador = new AgrupadorLote(4, TimeUnit.SECONDS.toNanos(30), registrando());
+
+        for (Future<?> envio : enviarTodas(agrupador, "1", "2", "3", "4")) {
+            envio.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, lotes.size());
+        assertEquals(4, lotes.get(0).size());
+    }
+
+    @Test
+    @DisplayName("Deve enviar o lote incompleto quando o prazo vencer")
+    void shouldFlushPartialBatchAfterMaxWait() throws Exception {
+        AgrupadorLote agrupador = new AgrupadorLote(50, TimeUnit.MILLISECONDS.toNanos(20), registrando());
+
+        long inicio = System.nanoTime();
+        agrupador.enviar(mensagem("1"));
+
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(List.of(List.of("1")), lotes);
+    }
+
+    @Test
+    @DisplayName("Deve devolver a cada mensagem a própria falha e a falha da chamada a todas")
+    void shouldFanOutPerMessageResults() throws Exception {
+        IllegalStateException recusada = new IllegalStateException("destinatário recusado");
+        AgrupadorLote porMensagem = new AgrupadorLote(1, 0, lote ->
+                new Exception[]{"2".equals(lote.get(0).id()) ? recusada : null});
+
+        porMensagem.enviar(mensagem("1"));
+        assertSame(recusada, assertThrows(IllegalStateException.class, () -> porMensagem.enviar(mensagem("2"))));
+
+        IllegalStateException fora = new IllegalStateException("provedor fora");
+        AgrupadorLote chamadaInteira = new AgrupadorLote(2, TimeUnit.SECONDS.toNanos(30), lote -> {
+            throw fora;
+        });
+        for (Future<?> envio : enviarTodas(chamadaInteira, "1", "2")) {
+            Exception falha = assertThrows(Exception.class, () -> envio.get(5, TimeUnit.SECONDS));
+            assertSame(fora, falha.getCause());
+        }
+    }
+}
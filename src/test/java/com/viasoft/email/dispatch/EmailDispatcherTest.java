@@ -0,0 +1,252 @@
+package com.viasoft.email.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.retry.ClasseErro;
+import com.viasoft.email.retry.GerenciadorRetry;
+import com.viasoft.email.retry.MensagensMortas;
+import com.viasoft.email.retry.PoliticaRetry;
+import com.viasoft.email.retry.RodaTemporizacao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmailDispatcherTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final ProviderAdapter<?> aws = new AwsProviderAdapter();
+    private EmailDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.encerrar();
+        }
+    }
+
+    private EmailDispatcher criar(EmailSender sender, int workers, int capacidade) {
+        return new EmailDispatcher(sender, workers, capacidade);
+    }
+
+    private EmailDTO createValidEmailDTO() {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("valid@example.com");
+        dto.setDestinatarioNome("Valid User");
+        dto.setRemetenteEmail("sender@example.com");
+        dto.setAssunto("Test Subject");
+        dto.setConteudo("Test Content");
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Deve enviar a mensagem enfileirada em uma thread de dispatch")
+    void shouldSendQueuedMessageOnDispatchThread() throws InterruptedException {
+        CountDownLatch enviado = new CountDownLatch(1);
+        AtomicReference<MensagemEmail> recebida = new AtomicReference<>();
+        AtomicReference<String> thread = new AtomicReference<>();
+        dispatcher = criar(mensagem -> {
+            recebida.set(mensagem);
+            thread.set(Thread.currentThread().getName());
+            enviado.countDown();
+        }, 1, 10);
+
+        EmailAwsDTO awsDTO = new EmailAwsDTO();
+        String id = dispatcher.enfileirar(createValidEmailDTO(), aws, awsDTO);
+
+        assertTrue(enviado.await(5, TimeUnit.SECONDS));
+        assertNotNull(id);
+        assertEquals(id, recebida.get().id());
+        assertSame(awsDTO, recebida.get().emailAdaptado());
+        assertTrue(thread.get().startsWith("email-dispatch-"));
+    }
+
+    @Test
+    @DisplayName("Deve lançar FilaCheiaException quando a fila está no limite")
+    void shouldRejectWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        dispatcher = criar(mensagem -> {
+            ocupado.countDown();
+            liberar.await();
+        }, 1, 1);
+
+        dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO()); // ocupa o único worker
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO()); // ocupa a única posição da fila
+
+        assertThrows(FilaCheiaException.class,
+                () -> dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO()));
+        liberar.countDown();
+    }
+
+    @Test
+    @DisplayName("Falha no envio não deve derrubar o worker")
+    void shouldKeepWorkingAfterSendFailure() throws InterruptedException {
+        CountDownLatch enviados = new CountDownLatch(2);
+        dispatcher = criar(mensagem -> {
+            enviados.countDown();
+            throw new IllegalStateException("falha simulada");
+        }, 1, 10);
+
+        dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO());
+        dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO());
+
+        assertTrue(enviados.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("Deve enviar em virtual threads e limitar as mensagens em voo quando habilitado")
+    void shouldUseVirtualThreadsWhenEnabled() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch emVoo = new CountDownLatch(3);
+        AtomicReference<String> thread = new AtomicReference<>();
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        dispatcher = new EmailDispatcher(mensagem -> {
+            thread.set(Thread.currentThread().toString());
+            emVoo.countDown();
+            liberar.await();
+        }, 1, 2, environment, SpoolEnvio.NENHUM, RetryEnvio.NENHUM);
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO());
+        }
+
+        // Os três envios bloqueados rodam ao mesmo tempo, mesmo com um único "worker"
+        assertTrue(emVoo.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.isThreadsVirtuais());
+        assertTrue(thread.get().startsWith("VirtualThread"));
+        assertEquals(3, dispatcher.getTamanhoFila());
+        assertThrows(FilaCheiaException.class,
+                () -> dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO()));
+        liberar.countDown();
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    @DisplayName("Deve manter o pool fixo em Java 17 mesmo com virtual threads habilitadas")
+    void shouldKeepPlatformPoolBeforeJava21() {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        dispatcher = new EmailDispatcher(mensagem -> { }, 1, 10, environment, SpoolEnvio.NENHUM, RetryEnvio.NENHUM);
+
+        assertFalse(dispatcher.isThreadsVirtuais());
+    }
+
+    @Test
+    @DisplayName("Deve gravar no spool antes de enfileirar e confirmar depois do envio")
+    void shouldSpoolAndConfirmAfterSending() throws InterruptedException {
+        SpoolEmMemoria spool = new SpoolEmMemoria();
+        CountDownLatch enviado = new CountDownLatch(1);
+        dispatcher = new EmailDispatcher(mensagem -> {
+            assertTrue(spool.gravadas.contains(mensagem.id()));
+            enviado.countDown();
+        }, 1, 10, false, spool, RetryEnvio.NENHUM);
+
+        String id = dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO());
+
+        assertTrue(enviado.await(5, TimeUnit.SECONDS));
+        assertEquals(id, spool.confirmadas.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve reenfileirar na subida as mensagens recuperadas do spool")
+    void shouldResendRecoveredMessages() throws InterruptedException {
+        SpoolEmMemoria spool = new SpoolEmMemoria();
+        spool.recuperadas.add(new MensagemEmail("antiga", createValidEmailDTO(), aws, new EmailAwsDTO()));
+        AtomicReference<String> enviada = new AtomicReference<>();
+        CountDownLatch enviado = new CountDownLatch(1);
+        dispatcher = new EmailDispatcher(mensagem -> {
+            enviada.set(mensagem.id());
+            enviado.countDown();
+        }, 1, 10, false, spool, RetryEnvio.NENHUM);
+
+        dispatcher.recuperarSpool();
+
+        assertTrue(enviado.await(5, TimeUnit.SECONDS));
+        assertEquals("antiga", enviada.get());
+        assertEquals("antiga", spool.confirmadas.poll(5, TimeUnit.SECONDS));
+        // Já reenfileirada: não foi gravada de novo
+        assertTrue(spool.gravadas.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Falha transitória deve ser reenviada fora do pool e só então confirmada no spool")
+    void shouldRetryFailedSendBeforeConfirming() throws Exception {
+        SpoolEmMemoria spool = new SpoolEmMemoria();
+        AtomicInteger tentativas = new AtomicInteger();
+        CountDownLatch enviado = new CountDownLatch(1);
+        PoliticaRetry politica = new PoliticaRetry(Map.of(ClasseErro.TRANSITORIO,
+                new EmailProperties.Tentativas(3, Duration.ofMillis(5), Duration.ofMillis(10))));
+        try (GerenciadorRetry retry = new GerenciadorRetry(politica, new RodaTemporizacao(1, TimeUnit.MILLISECONDS, 64),
+                new MensagensMortas(diretorio, new ObjectMapper()), new SimpleMeterRegistry())) {
+            dispatcher = new EmailDispatcher(mensagem -> {
+                if (tentativas.incrementAndGet() < 3) {
+                    throw new IOException("timeout");
+                }
+                enviado.countDown();
+            }, 1, 10, false, spool, retry);
+
+            String id = dispatcher.enfileirar(createValidEmailDTO(), aws, new EmailAwsDTO());
+
+            assertTrue(enviado.await(5, TimeUnit.SECONDS));
+            assertEquals(id, spool.confirmadas.poll(5, TimeUnit.SECONDS));
+            assertEquals(3, tentativas.get());
+            // Confirmada uma única vez, depois do envio que deu certo
+            assertTrue(spool.confirmadas.isEmpty());
+        }
+    }
+
+    private static class SpoolEmMemoria implements SpoolEnvio {
+        final List<String> gravadas = new CopyOnWriteArrayList<>();
+        final BlockingQueue<String> confirmadas = new LinkedBlockingQueue<>();
+        final List<MensagemEmail> recuperadas = new ArrayList<>();
+
+        @Override
+        public void gravar(MensagemEmail mensagem) {
+            gravadas.add(mensagem.id());
+        }
+
+        @Override
+        public void confirmar(String id) {
+            confirmadas.add(id);
+        }
+
+        @Override
+        public List<MensagemEmail> recuperar() {
+            return recuperadas;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.viasoft.email.dispatch;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.DisjuntoresProvedor;
+import com.viasoft.email.provider.LimitadorTaxa;
+import com.viasoft.email.provider.LimitadoresProvedor;
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.service.EmailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProcessadorEnvioTest {
+
+    private final ProviderRegistry registry = ProviderRegistry.padrao();
+    private final ProviderAdapter<?> aws = registry.obter("AWS");
+    private final EmailServiceImpl emailService =
+            new EmailServiceImpl(Validation.buildDefaultValidatorFactory().getValidator(), registry);
+    private final EmailProperties properties = new EmailProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProcessadorEnvio criar(EmailSender transporte) {
+        return criar(transporte, DisjuntoresProvedor.nenhum());
+    }
+
+    private ProcessadorEnvio criar(EmailSender transporte, DisjuntoresProvedor disjuntores) {
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, properties.getRoteamento(), disjuntores);
+        LimitadoresProvedor limitadores = new LimitadoresProvedor(properties, registry, meterRegistry);
+        return new ProcessadorEnvio(transporte, router, limitadores, disjuntores, emailService);
+    }
+
+    private MensagemEmail mensagemAws() {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("valid@example.com");
+        dto.setDestinatarioNome("Valid User");
+        dto.setRemetenteEmail("sender@example.com");
+        dto.setAssunto("Test Subject");
+        dto.setConteudo("Test Content");
+        return new MensagemEmail("id", dto, aws, emailService.adaptarParaAws(dto));
+    }
+
+    private void limitar(String integracao, LimitadorTaxa.Modo modo) {
+        EmailProperties.Provedor provedor = new EmailProperties.Provedor();
+        provedor.getLimite().setTaxaPorSegundo(1);
+        provedor.getLimite().setRajada(1);
+        provedor.getLimite().setModo(modo);
+        properties.getProvedores().put(integracao, provedor);
+    }
+
+    @Test
+    @DisplayName("Deve readaptar e reenviar pelo outro provedor quando o envio falha")
+    void shouldFailoverToOtherProvider() throws Exception {
+        properties.getRoteamento().getPesos().put("AWS", 1);
+        properties.getRoteamento().getPesos().put("OCI", 1);
+        List<MensagemEmail> tentativas = new ArrayList<>();
+        ProcessadorEnvio processador = criar(mensagem -> {
+            tentativas.add(mensagem);
+            if (mensagem.provider() instanceof AwsProviderAdapter) {
+                throw new IllegalStateException("AWS fora do ar");
+            }
+        });
+
+        processador.enviar(mensagemAws());
+
+        assertEquals(2, tentativas.size());
+        assertEquals("id", tentativas.get(1).id());
+        assertEquals("OCI", tentativas.get(1).provider().getIntegracao());
+        assertInstanceOf(EmailOciDTO.class, tentativas.get(1).emailAdaptado());
+    }
+
+    @Test
+    @DisplayName("Sem provedor alternativo deve propagar a falha do envio")
+    void shouldPropagateFailureWithoutAlternative() {
+        ProcessadorEnvio processador = criar(mensagem -> {
+            throw new IllegalStateException("AWS fora do ar");
+        });
+
+        assertThrows(IllegalStateException.class, () -> processador.enviar(mensagemAws()));
+    }
+
+    @Test
+    @DisplayName("Sem o email original não deve tentar failover e deve propagar a falha do provedor")
+    void shouldPropagateFailureWhenOriginalIsMissing() {
+        properties.getRoteamento().getPesos().put("AWS", 1);
+        properties.getRoteamento().getPesos().put("OCI", 1);
+        List<MensagemEmail> tentativas = new ArrayList<>();
+        ProcessadorEnvio processador = criar(mensagem -> {
+            tentativas.add(mensagem);
+            throw new IllegalStateException("AWS fora do ar");
+        });
+        MensagemEmail semOriginal = new MensagemEmail("id", null, aws, mensagemAws().emailAdaptado());
+
+        assertThrows(IllegalStateException.class, () -> processador.enviar(semOriginal));
+
+        assertEquals(1, tentativas.size());
+    }
+
+    @Test
+    @DisplayName("Sem cota disponível no modo REJEITAR deve recusar na hora")
+    void shouldRejectWhenQuotaIsExhausted() throws Exception {
+        limitar("AWS", LimitadorTaxa.Modo.REJEITAR);
+        List<MensagemEmail> enviadas = new ArrayList<>();
+        ProcessadorEnvio processador = criar(enviadas::add);
+
+        processador.enviar(mensagemAws());
+        assertThrows(LimiteTaxaExcedidoException.class, () -> processador.enviar(mensagemAws()));
+
+        assertEquals(1, enviadas.size());
+        assertEquals(1.0, meterRegistry.get("email.provedor.limitador.rejeicoes").tag("integracao", "AWS")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Com o disjuntor aberto deve falhar na hora, sem chamar o provedor")
+    void shouldFailFastWhenCircuitIsOpen() {
+        EmailProperties.Provedor provedor = new EmailProperties.Provedor();
+        provedor.getDisjuntor().setChamadasMinimas(2);
+        properties.getProvedores().put("AWS", provedor);
+        DisjuntoresProvedor disjuntores = new DisjuntoresProvedor(properties, registry, meterRegistry);
+        List<MensagemEmail> tentativas = new ArrayList<>();
+        ProcessadorEnvio processador = criar(mensagem -> {
+            tentativas.add(mensagem);
+            throw new IllegalStateException("AWS fora do ar");
+        }, disjuntores);
+
+        assertThrows(IllegalStateException.class, () -> processador.enviar(mensagemAws()));
+        assertThrows(IllegalStateException.class, () -> processador.enviar(mensagemAws()));
+        assertThrows(ProvedorIndisponivelException.class, () -> processador.enviar(mensagemAws()));
+
+        assertEquals(2, tentativas.size());
+        assertEquals(2.0, meterRegistry.get("email.provedor.disjuntor.estado").tag("integracao", "AWS")
+                .gauge().value());
+        assertEquals(1.0, meterRegistry.get("email.provedor.disjuntor.rejeicoes").tag("integracao", "AWS")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Provedor sem cota deve receber o failover de um provedor limitado")
+    void shouldFailoverWhenQuotaIsExhausted() throws Exception {
+        limitar("AWS", LimitadorTaxa.Modo.REJEITAR);
+        properties.getRoteamento().getPesos().put("AWS", 1);
+        properties.getRoteamento().getPesos().put("OCI", 1);
+        List<MensagemEmail> enviadas = new ArrayList<>();
+        ProcessadorEnvio processador = criar(enviadas::add);
+
+        processador.enviar(mensagemAws());
+        processador.enviar(mensagemAws());
+
+        assertEquals("AWS", enviadas.get(0).provider().getIntegracao());
+        assertEquals("OCI", enviadas.get(1).provider().getIntegracao());
+    }
+}
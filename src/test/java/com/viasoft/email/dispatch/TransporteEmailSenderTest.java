@@ -0,0 +1,191 @@
+package com.viasoft.email.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.audit.AuditoriaEnvio;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.OciProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransporteEmailSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<byte[]> corpos = new ArrayList<>();
+    private final List<byte[]> arraysUsados = new ArrayList<>();
+    private AuditoriaEnvio auditoria;
+
+    @BeforeEach
+    void setUp() {
+        EmailProperties properties = new EmailProperties();
+        properties.getAuditoria().setHabilitada(false);
+        auditoria = new AuditoriaEnvio(properties, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private TransporteEmailSender criar(TransporteEmail transporte) {
+        return new TransporteEmailSender(objectMapper, transporte, auditoria);
+    }
+
+    private TransporteEmail capturando() {
+        return (mensagem, corpo) -> {
+            arraysUsados.add(corpo.array());
+            byte[] copia = new byte[corpo.remaining()];
+            corpo.get(copia);
+            corpos.add(copia);
+        };
+    }
+
+    private EmailAwsDTO createAwsDTO(String conteudo) {
+        EmailAwsDTO dto = new EmailAwsDTO();
+        dto.setRecipient("destinatario@teste.com");
+        dto.setRecipientName("Destinatário Teste");
+        dto.setSender("remetente@teste.com");
+        dto.setSubject("Assunto");
+        dto.setContent(conteudo);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Deve entregar ao transporte o mesmo JSON UTF-8 que o ObjectMapper gera")
+    void shouldHandSameJsonBytesToTransport() throws Exception {
+        EmailAwsDTO aws = createAwsDTO("Conteúdo com acentuação");
+        EmailOciDTO oci = new EmailOciDTO();
+        oci.setRecipientEmail("destinatario@teste.com");
+        oci.setBody("Corpo");
+        TransporteEmailSender sender = criar(capturando());
+
+        sender.enviar(new MensagemEmail("1", null, new AwsProviderAdapter(), aws));
+        sender.enviar(new MensagemEmail("2", null, new OciProviderAdapter(), oci));
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(aws), corpos.get(0));
+        assertArrayEquals(objectMapper.writeValueAsBytes(oci), corpos.get(1));
+        assertEquals(objectMapper.writeValueAsString(aws), new String(corpos.get(0), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Deve medir serialização e envio, registrando a falha do transporte como falha")
+    void shouldTimeSerializationAndSend() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransporteEmailSender sender = new TransporteEmailSender(objectMapper, (mensagem, corpo) -> {
+            throw new IllegalStateException("timeout");
+        }, auditoria, new MetricasPipeline(meterRegistry, ProviderRegistry.padrao()));
+
+        assertThrows(IllegalStateException.class,
+                () -> sender.enviar(new MensagemEmail("1", null, new AwsProviderAdapter(), createAwsDTO("x"))));
+
+        assertEquals(1, meterRegistry.get("email.pipeline.etapa").tag("etapa", "serializacao")
+                .tag("integracao", "AWS").tag("resultado", "sucesso").timer().count());
+        assertEquals(1, meterRegistry.get("email.pipeline.etapa").tag("etapa", "envio")
+                .tag("integracao", "AWS").tag("resultado", "falha").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o buffer entre mensagens")
+    void shouldReuseWorkerBuffer() throws Exception {
+        TransporteEmailSender sender = criar(capturando());
+
+        sender.enviar(new MensagemEmail("1", null, new AwsProviderAdapter(), createAwsDTO("a")));
+        sender.enviar(new MensagemEmail("2", null, new AwsProviderAdapter(), createAwsDTO("b")));
+
+        assertSame(arraysUsados.get(0), arraysUsados.get(1));
+    }
+
+    @Test
+    @DisplayName("Deve crescer para mensagens grandes e não reter o buffer inflado")
+    void shouldGrowAndReleaseLargeBuffer() throws Exception {
+        TransporteEmailSender sender = criar(capturando());
+        String grande = "x".repeat(300 * 1024);
+
+        sender.enviar(new MensagemEmail("1", null, new AwsProviderAdapter(), createAwsDTO(grande)));
+        sender.enviar(new MensagemEmail("2", null, new AwsProviderAdapter(), createAwsDTO("pequeno")));
+
+        assertEquals(objectMapper.writeValueAsBytes(createAwsDTO(grande)).length, corpos.get(0).length);
+        assertEquals(4 * 1024, arraysUsados.get(1).length);
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha do transporte")
+    void shouldPropagateTransportFailure() {
+        TransporteEmailSender sender = criar((mensagem, corpo) -> {
+            throw new IllegalStateException("provedor fora");
+        });
+
+        assertThrows(IllegalStateException.class,
+                () -> sender.enviar(new MensagemEmail("1", null, new AwsProviderAdapter(), createAwsDTO("a"))));
+    }
+
+    @Test
+    @DisplayName("Deve mandar as mensagens do provedor com lote habilitado como um array JSON numa chamada")
+    void shouldSendBatchAsJsonArray() throws Exception {
+        EmailProperties properties = new EmailProperties();
+        EmailProperties.Provedor aws = new EmailProperties.Provedor();
+        aws.getLote().setHabilitado(true);
+        aws.getLote().setTamanhoMaximo(2);
+        aws.getLote().setEsperaMaxima(Duration.ofSeconds(30));
+        properties.getProvedores().put("AWS", aws);
+        IllegalStateException recusada = new IllegalStateException("destinatário recusado");
+        TransporteEmail transporte = new TransporteEmailLote() {
+            @Override
+            public void transmitir(MensagemEmail mensagem, ByteBuffer corpo) {
+                throw new AssertionError("deveria ir em lote");
+            }
+
+            @Override
+            public Exception[] transmitirLote(List<MensagemEmail> mensagens, ByteBuffer corpo) {
+                byte[] copia = new byte[corpo.remaining()];
+                corpo.get(copia);
+                corpos.add(copia);
+                return new Exception[]{"a".equals(mensagens.get(0).id()) ? null : recusada,
+                        "a".equals(mensagens.get(1).id()) ? null : recusada};
+            }
+        };
+        TransporteEmailSender sender = new TransporteEmailSender(objectMapper, transporte, auditoria,
+                MetricasPipeline.nenhuma(), properties, ProviderRegistry.padrao());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = executor.submit(() -> {
+                sender.enviar(new MensagemEmail("a", null, new AwsProviderAdapter(), createAwsDTO("a")));
+                return null;
+            });
+            Future<?> b = executor.submit(() -> {
+                sender.enviar(new MensagemEmail("b", null, new AwsProviderAdapter(), createAwsDTO("b")));
+                return null;
+            });
+
+            assertNull(a.get(5, TimeUnit.SECONDS));
+            Exception falha = assertThrows(Exception.class, () -> b.get(5, TimeUnit.SECONDS));
+            assertSame(recusada, falha.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, corpos.size());
+        String json = new String(corpos.get(0), StandardCharsets.UTF_8);
+        assertTrue(json.equals("[" + objectMapper.writeValueAsString(createAwsDTO("a")) + ","
+                + objectMapper.writeValueAsString(createAwsDTO("b")) + "]")
+                || json.equals("[" + objectMapper.writeValueAsString(createAwsDTO("b")) + ","
+                + objectMapper.writeValueAsString(createAwsDTO("a")) + "]"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.viasoft.email.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.simulador.ConfiguracaoSimulador;
+import com.viasoft.email.simulador.SimuladorProvedor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransporteHttpTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimuladorProvedor simulador;
+
+    @AfterEach
+    void tearDown() {
+        if (simulador != null) {
+            simulador.close();
+        }
+    }
+
+    private TransporteHttp iniciar(ConfiguracaoSimulador config) throws IOException {
+        config.setPorta(0);
+        config.setLatenciaMediana(Duration.ZERO);
+        config.setLatenciaP99(Duration.ZERO);
+        simulador = new SimuladorProvedor(config);
+        return new TransporteHttp(simulador.getUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), objectMapper);
+    }
+
+    private EmailAwsDTO createAwsDTO(String destinatario) {
+        EmailAwsDTO dto = new EmailAwsDTO();
+        dto.setRecipient(destinatario);
+        dto.setRecipientName("Destinatário Teste");
+        dto.setSender("remetente@teste.com");
+        dto.setSubject("Assunto");
+        dto.setContent("Conteúdo");
+        return dto;
+    }
+
+    private MensagemEmail mensagem(EmailAwsDTO dto) {
+        return new MensagemEmail("1", null, new AwsProviderAdapter(), dto);
+    }
+
+    private ByteBuffer corpo(Object valor) throws IOException {
+        return ByteBuffer.wrap(objectMapper.writeValueAsBytes(valor));
+    }
+
+    @Test
+    @DisplayName("Deve enviar ao simulador e traduzir 4xx, 429 e 5xx nas exceções que o retry classifica")
+    void shouldMapStatusToRetryableExceptions() throws Exception {
+        TransporteHttp transporte = iniciar(new ConfiguracaoSimulador());
+        EmailAwsDTO valido = createAwsDTO("destinatario@teste.com");
+        EmailAwsDTO semDestinatario = createAwsDTO(null);
+
+        transporte.transmitir(mensagem(valido), corpo(valido));
+        assertThrows(IllegalArgumentException.class,
+                () -> transporte.transmitir(mensagem(semDestinatario), corpo(semDestinatario)));
+        assertEquals(1L, simulador.getEstatisticas().get("aceitas"));
+
+        simulador.close();
+        ConfiguracaoSimulador limitado = new ConfiguracaoSimulador();
+        limitado.setTaxaErro(1.0);
+        limitado.setTaxaPorSegundo(0.001);
+        TransporteHttp comFalhas = iniciar(limitado);
+        assertThrows(IOException.class, () -> comFalhas.transmitir(mensagem(valido), corpo(valido)));
+        assertThrows(LimiteTaxaExcedidoException.class, () -> comFalhas.transmitir(mensagem(valido), corpo(valido)));
+    }
+
+    @Test
+    @DisplayName("Deve enviar o lote numa requisição e devolver o resultado de cada mensagem")
+    void shouldSendBatchAndMapEachResult() throws Exception {
+        TransporteHttp transporte = iniciar(new ConfiguracaoSimulador());
+        EmailAwsDTO valido = createAwsDTO("destinatario@teste.com");
+        EmailAwsDTO semDestinatario = createAwsDTO(null);
+
+        Exception[] falhas = transporte.transmitirLote(List.of(mensagem(valido), mensagem(semDestinatario)),
+                corpo(List.of(valido, semDestinatario)));
+
+        assertNull(falhas[0]);
+        assertInstanceOf(IllegalArgumentException.class, falhas[1]);
+        assertEquals(1L, simulador.getEstatisticas().get("requisicoes"));
+    }
+
+    @Test
+    @DisplayName("Deve desistir de uma resposta gotejada no prazo, mesmo com os cabeçalhos já recebidos")
+    void shouldTimeOutOnDrippedResponse() throws Exception {
+        ConfiguracaoSimulador gotejando = new ConfiguracaoSimulador();
+        gotejando.setTaxaGotejamento(1.0);
+        gotejando.setIntervaloGotejamento(Duration.ofSeconds(1));
+        iniciar(gotejando);
+        TransporteHttp transporte = new TransporteHttp(simulador.getUrl(), Duration.ofSeconds(2),
+                Duration.ofMillis(300), objectMapper);
+        EmailAwsDTO valido = createAwsDTO("destinatario@teste.com");
+
+        long inicio = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> transporte.transmitir(mensagem(valido), corpo(valido)));
+
+        assertTrue(System.nanoTime() - inicio < Duration.ofSeconds(5).toNanos());
+    }
+}
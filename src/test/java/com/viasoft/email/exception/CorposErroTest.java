@@ -0,0 +1,58 @@
+package com.viasoft.email.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.viasoft.email.dto.ErroDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CorposErroTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setDateFormat(new StdDateFormat().withColonInTimeZone(true))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final CorposErro corpos = new CorposErro(objectMapper);
+
+    @Test
+    @DisplayName("Corpo pré-montado deve ser byte a byte o que o Jackson gera para o ErroDTO")
+    void shouldMatchJacksonSerialization() throws Exception {
+        String mensagem = "Fila de envio cheia. \"Tente\" novamente mais tarde.";
+
+        byte[] corpo = corpos.fixo(HttpStatus.TOO_MANY_REQUESTS, mensagem);
+
+        JsonNode lido = objectMapper.readTree(corpo);
+        Date timestamp = objectMapper.treeToValue(lido.get("timestamp"), Date.class);
+        String esperado = objectMapper.writeValueAsString(new ErroDTO(timestamp, 429, List.of(mensagem)));
+        assertEquals(esperado, new String(corpo, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Mensagem com texto variável deve ter corpo próprio, sem misturar com as já montadas")
+    void shouldKeepOneBodyPerMessage() throws Exception {
+        JsonNode aws = objectMapper.readTree(corpos.fixo(HttpStatus.SERVICE_UNAVAILABLE, "Provedor AWS indisponível."));
+        JsonNode oci = objectMapper.readTree(corpos.fixo(HttpStatus.SERVICE_UNAVAILABLE, "Provedor OCI indisponível."));
+
+        assertEquals("Provedor AWS indisponível.", aws.get("errors").get(0).asText());
+        assertEquals("Provedor OCI indisponível.", oci.get("errors").get(0).asText());
+        assertEquals(503, oci.get("status").asInt());
+    }
+
+    @Test
+    @DisplayName("Exceções das recusas por requisição não devem capturar stack trace")
+    void shouldNotCaptureStackTraces() {
+        assertEquals(0, new FilaCheiaException().getStackTrace().length);
+        assertEquals(0, new ProvedorIndisponivelException("AWS", 1).getStackTrace().length);
+        assertEquals(0, new RequisicaoInvalidaException(List.of("inválido")).getStackTrace().length);
+        assertEquals(0, new ViolacaoRestricaoException(Set.of()).getStackTrace().length);
+        assertEquals(0, new LimiteTaxaExcedidoException("AWS").getStackTrace().length);
+    }
+}
@@ -0,0 +1,144 @@
+package com.viasoft.email.idempotencia;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.ChaveIdempotenciaReutilizadaException;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.exception.RequisicaoEmAndamentoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheIdempotenciaTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000_000);
+    private final AtomicInteger envios = new AtomicInteger();
+
+    private CacheIdempotencia criar(int capacidade, boolean hashConteudo) {
+        EmailProperties.Idempotencia configuracao = new EmailProperties.Idempotencia();
+        configuracao.setCapacidade(capacidade);
+        configuracao.setTtl(Duration.ofMinutes(10));
+        configuracao.setHashConteudo(hashConteudo);
+        return new CacheIdempotencia(configuracao, agora::get);
+    }
+
+    private EmailDTO email(String assunto) {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario@teste.com");
+        dto.setDestinatarioNome("Destinatário");
+        dto.setRemetenteEmail("remetente@teste.com");
+        dto.setAssunto(assunto);
+        dto.setConteudo("Conteúdo");
+        return dto;
+    }
+
+    private String enviar() {
+        envios.incrementAndGet();
+        return UUID.randomUUID().toString();
+    }
+
+    @Test
+    @DisplayName("Repetição dentro do TTL deve devolver o id original sem novo envio")
+    void shouldReplayWithinTtl() {
+        CacheIdempotencia cache = criar(1000, false);
+
+        CacheIdempotencia.Resultado primeiro = cache.executar("chave", email("A"), this::enviar);
+        CacheIdempotencia.Resultado repetido = cache.executar("chave", email("A"), this::enviar);
+
+        assertFalse(primeiro.repetido());
+        assertTrue(repetido.repetido());
+        assertEquals(primeiro.id(), repetido.id());
+        assertEquals(1, envios.get());
+    }
+
+    @Test
+    @DisplayName("Após o TTL a mesma chave deve gerar um novo envio")
+    void shouldExpireAfterTtl() {
+        CacheIdempotencia cache = criar(1000, false);
+        String primeiro = cache.executar("chave", email("A"), this::enviar).id();
+
+        agora.addAndGet(Duration.ofMinutes(10).toMillis());
+        CacheIdempotencia.Resultado depois = cache.executar("chave", email("A"), this::enviar);
+
+        assertFalse(depois.repetido());
+        assertNotEquals(primeiro, depois.id());
+        assertEquals(2, envios.get());
+    }
+
+    @Test
+    @DisplayName("Sem cabeçalho não deve deduplicar, a menos que o hash do conteúdo esteja habilitado")
+    void shouldUseContentHashOnlyWhenEnabled() {
+        CacheIdempotencia semHash = criar(1000, false);
+        semHash.executar(null, email("A"), this::enviar);
+        semHash.executar(null, email("A"), this::enviar);
+        assertEquals(2, envios.get());
+
+        CacheIdempotencia comHash = criar(1000, true);
+        comHash.executar(null, email("A"), this::enviar);
+        assertTrue(comHash.executar(null, email("A"), this::enviar).repetido());
+        assertFalse(comHash.executar(null, email("B"), this::enviar).repetido());
+        assertEquals(4, envios.get());
+    }
+
+    @Test
+    @DisplayName("Chave reutilizada com outro conteúdo deve ser recusada")
+    void shouldRejectKeyReusedWithOtherContent() {
+        CacheIdempotencia cache = criar(1000, false);
+        cache.executar("chave", email("A"), this::enviar);
+
+        assertThrows(ChaveIdempotenciaReutilizadaException.class,
+                () -> cache.executar("chave", email("B"), this::enviar));
+    }
+
+    @Test
+    @DisplayName("Repetição durante a primeira requisição deve ser recusada como em andamento")
+    void shouldRejectWhileFirstRequestIsInProgress() {
+        CacheIdempotencia cache = criar(1000, false);
+
+        cache.executar("chave", email("A"), () -> {
+            assertThrows(RequisicaoEmAndamentoException.class,
+                    () -> cache.executar("chave", email("A"), this::enviar));
+            return enviar();
+        });
+
+        assertEquals(1, envios.get());
+    }
+
+    @Test
+    @DisplayName("Falha no envio deve liberar a chave para a próxima tentativa")
+    void shouldReleaseKeyWhenSendingFails() {
+        CacheIdempotencia cache = criar(1000, false);
+
+        assertThrows(FilaCheiaException.class, () -> cache.executar("chave", email("A"), () -> {
+            throw new FilaCheiaException();
+        }));
+        CacheIdempotencia.Resultado nova = cache.executar("chave", email("A"), this::enviar);
+
+        assertFalse(nova.repetido());
+        assertEquals(1, envios.get());
+    }
+
+    @Test
+    @DisplayName("Deve manter no máximo a capacidade configurada, descartando as chaves mais antigas")
+    void shouldStayWithinCapacity() {
+        CacheIdempotencia cache = criar(64 * 100, false);
+        for (int i = 0; i < 100_000; i++) {
+            cache.executar("chave-" + i, email("A"), this::enviar);
+            agora.incrementAndGet();
+        }
+
+        assertTrue(cache.getTamanho() <= 64 * 100);
+        assertTrue(cache.executar("chave-99999", email("A"), this::enviar).repetido());
+        assertFalse(cache.executar("chave-0", email("A"), this::enviar).repetido());
+    }
+}
@@ -0,0 +1,77 @@
+package com.viasoft.email.metricas;
+
+import com.viasoft.email.provider.ProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricasPipelineTest {
+
+    private final ProviderRegistry registry = ProviderRegistry.padrao();
+    private final ProviderAdapter<?> aws = registry.obter("AWS");
+
+    private static Timer timer(SimpleMeterRegistry meterRegistry, String etapa, String integracao, String resultado) {
+        return meterRegistry.find(MetricasPipeline.NOME)
+                .tag("etapa", etapa).tag("integracao", integracao).tag("resultado", resultado)
+                .timer();
+    }
+
+    @Test
+    @DisplayName("Deve registrar cada etapa separada por integração e resultado")
+    void shouldRecordByStageIntegrationAndOutcome() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasPipeline metricas = new MetricasPipeline(meterRegistry, registry);
+
+        metricas.registrar(MetricasPipeline.Etapa.BINDING, true, metricas.iniciar());
+        metricas.registrar(MetricasPipeline.Etapa.ENVIO, aws, true, metricas.iniciar());
+        metricas.registrar(MetricasPipeline.Etapa.ENVIO, aws, false, metricas.iniciar());
+        metricas.registrar(MetricasPipeline.Etapa.ENVIO, aws, false, metricas.iniciar());
+
+        assertEquals(1, timer(meterRegistry, "binding", MetricasPipeline.SEM_INTEGRACAO, "sucesso").count());
+        assertEquals(1, timer(meterRegistry, "envio", "AWS", "sucesso").count());
+        assertEquals(2, timer(meterRegistry, "envio", "AWS", "falha").count());
+        assertEquals(0, timer(meterRegistry, "envio", "OCI", "falha").count());
+        // Combinações impossíveis não viram série
+        assertNull(timer(meterRegistry, "binding", "AWS", "sucesso"));
+        assertNull(timer(meterRegistry, "envio", MetricasPipeline.SEM_INTEGRACAO, "sucesso"));
+    }
+
+    @Test
+    @DisplayName("Integração desconhecida deve ser ignorada sem erro")
+    void shouldIgnoreUnknownIntegration() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasPipeline metricas = new MetricasPipeline(meterRegistry, registry);
+        ProviderAdapter<?> desconhecido = mock(ProviderAdapter.class);
+        when(desconhecido.getIntegracao()).thenReturn("SMTP");
+
+        metricas.registrar(MetricasPipeline.Etapa.ENVIO, desconhecido, true, metricas.iniciar());
+
+        assertTrue(meterRegistry.find(MetricasPipeline.NOME).tag("integracao", "SMTP").meters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("O scrape do Prometheus deve trazer os buckets do histograma para p50/p99/p999")
+    void shouldExposeHistogramBucketsToPrometheus() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        MetricasPipeline metricas = new MetricasPipeline(meterRegistry, registry);
+
+        metricas.registrar(MetricasPipeline.Etapa.SERIALIZACAO, aws, true, metricas.iniciar());
+
+        String scrape = meterRegistry.scrape();
+        assertTrue(scrape.contains("email_pipeline_etapa_seconds_bucket{etapa=\"serializacao\",integracao=\"AWS\","
+                + "resultado=\"sucesso\",le=\"+Inf\"} 1"), scrape);
+        // Buckets abaixo de 1 ms, necessários para o p50 de etapas em memória
+        assertTrue(scrape.contains("le=\"1.0E-6\"") || scrape.contains("le=\"1.0E-5\""), scrape);
+        assertTrue(scrape.contains("le=\"10.0\""), scrape);
+    }
+}
@@ -0,0 +1,135 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DisjuntorProvedorTest {
+
+    private static final long RAPIDA = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LENTA = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final List<DisjuntorProvedor.Estado> transicoes = new ArrayList<>();
+
+    private DisjuntorProvedor criar() {
+        EmailProperties.Disjuntor config = new EmailProperties.Disjuntor();
+        config.setJanela(10);
+        config.setChamadasMinimas(5);
+        config.setTaxaFalhaMaxima(0.5);
+        config.setChamadaLenta(Duration.ofSeconds(1));
+        config.setTaxaLentaMaxima(0.8);
+        config.setEsperaAberto(Duration.ofSeconds(30));
+        config.setChamadasSemiAberto(2);
+        return new DisjuntorProvedor(config, relogio::get, transicoes::add);
+    }
+
+    private static void registrar(DisjuntorProvedor disjuntor, int vezes, long duracao, boolean sucesso) {
+        for (int i = 0; i < vezes; i++) {
+            assertTrue(disjuntor.permitir());
+            disjuntor.registrar(duracao, sucesso);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando a taxa de falhas da janela atinge o limite e recusar sem chamar o provedor")
+    void shouldOpenOnFailureRate() {
+        DisjuntorProvedor disjuntor = criar();
+        registrar(disjuntor, 6, RAPIDA, true);
+        registrar(disjuntor, 4, RAPIDA, false);
+        assertEquals(DisjuntorProvedor.Estado.FECHADO, disjuntor.getEstado());
+
+        // Janela cheia: a próxima falha empurra a mais antiga (sucesso) para fora, 5 de 10
+        registrar(disjuntor, 1, RAPIDA, false);
+
+        assertEquals(DisjuntorProvedor.Estado.ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitir());
+        assertFalse(disjuntor.disponivel());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), disjuntor.getRestanteAbertoNanos());
+    }
+
+    @Test
+    @DisplayName("Não deve abrir antes do mínimo de chamadas na janela")
+    void shouldNotOpenBeforeMinimumCalls() {
+        DisjuntorProvedor disjuntor = criar();
+
+        registrar(disjuntor, 4, RAPIDA, false);
+
+        assertEquals(DisjuntorProvedor.Estado.FECHADO, disjuntor.getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando quase todos os envios são lentos, mesmo sem falhas")
+    void shouldOpenOnSlowCallRate() {
+        DisjuntorProvedor disjuntor = criar();
+
+        registrar(disjuntor, 1, RAPIDA, true);
+        registrar(disjuntor, 4, LENTA, true);
+
+        assertEquals(DisjuntorProvedor.Estado.ABERTO, disjuntor.getEstado());
+    }
+
+    @Test
+    @DisplayName("Passada a espera deve liberar só as sondas e fechar se elas tiverem sucesso")
+    void shouldCloseAfterSuccessfulProbes() {
+        DisjuntorProvedor disjuntor = criar();
+        registrar(disjuntor, 5, RAPIDA, false);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertTrue(disjuntor.disponivel());
+        assertTrue(disjuntor.permitir());
+        assertTrue(disjuntor.permitir());
+        assertEquals(DisjuntorProvedor.Estado.SEMI_ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitir());
+        assertFalse(disjuntor.disponivel());
+
+        disjuntor.registrar(RAPIDA, true);
+        disjuntor.registrar(RAPIDA, true);
+
+        assertEquals(DisjuntorProvedor.Estado.FECHADO, disjuntor.getEstado());
+        // Janela zerada: as falhas antigas não contam mais
+        registrar(disjuntor, 4, RAPIDA, false);
+        assertEquals(DisjuntorProvedor.Estado.FECHADO, disjuntor.getEstado());
+        assertEquals(List.of(DisjuntorProvedor.Estado.ABERTO, DisjuntorProvedor.Estado.SEMI_ABERTO,
+                DisjuntorProvedor.Estado.FECHADO), transicoes);
+    }
+
+    @Test
+    @DisplayName("Sonda com falha deve reabrir o disjuntor por mais um período de espera")
+    void shouldReopenWhenProbeFails() {
+        DisjuntorProvedor disjuntor = criar();
+        registrar(disjuntor, 5, RAPIDA, false);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        assertTrue(disjuntor.permitir());
+        disjuntor.registrar(RAPIDA, false);
+
+        assertEquals(DisjuntorProvedor.Estado.ABERTO, disjuntor.getEstado());
+        assertFalse(disjuntor.permitir());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), disjuntor.getRestanteAbertoNanos());
+    }
+
+    @Test
+    @DisplayName("Permissão cancelada no semiaberto deve voltar a ficar disponível para outra sonda")
+    void shouldReturnCanceledProbe() {
+        DisjuntorProvedor disjuntor = criar();
+        registrar(disjuntor, 5, RAPIDA, false);
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(disjuntor.permitir());
+        assertTrue(disjuntor.permitir());
+
+        disjuntor.cancelar();
+
+        assertTrue(disjuntor.permitir());
+    }
+}
@@ -0,0 +1,102 @@
+package com.viasoft.email.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IntegracaoEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Não deve expor a troca de provedor sem configuração explícita")
+    void shouldNotBeExposedByDefault() throws Exception {
+        mockMvc.perform(get("/actuator/integracao"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/admin/integracao")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"integracao\":\"OCI\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "mail.integracao=AWS",
+            "management.endpoint.integracao.access=unrestricted",
+            "management.endpoints.web.exposure.include=integracao"
+    })
+    class Habilitado {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ProvedorAtivo provedorAtivo;
+
+        @AfterEach
+        void tearDown() {
+            provedorAtivo.recarregar();
+        }
+
+        @Test
+        @DisplayName("Deve retornar a integração ativa")
+        void shouldReturnActiveIntegration() throws Exception {
+            mockMvc.perform(get("/actuator/integracao"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.integracao").value("AWS"));
+        }
+
+        @Test
+        @DisplayName("Deve trocar a integração ativa")
+        void shouldSwapIntegration() throws Exception {
+            mockMvc.perform(post("/actuator/integracao")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"integracao\":\"oci\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.integracao").value("OCI"));
+            mockMvc.perform(get("/actuator/integracao"))
+                    .andExpect(jsonPath("$.integracao").value("OCI"));
+        }
+
+        @Test
+        @DisplayName("Deve retornar 400 para integração desconhecida ou ausente")
+        void shouldReturn400ForUnknownIntegration() throws Exception {
+            mockMvc.perform(post("/actuator/integracao")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"integracao\":\"SMTP\"}"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/actuator/integracao")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Deve recarregar a integração a partir do ambiente")
+        void shouldReloadIntegration() throws Exception {
+            provedorAtivo.trocar("OCI");
+
+            mockMvc.perform(post("/actuator/integracao/recarregar"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.integracao").value("AWS"));
+            mockMvc.perform(post("/actuator/integracao/outra"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
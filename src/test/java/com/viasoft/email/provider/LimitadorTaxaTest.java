@@ -0,0 +1,92 @@
+package com.viasoft.email.provider;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LimitadorTaxaTest {
+
+    @Test
+    @DisplayName("Deve liberar a rajada inteira e recusar a seguinte no modo REJEITAR")
+    void shouldAllowBurstThenReject() {
+        LimitadorTaxa limitador = new LimitadorTaxa(1, 5, LimitadorTaxa.Modo.REJEITAR, Duration.ZERO);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.adquirir());
+        }
+        assertEquals(-1, limitador.adquirir());
+        assertTrue(limitador.getTokensDisponiveis() < 1);
+    }
+
+    @Test
+    @DisplayName("Deve aguardar a próxima permissão quando cabe na espera máxima")
+    void shouldWaitForNextPermit() {
+        LimitadorTaxa limitador = new LimitadorTaxa(20, 1, LimitadorTaxa.Modo.AGUARDAR, Duration.ofSeconds(1));
+
+        limitador.adquirir();
+        long inicio = System.nanoTime();
+        long espera = limitador.adquirir();
+
+        assertTrue(espera > 0);
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test
+    @DisplayName("Deve recusar quando a espera passaria da espera máxima")
+    void shouldRejectWhenWaitExceedsLimit() {
+        LimitadorTaxa limitador = new LimitadorTaxa(1, 1, LimitadorTaxa.Modo.AGUARDAR, Duration.ofMillis(100));
+
+        limitador.adquirir();
+
+        assertEquals(-1, limitador.adquirir());
+    }
+
+    @Test
+    @DisplayName("Balde cheio deve informar a rajada como tokens disponíveis")
+    void shouldReportFullBucket() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(1000, 10, LimitadorTaxa.Modo.REJEITAR, Duration.ZERO);
+        Thread.sleep(20);
+
+        assertEquals(10.0, limitador.getTokensDisponiveis(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Não deve conceder mais que a rajada sob concorrência")
+    void shouldNotOverGrantUnderContention() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(0.001, 100, LimitadorTaxa.Modo.REJEITAR, Duration.ZERO);
+        AtomicInteger concedidas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch fim = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limitador.adquirir() >= 0) {
+                        concedidas.incrementAndGet();
+                    }
+                }
+                fim.countDown();
+            });
+        }
+        assertTrue(fim.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(100, concedidas.get());
+    }
+
+    @Test
+    @DisplayName("Deve recusar configuração inválida")
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LimitadorTaxa(0, 1, LimitadorTaxa.Modo.REJEITAR, Duration.ZERO));
+    }
+}
@@ -0,0 +1,68 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProvedorAtivoTest {
+
+    private final ProviderRegistry registry = ProviderRegistry.padrao();
+    private final MockEnvironment environment = new MockEnvironment();
+
+    private ProvedorAtivo criar(String integracao) {
+        EmailProperties properties = new EmailProperties();
+        properties.setIntegracao(integracao);
+        environment.setProperty("mail.integracao", integracao);
+        return new ProvedorAtivo(properties, registry, environment);
+    }
+
+    @Test
+    @DisplayName("Deve resolver o adaptador configurado na subida")
+    void shouldResolveConfiguredAdapterAtStartup() {
+        assertInstanceOf(OciProviderAdapter.class, criar("oci").obter());
+    }
+
+    @Test
+    @DisplayName("Deve falhar na subida quando mail.integracao é desconhecido")
+    void shouldFailFastForUnknownIntegration() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> criar("SMTP"));
+        assertTrue(ex.getMessage().contains("[AWS, OCI]"));
+    }
+
+    @Test
+    @DisplayName("Deve trocar o provedor ativo em tempo de execução")
+    void shouldSwapActiveProvider() {
+        ProvedorAtivo provedorAtivo = criar("AWS");
+
+        provedorAtivo.trocar("OCI");
+
+        assertInstanceOf(OciProviderAdapter.class, provedorAtivo.obter());
+    }
+
+    @Test
+    @DisplayName("Troca para integração desconhecida deve manter o provedor atual")
+    void shouldKeepCurrentProviderWhenSwapIsInvalid() {
+        ProvedorAtivo provedorAtivo = criar("AWS");
+
+        assertThrows(IllegalArgumentException.class, () -> provedorAtivo.trocar("SMTP"));
+
+        assertEquals("AWS", provedorAtivo.obter().getIntegracao());
+    }
+
+    @Test
+    @DisplayName("Deve reler mail.integracao do ambiente ao recarregar")
+    void shouldReloadFromEnvironment() {
+        ProvedorAtivo provedorAtivo = criar("AWS");
+        environment.setProperty("mail.integracao", "OCI");
+
+        provedorAtivo.recarregar();
+
+        assertInstanceOf(OciProviderAdapter.class, provedorAtivo.obter());
+    }
+}
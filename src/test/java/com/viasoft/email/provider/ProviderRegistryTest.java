@@ -0,0 +1,64 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProviderRegistryTest {
+
+    private final ProviderRegistry registry = ProviderRegistry.padrao();
+
+    @Test
+    @DisplayName("Deve resolver o adaptador pelo nome da integração, sem diferenciar caixa")
+    void shouldResolveAdapterIgnoringCase() {
+        assertInstanceOf(AwsProviderAdapter.class, registry.obter("AWS"));
+        assertInstanceOf(AwsProviderAdapter.class, registry.obter("aws"));
+        assertInstanceOf(OciProviderAdapter.class, registry.obter("Oci"));
+    }
+
+    @Test
+    @DisplayName("Deve resolver o adaptador pelo tipo do DTO")
+    void shouldResolveAdapterByDtoType() {
+        EmailDTO emailDTO = new EmailDTO();
+        emailDTO.setDestinatarioEmail("valid@example.com");
+
+        EmailAwsDTO awsDTO = registry.obter(EmailAwsDTO.class).adaptar(emailDTO);
+        EmailOciDTO ociDTO = registry.obter(EmailOciDTO.class).adaptar(emailDTO);
+
+        assertEquals("valid@example.com", awsDTO.getRecipient());
+        assertEquals("valid@example.com", ociDTO.getRecipientEmail());
+    }
+
+    @Test
+    @DisplayName("Deve lançar IllegalArgumentException para integração desconhecida ou nula")
+    void shouldThrowForUnknownIntegration() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> registry.obter("SMTP"));
+        assertEquals("Tipo de integração desconhecido: SMTP", ex.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> registry.obter((String) null));
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar duas implementações para a mesma integração")
+    void shouldRejectDuplicateIntegration() {
+        AwsProviderAdapter aws = new AwsProviderAdapter();
+        assertThrows(IllegalStateException.class, () -> new ProviderRegistry(List.of(aws, new AwsProviderAdapter())));
+    }
+
+    @Test
+    @DisplayName("Deve expor os adaptadores registrados")
+    void shouldExposeRegisteredAdapters() {
+        OciProviderAdapter oci = new OciProviderAdapter();
+        ProviderRegistry apenasOci = new ProviderRegistry(List.of(oci));
+        assertEquals(1, apenasOci.getAdapters().size());
+        assertSame(oci, apenasOci.obter("OCI"));
+    }
+}
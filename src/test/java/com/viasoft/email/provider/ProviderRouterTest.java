@@ -0,0 +1,178 @@
+package com.viasoft.email.provider;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.ProvedorIndisponivelException;
+import com.viasoft.email.service.EmailService;
+import com.viasoft.email.service.EmailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProviderRouterTest {
+
+    private final ProviderRegistry registry = ProviderRegistry.padrao();
+    private final ProviderAdapter<?> aws = registry.obter("AWS");
+    private final ProviderAdapter<?> oci = registry.obter("OCI");
+
+    private EmailProperties.Roteamento roteamento(int pesoAws, int pesoOci) {
+        EmailProperties.Roteamento roteamento = new EmailProperties.Roteamento();
+        roteamento.getPesos().put("AWS", pesoAws);
+        roteamento.getPesos().put("OCI", pesoOci);
+        roteamento.setAmostrasMinimas(5);
+        roteamento.setQuarentena(Duration.ofMinutes(1));
+        return roteamento;
+    }
+
+    @Test
+    @DisplayName("Sem pesos configurados deve usar sempre o provedor ativo")
+    void shouldUseActiveProviderWithoutWeights() {
+        ProviderRouter router = new ProviderRouter(() -> oci, registry, new EmailProperties.Roteamento());
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(oci, router.selecionar());
+        }
+        assertNull(router.alternativa(oci));
+    }
+
+    @Test
+    @DisplayName("Deve distribuir o tráfego de acordo com os pesos")
+    void shouldSpreadTrafficByWeight() {
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento(3, 1));
+
+        Map<String, Integer> contagem = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            contagem.merge(router.selecionar().getIntegracao(), 1, Integer::sum);
+        }
+
+        double fracaoAws = contagem.get("AWS") / 20_000.0;
+        assertTrue(fracaoAws > 0.70 && fracaoAws < 0.80, "fração AWS: " + fracaoAws);
+    }
+
+    @Test
+    @DisplayName("Deve sortear só entre os provedores cujos limites comportam a mensagem")
+    void shouldSelectOnlyProvidersThatFitTheMessage() {
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento(1, 1));
+        EmailService emailService = new EmailServiceImpl(Validation.buildDefaultValidatorFactory().getValidator());
+        EmailDTO email = new EmailDTO();
+        email.setDestinatarioEmail("destinatario@teste.com");
+        // Cabe nos 60 caracteres da AWS, não nos 50 da OCI
+        email.setDestinatarioNome("N".repeat(55));
+        email.setRemetenteEmail("remetente@teste.com");
+        email.setAssunto("Assunto");
+        email.setConteudo("Conteúdo");
+
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(aws, router.selecionar(p -> emailService.comporta(email, p)));
+        }
+        assertNull(router.alternativa(aws, p -> emailService.comporta(email, p)));
+
+        // Nenhum comporta: sorteia entre todos e a adaptação devolve as violações
+        email.setDestinatarioNome("N".repeat(61));
+        ProviderAdapter<?> escolhido = router.selecionar(p -> emailService.comporta(email, p));
+        assertTrue(escolhido == aws || escolhido == oci);
+    }
+
+    @Test
+    @DisplayName("Provedor com taxa de erro alta deve sair da rotação")
+    void shouldRemoveDegradedProviderFromRotation() {
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento(1, 1));
+
+        for (int i = 0; i < 10; i++) {
+            router.registrarResultado(aws, 1_000_000, false);
+        }
+
+        assertTrue(router.getEstatisticas("AWS").isDegradado());
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(oci, router.selecionar());
+        }
+        assertSame(oci, router.alternativa(aws));
+    }
+
+    @Test
+    @DisplayName("Provedor com latência média acima do limite deve sair da rotação")
+    void shouldRemoveSlowProviderFromRotation() {
+        EmailProperties.Roteamento roteamento = roteamento(1, 1);
+        roteamento.setLatenciaMaxima(Duration.ofMillis(10));
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento);
+
+        for (int i = 0; i < 50; i++) {
+            router.registrarResultado(oci, Duration.ofMillis(200).toNanos(), true);
+        }
+
+        assertTrue(router.getEstatisticas("OCI").isDegradado());
+        assertNull(router.alternativa(aws));
+    }
+
+    @Test
+    @DisplayName("Com todos os provedores degradados deve continuar sorteando entre eles")
+    void shouldStillSelectWhenAllDegraded() {
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento(1, 1));
+        for (int i = 0; i < 10; i++) {
+            router.registrarResultado(aws, 1, false);
+            router.registrarResultado(oci, 1, false);
+        }
+
+        ProviderAdapter<?> escolhido = router.selecionar();
+
+        assertTrue(escolhido == aws || escolhido == oci);
+    }
+
+    @Test
+    @DisplayName("Provedor com disjuntor aberto deve sair da rotação e, sem alternativa, a seleção deve recusar")
+    void shouldSkipProvidersWithOpenCircuit() {
+        EmailProperties properties = new EmailProperties();
+        EmailProperties.Provedor provedor = new EmailProperties.Provedor();
+        provedor.getDisjuntor().setChamadasMinimas(1);
+        properties.getProvedores().put("AWS", provedor);
+        properties.getProvedores().put("OCI", provedor);
+        DisjuntoresProvedor disjuntores = new DisjuntoresProvedor(properties, registry, new SimpleMeterRegistry());
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, roteamento(1, 1), disjuntores);
+
+        disjuntores.registrar(aws, 1, false);
+        for (int i = 0; i < 100; i++) {
+            assertSame(oci, router.selecionar());
+        }
+
+        disjuntores.registrar(oci, 1, false);
+        ProvedorIndisponivelException ex = assertThrows(ProvedorIndisponivelException.class, router::selecionar);
+        assertEquals(30, ex.getSegundosParaNovaTentativa());
+    }
+
+    @Test
+    @DisplayName("Sem pesos, o provedor ativo com disjuntor aberto deve ser recusado na hora")
+    void shouldRejectActiveProviderWithOpenCircuit() {
+        EmailProperties properties = new EmailProperties();
+        EmailProperties.Provedor provedor = new EmailProperties.Provedor();
+        provedor.getDisjuntor().setChamadasMinimas(1);
+        properties.getProvedores().put("AWS", provedor);
+        DisjuntoresProvedor disjuntores = new DisjuntoresProvedor(properties, registry, new SimpleMeterRegistry());
+        ProviderRouter router = new ProviderRouter(() -> aws, registry, new EmailProperties.Roteamento(), disjuntores);
+
+        disjuntores.registrar(aws, 1, false);
+
+        assertThrows(ProvedorIndisponivelException.class, router::selecionar);
+    }
+
+    @Test
+    @DisplayName("Deve falhar na subida com integração desconhecida nos pesos")
+    void shouldFailFastForUnknownWeightKey() {
+        EmailProperties.Roteamento roteamento = new EmailProperties.Roteamento();
+        roteamento.getPesos().put("SMTP", 1);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new ProviderRouter(() -> aws, registry, roteamento));
+        assertEquals("mail.roteamento.pesos com integração desconhecida: SMTP", ex.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package com.viasoft.email.retry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GerenciadorRetryTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GerenciadorRetry retry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        retry.close();
+    }
+
+    private GerenciadorRetry criar() throws IOException {
+        PoliticaRetry politica = new PoliticaRetry(Map.of(
+                ClasseErro.TRANSITORIO, new EmailProperties.Tentativas(3, Duration.ofMillis(10), Duration.ofMillis(20))));
+        return new GerenciadorRetry(politica, new RodaTemporizacao(1, TimeUnit.MILLISECONDS, 64),
+                new MensagensMortas(diretorio, objectMapper), meterRegistry);
+    }
+
+    private MensagemEmail mensagem() {
+        EmailDTO original = new EmailDTO();
+        original.setDestinatarioEmail("destinatario@teste.com");
+        original.setAssunto("Assunto");
+        return new MensagemEmail("id-1", original, new AwsProviderAdapter(), new EmailAwsDTO());
+    }
+
+    @Test
+    @DisplayName("Deve agendar nova tentativa e executá-la depois do atraso")
+    void shouldScheduleRetry() throws Exception {
+        retry = criar();
+        CountDownLatch executada = new CountDownLatch(1);
+
+        assertTrue(retry.reagendar(mensagem(), 1, new IOException("timeout"), executada::countDown));
+
+        assertTrue(executada.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("email.retry.tentativas").tag("classe", "TRANSITORIO").counter().count());
+    }
+
+    @Test
+    @DisplayName("Esgotadas as tentativas, deve gravar a mensagem nas mensagens mortas")
+    void shouldDeadLetterWhenAttemptsAreExhausted() throws Exception {
+        retry = criar();
+
+        assertFalse(retry.reagendar(mensagem(), 3, new IOException("timeout"), () -> { }));
+        // Erro permanente não tem nova tentativa mesmo na primeira falha
+        assertFalse(retry.reagendar(mensagem(), 1, new IllegalArgumentException("inválido"), () -> { }));
+
+        List<String> linhas = Files.readAllLines(diretorio.resolve(MensagensMortas.ARQUIVO));
+        assertEquals(2, linhas.size());
+        JsonNode primeira = objectMapper.readTree(linhas.get(0));
+        assertEquals("id-1", primeira.get("id").asText());
+        assertEquals(3, primeira.get("tentativas").asInt());
+        assertEquals("TRANSITORIO", primeira.get("classeErro").asText());
+        assertEquals("Assunto", primeira.get("original").get("assunto").asText());
+        assertEquals("PERMANENTE", objectMapper.readTree(linhas.get(1)).get("classeErro").asText());
+        assertEquals(2.0, meterRegistry.get("email.retry.mensagens-mortas").counter().count());
+    }
+}
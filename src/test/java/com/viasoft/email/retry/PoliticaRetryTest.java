@@ -0,0 +1,56 @@
+package com.viasoft.email.retry;
+
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.exception.LimiteTaxaExcedidoException;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PoliticaRetryTest {
+
+    private final PoliticaRetry politica = new PoliticaRetry(Map.of(
+            ClasseErro.TRANSITORIO, new EmailProperties.Tentativas(4, Duration.ofMillis(100), Duration.ofMillis(300))));
+
+    @Test
+    @DisplayName("Deve sortear o atraso entre zero e o teto exponencial, limitado ao atraso máximo")
+    void shouldDrawFullJitterWithinExponentialCap() {
+        long maiorPrimeira = 0;
+        long maiorTerceira = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long primeira = politica.atrasoMillis(ClasseErro.TRANSITORIO, 1);
+            long terceira = politica.atrasoMillis(ClasseErro.TRANSITORIO, 3);
+            assertTrue(primeira >= 0 && primeira <= 100);
+            // 100 * 2^2 = 400, limitado a 300
+            assertTrue(terceira >= 0 && terceira <= 300);
+            maiorPrimeira = Math.max(maiorPrimeira, primeira);
+            maiorTerceira = Math.max(maiorTerceira, terceira);
+        }
+        assertTrue(maiorPrimeira > 90);
+        assertTrue(maiorTerceira > 270);
+    }
+
+    @Test
+    @DisplayName("Deve desistir ao atingir o máximo de tentativas da classe")
+    void shouldGiveUpAfterMaxAttempts() {
+        assertTrue(politica.atrasoMillis(ClasseErro.TRANSITORIO, 3) >= 0);
+        assertEquals(-1, politica.atrasoMillis(ClasseErro.TRANSITORIO, 4));
+        // Classe sem política configurada: uma tentativa só
+        assertEquals(-1, politica.atrasoMillis(ClasseErro.PERMANENTE, 1));
+    }
+
+    @Test
+    @DisplayName("Deve classificar cota, erro de validação e falhas de rede")
+    void shouldClassifyErrors() {
+        assertEquals(ClasseErro.LIMITE_TAXA, ClasseErro.classificar(new LimiteTaxaExcedidoException("AWS")));
+        assertEquals(ClasseErro.PERMANENTE, ClasseErro.classificar(new ConstraintViolationException(Set.of())));
+        assertEquals(ClasseErro.TRANSITORIO, ClasseErro.classificar(new IOException("timeout")));
+    }
+}
@@ -0,0 +1,68 @@
+package com.viasoft.email.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RodaTemporizacaoTest {
+
+    private RodaTemporizacao roda;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        roda.close();
+    }
+
+    @Test
+    @DisplayName("Deve executar as tarefas na ordem dos prazos, nunca antes do atraso")
+    void shouldRunTasksInDeadlineOrder() throws InterruptedException {
+        roda = new RodaTemporizacao(1, TimeUnit.MILLISECONDS, 8);
+        List<Integer> ordem = new CopyOnWriteArrayList<>();
+        CountDownLatch concluidas = new CountDownLatch(3);
+        long inicio = System.nanoTime();
+        long[] executadaEm = new long[1];
+
+        // 8 baldes de 1 ms: os atrasos de 30 e 50 ms dão várias voltas na roda
+        roda.agendar(50, TimeUnit.MILLISECONDS, () -> {
+            ordem.add(50);
+            executadaEm[0] = System.nanoTime();
+            concluidas.countDown();
+        });
+        roda.agendar(5, TimeUnit.MILLISECONDS, () -> {
+            ordem.add(5);
+            concluidas.countDown();
+        });
+        roda.agendar(30, TimeUnit.MILLISECONDS, () -> {
+            ordem.add(30);
+            concluidas.countDown();
+        });
+
+        assertTrue(concluidas.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(5, 30, 50), ordem);
+        assertTrue(executadaEm[0] - inicio >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, roda.getPendentes());
+    }
+
+    @Test
+    @DisplayName("Deve segurar centenas de milhares de tarefas pendentes com uma única thread")
+    void shouldHoldManyPendingTasks() throws InterruptedException {
+        roda = new RodaTemporizacao(1, TimeUnit.MILLISECONDS, 512);
+        int total = 200_000;
+        CountDownLatch concluidas = new CountDownLatch(total);
+        for (int i = 0; i < total; i++) {
+            roda.agendar(100 + i % 400, TimeUnit.MILLISECONDS, concluidas::countDown);
+        }
+
+        assertTrue(roda.getPendentes() > 0);
+        assertTrue(concluidas.await(10, TimeUnit.SECONDS));
+        assertEquals(0, roda.getPendentes());
+    }
+}
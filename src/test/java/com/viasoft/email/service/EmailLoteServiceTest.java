@@ -0,0 +1,268 @@
+package com.viasoft.email.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.config.EmailProperties;
+import com.viasoft.email.dispatch.EmailDispatcher;
+import com.viasoft.email.dto.DestinatarioDTO;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.MalaDiretaDTO;
+import com.viasoft.email.dto.ResultadoItemDTO;
+import com.viasoft.email.dto.ResultadoLoteDTO;
+import com.viasoft.email.exception.FilaCheiaException;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import com.viasoft.email.provider.ProviderRouter;
+import com.viasoft.email.exception.TemplateInvalidoException;
+import com.viasoft.email.metricas.MetricasPipeline;
+import com.viasoft.email.template.TemplatesEmail;
+import com.viasoft.email.validation.ValidadorRapido;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EmailLoteServiceTest {
+
+    private EmailDispatcher emailDispatcher;
+    private EmailLoteService emailLoteService;
+    private ObjectMapper objectMapper;
+    private ProviderRouter providerRouter;
+    private final AwsProviderAdapter aws = new AwsProviderAdapter();
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        emailDispatcher = mock(EmailDispatcher.class);
+        when(emailDispatcher.enfileirar(any(), any(), any())).thenReturn("id");
+        objectMapper = new ObjectMapper();
+        providerRouter = new ProviderRouter(() -> aws, ProviderRegistry.padrao(), new EmailProperties.Roteamento());
+        emailLoteService = new EmailLoteServiceImpl(new EmailServiceImpl(validator), emailDispatcher,
+                providerRouter, new ValidadorRapido(validator, EmailDTO.class), objectMapper);
+    }
+
+    private EmailDTO createValidEmailDTO() {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("valid@example.com");
+        dto.setDestinatarioNome("Valid User");
+        dto.setRemetenteEmail("sender@example.com");
+        dto.setAssunto("Test Subject");
+        dto.setConteudo("Test Content");
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Item inválido não deve falhar o lote inteiro")
+    void shouldRejectOnlyInvalidItems() throws Exception {
+        EmailDTO invalido = createValidEmailDTO();
+        invalido.setRemetenteEmail("invalid-sender");
+        EmailDTO longoParaAws = createValidEmailDTO();
+        longoParaAws.setConteudo("a".repeat(300)); // válido no EmailDTO, inválido no EmailAwsDTO
+
+        ResultadoLoteDTO resultado = emailLoteService.processarLote(
+                json(Arrays.asList(createValidEmailDTO(), invalido, null, longoParaAws)));
+
+        assertEquals(4, resultado.getTotal());
+        assertEquals(1, resultado.getAceitos());
+        assertEquals(3, resultado.getRejeitados());
+        assertEquals(ResultadoItemDTO.ACEITO, resultado.getItens().get(0).getStatus());
+        assertEquals("id", resultado.getItens().get(0).getId());
+        assertEquals(List.of("Formato de email inválido"), resultado.getItens().get(1).getErros());
+        assertEquals(List.of("Item vazio"), resultado.getItens().get(2).getErros());
+        assertEquals(List.of("O conteúdo do email deve ter no máximo 256 caracteres"),
+                resultado.getItens().get(3).getErros());
+        verify(emailDispatcher, times(1)).enfileirar(any(), eq(aws), any(EmailAwsDTO.class));
+    }
+
+    private InputStream json(List<EmailDTO> emails) throws Exception {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(emails));
+    }
+
+    private static InputStream stream(String corpo) {
+        return new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Deve processar NDJSON item a item, isolando itens com tipos inválidos")
+    void shouldProcessNdjsonLineByLine() throws Exception {
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n"
+                + "{\"destinatarioEmail\": {\"x\": 1}}\n"
+                + "\n"
+                + objectMapper.writeValueAsString(createValidEmailDTO()) + "\n";
+
+        ResultadoLoteDTO resultado = emailLoteService.processarLote(stream(corpo));
+
+        assertEquals(3, resultado.getTotal());
+        assertEquals(2, resultado.getAceitos());
+        assertEquals(ResultadoItemDTO.REJEITADO, resultado.getItens().get(1).getStatus());
+        assertTrue(resultado.getItens().get(1).getErros().get(0).startsWith("JSON inválido"));
+    }
+
+    @Test
+    @DisplayName("Fila cheia deve rejeitar apenas o item afetado")
+    void shouldRejectItemWhenQueueIsFull() throws Exception {
+        when(emailDispatcher.enfileirar(any(), any(), any())).thenReturn("id").thenThrow(new FilaCheiaException());
+
+        ResultadoLoteDTO resultado = emailLoteService.processarLote(
+                json(List.of(createValidEmailDTO(), createValidEmailDTO())));
+
+        assertEquals(1, resultado.getAceitos());
+        assertTrue(resultado.getItens().get(1).getErros().get(0).startsWith("Fila de envio cheia"));
+    }
+
+    @Test
+    @DisplayName("JSON com sintaxe quebrada deve encerrar o stream reportando a posição")
+    void shouldStopAtSyntaxError() throws Exception {
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n{nao-e-json\n";
+
+        ResultadoLoteDTO resultado = emailLoteService.processarLote(stream(corpo));
+
+        assertEquals(2, resultado.getTotal());
+        assertEquals(1, resultado.getItens().get(1).getIndice());
+        assertTrue(resultado.getItens().get(1).getErros().get(0).startsWith("JSON inválido"));
+    }
+
+    @Test
+    @DisplayName("Deve escrever um resultado NDJSON por item")
+    void shouldWriteNdjsonResults() throws Exception {
+        EmailDTO invalido = createValidEmailDTO();
+        invalido.setAssunto("");
+        String corpo = objectMapper.writeValueAsString(createValidEmailDTO()) + "\n"
+                + objectMapper.writeValueAsString(invalido) + "\n";
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        emailLoteService.processarLoteNdjson(stream(corpo), saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[1].startsWith("{"));
+        assertEquals("ACEITO", objectMapper.readTree(linhas[0]).get("status").asText());
+        assertEquals("O assunto do email é obrigatório",
+                objectMapper.readTree(linhas[1]).get("erros").get(0).asText());
+    }
+
+    @Test
+    @DisplayName("Item com template deve ser renderizado antes da validação; template desconhecido recusa só o item")
+    void shouldRenderTemplateBeforeValidation() throws Exception {
+        TemplatesEmail templates = (id, variaveis) -> {
+            if (!id.equals("boas-vindas")) {
+                throw new TemplateInvalidoException("Template desconhecido: " + id);
+            }
+            return "Olá, " + variaveis.get("nome") + "!";
+        };
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        EmailLoteService servico = new EmailLoteServiceImpl(new EmailServiceImpl(validator), emailDispatcher,
+                providerRouter, new ValidadorRapido(validator, EmailDTO.class), objectMapper,
+                MetricasPipeline.nenhuma(), templates);
+        EmailDTO comTemplate = createValidEmailDTO();
+        comTemplate.setConteudo(null);
+        comTemplate.setTemplate("boas-vindas");
+        comTemplate.setVariaveis(Map.of("nome", "Ana"));
+        EmailDTO desconhecido = createValidEmailDTO();
+        desconhecido.setConteudo(null);
+        desconhecido.setTemplate("nao-existe");
+
+        ResultadoLoteDTO resultado = servico.processarLote(json(List.of(comTemplate, desconhecido)));
+
+        assertEquals(1, resultado.getAceitos());
+        assertEquals("Template desconhecido: nao-existe", resultado.getItens().get(1).getErros().get(0));
+        verify(emailDispatcher).enfileirar(argThat(email -> "Olá, Ana!".equals(email.getConteudo())
+                && email.getTemplate() == null), eq(aws), any());
+    }
+
+    private MalaDiretaDTO createMalaDireta(DestinatarioDTO... destinatarios) {
+        MalaDiretaDTO dto = new MalaDiretaDTO();
+        dto.setRemetenteEmail("sender@example.com");
+        dto.setAssunto("Promoção");
+        dto.setConteudo("Conteúdo comum a todos");
+        dto.setDestinatarios(Arrays.asList(destinatarios));
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Mala direta deve validar os campos comuns uma vez e só os do destinatário a cada email")
+    void shouldValidateSharedFieldsOnceForMailMerge() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ValidadorRapido validadorRapido = spy(new ValidadorRapido(validator, EmailDTO.class, EmailAwsDTO.class));
+        EmailLoteService servico = new EmailLoteServiceImpl(new EmailServiceImpl(validator), emailDispatcher,
+                providerRouter, validadorRapido, objectMapper);
+        when(emailDispatcher.temCapacidade()).thenReturn(true);
+        MalaDiretaDTO malaDireta = createMalaDireta(
+                new DestinatarioDTO("ana@example.com", "Ana"),
+                new DestinatarioDTO("invalido", "Bruno"),
+                null,
+                new DestinatarioDTO("carla@example.com", "a".repeat(61)), // válido no EmailDTO, não no EmailAwsDTO
+                new DestinatarioDTO("davi@example.com", "Davi"));
+
+        ResultadoLoteDTO resultado = servico.processarMalaDireta(malaDireta);
+
+        assertEquals(5, resultado.getTotal());
+        assertEquals(2, resultado.getAceitos());
+        assertEquals("Formato de email inválido", resultado.getItens().get(1).getErros().get(0));
+        assertEquals("Item vazio", resultado.getItens().get(2).getErros().get(0));
+        assertEquals("O nome do destinatário deve ter no máximo 60 caracteres",
+                resultado.getItens().get(3).getErros().get(0));
+        // remetente, assunto e conteúdo contra o EmailAwsDTO: uma vez para o lote inteiro
+        verify(validadorRapido, times(3)).validarValor(eq(EmailAwsDTO.class), anyString(), any());
+        verify(emailDispatcher).enfileirar(argThat(email -> "ana@example.com".equals(email.getDestinatarioEmail())
+                && email.getConteudo() == malaDireta.getConteudo()), eq(aws), any(EmailAwsDTO.class));
+    }
+
+    @Test
+    @DisplayName("Mala direta com conteúdo acima do limite do provedor deve recusar todos os destinatários dele")
+    void shouldRejectAllRecipientsWhenSharedContentExceedsProviderLimit() {
+        when(emailDispatcher.temCapacidade()).thenReturn(true);
+        MalaDiretaDTO malaDireta = createMalaDireta(
+                new DestinatarioDTO("ana@example.com", "Ana"), new DestinatarioDTO("bruno@example.com", "Bruno"));
+        malaDireta.setConteudo("a".repeat(300));
+
+        ResultadoLoteDTO resultado = emailLoteService.processarMalaDireta(malaDireta);
+
+        assertEquals(2, resultado.getRejeitados());
+        assertEquals(List.of("O conteúdo do email deve ter no máximo 256 caracteres"), resultado.getItens().get(0).getErros());
+        assertSame(resultado.getItens().get(0).getErros(), resultado.getItens().get(1).getErros());
+        verify(emailDispatcher, times(0)).enfileirar(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Mala direta com a fila travada deve esperar uma vez pela lista inteira e recusar o restante")
+    void shouldBoundQueueWaitForWholeMailMerge() {
+        when(emailDispatcher.temCapacidade()).thenReturn(false);
+        MalaDiretaDTO malaDireta = createMalaDireta(new DestinatarioDTO("ana@example.com", "Ana"),
+                new DestinatarioDTO("bruno@example.com", "Bruno"), new DestinatarioDTO("carla@example.com", "Carla"));
+
+        long inicio = System.nanoTime();
+        ResultadoLoteDTO resultado = emailLoteService.processarMalaDireta(malaDireta);
+
+        // Um único prazo (2 s), não um por destinatário
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(3, resultado.getRejeitados());
+        for (ResultadoItemDTO item : resultado.getItens()) {
+            assertEquals(List.of(new FilaCheiaException().getMessage()), item.getErros());
+        }
+        verify(emailDispatcher, times(0)).enfileirar(any(), any(), any());
+    }
+}
@@ -103,6 +103,22 @@ public class EmailServiceTest {
         assertEquals("Formato de email inválido", exception.getConstraintViolations().iterator().next().getMessage());
     }
 
+    @Test
+    @DisplayName("Deve aplicar os limites do provedor mesmo quando a entrada é válida")
+    void shouldApplyProviderLimitsWhenInputIsValid() {
+        EmailDTO emailDTO = createValidEmailDTO();
+        emailDTO.setConteudo("a".repeat(251)); // Cabe no EmailDTO (1000) e no AWS (256), não no OCI (250)
+
+        assertNotNull(emailService.adaptarEmailParaIntegracao(emailDTO, "AWS"));
+        ConstraintViolationException exception = assertThrows(ConstraintViolationException.class, () -> {
+            emailService.adaptarEmailParaIntegracao(emailDTO, "OCI");
+        });
+
+        assertEquals(1, exception.getConstraintViolations().size());
+        assertEquals("O corpo do email deve ter no máximo 250 caracteres",
+                exception.getConstraintViolations().iterator().next().getMessage());
+    }
+
     @Test
     @DisplayName("Deve lançar IllegalArgumentException para integração desconhecida")
     void shouldThrowIllegalArgumentExceptionForUnknownIntegration() {
@@ -0,0 +1,111 @@
+package com.viasoft.email.simulador;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimuladorProvedorTest {
+
+    private static final String AWS = """
+            {"recipient":"destinatario@teste.com","recipientName":"Destinatário","sender":"remetente@teste.com",
+            "subject":"Assunto","content":"Conteúdo"}""";
+
+    private static final String OCI = """
+            {"recipientEmail":"destinatario@teste.com","recipientName":"Destinatário","senderEmail":"remetente@teste.com",
+            "subject":"Assunto","body":"Corpo"}""";
+
+    private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private SimuladorProvedor simulador;
+
+    @AfterEach
+    void tearDown() {
+        if (simulador != null) {
+            simulador.close();
+        }
+    }
+
+    private ConfiguracaoSimulador semLatencia() {
+        ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+        config.setPorta(0);
+        config.setLatenciaMediana(Duration.ZERO);
+        config.setLatenciaP99(Duration.ZERO);
+        return config;
+    }
+
+    private HttpResponse<String> postar(String caminho, String corpo) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(URI.create(simulador.getUrl() + caminho))
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar os formatos AWS e OCI e recusar campo desconhecido ou faltando")
+    void shouldAcceptProviderWireFormats() throws Exception {
+        simulador = new SimuladorProvedor(semLatencia());
+
+        assertEquals(202, postar("/aws/emails", AWS).statusCode());
+        assertEquals(202, postar("/oci/emails", OCI).statusCode());
+        assertEquals(400, postar("/aws/emails", OCI).statusCode());
+        assertEquals(400, postar("/oci/emails", "{\"recipientEmail\":\"destinatario@teste.com\"}").statusCode());
+        assertEquals(400, postar("/aws/emails", "não é json").statusCode());
+        assertEquals(2L, simulador.getEstatisticas().get("aceitas"));
+        assertEquals(3L, simulador.getEstatisticas().get("invalidas"));
+    }
+
+    @Test
+    @DisplayName("Deve responder um status por mensagem no lote")
+    void shouldAnswerOneStatusPerBatchItem() throws Exception {
+        simulador = new SimuladorProvedor(semLatencia());
+
+        HttpResponse<String> resposta = postar("/aws/emails/lote", "[" + AWS + "," + OCI + "," + AWS + "]");
+
+        assertEquals(200, resposta.statusCode());
+        assertEquals("{\"resultados\":[202,400,202]}", resposta.body());
+    }
+
+    @Test
+    @DisplayName("Deve falhar com 503 na taxa de erro e 429 com Retry-After acima da cota")
+    void shouldSimulateErrorsAndThrottling() throws Exception {
+        ConfiguracaoSimulador config = semLatencia();
+        config.setTaxaErro(1.0);
+        config.setTaxaPorSegundo(0.001);
+        config.setRajada(1);
+        simulador = new SimuladorProvedor(config);
+
+        assertEquals(503, postar("/aws/emails", AWS).statusCode());
+        HttpResponse<String> limitada = postar("/aws/emails", AWS);
+
+        assertEquals(429, limitada.statusCode());
+        assertEquals("1", limitada.headers().firstValue("Retry-After").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve aplicar a latência sorteada e gotejar a resposta")
+    void shouldDelayAndDripResponses() throws Exception {
+        ConfiguracaoSimulador config = semLatencia();
+        config.setLatenciaMediana(Duration.ofMillis(30));
+        config.setLatenciaP99(Duration.ofMillis(30));
+        config.setTaxaGotejamento(1.0);
+        config.setIntervaloGotejamento(Duration.ofMillis(10));
+        simulador = new SimuladorProvedor(config);
+
+        long inicio = System.nanoTime();
+        HttpResponse<String> resposta = postar("/aws/emails", AWS);
+
+        // Latência + um intervalo por byte do corpo
+        long esperado = Duration.ofMillis(30 + 10L * resposta.body().length()).toNanos();
+        assertEquals(202, resposta.statusCode());
+        assertTrue(System.nanoTime() - inicio >= esperado);
+        assertEquals(1L, simulador.getEstatisticas().get("gotejadas"));
+    }
+}
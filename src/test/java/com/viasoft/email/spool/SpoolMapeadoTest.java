@@ -0,0 +1,220 @@
+package com.viasoft.email.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.email.dispatch.MensagemEmail;
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.OciProviderAdapter;
+import com.viasoft.email.provider.ProviderRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpoolMapeadoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SpoolMapeado abrir(int tamanhoSegmento) throws Exception {
+        return new SpoolMapeado(diretorio, tamanhoSegmento, Duration.ofMillis(5), objectMapper, ProviderRegistry.padrao());
+    }
+
+    private MensagemEmail mensagem(String id) {
+        EmailDTO original = new EmailDTO();
+        original.setDestinatarioEmail("destinatario@teste.com");
+        original.setDestinatarioNome("Destinatário");
+        original.setRemetenteEmail("remetente@teste.com");
+        original.setAssunto("Assunto " + id);
+        original.setConteudo("Conteúdo");
+        EmailAwsDTO adaptado = new EmailAwsDTO();
+        adaptado.setRecipient(original.getDestinatarioEmail());
+        adaptado.setRecipientName(original.getDestinatarioNome());
+        adaptado.setSender(original.getRemetenteEmail());
+        adaptado.setSubject(original.getAssunto());
+        adaptado.setContent(original.getConteudo());
+        return new MensagemEmail(id, original, new AwsProviderAdapter(), adaptado);
+    }
+
+    private long arquivos() throws Exception {
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            return listagem.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recuperar na reabertura as mensagens gravadas e não confirmadas")
+    void shouldRecoverUnconfirmedMessages() throws Exception {
+        SpoolMapeado spool = abrir(64 * 1024);
+        spool.gravar(mensagem("1"));
+        spool.gravar(mensagem("2"));
+        spool.gravar(mensagem("3"));
+        spool.confirmar("2");
+        spool.close();
+
+        SpoolMapeado reaberto = abrir(64 * 1024);
+        List<MensagemEmail> recuperadas = reaberto.recuperar();
+
+        assertEquals(List.of("1", "3"), recuperadas.stream().map(MensagemEmail::id).toList());
+        MensagemEmail primeira = recuperadas.get(0);
+        assertEquals("AWS", primeira.provider().getIntegracao());
+        assertEquals("Assunto 1", primeira.original().getAssunto());
+        assertEquals("Assunto 1", assertInstanceOf(EmailAwsDTO.class, primeira.emailAdaptado()).getSubject());
+        assertEquals(2, reaberto.getPendentes());
+        // Devolvidas uma única vez
+        assertTrue(reaberto.recuperar().isEmpty());
+        reaberto.close();
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir o DTO adaptado do provedor registrado na mensagem")
+    void shouldRecoverAdaptedDtoOfEachProvider() throws Exception {
+        SpoolMapeado spool = abrir(64 * 1024);
+        OciProviderAdapter oci = new OciProviderAdapter();
+        EmailDTO original = mensagem("oci").original();
+        spool.gravar(new MensagemEmail("oci", original, oci, oci.adaptar(original)));
+        spool.close();
+
+        SpoolMapeado reaberto = abrir(64 * 1024);
+        MensagemEmail recuperada = reaberto.recuperar().get(0);
+
+        assertEquals("OCI", recuperada.provider().getIntegracao());
+        assertEquals("Assunto oci", assertInstanceOf(EmailOciDTO.class, recuperada.emailAdaptado()).getSubject());
+        reaberto.close();
+    }
+
+    @Test
+    @DisplayName("Deve abrir novos segmentos e apagar os antigos levando adiante só as mensagens pendentes")
+    void shouldRotateAndCompactSegments() throws Exception {
+        SpoolMapeado spool = abrir(4 * 1024);
+        for (int i = 0; i < 200; i++) {
+            spool.gravar(mensagem(String.valueOf(i)));
+            if (i != 7 && i != 150) {
+                spool.confirmar(String.valueOf(i));
+            }
+        }
+        // A compactação roda na thread do spool; espera os segmentos antigos sumirem
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (spool.getSegmentos() > 1 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, spool.getSegmentos());
+        assertEquals(1, arquivos());
+        spool.close();
+
+        SpoolMapeado reaberto = abrir(4 * 1024);
+        assertEquals(List.of("7", "150"), reaberto.recuperar().stream().map(MensagemEmail::id).toList());
+        reaberto.close();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar um registro corrompido no fim do segmento (gravação interrompida)")
+    void shouldIgnoreTornRecordAtEnd() throws Exception {
+        SpoolMapeado spool = abrir(64 * 1024);
+        spool.gravar(mensagem("1"));
+        spool.close();
+        Path segmento;
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            segmento = listagem.sorted().findFirst().orElseThrow();
+        }
+        // Tamanho escrito, mas CRC e dados não chegaram ao disco
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(4).putInt(0, 40);
+            long fim = primeiroLivre(canal);
+            canal.write(cabecalho, fim);
+        }
+
+        SpoolMapeado reaberto = abrir(64 * 1024);
+        assertEquals(List.of("1"), reaberto.recuperar().stream().map(MensagemEmail::id).toList());
+        reaberto.close();
+    }
+
+    private static long primeiroLivre(FileChannel canal) throws Exception {
+        ByteBuffer inteiro = ByteBuffer.allocate(4);
+        long posicao = 0;
+        while (true) {
+            inteiro.clear();
+            canal.read(inteiro, posicao);
+            int tamanho = inteiro.getInt(0);
+            if (tamanho == 0) {
+                return posicao;
+            }
+            posicao += Segmento.tamanhoRegistro(tamanho);
+        }
+    }
+
+    @Test
+    @DisplayName("Gravações simultâneas devem todas sobreviver à reabertura")
+    void shouldPersistConcurrentWrites() throws Exception {
+        SpoolMapeado spool = abrir(256 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    spool.gravar(mensagem(thread + "-" + i));
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+        spool.close();
+
+        SpoolMapeado reaberto = abrir(256 * 1024);
+        assertEquals(2000, reaberto.recuperar().size());
+        reaberto.close();
+    }
+
+    @Test
+    @DisplayName("Uma falha de fsync deve recusar só a gravação afetada, não as seguintes")
+    void shouldRecoverFromTransientSyncFailure() throws Exception {
+        AtomicBoolean falhar = new AtomicBoolean(true);
+        SpoolMapeado spool = new SpoolMapeado(diretorio, 64 * 1024, Duration.ofMillis(5), objectMapper,
+                ProviderRegistry.padrao()) {
+            @Override
+            void forcar(Segmento segmento, int ate) {
+                if (falhar.getAndSet(false)) {
+                    throw new UncheckedIOException(new IOException("Disco cheio"));
+                }
+                super.forcar(segmento, ate);
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> spool.gravar(mensagem("1")));
+        spool.gravar(mensagem("2"));
+        spool.gravar(mensagem("3"));
+        spool.close();
+
+        // A mensagem recusada foi para o disco na nova tentativa; reenviá-la é o at-least-once de sempre
+        SpoolMapeado reaberto = abrir(64 * 1024);
+        assertEquals(List.of("1", "2", "3"), reaberto.recuperar().stream().map(MensagemEmail::id).toList());
+        reaberto.close();
+    }
+}
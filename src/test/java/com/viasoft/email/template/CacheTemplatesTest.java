@@ -0,0 +1,98 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.exception.TemplateInvalidoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheTemplatesTest {
+
+    @TempDir
+    Path diretorio;
+
+    private CacheTemplates cache;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        cache.close();
+    }
+
+    private void gravar(String id, String fonte) throws IOException {
+        Files.writeString(diretorio.resolve(id + CacheTemplates.EXTENSAO), fonte);
+    }
+
+    @Test
+    @DisplayName("Deve substituir as variáveis e compilar o template uma única vez")
+    void shouldRenderAndCacheCompiledTemplate() throws IOException {
+        gravar("pedido", "Olá, {{nome}}! Pedido {{ pedido }} recebido. {{nome}}, obrigado.");
+        cache = new CacheTemplates(diretorio, 10);
+
+        String conteudo = cache.renderizar("pedido", Map.of("nome", "Ana", "pedido", "123"));
+
+        assertEquals("Olá, Ana! Pedido 123 recebido. Ana, obrigado.", conteudo);
+        assertSame(cache.obter("pedido"), cache.obter("pedido"));
+    }
+
+    @Test
+    @DisplayName("Template desconhecido, id inválido, variável faltando ou '{{' sem fechar devem ser recusados")
+    void shouldRejectInvalidTemplates() throws IOException {
+        gravar("aberto", "Olá, {{nome");
+        gravar("pedido", "Pedido {{pedido}}");
+        cache = new CacheTemplates(diretorio, 10);
+
+        assertEquals("Template desconhecido: nao-existe",
+                assertThrows(TemplateInvalidoException.class, () -> cache.renderizar("nao-existe", Map.of())).getMessage());
+        assertThrows(TemplateInvalidoException.class, () -> cache.renderizar("../segredo", Map.of()));
+        assertThrows(TemplateInvalidoException.class, () -> cache.renderizar("aberto", Map.of("nome", "Ana")));
+        assertEquals("Variável 'pedido' não informada para o template pedido",
+                assertThrows(TemplateInvalidoException.class, () -> cache.renderizar("pedido", Map.of())).getMessage());
+        assertEquals(1, cache.getTamanho());
+    }
+
+    @Test
+    @DisplayName("Acima da capacidade deve sair o template usado há mais tempo")
+    void shouldEvictLeastRecentlyUsed() throws IOException {
+        gravar("a", "A");
+        gravar("b", "B");
+        gravar("c", "C");
+        cache = new CacheTemplates(diretorio, 2);
+
+        TemplateCompilado a = cache.obter("a");
+        cache.obter("b");
+        cache.obter("a");
+        cache.obter("c");
+
+        assertEquals(2, cache.getTamanho());
+        assertSame(a, cache.obter("a"));
+    }
+
+    @Test
+    @DisplayName("Alterar o arquivo deve recompilar o template no próximo uso")
+    void shouldReloadChangedTemplate() throws Exception {
+        gravar("aviso", "Versão 1");
+        cache = new CacheTemplates(diretorio, 10);
+        assertEquals("Versão 1", cache.renderizar("aviso", Map.of()));
+
+        gravar("aviso", "Versão 2 para {{nome}}");
+
+        long limite = System.nanoTime() + 10_000_000_000L;
+        String conteudo = cache.renderizar("aviso", Map.of("nome", "Ana"));
+        while (!conteudo.startsWith("Versão 2") && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            conteudo = cache.renderizar("aviso", Map.of("nome", "Ana"));
+        }
+        assertEquals("Versão 2 para Ana", conteudo);
+        assertTrue(cache.getTamanho() <= 1);
+    }
+}
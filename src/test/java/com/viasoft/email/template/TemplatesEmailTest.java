@@ -0,0 +1,51 @@
+package com.viasoft.email.template;
+
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.exception.TemplateInvalidoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TemplatesEmailTest {
+
+    private final TemplatesEmail templates = (id, variaveis) ->
+            TemplateCompilado.compilar(id, "Olá, {{nome}}!").renderizar(variaveis);
+
+    @Test
+    @DisplayName("Deve preencher conteudo com o template renderizado e limpar template e variáveis")
+    void shouldFillContentAndClearTemplate() {
+        EmailDTO email = new EmailDTO();
+        email.setTemplate("boas-vindas");
+        email.setVariaveis(Map.of("nome", "Ana"));
+
+        assertSame(email, templates.aplicar(email));
+
+        assertEquals("Olá, Ana!", email.getConteudo());
+        assertNull(email.getTemplate());
+        assertNull(email.getVariaveis());
+    }
+
+    @Test
+    @DisplayName("Email sem template passa direto; conteudo e template juntos, ou templates desligados, são recusados")
+    void shouldRejectAmbiguousOrDisabledTemplates() {
+        EmailDTO semTemplate = new EmailDTO();
+        semTemplate.setConteudo("Texto pronto");
+        templates.aplicar(semTemplate);
+        assertEquals("Texto pronto", semTemplate.getConteudo());
+
+        EmailDTO ambos = new EmailDTO();
+        ambos.setConteudo("Texto pronto");
+        ambos.setTemplate("boas-vindas");
+        assertThrows(TemplateInvalidoException.class, () -> templates.aplicar(ambos));
+
+        EmailDTO desligado = new EmailDTO();
+        desligado.setTemplate("boas-vindas");
+        assertThrows(TemplateInvalidoException.class, () -> TemplatesEmail.NENHUM.aplicar(desligado));
+    }
+}
@@ -0,0 +1,204 @@
+package com.viasoft.email.validation;
+
+import com.viasoft.email.dto.EmailAwsDTO;
+import com.viasoft.email.dto.EmailDTO;
+import com.viasoft.email.dto.EmailOciDTO;
+import com.viasoft.email.provider.AwsProviderAdapter;
+import com.viasoft.email.provider.OciProviderAdapter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidadorRapidoTest {
+
+    private Validator validator;
+    private ValidadorRapido validadorRapido;
+
+    @BeforeEach
+    void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validadorRapido = new ValidadorRapido(validator, EmailDTO.class, EmailAwsDTO.class);
+    }
+
+    private EmailAwsDTO createValidAwsDTO() {
+        EmailAwsDTO dto = new EmailAwsDTO();
+        dto.setRecipient("destinatario@teste.com");
+        dto.setRecipientName("Destinatário Teste");
+        dto.setSender("remetente@teste.com");
+        dto.setSubject("Assunto");
+        dto.setContent("Conteúdo");
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Deve aceitar DTO válido sem passar pelo validator completo")
+    void shouldAcceptValidDtoOnFastPath() {
+        assertTrue(validadorRapido.valido(createValidAwsDTO()));
+        assertTrue(validadorRapido.validar(createValidAwsDTO()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve devolver as mesmas violações do Hibernate Validator quando o DTO é inválido")
+    void shouldReturnSameViolationsAsHibernate() {
+        EmailAwsDTO dto = createValidAwsDTO();
+        dto.setRecipient("email-invalido");
+        dto.setRecipientName("a".repeat(61));
+        dto.setSubject("   ");
+
+        assertFalse(validadorRapido.valido(dto));
+        assertEquals(mensagens(validator.validate(dto)), mensagens(validadorRapido.validar(dto)));
+    }
+
+    @Test
+    @DisplayName("Nunca deve aceitar um valor que o Hibernate Validator rejeita")
+    void shouldNeverAcceptWhatHibernateRejects() {
+        String[] emails = {
+                "a@b", "a@b.c", "a.b@c.d", ".a@b.c", "a.@b.c", "a..b@c.d", "a@-b.c", "a@b-.c", "a@b..c",
+                "a@b.c.", "@b.c", "a@", "a b@c.d", "\"a b\"@c.d", "a@[127.0.0.1]", "a@ção.com", "a@b_c.d",
+                "x".repeat(64) + "@b.c", "x".repeat(65) + "@b.c", "a@" + "b".repeat(63) + ".c",
+                "a@" + "b".repeat(64) + ".c", "a+tag@b.c", "a@b@c.d", "", " ", "\t"
+        };
+        for (String email : emails) {
+            EmailDTO dto = new EmailDTO();
+            dto.setDestinatarioEmail(email);
+            dto.setDestinatarioNome("Nome");
+            dto.setRemetenteEmail("remetente@teste.com");
+            dto.setAssunto("Assunto");
+            dto.setConteudo("Conteúdo");
+
+            if (validadorRapido.valido(dto)) {
+                assertTrue(validator.validate(dto).isEmpty(), "Aceito indevidamente: " + email);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve provar entrada e DTO do provedor numa única passada com os limites mais restritos")
+    void shouldCombineSourceAndProviderLimits() {
+        OciProviderAdapter oci = new OciProviderAdapter();
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario@teste.com");
+        dto.setDestinatarioNome("Nome");
+        dto.setRemetenteEmail("remetente@teste.com");
+        dto.setAssunto("Assunto");
+        dto.setConteudo("a".repeat(250));
+
+        assertTrue(validadorRapido.validoPara(dto, EmailOciDTO.class, oci.getMapeamentoCampos()));
+
+        dto.setConteudo("a".repeat(251));
+        assertTrue(validadorRapido.valido(dto));
+        assertFalse(validadorRapido.validoPara(dto, EmailOciDTO.class, oci.getMapeamentoCampos()));
+        assertFalse(validator.validate(oci.adaptar(dto)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve usar o plano do mapeamento pedido, não o primeiro usado para o mesmo DTO do provedor")
+    void shouldKeyCombinedPlanByMapping() {
+        AwsProviderAdapter aws = new AwsProviderAdapter();
+        Map<String, String> trocado = Map.of(
+                "recipient", "destinatarioEmail",
+                "recipientName", "conteudo",
+                "sender", "remetenteEmail",
+                "subject", "assunto",
+                "content", "destinatarioNome");
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario@teste.com");
+        dto.setDestinatarioNome("a".repeat(55));
+        dto.setRemetenteEmail("remetente@teste.com");
+        dto.setAssunto("Assunto");
+        dto.setConteudo("a".repeat(100));
+
+        assertTrue(validadorRapido.validoPara(dto, EmailAwsDTO.class, aws.getMapeamentoCampos()));
+        // recipientName recebe 100 caracteres com limite de 60
+        assertFalse(validadorRapido.validoPara(dto, EmailAwsDTO.class, trocado));
+        assertTrue(validadorRapido.validoPara(dto, EmailAwsDTO.class, aws.getMapeamentoCampos()));
+    }
+
+    @Test
+    @DisplayName("Verificação restrita deve olhar só os campos pedidos, com os limites do provedor")
+    void shouldVerifyOnlyRequestedFields() {
+        OciProviderAdapter oci = new OciProviderAdapter();
+        Predicate<Object> destinatario = validadorRapido.verificacaoPara(EmailDTO.class, EmailOciDTO.class,
+                oci.getMapeamentoCampos(), Set.of("destinatarioEmail", "destinatarioNome"));
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario@teste.com");
+        dto.setDestinatarioNome("Nome");
+        // Campos comuns ausentes não contam: já foram validados à parte
+
+        assertTrue(destinatario.test(dto));
+        dto.setDestinatarioNome("a".repeat(51));
+        assertFalse(destinatario.test(dto));
+        assertFalse(validadorRapido.verificacaoPara(EmailDTO.class, EmailAwsDTO.class,
+                Map.of("recipient", "destinatarioEmail"), Set.of("destinatarioEmail")).test(dto));
+    }
+
+    @Test
+    @DisplayName("Não deve provar nada quando o mapeamento de campos do provedor é incompleto")
+    void shouldNotCombineWithIncompleteMapping() {
+        EmailDTO dto = new EmailDTO();
+        dto.setDestinatarioEmail("destinatario@teste.com");
+        dto.setDestinatarioNome("Nome");
+        dto.setRemetenteEmail("remetente@teste.com");
+        dto.setAssunto("Assunto");
+        dto.setConteudo("Conteúdo");
+
+        assertFalse(validadorRapido.validoPara(dto, EmailAwsDTO.class, Map.of("recipient", "destinatarioEmail")));
+    }
+
+    @Test
+    @DisplayName("Deve delegar classes com constraints que o caminho rápido não cobre")
+    void shouldDelegateUnsupportedConstraints() {
+        ComPattern dto = new ComPattern();
+        dto.codigo = "abc";
+
+        assertFalse(validadorRapido.suporta(ComPattern.class));
+        assertEquals(1, validadorRapido.validar(dto).size());
+    }
+
+    @Test
+    @DisplayName("Não deve alocar memória ao validar um DTO válido")
+    void shouldNotAllocateOnSuccess() {
+        EmailAwsDTO dto = createValidAwsDTO();
+        for (int i = 0; i < 20_000; i++) {
+            validadorRapido.valido(dto);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long antes = threads.getThreadAllocatedBytes(thread);
+        boolean todosValidos = true;
+        for (int i = 0; i < 10_000; i++) {
+            todosValidos &= validadorRapido.valido(dto);
+        }
+        long alocado = threads.getThreadAllocatedBytes(thread) - antes;
+
+        assertTrue(todosValidos);
+        // Margem para a própria chamada de medição; uma alocação por validação passaria de 100 KB
+        assertTrue(alocado < 4_096, "Bytes alocados: " + alocado);
+    }
+
+    private static Set<String> mensagens(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.toSet());
+    }
+
+    static class ComPattern {
+        @Pattern(regexp = "[0-9]+")
+        String codigo;
+    }
+}